@@ -154,7 +154,7 @@ async function fetchJsonWithAuth(url: string, options: RequestInit = {}): Promis
 }
 
 // Import types for proper typing
-import type { Reservation, FormConstraint, BlockedPeriod, EmailAttachment, CateringEmailRequest, CalendarAppointment } from '../types/reservation';
+import type { Reservation, ReservationSearchFilters, ReservationSearchResponse, FormConstraint, BlockedPeriod, EmailAttachment, CateringEmailRequest, CalendarAppointment } from '../types/reservation';
 import type { AuditLogEntry, AuditLogPageResponse, AuditLogFilters } from '../types/audit';
 
 // API Functions
@@ -162,6 +162,22 @@ export async function fetchReservations(): Promise<Reservation[]> {
   return fetchJsonWithAuth(`${API_BASE_URL}/api/reservations`) as Promise<Reservation[]>;
 }
 
+export async function searchReservations(filters: ReservationSearchFilters = {}): Promise<ReservationSearchResponse> {
+  const params = new URLSearchParams();
+  filters.status?.forEach(status => params.append('status', status));
+  if (filters.location) params.set('location', filters.location);
+  if (filters.from) params.set('from', filters.from);
+  if (filters.to) params.set('to', filters.to);
+  if (filters.catering != null) params.set('catering', String(filters.catering));
+  if (filters.q) params.set('q', filters.q);
+  if (filters.page != null) params.set('page', String(filters.page));
+  if (filters.size != null) params.set('size', String(filters.size));
+  if (filters.sort) params.set('sort', filters.sort);
+  if (filters.direction) params.set('direction', filters.direction);
+  const qs = params.toString();
+  return fetchJsonWithAuth(`${API_BASE_URL}/api/reservations/search${qs ? `?${qs}` : ''}`) as Promise<ReservationSearchResponse>;
+}
+
 export async function fetchReservation(id: number): Promise<Reservation | null> {
   return fetchJsonWithAuth(`${API_BASE_URL}/api/reservations/${id}`) as Promise<Reservation | null>;
 }
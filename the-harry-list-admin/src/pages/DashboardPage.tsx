@@ -4,8 +4,8 @@ import {
   Calendar, Clock, Users, CheckCircle, XCircle,
   AlertCircle, Loader2, TrendingUp
 } from 'lucide-react';
-import { fetchReservations } from '../lib/api';
-import type { Reservation } from '../types/reservation';
+import { searchReservations } from '../lib/api';
+import type { ReservationSummary } from '../types/reservation';
 import { HelpGuide } from '../components/HelpGuide';
 import { dashboardGuide } from '../lib/guideContent';
 
@@ -13,40 +13,44 @@ interface Stats {
   total: number;
   pending: number;
   confirmed: number;
-  rejected: number;
   upcoming: number;
 }
 
+const LIST_SIZE = 5;
+
+function toLocalDateString(date: Date): string {
+  return `${date.getFullYear()}-${String(date.getMonth() + 1).padStart(2, '0')}-${String(date.getDate()).padStart(2, '0')}`;
+}
+
 export function DashboardPage() {
-  const [reservations, setReservations] = useState<Reservation[]>([]);
+  const [stats, setStats] = useState<Stats>({ total: 0, pending: 0, confirmed: 0, upcoming: 0 });
+  const [recentReservations, setRecentReservations] = useState<ReservationSummary[]>([]);
+  const [pendingReservations, setPendingReservations] = useState<ReservationSummary[]>([]);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
 
+  // The counts come from each search's totalElements, so only the rows shown are loaded
   useEffect(() => {
-    fetchReservations()
-      .then(data => setReservations(data))
+    Promise.all([
+      searchReservations({ size: LIST_SIZE, sort: 'eventDate', direction: 'DESC' }),
+      searchReservations({ status: ['PENDING'], size: LIST_SIZE, sort: 'createdAt', direction: 'ASC' }),
+      searchReservations({ status: ['CONFIRMED'], size: 1 }),
+      searchReservations({ status: ['CONFIRMED'], from: toLocalDateString(new Date()), size: 1 }),
+    ])
+      .then(([recent, pending, confirmed, upcoming]) => {
+        setStats({
+          total: recent.totalElements,
+          pending: pending.totalElements,
+          confirmed: confirmed.totalElements,
+          upcoming: upcoming.totalElements,
+        });
+        setRecentReservations(recent.content);
+        setPendingReservations(pending.content);
+      })
       .catch(err => setError(err instanceof Error ? err.message : 'Failed to load reservations'))
       .finally(() => setIsLoading(false));
   }, []);
 
-  const stats: Stats = {
-    total: reservations.length,
-    pending: reservations.filter(r => r.status === 'PENDING').length,
-    confirmed: reservations.filter(r => r.status === 'CONFIRMED').length,
-    rejected: reservations.filter(r => r.status === 'REJECTED').length,
-    upcoming: reservations.filter(r => {
-      const eventDate = new Date(r.eventDate);
-      const now = new Date();
-      return eventDate >= now && r.status === 'CONFIRMED';
-    }).length,
-  };
-
-  const recentReservations = [...reservations]
-    .sort((a, b) => new Date(b.eventDate).getTime() - new Date(a.eventDate).getTime())
-    .slice(0, 5);
-
-  const pendingReservations = reservations.filter(r => r.status === 'PENDING').slice(0, 5);
-
   if (isLoading) {
     return (
       <div className="flex items-center justify-center h-64">
@@ -2,35 +2,41 @@ import { describe, it, expect, vi, beforeEach } from 'vitest';
 import { render, waitFor } from '@testing-library/react';
 import { BrowserRouter } from 'react-router-dom';
 import { DashboardPage } from '../pages/DashboardPage';
+import { searchReservations } from '../lib/api';
 
 // Mock the API
+const reservations = vi.hoisted(() => [
+  {
+    id: 1,
+    eventTitle: 'Test Event',
+    contactName: 'John Doe',
+    email: 'john@example.com',
+    status: 'PENDING',
+    eventDate: '2026-02-20',
+    startTime: '14:00:00',
+    endTime: '17:00:00',
+    location: 'HUBBLE',
+    expectedGuests: 20,
+  },
+  {
+    id: 2,
+    eventTitle: 'Confirmed Event',
+    contactName: 'Jane Smith',
+    email: 'jane@example.com',
+    status: 'CONFIRMED',
+    eventDate: '2026-02-21',
+    startTime: '10:00:00',
+    endTime: '12:00:00',
+    location: 'METEOR',
+    expectedGuests: 15,
+  },
+]);
+
 vi.mock('../lib/api', () => ({
-  fetchReservations: vi.fn().mockResolvedValue([
-    {
-      id: 1,
-      eventTitle: 'Test Event',
-      contactName: 'John Doe',
-      email: 'john@example.com',
-      status: 'PENDING',
-      eventDate: '2026-02-20',
-      startTime: '14:00:00',
-      endTime: '17:00:00',
-      location: 'HUBBLE',
-      expectedGuests: 20,
-    },
-    {
-      id: 2,
-      eventTitle: 'Confirmed Event',
-      contactName: 'Jane Smith',
-      email: 'jane@example.com',
-      status: 'CONFIRMED',
-      eventDate: '2026-02-21',
-      startTime: '10:00:00',
-      endTime: '12:00:00',
-      location: 'METEOR',
-      expectedGuests: 15,
-    },
-  ]),
+  searchReservations: vi.fn().mockImplementation(async ({ status }: { status?: string[] } = {}) => {
+    const content = reservations.filter(r => !status || status.includes(r.status));
+    return { content, page: 0, size: 5, totalElements: content.length, totalPages: 1 };
+  }),
 }));
 
 const renderWithRouter = (component: React.ReactNode) => {
@@ -69,5 +75,14 @@ describe('DashboardPage', () => {
       expect(document.body.textContent).toMatch(/pending|confirmed|reservation/i);
     }, { timeout: 3000 });
   });
+
+  it('loads pages from the search endpoint instead of every reservation', async () => {
+    renderWithRouter(<DashboardPage />);
+
+    await waitFor(() => {
+      expect(document.body.textContent).toMatch(/Test Event/);
+    }, { timeout: 3000 });
+    expect(searchReservations).toHaveBeenCalledWith(expect.objectContaining({ status: ['PENDING'], size: 5 }));
+  });
 });
 
@@ -32,6 +32,54 @@ export interface Reservation {
   cateringArranged?: boolean;
 }
 
+// Slim row of the paged reservation search — mirrors the backend ReservationSummary DTO.
+// Long text fields (description, comments, notes, ...) are left out; fetch by id for those.
+export interface ReservationSummary {
+  id: number;
+  confirmationNumber?: string;
+  eventTitle: string;
+  contactName: string;
+  email: string;
+  phoneNumber?: string;
+  organizationName?: string;
+  eventDate: string;
+  startTime: string;
+  endTime: string;
+  location: string;
+  seatingArea?: string;
+  status: string;
+  expectedGuests: number;
+  paymentOption?: string;
+  confirmedBy?: string;
+  createdAt?: string;
+  updatedAt?: string;
+  specialActivities?: string[];
+  cateringArranged?: boolean;
+  conflictingReservationIds?: number[];
+  conflictingAppointmentIds?: number[];
+}
+
+export interface ReservationSearchFilters {
+  status?: string[];
+  location?: string;
+  from?: string;
+  to?: string;
+  catering?: boolean;
+  q?: string;
+  page?: number;
+  size?: number;
+  sort?: string;
+  direction?: 'ASC' | 'DESC';
+}
+
+export interface ReservationSearchResponse {
+  content: ReservationSummary[];
+  page: number;
+  size: number;
+  totalElements: number;
+  totalPages: number;
+}
+
 export interface FormConstraint {
   id?: number;
   constraintType: string;
@@ -0,0 +1,69 @@
+package com.pimvanleeuwen.the_harry_list_backend.config;
+
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentContentRepository;
+import com.pimvanleeuwen.the_harry_list_backend.service.AttachmentContentStorage;
+import com.pimvanleeuwen.the_harry_list_backend.service.AttachmentContentStorage.StoredContent;
+import com.pimvanleeuwen.the_harry_list_backend.service.FilesystemAttachmentContentStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Moves attachment content from the {@code email_attachment_contents} table to the
+ * filesystem when {@code app.mail.attachments.storage=filesystem} (on startup, after
+ * {@link EmailAttachmentContentMigration}).
+ *
+ * <p>Each content is written to {@link FilesystemAttachmentContentStorage}, checked
+ * against its hash, and only then deleted from the table, one at a time. A content that
+ * fails is left in the table and logged; the next start tries again.
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "app.mail.attachments.storage", havingValue = "filesystem")
+public class AttachmentStorageMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentStorageMigration.class);
+
+    private final EmailAttachmentContentRepository contentRepository;
+    private final AttachmentContentStorage storage;
+
+    public AttachmentStorageMigration(EmailAttachmentContentRepository contentRepository,
+                                      AttachmentContentStorage storage) {
+        this.contentRepository = contentRepository;
+        this.storage = storage;
+    }
+
+    @Override
+    public void run(String... args) {
+        List<String> hashes = contentRepository.findAllSha256();
+        if (hashes.isEmpty()) {
+            return;
+        }
+        int moved = 0;
+        for (String sha256 : hashes) {
+            try {
+                if (!storage.exists(sha256)) {
+                    byte[] data = contentRepository.findById(sha256).orElseThrow().getData();
+                    StoredContent stored = storage.put(new ByteArrayInputStream(data));
+                    if (!stored.sha256().equals(sha256)) {
+                        // Corrupt row: keep it where it is rather than lose the original
+                        logger.error("Attachment content {} does not match its hash, left in the database", sha256);
+                        continue;
+                    }
+                }
+                contentRepository.deleteById(sha256);
+                moved++;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to move attachment content {} to the filesystem", sha256, e);
+            }
+        }
+        logger.info("Moved {} of {} attachment content(s) from the database to the filesystem", moved, hashes.size());
+    }
+}
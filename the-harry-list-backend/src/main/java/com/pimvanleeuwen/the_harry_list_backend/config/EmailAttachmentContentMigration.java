@@ -0,0 +1,99 @@
+package com.pimvanleeuwen.the_harry_list_backend.config;
+
+import com.pimvanleeuwen.the_harry_list_backend.service.EmailAttachmentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Copies attachment bytes still held in the legacy {@code email_attachments.data} column
+ * into {@code email_attachment_contents} (all profiles, on startup).
+ *
+ * <p>In production the table and columns are created by hand before deploying, and the
+ * backfill runs there as SQL (see {@code docs/migration-email-attachment-content.md});
+ * this catches attachments uploaded by the old backend in between. In dev, Hibernate's
+ * schema update adds the table and columns, and this does the whole backfill.
+ *
+ * <p>Rows are copied one at a time, so memory stays bounded by one file, and the hash is
+ * recorded on the attachment last, so an interrupted run simply continues on the next
+ * start. New uploads no longer write {@code data}, so a NOT NULL constraint on it is
+ * relaxed. The column itself is never dropped here: that is a separate, manual step once
+ * the copy has been checked. Does nothing once the column is gone.
+ */
+@Component
+@Order(0)
+public class EmailAttachmentContentMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailAttachmentContentMigration.class);
+
+    private static final String TABLE = "email_attachments";
+    private static final String LEGACY_COLUMN = "data";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmailAttachmentContentMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        Boolean nullable = legacyColumnNullable();
+        if (nullable == null) {
+            return;
+        }
+        if (!nullable) {
+            jdbcTemplate.execute("ALTER TABLE email_attachments MODIFY data LONGBLOB NULL");
+            logger.info("Made email_attachments.data nullable; new attachments are stored in email_attachment_contents");
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM email_attachments WHERE sha256 IS NULL AND data IS NOT NULL", Long.class);
+        for (Long id : ids) {
+            byte[] data = jdbcTemplate.queryForObject(
+                    "SELECT data FROM email_attachments WHERE id = ?", byte[].class, id);
+            String sha256 = EmailAttachmentStore.sha256Hex(data);
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM email_attachment_contents WHERE sha256 = ?", Integer.class, sha256);
+            if (existing == null || existing == 0) {
+                jdbcTemplate.update(
+                        "INSERT INTO email_attachment_contents (sha256, data, size_bytes, created_at) "
+                                + "VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+                        sha256, data, data.length);
+            }
+            jdbcTemplate.update("UPDATE email_attachments SET sha256 = ?, size_bytes = ? WHERE id = ?",
+                    sha256, data.length, id);
+        }
+
+        if (!ids.isEmpty()) {
+            logger.info("Copied {} email attachment(s) to email_attachment_contents; drop email_attachments.data "
+                    + "once they are checked (docs/migration-email-attachment-content.md)", ids.size());
+        }
+    }
+
+    /** Whether {@code email_attachments.data} accepts NULL, or {@code null} if the column is gone. */
+    private Boolean legacyColumnNullable() {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Unquoted identifiers are stored upper case by some databases (H2), as written by others
+            Boolean nullable = columnNullable(metaData, connection.getCatalog(), TABLE, LEGACY_COLUMN);
+            return nullable != null ? nullable
+                    : columnNullable(metaData, connection.getCatalog(), TABLE.toUpperCase(), LEGACY_COLUMN.toUpperCase());
+        });
+    }
+
+    private static Boolean columnNullable(DatabaseMetaData metaData, String catalog, String table, String column)
+            throws SQLException {
+        try (ResultSet columns = metaData.getColumns(catalog, null, table, column)) {
+            return columns.next() ? columns.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls : null;
+        }
+    }
+}
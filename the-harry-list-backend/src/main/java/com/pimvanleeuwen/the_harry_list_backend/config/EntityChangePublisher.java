@@ -0,0 +1,172 @@
+package com.pimvanleeuwen.the_harry_list_backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bridges Hibernate's entity lifecycle events to Spring {@link EntityChangedEvent}s.
+ *
+ * <p>Every insert, update and delete (including changes to collections) is caught here,
+ * whichever service, controller or job made it. The event is published once per entity
+ * type <em>after</em> the surrounding transaction commits, so a listener that reloads from
+ * the database always sees the new state, together with the ids of every entity of that
+ * type the transaction touched. Rolled-back transactions publish nothing.
+ *
+ * <p>Bulk JPQL/SQL statements bypass Hibernate's entity events; code that uses them must
+ * report the change itself through {@link #changed(Class, Collection)}, or
+ * {@link #changed(Class)} when it cannot tell which entities changed.
+ */
+@Component
+public class EntityChangePublisher implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityChangePublisher.class);
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EntityChangePublisher(EntityManagerFactory entityManagerFactory, ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        collectionChanged(event);
+    }
+
+    private void collectionChanged(AbstractCollectionEvent event) {
+        Class<?> ownerType = event.getCollectionPersister().getOwnerEntityPersister().getMappedClass();
+        Object ownerId = event.getAffectedOwnerIdOrNull();
+        if (ownerId != null) {
+            changed(ownerType, ownerId);
+        } else {
+            changed(ownerType);
+        }
+    }
+
+    /**
+     * Queue a change to unknown entities of {@code entityType} (see
+     * {@link EntityChangedEvent#ids}) for publication when the current transaction
+     * commits, or publish straight away when there is no transaction to wait for.
+     */
+    public void changed(Class<?> entityType) {
+        record(entityType, null);
+    }
+
+    /** Like {@link #changed(Class)}, for the entities with the given ids. */
+    public void changed(Class<?> entityType, Collection<?> ids) {
+        record(entityType, ids);
+    }
+
+    private void changed(Class<?> entityType, Object id) {
+        record(entityType, List.of(id));
+    }
+
+    /** {@code ids} null: unknown, which wins over any ids recorded for the same type. */
+    @SuppressWarnings("unchecked")
+    private void record(Class<?> entityType, Collection<?> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(new EntityChangedEvent(entityType, ids != null ? Set.copyOf(ids) : null));
+            return;
+        }
+
+        Map<Class<?>, Set<Object>> pending = (Map<Class<?>, Set<Object>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Class<?>, Set<Object>> types = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, types);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityChangePublisher.this);
+                    if (status == STATUS_COMMITTED) {
+                        types.forEach((type, changedIds) -> publish(new EntityChangedEvent(
+                                type, changedIds != null ? Collections.unmodifiableSet(changedIds) : null)));
+                    }
+                }
+            });
+            pending = types;
+        }
+        if (ids == null) {
+            pending.put(entityType, null);
+        } else if (!pending.containsKey(entityType)) {
+            pending.put(entityType, new LinkedHashSet<>(ids));
+        } else if (pending.get(entityType) != null) {
+            pending.get(entityType).addAll(ids);
+        }
+    }
+
+    /**
+     * Publish after commit. The change is committed whatever a listener does, so a failing
+     * listener is logged and the events of the other types still go out.
+     */
+    private void publish(EntityChangedEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.error("A listener failed on the committed change to {}", event.entityType().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.pimvanleeuwen.the_harry_list_backend.config;
+
+import java.util.Set;
+
+/**
+ * Published by {@link EntityChangePublisher} after a transaction that inserted, updated
+ * or deleted at least one entity of {@code entityType} has committed.
+ *
+ * <p>Caches and derived in-memory views listen for this (via {@code @EventListener}) to
+ * know when to drop or rebuild their state, instead of every write path having to
+ * notify them by hand. Views that can update incrementally use {@link #ids}: the
+ * identifiers of the changed entities, or null when they are not known (a bulk
+ * statement reported without ids), in which case anything of that type may have changed.
+ */
+public record EntityChangedEvent(Class<?> entityType, Set<Object> ids) {
+
+    /**
+     * {@code @Order} of the listeners refreshing in-memory indexes that other listeners read
+     * from, so those see the change applied. Listeners without an order run after them.
+     */
+    public static final int INDEX_ORDER = 0;
+
+    /** A change to unknown entities of {@code entityType}. */
+    public EntityChangedEvent(Class<?> entityType) {
+        this(entityType, null);
+    }
+
+    /** Whether the changed entity is {@code type} (or a subclass of it). */
+    public boolean isAbout(Class<?> type) {
+        return type.isAssignableFrom(entityType);
+    }
+}
@@ -0,0 +1,107 @@
+package com.pimvanleeuwen.the_harry_list_backend.config;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Copies the special activities from the legacy {@code reservation_special_activities}
+ * join table into the {@code reservation.special_activities} bitmask (all profiles, on
+ * startup).
+ *
+ * <p>The mask column must exist first: in production it is added by hand (see
+ * {@code docs/migration-special-activities-mask.md}), on dev Hibernate's schema update adds
+ * it. Until this backend takes over, the old one keeps the join table up to date and never
+ * writes the masks, so the first start folds the join table into every mask, replacing
+ * anything filled in earlier, and then renames the table to
+ * {@code reservation_special_activities_old}. The rename marks the copy as done: the
+ * application no longer writes the join table, so it must not be read again. Reservations
+ * changed since this instance started are already the application's and left alone.
+ * Activities the enum no longer knows are logged and left out.
+ *
+ * <p>The renamed table is not dropped here: that is a separate step of the guide, once the
+ * masks have been checked. Does nothing once the table is renamed or gone.
+ */
+@Component
+@Order(0)
+public class SpecialActivitiesMaskMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpecialActivitiesMaskMigration.class);
+
+    private static final String LEGACY_TABLE = "reservation_special_activities";
+
+    private final JdbcTemplate jdbcTemplate;
+    /** Before the web server takes requests: later changes were made by this backend. */
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    public SpecialActivitiesMaskMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!legacyTableExists()) {
+            return;
+        }
+
+        String known = Arrays.stream(SpecialActivity.values())
+                .map(activity -> "'" + activity.name() + "'")
+                .collect(Collectors.joining(", "));
+        for (Map<String, Object> unknown : jdbcTemplate.queryForList(
+                "SELECT reservation_id, special_activity FROM reservation_special_activities "
+                        + "WHERE special_activity IS NULL OR special_activity NOT IN (" + known + ")")) {
+            logger.warn("Leaving out unknown special activity '{}' of reservation {}",
+                    unknown.get("special_activity"), unknown.get("reservation_id"));
+        }
+
+        int updated = jdbcTemplate.update(copyStatement(), startedAt);
+        jdbcTemplate.execute("ALTER TABLE reservation_special_activities RENAME TO reservation_special_activities_old");
+        logger.info("Copied the special activities of {} reservation(s) into reservation.special_activities and "
+                + "renamed the join table to reservation_special_activities_old; drop it once they are checked",
+                updated);
+    }
+
+    /**
+     * Sets each reservation's mask, changed before {@code ?}, from the join table: the sum of
+     * its distinct activity bits, which equals their OR (0 without activities).
+     */
+    static String copyStatement() {
+        StringBuilder bits = new StringBuilder("CASE s.special_activity");
+        for (SpecialActivity activity : SpecialActivity.values()) {
+            bits.append(" WHEN '").append(activity.name()).append("' THEN ").append(activity.bit());
+        }
+        bits.append(" ELSE 0 END");
+        return "UPDATE reservation SET special_activities = ("
+                + "SELECT COALESCE(SUM(DISTINCT " + bits + "), 0) FROM reservation_special_activities s "
+                + "WHERE s.reservation_id = reservation.id) "
+                + "WHERE updated_at IS NULL OR updated_at < ?";
+    }
+
+    private boolean legacyTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Unquoted identifiers are stored upper case by some databases (H2), as written by others
+            return hasTable(metaData, connection.getCatalog(), LEGACY_TABLE)
+                    || hasTable(metaData, connection.getCatalog(), LEGACY_TABLE.toUpperCase());
+        }));
+    }
+
+    private static boolean hasTable(DatabaseMetaData metaData, String catalog, String table) throws SQLException {
+        try (ResultSet tables = metaData.getTables(catalog, null, table, new String[]{"TABLE"})) {
+            return tables.next();
+        }
+    }
+}
@@ -7,17 +7,24 @@ import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachment;
 import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentRepository;
 import com.pimvanleeuwen.the_harry_list_backend.service.AuditService;
+import com.pimvanleeuwen.the_harry_list_backend.service.EmailAttachmentStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -31,10 +38,13 @@ public class AdminEmailAttachmentController {
     private static final long MAX_FILE_SIZE = 3 * 1024 * 1024; // 3MB (Graph API inline attachment limit)
 
     private final EmailAttachmentRepository repository;
+    private final EmailAttachmentStore store;
     private final AuditService auditService;
 
-    public AdminEmailAttachmentController(EmailAttachmentRepository repository, AuditService auditService) {
+    public AdminEmailAttachmentController(EmailAttachmentRepository repository, EmailAttachmentStore store,
+                                          AuditService auditService) {
         this.repository = repository;
+        this.store = store;
         this.auditService = auditService;
     }
 
@@ -67,16 +77,8 @@ public class AdminEmailAttachmentController {
             return ResponseEntity.badRequest().body(Map.of("message", "File size exceeds 3MB limit"));
         }
 
-        try {
-            EmailAttachment attachment = EmailAttachment.builder()
-                    .name(name.trim())
-                    .filename(file.getOriginalFilename())
-                    .contentType(contentType)
-                    .data(file.getBytes())
-                    .active(true)
-                    .build();
-
-            EmailAttachment saved = repository.save(attachment);
+        try (InputStream content = file.getInputStream()) {
+            EmailAttachment saved = store.store(name.trim(), file.getOriginalFilename(), contentType, content);
             log.info("Uploaded email attachment: id={} name='{}' filename='{}'", saved.getId(), saved.getName(), saved.getFilename());
             auditService.recordCreate(AuditEntityType.EMAIL_ATTACHMENT, saved.getId(),
                     "Attachment: " + saved.getName(), List.of(),
@@ -88,13 +90,30 @@ public class AdminEmailAttachmentController {
         }
     }
 
+    @GetMapping("/{id}/content")
+    @Operation(summary = "Download an attachment",
+            description = "Streams the attachment's file; supports Range requests and conditional requests on its ETag")
+    public ResponseEntity<Resource> downloadAttachment(@PathVariable Long id) {
+        return repository.findById(id)
+                .flatMap(attachment -> store.content(attachment).map(content -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(attachment.getContentType()))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                                .filename(attachment.getFilename(), StandardCharsets.UTF_8)
+                                .build().toString())
+                        // Content-addressed, so the hash is a strong validator
+                        .eTag(attachment.getSha256())
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .body(content)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('EDITOR')")
     @Operation(summary = "Delete an attachment", description = "Permanently delete an email attachment")
     public ResponseEntity<Void> deleteAttachment(@PathVariable Long id) {
         return repository.findById(id)
                 .map(attachment -> {
-                    repository.delete(attachment);
+                    store.delete(attachment);
                     log.info("Deleted email attachment: id={}", id);
                     auditService.recordDelete(AuditEntityType.EMAIL_ATTACHMENT, id,
                             "Attachment: " + attachment.getName(), "Attachment deleted");
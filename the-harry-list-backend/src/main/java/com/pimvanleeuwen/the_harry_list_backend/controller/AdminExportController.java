@@ -1,19 +1,20 @@
 package com.pimvanleeuwen.the_harry_list_backend.controller;
 
-import org.openpdf.text.DocumentException;
 import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
 import com.pimvanleeuwen.the_harry_list_backend.service.PdfExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin/export")
@@ -31,7 +32,7 @@ public class AdminExportController {
             summary = "Generate daily reservation report PDF",
             description = "Generates a PDF report of all reservations for a specific date and location"
     )
-    public ResponseEntity<byte[]> generateDailyReport(
+    public ResponseEntity<StreamingResponseBody> generateDailyReport(
             @RequestParam String date,
             @RequestParam String location,
             @RequestParam(required = false, defaultValue = "true") boolean confirmedOnly,
@@ -53,23 +54,72 @@ public class AdminExportController {
             return ResponseEntity.badRequest().build();
         }
 
-        try {
-            byte[] pdfBytes = pdfExportService.generateDailyReport(reportDate, reportLocation, confirmedOnly, cateringOnly);
+        // Load here, on the request thread; the PDF is then written straight to the response
+        PdfExportService.DailyReport report =
+                pdfExportService.loadDailyReport(reportDate, reportLocation, confirmedOnly, cateringOnly);
+
+        String filename = String.format("reservations-%s-%s.pdf",
+                reportLocation.name().toLowerCase(),
+                reportDate.format(DateTimeFormatter.ISO_LOCAL_DATE));
 
-            String filename = String.format("reservations-%s-%s.pdf",
-                    reportLocation.name().toLowerCase(),
-                    reportDate.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", filename);
+        headers.setCacheControl("no-cache, no-store, must-revalidate");
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setCacheControl("no-cache, no-store, must-revalidate");
+        StreamingResponseBody body = out -> pdfExportService.writeDailyReport(report, out);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
 
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+    @GetMapping(value = "/range-report", produces = MediaType.APPLICATION_PDF_VALUE)
+    @Operation(
+            summary = "Generate multi-day reservation report PDF",
+            description = "Generates one PDF with the daily report of every day in [from, to] (at most "
+                    + PdfExportService.MAX_RANGE_DAYS + " days) that has reservations or appointments, "
+                    + "for one location or, when location is omitted, both"
+    )
+    public ResponseEntity<StreamingResponseBody> generateRangeReport(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false, defaultValue = "true") boolean confirmedOnly,
+            @RequestParam(required = false, defaultValue = "false") boolean cateringOnly) {
 
-        } catch (DocumentException e) {
-            return ResponseEntity.internalServerError().build();
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
         }
+        if (toDate.isBefore(fromDate) || ChronoUnit.DAYS.between(fromDate, toDate) >= PdfExportService.MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        BarLocation reportLocation = null;
+        if (location != null && !location.isBlank()) {
+            try {
+                reportLocation = BarLocation.valueOf(location.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        List<PdfExportService.DailyReport> days =
+                pdfExportService.loadRangeReport(fromDate, toDate, reportLocation, confirmedOnly, cateringOnly);
+
+        String filename = String.format("reservations-%s-%s-to-%s.pdf",
+                reportLocation != null ? reportLocation.name().toLowerCase() : "all",
+                fromDate.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                toDate.format(DateTimeFormatter.ISO_LOCAL_DATE));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", filename);
+        headers.setCacheControl("no-cache, no-store, must-revalidate");
+
+        StreamingResponseBody body = out -> pdfExportService.writeRangeReport(days, out);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 }
-
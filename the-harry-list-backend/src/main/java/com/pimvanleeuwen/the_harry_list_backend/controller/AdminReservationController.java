@@ -1,21 +1,25 @@
 package com.pimvanleeuwen.the_harry_list_backend.controller;
 
+import com.pimvanleeuwen.the_harry_list_backend.dto.BookingConflict;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeRequest;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResponse;
 import com.pimvanleeuwen.the_harry_list_backend.dto.CateringEmailRequest;
 import com.pimvanleeuwen.the_harry_list_backend.dto.FieldChange;
 import com.pimvanleeuwen.the_harry_list_backend.dto.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditAction;
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
-import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
-import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachment;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailTemplateType;
 import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
-import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
 import com.pimvanleeuwen.the_harry_list_backend.service.AuditService;
+import com.pimvanleeuwen.the_harry_list_backend.service.BulkStatusChangeService;
+import com.pimvanleeuwen.the_harry_list_backend.service.DoubleBookingDetector;
+import com.pimvanleeuwen.the_harry_list_backend.service.EmailAttachmentStore;
 import com.pimvanleeuwen.the_harry_list_backend.service.EmailNotificationService;
 import com.pimvanleeuwen.the_harry_list_backend.service.EmailTemplateService;
-import com.pimvanleeuwen.the_harry_list_backend.service.ReservationAnalytics;
+import com.pimvanleeuwen.the_harry_list_backend.service.EncodedAttachment;
 import com.pimvanleeuwen.the_harry_list_backend.service.ReservationMapper;
+import com.pimvanleeuwen.the_harry_list_backend.service.UpdateReservationStatusService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,12 +27,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,16 +51,17 @@ import java.util.Map;
 public class AdminReservationController {
 
     private static final Logger log = LoggerFactory.getLogger(AdminReservationController.class);
-    /** Dedicated, PII-free analytics logger scraped into Loki (job=app-analytics). */
-    private static final Logger analyticsLog = LoggerFactory.getLogger("analytics");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
 
     private final ReservationRepository reservationRepository;
     private final ReservationMapper reservationMapper;
     private final EmailTemplateService emailTemplateService;
-    private final EmailAttachmentRepository emailAttachmentRepository;
+    private final EmailAttachmentStore emailAttachmentStore;
     private final AuditService auditService;
+    private final UpdateReservationStatusService updateReservationStatusService;
+    private final BulkStatusChangeService bulkStatusChangeService;
+    private final DoubleBookingDetector doubleBookingDetector;
     private final String barName;
     private final String staffEmail;
 
@@ -63,15 +71,21 @@ public class AdminReservationController {
     public AdminReservationController(ReservationRepository reservationRepository,
                                       ReservationMapper reservationMapper,
                                       EmailTemplateService emailTemplateService,
-                                      EmailAttachmentRepository emailAttachmentRepository,
+                                      EmailAttachmentStore emailAttachmentStore,
                                       AuditService auditService,
+                                      UpdateReservationStatusService updateReservationStatusService,
+                                      BulkStatusChangeService bulkStatusChangeService,
+                                      DoubleBookingDetector doubleBookingDetector,
                                       @Value("${app.bar.name:Hubble and Meteor Community Cafes}") String barName,
                                       @Value("${app.mail.staff:events@hubble.cafe}") String staffEmail) {
         this.reservationRepository = reservationRepository;
         this.reservationMapper = reservationMapper;
         this.emailTemplateService = emailTemplateService;
-        this.emailAttachmentRepository = emailAttachmentRepository;
+        this.emailAttachmentStore = emailAttachmentStore;
         this.auditService = auditService;
+        this.updateReservationStatusService = updateReservationStatusService;
+        this.bulkStatusChangeService = bulkStatusChangeService;
+        this.doubleBookingDetector = doubleBookingDetector;
         this.barName = barName;
         this.staffEmail = staffEmail;
     }
@@ -90,56 +104,36 @@ public class AdminReservationController {
             @RequestParam(required = false, defaultValue = "true") boolean sendEmail,
             @RequestParam(required = false) String customMessage,
             Principal principal) {
+        return updateReservationStatusService.execute(id, status, confirmedBy, sendEmail, customMessage,
+                principal != null ? principal.getName() : null);
+    }
 
-        return reservationRepository.findById(id)
-                .map(reservation -> {
-                    // Block confirm when location is NO_PREFERENCE
-                    if (status == ReservationStatus.CONFIRMED
-                            && (reservation.getLocation() == null || reservation.getLocation() == BarLocation.NO_PREFERENCE)) {
-                        return ResponseEntity.badRequest()
-                                .body(Map.of("message", "Location must be set before confirming"));
-                    }
-
-                    ReservationStatus oldStatus = reservation.getStatus();
-                    reservation.setStatus(status);
-                    if (confirmedBy != null && status == ReservationStatus.CONFIRMED) {
-                        reservation.setConfirmedBy(confirmedBy);
-                    }
-                    com.pimvanleeuwen.the_harry_list_backend.model.Reservation saved = reservationRepository.save(reservation);
-
-                    // Privacy-safe analytics: a coarse note that a status transition happened, for
-                    // the terminal/meaningful states only (PENDING re-opens are internal churn).
-                    if (status != ReservationStatus.PENDING) {
-                        analyticsLog.info(ReservationAnalytics.reservationStatusChangedLine(status, saved.getLocation()));
-                    }
-
-                    log.info("AUDIT reservation.status_changed id={} confirmation='{}' event='{}' date={} status={}->{} user='{}'{}",
-                            id, saved.getConfirmationNumber(), saved.getEventTitle(), saved.getEventDate(),
-                            oldStatus, status, principal != null ? principal.getName() : "unknown",
-                            confirmedBy != null ? " confirmedBy='" + confirmedBy + "'" : "");
-
-                    // The message content itself is not stored in the audit log (may be long); we only
-                    // record that a custom message accompanied the status change.
-                    boolean hasCustomMessage = customMessage != null && !customMessage.isBlank();
-                    auditService.recordAction(AuditEntityType.RESERVATION, id, label(saved),
-                            AuditAction.STATUS_CHANGE,
-                            List.of(new FieldChange("status", String.valueOf(oldStatus), String.valueOf(status))),
-                            "Status changed"
-                                    + (confirmedBy != null ? " (confirmed by " + confirmedBy + ")" : "")
-                                    + (hasCustomMessage ? " (with message)" : ""));
-
-                    // Send email notification if enabled
-                    if (sendEmail && emailService != null) {
-                        try {
-                            emailService.sendStatusChangeEmail(saved, customMessage);
-                        } catch (Exception e) {
-                            log.error("Failed to send status change email, but status was updated successfully", e);
-                        }
-                    }
+    @PatchMapping("/status")
+    @PreAuthorize("hasRole('EDITOR')")
+    @Operation(summary = "Update the status of several reservations",
+            description = "Apply status changes to up to 200 reservations in one transaction. "
+                    + "Emails are queued and sent afterwards; the response reports the outcome per reservation.")
+    public ResponseEntity<BulkStatusChangeResponse> bulkUpdateStatus(
+            @RequestBody BulkStatusChangeRequest request,
+            Principal principal) {
+        return ResponseEntity.ok(bulkStatusChangeService.execute(request,
+                principal != null ? principal.getName() : null));
+    }
 
-                    return ResponseEntity.ok(reservationMapper.toDto(saved));
-                })
-                .orElse(ResponseEntity.notFound().build());
+    @GetMapping("/conflicts")
+    @Operation(summary = "Find double bookings",
+            description = "Pending or confirmed reservations overlapping another one in the same location and seating area, "
+                    + "or a calendar appointment at the same location, from 'from' (default today) through 'to' "
+                    + "(default a year after 'from', at most " + DoubleBookingDetector.MAX_RANGE_DAYS + " days after it)")
+    public ResponseEntity<List<BookingConflict>> getConflicts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusYears(1);
+        if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) > DoubleBookingDetector.MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(doubleBookingDetector.findConflicts(start, end));
     }
 
     @PatchMapping("/{id}/catering-arranged")
@@ -270,9 +264,9 @@ public class AdminReservationController {
                                 : emailTemplateService.getRenderedBody(EmailTemplateType.CATERING_OPTIONS, vars);
 
                         // Load attachments
-                        List<EmailAttachment> attachments = List.of();
+                        List<EncodedAttachment> attachments = List.of();
                         if (request.getAttachmentIds() != null && !request.getAttachmentIds().isEmpty()) {
-                            attachments = emailAttachmentRepository.findAllById(request.getAttachmentIds());
+                            attachments = emailAttachmentStore.loadEncoded(request.getAttachmentIds());
                         }
 
                         emailService.sendEmailWithAttachments(
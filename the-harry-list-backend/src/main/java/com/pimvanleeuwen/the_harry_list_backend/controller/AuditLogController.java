@@ -14,17 +14,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.criteria.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,7 +38,9 @@ import java.util.Map;
  * Read-only API over the audit log.
  *
  * <ul>
- *   <li>The global, filterable log is ADMIN-only (it spans all entities and actors).</li>
+ *   <li>The global, filterable log is ADMIN-only (it spans all entities and actors). It is
+ *       available both offset-paged and cursor-paged ({@code /scroll}); the latter stays
+ *       fast however far back one browses.</li>
  *   <li>The per-reservation history is available to any authenticated viewer.</li>
  * </ul>
  */
@@ -44,6 +52,9 @@ public class AuditLogController {
 
     private static final Logger log = LoggerFactory.getLogger(AuditLogController.class);
 
+    /** Largest page the cursor endpoint returns, whatever the client asks for. */
+    private static final int MAX_SCROLL_SIZE = 200;
+
     private final AuditLogRepository auditLogRepository;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -64,18 +75,7 @@ public class AuditLogController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size) {
 
-        Specification<AuditLog> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            if (entityType != null) predicates.add(cb.equal(root.get("entityType"), entityType));
-            if (entityId != null) predicates.add(cb.equal(root.get("entityId"), entityId));
-            if (action != null) predicates.add(cb.equal(root.get("action"), action));
-            if (actorEmail != null && !actorEmail.isBlank()) {
-                predicates.add(cb.like(cb.lower(root.get("actorEmail")), "%" + actorEmail.toLowerCase() + "%"));
-            }
-            if (from != null) predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), from));
-            if (to != null) predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), to));
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+        Specification<AuditLog> spec = filter(entityType, entityId, actorEmail, action, from, to);
 
         Page<AuditLog> result = auditLogRepository.findAll(spec,
                 PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
@@ -92,6 +92,55 @@ public class AuditLogController {
         return ResponseEntity.ok(body);
     }
 
+    /**
+     * Keyset ("seek") variant of {@link #getAuditLog}: pages are addressed by an opaque
+     * cursor encoding the ({@code createdAt}, {@code id}) of the last entry seen, so the
+     * database seeks straight to the next page instead of scanning past an OFFSET. Deep
+     * pages cost the same as the first one. Pass the same filters with every cursor.
+     */
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Scroll audit entries",
+            description = "Cursor-paged, filterable audit trail, newest first (admin only). Pass nextCursor from " +
+                    "the previous response to continue; the total count is only computed when includeTotal=true.")
+    public ResponseEntity<Map<String, Object>> scrollAuditLog(
+            @RequestParam(required = false) AuditEntityType entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) String actorEmail,
+            @RequestParam(required = false) AuditAction action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        Specification<AuditLog> spec = filter(entityType, entityId, actorEmail, action, from, to);
+        KeysetScrollPosition position = (cursor == null || cursor.isBlank())
+                ? ScrollPosition.keyset()
+                : decodeCursor(cursor);
+        int limit = Math.clamp(size, 1, MAX_SCROLL_SIZE);
+
+        Window<AuditLog> window = auditLogRepository.findBy(spec, query -> query
+                .sortBy(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit)
+                .scroll(position));
+
+        List<AuditLogResponse> content = window.getContent().stream().map(this::toResponse).toList();
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? encodeCursor(window.getContent().getLast())
+                : null;
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("content", content);
+        body.put("size", limit);
+        body.put("hasNext", nextCursor != null);
+        body.put("nextCursor", nextCursor);
+        if (includeTotal) {
+            body.put("totalElements", auditLogRepository.count(spec));
+        }
+        return ResponseEntity.ok(body);
+    }
+
     @GetMapping("/reservation/{id}")
     @PreAuthorize("hasRole('VIEWER')")
     @Operation(summary = "Reservation history", description = "Audit entries for a single reservation, newest first")
@@ -102,6 +151,43 @@ public class AuditLogController {
         return ResponseEntity.ok(entries);
     }
 
+    private static Specification<AuditLog> filter(AuditEntityType entityType, Long entityId, String actorEmail,
+                                                  AuditAction action, LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (entityType != null) predicates.add(cb.equal(root.get("entityType"), entityType));
+            if (entityId != null) predicates.add(cb.equal(root.get("entityId"), entityId));
+            if (action != null) predicates.add(cb.equal(root.get("action"), action));
+            if (actorEmail != null && !actorEmail.isBlank()) {
+                predicates.add(cb.like(cb.lower(root.get("actorEmail")), "%" + actorEmail.toLowerCase() + "%"));
+            }
+            if (from != null) predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), from));
+            if (to != null) predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), to));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /** Cursor = base64url("createdAt|id") of the last entry on the page; opaque to clients. */
+    static String encodeCursor(AuditLog last) {
+        String key = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetScrollPosition decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.lastIndexOf('|');
+            LocalDateTime createdAt = LocalDateTime.parse(key.substring(0, separator));
+            Long id = Long.valueOf(key.substring(separator + 1));
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("createdAt", createdAt);
+            keys.put("id", id);
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     private AuditLogResponse toResponse(AuditLog entry) {
         return new AuditLogResponse(
                 entry.getId(), entry.getEntityType(), entry.getEntityId(), entry.getEntityLabel(),
@@ -1,5 +1,6 @@
 package com.pimvanleeuwen.the_harry_list_backend.controller;
 
+import com.pimvanleeuwen.the_harry_list_backend.service.ReservationRejectedException;
 import io.sentry.Sentry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +42,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
     }
 
+    /** Rejected submission (400) with the nearest slots that would be accepted — expected, not sent to Sentry */
+    @ExceptionHandler(ReservationRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleReservationRejected(ReservationRejectedException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage(), "suggestions", ex.getSuggestions()));
+    }
+
     /** Missing static resource (404) — expected for bots/health checks hitting unknown paths, not sent to Sentry */
     @ExceptionHandler(NoResourceFoundException.class)
     public ResponseEntity<Map<String, String>> handleNoResource() {
@@ -1,14 +1,17 @@
 package com.pimvanleeuwen.the_harry_list_backend.controller.open;
 
 import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
-import com.pimvanleeuwen.the_harry_list_backend.service.ICalendarService;
+import com.pimvanleeuwen.the_harry_list_backend.service.CalendarFeedCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -22,13 +25,18 @@ import java.util.List;
  * Two feeds available:
  * - /feed.ics - Public feed WITHOUT contact details
  * - /staff-feed.ics - Staff feed WITH all contact details (different token)
+ *
+ * Feeds are served from {@link CalendarFeedCache} with an ETag and Last-Modified, so clients
+ * that send If-None-Match / If-Modified-Since get 304 Not Modified until a reservation or
+ * appointment in that feed actually changes. Otherwise the body is streamed from the
+ * database as it is written, never held in memory.
  */
 @RestController
 @RequestMapping("/api/calendar")
 @Tag(name = "Calendar Feed", description = "ICS calendar feed for subscribing to reservations")
 public class CalendarFeedController {
 
-    private final ICalendarService iCalendarService;
+    private final CalendarFeedCache calendarFeedCache;
 
     @Value("${calendar.feed.token:}")
     private String feedToken;
@@ -36,8 +44,8 @@ public class CalendarFeedController {
     @Value("${calendar.feed.staff-token:}")
     private String staffFeedToken;
 
-    public CalendarFeedController(ICalendarService iCalendarService) {
-        this.iCalendarService = iCalendarService;
+    public CalendarFeedController(CalendarFeedCache calendarFeedCache) {
+        this.calendarFeedCache = calendarFeedCache;
     }
 
     @GetMapping(value = "/feed.ics", produces = "text/calendar")
@@ -46,21 +54,22 @@ public class CalendarFeedController {
             description = "Returns an ICS calendar feed for external use. " +
                     "Contact details (email/phone) are NOT included for privacy."
     )
-    public ResponseEntity<String> getPublicCalendarFeed(
+    public ResponseEntity<StreamingResponseBody> getPublicCalendarFeed(
             @RequestParam(required = false) String token,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String location,
             @RequestParam(required = false) Boolean catering,
-            @RequestParam(required = false, defaultValue = "false") boolean upcomingOnly) {
+            @RequestParam(required = false, defaultValue = "false") boolean upcomingOnly,
+            WebRequest webRequest) {
 
         // Validate token if configured (constant-time comparison to prevent timing attacks)
         if (feedToken != null && !feedToken.isEmpty()) {
             if (token == null || !constantTimeEquals(token, feedToken)) {
-                return ResponseEntity.status(401).body("Invalid or missing token");
+                return textResponse(401, "Invalid or missing token");
             }
         }
 
-        return generateFeed(status, location, catering, upcomingOnly, false, "reservations.ics");
+        return generateFeed(status, location, catering, upcomingOnly, false, "reservations.ics", webRequest);
     }
 
     @GetMapping(value = "/staff-feed.ics", produces = "text/calendar")
@@ -70,26 +79,28 @@ public class CalendarFeedController {
                     "Includes ALL details including contact info (email/phone). " +
                     "Use a different token than the public feed."
     )
-    public ResponseEntity<String> getStaffCalendarFeed(
+    public ResponseEntity<StreamingResponseBody> getStaffCalendarFeed(
             @RequestParam(required = false) String token,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String location,
             @RequestParam(required = false) Boolean catering,
-            @RequestParam(required = false, defaultValue = "false") boolean upcomingOnly) {
+            @RequestParam(required = false, defaultValue = "false") boolean upcomingOnly,
+            WebRequest webRequest) {
 
         // Validate staff token (required, must be different from public token)
         if (staffFeedToken == null || staffFeedToken.isEmpty()) {
-            return ResponseEntity.status(503).body("Staff feed not configured");
+            return textResponse(503, "Staff feed not configured");
         }
         if (token == null || !constantTimeEquals(token, staffFeedToken)) {
-            return ResponseEntity.status(401).body("Invalid or missing staff token");
+            return textResponse(401, "Invalid or missing staff token");
         }
 
-        return generateFeed(status, location, catering, upcomingOnly, true, "staff-reservations.ics");
+        return generateFeed(status, location, catering, upcomingOnly, true, "staff-reservations.ics", webRequest);
     }
 
-    private ResponseEntity<String> generateFeed(String status, String location, Boolean catering, boolean upcomingOnly,
-                                                  boolean includeConfidential, String filename) {
+    private ResponseEntity<StreamingResponseBody> generateFeed(String status, String location, Boolean catering,
+                                                               boolean upcomingOnly, boolean includeConfidential,
+                                                               String filename, WebRequest webRequest) {
         // Parse status filter
         List<ReservationStatus> statusFilter = null;
         if (status != null && !status.isEmpty()) {
@@ -100,30 +111,35 @@ public class CalendarFeedController {
                         .map(ReservationStatus::valueOf)
                         .toList();
             } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().body("Invalid status value. Use: PENDING, CONFIRMED, REJECTED, CANCELLED");
+                return textResponse(400, "Invalid status value. Use: PENDING, CONFIRMED, REJECTED, CANCELLED");
             }
         }
 
-        // Generate calendar
-        String icsContent;
-        if (upcomingOnly) {
-            icsContent = iCalendarService.generateUpcomingCalendarFeed(statusFilter, location, catering, includeConfidential);
-        } else {
-            icsContent = iCalendarService.generateCalendarFeed(statusFilter, location, catering, includeConfidential);
+        CalendarFeedCache.Feed feed = calendarFeedCache.getFeed(statusFilter, location, catering, upcomingOnly, includeConfidential);
+
+        // Clients may keep a copy but must revalidate on every poll. Private because the
+        // URL carries the feed token.
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+
+        // Sets ETag / Last-Modified on the response and, if the client's copy is current,
+        // the 304 status; no body is sent then.
+        if (webRequest.checkNotModified(feed.etag(), feed.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(304).cacheControl(cacheControl).build();
         }
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("text/calendar; charset=utf-8"));
         headers.set("Content-Disposition", "inline; filename=\"" + filename + "\"");
-        // Short cache time to encourage frequent refreshes
-        // Note: Google Calendar may still cache longer, but this helps other clients
-        headers.setCacheControl("no-cache, no-store, must-revalidate");
-        headers.set("Pragma", "no-cache");
-        headers.set("Expires", "0");
-
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(icsContent);
+        headers.setCacheControl(cacheControl);
+
+        return ResponseEntity.ok().headers(headers).body(feed::writeTo);
+    }
+
+    /** Plain-text error response; the feed endpoints' success type is a streamed body. */
+    private static ResponseEntity<StreamingResponseBody> textResponse(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
     }
 
     @GetMapping("/info")
@@ -1,18 +1,31 @@
 package com.pimvanleeuwen.the_harry_list_backend.controller.open;
 
+import com.pimvanleeuwen.the_harry_list_backend.dto.BlockedDates;
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability;
+import com.pimvanleeuwen.the_harry_list_backend.dto.SlotSuggestion;
 import com.pimvanleeuwen.the_harry_list_backend.model.*;
-import com.pimvanleeuwen.the_harry_list_backend.repository.BlockedPeriodRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.FormConstraintRepository;
+import com.pimvanleeuwen.the_harry_list_backend.service.AvailabilityCalendar;
+import com.pimvanleeuwen.the_harry_list_backend.service.BlockedPeriodIndex;
+import com.pimvanleeuwen.the_harry_list_backend.service.SlotSuggestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -25,12 +38,18 @@ import java.util.stream.Collectors;
 public class FormOptionsController {
 
     private final FormConstraintRepository formConstraintRepository;
-    private final BlockedPeriodRepository blockedPeriodRepository;
+    private final BlockedPeriodIndex blockedPeriodIndex;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final SlotSuggestionService slotSuggestionService;
 
     public FormOptionsController(FormConstraintRepository formConstraintRepository,
-                                  BlockedPeriodRepository blockedPeriodRepository) {
+                                  BlockedPeriodIndex blockedPeriodIndex,
+                                  AvailabilityCalendar availabilityCalendar,
+                                  SlotSuggestionService slotSuggestionService) {
         this.formConstraintRepository = formConstraintRepository;
-        this.blockedPeriodRepository = blockedPeriodRepository;
+        this.blockedPeriodIndex = blockedPeriodIndex;
+        this.availabilityCalendar = availabilityCalendar;
+        this.slotSuggestionService = slotSuggestionService;
     }
 
     @GetMapping("/special-activities")
@@ -110,6 +129,47 @@ public class FormOptionsController {
     @GetMapping("/blocked-periods")
     @Operation(summary = "Get active blocked periods", description = "Returns all enabled blocked periods so the form can disable unavailable dates")
     public ResponseEntity<List<BlockedPeriod>> getActiveBlockedPeriods() {
-        return ResponseEntity.ok(blockedPeriodRepository.findByEnabledTrue());
+        return ResponseEntity.ok(blockedPeriodIndex.enabledPeriods());
+    }
+
+    @GetMapping("/blocked-dates")
+    @Operation(summary = "Get blocked dates", description = "Returns the dates from today through the given number of months (max 12) that are fully blocked, partially blocked or soft-blocked at a location, for the date picker")
+    public ResponseEntity<BlockedDates> getBlockedDates(
+            @RequestParam(defaultValue = "3") int months,
+            @RequestParam(required = false) BarLocation location) {
+        return ResponseEntity.ok(blockedPeriodIndex.blockedDates(months, location));
+    }
+
+    @GetMapping("/availability")
+    @Operation(summary = "Get availability per day", description = "Returns, for each day of the month (yyyy-MM, default the current month, at most 12 months ahead) and each location, whether it is free, busy, full, blocked or soft-blocked. Supports conditional requests on its ETag")
+    public ResponseEntity<MonthAvailability> getAvailability(
+            @RequestParam(required = false) YearMonth month,
+            WebRequest webRequest) {
+        AvailabilityCalendar.PublishedMonth published =
+                availabilityCalendar.month(month != null ? month : YearMonth.now());
+        // Browsers may keep a copy but must revalidate; a matching ETag costs a 304 and nothing else
+        CacheControl cacheControl = CacheControl.noCache().cachePublic();
+        if (webRequest.checkNotModified(published.etag())) {
+            return ResponseEntity.status(304).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(published.availability());
+    }
+
+    @GetMapping("/suggestions")
+    @Operation(summary = "Suggest free slots", description = "Returns up to limit (max 10) slots of the same length nearest to the requested one that pass the constraints, are not blocked and have room for the guests, best first")
+    public ResponseEntity<List<SlotSuggestion>> getSuggestions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime startTime,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime endTime,
+            @RequestParam(required = false) BarLocation location,
+            @RequestParam(required = false) SeatingArea seatingArea,
+            @RequestParam(defaultValue = "1") int guests,
+            @RequestParam(required = false) Set<SpecialActivity> activities,
+            @RequestParam(defaultValue = "3") int limit) {
+        if (limit < 1 || limit > SlotSuggestionService.MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + SlotSuggestionService.MAX_LIMIT);
+        }
+        return ResponseEntity.ok(slotSuggestionService.suggest(
+                activities, location, seatingArea, date, startTime, endTime, guests, limit));
     }
 }
@@ -1,6 +1,9 @@
 package com.pimvanleeuwen.the_harry_list_backend.controller.open;
 
 import com.pimvanleeuwen.the_harry_list_backend.dto.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.dto.ReservationSearchCriteria;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
 import com.pimvanleeuwen.the_harry_list_backend.service.CreateReservationService;
 import com.pimvanleeuwen.the_harry_list_backend.service.DeleteReservationService;
 import com.pimvanleeuwen.the_harry_list_backend.service.GetReservationService;
@@ -9,10 +12,14 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Staff/Admin controller for managing reservations.
@@ -41,11 +48,31 @@ public class ReservationController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all reservations", description = "Retrieve a list of all reservations (staff only)")
+    @Operation(summary = "Get all reservations",
+            description = "Retrieve a list of all reservations (staff only). Prefer /search for list views.")
     public ResponseEntity<List<Reservation>> getReservations() {
         return getReservationService.execute(null);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search reservations",
+            description = "Paged, filtered and sorted reservation list (staff only). Returns slim rows without " +
+                    "long text fields; fetch a reservation by ID for its full details.")
+    public ResponseEntity<Map<String, Object>> searchReservations(
+            @RequestParam(required = false) List<ReservationStatus> status,
+            @RequestParam(required = false) BarLocation location,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Boolean catering,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "eventDate") String sort,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direction) {
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria(status, location, from, to, catering, q);
+        return getReservationService.search(criteria, page, size, sort, direction);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get reservation by ID", description = "Retrieve a single reservation by its ID (staff only)")
     public ResponseEntity<Reservation> getReservationById(@PathVariable Long id) {
@@ -0,0 +1,23 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Dates covered by enabled blocked periods in a date range, for the public date picker.
+ * Each list is sorted and holds every matching date individually.
+ *
+ * @param from             first date of the range (today)
+ * @param to               last date of the range, inclusive
+ * @param blocked          dates on which a hard block covers the whole day
+ * @param partiallyBlocked dates with a hard block for part of the day only (and no whole-day block)
+ * @param softBlocked      dates covered by a soft block: bookable after acknowledging a warning
+ */
+public record BlockedDates(
+        LocalDate from,
+        LocalDate to,
+        List<LocalDate> blocked,
+        List<LocalDate> partiallyBlocked,
+        List<LocalDate> softBlocked
+) {
+}
@@ -0,0 +1,31 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+
+import java.time.LocalDateTime;
+
+/**
+ * Two bookings that take the same place at the same time: a pending or confirmed
+ * reservation and either another one in the same location and seating area, or an
+ * occurrence of a calendar appointment at the same location. Exactly one of
+ * {@code otherReservationId} and {@code appointmentId} is set.
+ *
+ * @param reservationId      the reservation that started first (or the only one)
+ * @param otherReservationId the reservation it overlaps, or null
+ * @param appointmentId      the calendar appointment it overlaps, or null
+ * @param location           bar location
+ * @param seatingArea        seating area of the reservation
+ * @param overlapStart       start of the shared time
+ * @param overlapEnd         end of the shared time
+ */
+public record BookingConflict(
+        Long reservationId,
+        Long otherReservationId,
+        Long appointmentId,
+        BarLocation location,
+        SeatingArea seatingArea,
+        LocalDateTime overlapStart,
+        LocalDateTime overlapEnd
+) {
+}
@@ -0,0 +1,24 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Status changes for several reservations at once. {@code confirmedBy},
+ * {@code sendEmail} and {@code customMessage} apply to every item, as on the
+ * single-reservation status endpoint.
+ */
+@Data
+public class BulkStatusChangeRequest {
+
+    /** One reservation and the status it should get. */
+    public record Item(Long id, ReservationStatus status) {
+    }
+
+    private List<Item> items;
+    private String confirmedBy;
+    private boolean sendEmail = true;
+    private String customMessage;
+}
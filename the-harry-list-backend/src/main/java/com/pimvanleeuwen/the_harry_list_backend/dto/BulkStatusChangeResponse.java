@@ -0,0 +1,12 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import java.util.List;
+
+/**
+ * Report of a bulk status change.
+ *
+ * @param updated number of reservations whose status changed
+ * @param results one result per requested item, in request order
+ */
+public record BulkStatusChangeResponse(int updated, List<BulkStatusChangeResult> results) {
+}
@@ -0,0 +1,32 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+
+/**
+ * What a bulk status change did to one requested reservation.
+ *
+ * @param id             the requested reservation id
+ * @param outcome        what happened
+ * @param previousStatus status before the change (null when not found)
+ * @param status         status after the change (null when not found)
+ * @param message        why the item was not updated, or null
+ */
+public record BulkStatusChangeResult(
+        Long id,
+        Outcome outcome,
+        ReservationStatus previousStatus,
+        ReservationStatus status,
+        String message
+) {
+
+    public enum Outcome {
+        /** The status was changed. */
+        UPDATED,
+        /** The reservation already had the requested status; nothing was done. */
+        UNCHANGED,
+        /** No reservation with this id. */
+        NOT_FOUND,
+        /** The change is not allowed or the item is malformed; see the message. */
+        INVALID
+    }
+}
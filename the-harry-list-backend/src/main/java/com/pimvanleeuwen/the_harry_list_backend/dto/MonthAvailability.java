@@ -0,0 +1,40 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How bookable each bar location is on each day of a month, for the public date picker.
+ *
+ * @param month the month
+ * @param days  every day of the month, in order
+ */
+public record MonthAvailability(
+        YearMonth month,
+        List<Day> days
+) {
+
+    /**
+     * @param date      the day
+     * @param locations level per bookable location (not {@code NO_PREFERENCE})
+     */
+    public record Day(LocalDate date, Map<BarLocation, Level> locations) {
+    }
+
+    public enum Level {
+        /** Nothing booked or planned. */
+        FREE,
+        /** Reservations or appointments, a partial block, or guests carried over from an overnight event. */
+        BUSY,
+        /** Covered by a soft block: bookable after acknowledging a warning. */
+        SOFT_BLOCKED,
+        /** Confirmed guests reach the configured capacity of every seating area at some point: no guest more fits. */
+        FULL,
+        /** Covered by a hard block for the whole day. */
+        BLOCKED
+    }
+}
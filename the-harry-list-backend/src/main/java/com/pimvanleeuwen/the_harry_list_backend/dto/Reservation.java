@@ -104,4 +104,10 @@ public class Reservation {
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    /** Pending or confirmed reservations taking the same place at the same time. */
+    private Set<Long> conflictingReservationIds;
+
+    /** Calendar appointments at the same location at the same time. */
+    private Set<Long> conflictingAppointmentIds;
 }
@@ -0,0 +1,28 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Filters for the paged reservation search. Every field is optional; null (or an empty
+ * list) means "do not filter on this".
+ *
+ * @param statuses any of these statuses
+ * @param location only this location
+ * @param from     event date on or after this date
+ * @param to       event date on or before this date
+ * @param catering true = catering reservations only; false = non-catering only
+ * @param text     case-insensitive substring of the event title or organization name
+ */
+public record ReservationSearchCriteria(
+        List<ReservationStatus> statuses,
+        BarLocation location,
+        LocalDate from,
+        LocalDate to,
+        Boolean catering,
+        String text
+) {
+}
@@ -0,0 +1,69 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.PaymentOption;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
+import org.springframework.data.annotation.PersistenceCreator;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Slim list-view representation of a reservation for the paged reservation search.
+ *
+ * <p>Used directly as a Spring Data projection, so only these columns are selected. The
+ * TEXT columns (description, comments, notes, invoice remarks, ...) are left out on
+ * purpose; fetch the full {@link Reservation} by id for the detail view. The double
+ * bookings found by {@link com.pimvanleeuwen.the_harry_list_backend.service.DoubleBookingDetector}
+ * are filled in per page afterwards.
+ */
+public record ReservationSummary(
+        Long id,
+        String confirmationNumber,
+        String contactName,
+        String email,
+        String phoneNumber,
+        String organizationName,
+        String eventTitle,
+        Integer expectedGuests,
+        LocalDate eventDate,
+        LocalTime startTime,
+        LocalTime endTime,
+        BarLocation location,
+        SeatingArea seatingArea,
+        PaymentOption paymentOption,
+        ReservationStatus status,
+        boolean cateringArranged,
+        String confirmedBy,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Set<SpecialActivity> specialActivities,
+        Set<Long> conflictingReservationIds,
+        Set<Long> conflictingAppointmentIds
+) {
+
+    /** Projection constructor: every selected column, conflicts still empty. */
+    @PersistenceCreator
+    public ReservationSummary(Long id, String confirmationNumber, String contactName, String email,
+                              String phoneNumber, String organizationName, String eventTitle,
+                              Integer expectedGuests, LocalDate eventDate, LocalTime startTime,
+                              LocalTime endTime, BarLocation location, SeatingArea seatingArea,
+                              PaymentOption paymentOption, ReservationStatus status, boolean cateringArranged,
+                              String confirmedBy, LocalDateTime createdAt, LocalDateTime updatedAt,
+                              Set<SpecialActivity> specialActivities) {
+        this(id, confirmationNumber, contactName, email, phoneNumber, organizationName, eventTitle,
+                expectedGuests, eventDate, startTime, endTime, location, seatingArea, paymentOption, status,
+                cateringArranged, confirmedBy, createdAt, updatedAt, specialActivities, Set.of(), Set.of());
+    }
+
+    public ReservationSummary withConflicts(Set<Long> reservationIds, Set<Long> appointmentIds) {
+        return new ReservationSummary(id, confirmationNumber, contactName, email, phoneNumber, organizationName,
+                eventTitle, expectedGuests, eventDate, startTime, endTime, location, seatingArea, paymentOption,
+                status, cateringArranged, confirmedBy, createdAt, updatedAt, specialActivities,
+                reservationIds, appointmentIds);
+    }
+}
@@ -0,0 +1,27 @@
+package com.pimvanleeuwen.the_harry_list_backend.dto;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * An alternative to a requested time slot that passes the constraints, is not blocked and
+ * has room for the guests. Same length as requested; {@code endTime} before
+ * {@code startTime} means it ends the next day.
+ *
+ * @param date        event date
+ * @param startTime   start time
+ * @param endTime     end time
+ * @param location    bar location
+ * @param seatingArea seating area
+ */
+public record SlotSuggestion(
+        LocalDate date,
+        LocalTime startTime,
+        LocalTime endTime,
+        BarLocation location,
+        SeatingArea seatingArea
+) {
+}
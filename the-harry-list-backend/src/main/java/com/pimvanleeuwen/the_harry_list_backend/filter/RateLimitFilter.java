@@ -6,43 +6,81 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 
 /**
- * Rate limiting filter for the public reservation endpoint.
- * Limits each IP address to 10 requests per minute to prevent spam and abuse.
+ * Rate limiting filter for the public endpoints, per client IP and per configured path.
+ *
+ * <p>The limits come from {@code app.rate-limit.rules}, a comma-separated list of
+ * {@code METHOD PATH=REQUESTS/SECONDS} rules (method {@code *} for any; a path ending in
+ * {@code /**} also matches everything below it). The first matching rule applies. The
+ * default limits each IP to 10 reservation submissions per minute to prevent spam and abuse.
+ *
+ * <p>Each client's allowance is a token bucket holding up to REQUESTS requests and
+ * refilled evenly over SECONDS, kept as a single {@code long} (the generic cell rate
+ * algorithm's "theoretical arrival time") and updated with compare-and-set, so the request
+ * path takes no locks. At most {@code app.rate-limit.max-keys} clients are tracked;
+ * beyond that, clients not seen again since the last sweep are evicted CLOCK-style (an
+ * evicted client simply starts again with a full bucket). Buckets that have refilled
+ * completely carry no information and are dropped every
+ * {@code app.rate-limit.expiry-interval-ms} in the background.
  */
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
-    private static final int MAX_REQUESTS_PER_MINUTE = 10;
-    private static final long WINDOW_MS = 60_000;
-    private static final long CLEANUP_INTERVAL_MS = 5 * 60_000;
-    private static final String RATE_LIMITED_PATH = "/api/public/reservations";
 
-    private final ConcurrentHashMap<String, List<Long>> requestTimestamps = new ConcurrentHashMap<>();
-    private volatile long lastCleanup = System.currentTimeMillis();
+    static final String DEFAULT_RULES = "POST /api/public/reservations=10/60";
+
+    private final List<Rule> rules;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<Key, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    /** The CLOCK hand; only used while holding {@link #evictionLock}. */
+    private Iterator<Map.Entry<Key, Bucket>> hand;
+
+    @Autowired
+    public RateLimitFilter(@Value("${app.rate-limit.rules:" + DEFAULT_RULES + "}") String rules,
+                           @Value("${app.rate-limit.max-keys:100000}") int maxKeys) {
+        this(rules, maxKeys, System::nanoTime);
+    }
+
+    RateLimitFilter(String rules, int maxKeys, LongSupplier nanoClock) {
+        this.rules = parseRules(rules);
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        if ("POST".equalsIgnoreCase(request.getMethod()) &&
-                RATE_LIMITED_PATH.equals(request.getRequestURI())) {
-
+        Rule rule = match(request.getMethod(), request.getRequestURI());
+        if (rule != null) {
             String clientIp = getClientIp(request);
+            long waitNanos = acquire(rule, clientIp);
 
-            if (isRateLimited(clientIp)) {
+            if (waitNanos > 0) {
                 logger.warn("Rate limit exceeded for IP: {}", clientIp);
                 response.setStatus(429);
+                response.setHeader("Retry-After", Long.toString(Math.ceilDiv(waitNanos, 1_000_000_000L)));
                 response.setContentType("application/json");
                 response.getWriter().write(
                     "{\"error\":\"RATE_LIMIT_EXCEEDED\",\"message\":\"Too many requests. Please try again later.\"}"
@@ -54,35 +92,75 @@ public class RateLimitFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private boolean isRateLimited(String ip) {
-        long now = System.currentTimeMillis();
+    /** Take one request from the client's bucket: 0 when allowed, else the nanoseconds until it would be. */
+    long acquire(Rule rule, String client) {
+        Key key = new Key(rule, client);
+        long now = nanoClock.getAsLong();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(k.rule(), now));
+            evictIfFull();
+        } else if (!bucket.referenced) {
+            bucket.referenced = true;
+        }
+        return bucket.tryAcquire(now);
+    }
 
-        cleanupIfNeeded(now);
+    /**
+     * Drop the buckets that have refilled completely; they behave exactly like a missing
+     * one. A request racing with the removal may be counted against the dropped bucket,
+     * which lets at most that one request through uncounted.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.expiry-interval-ms:60000}")
+    public void expireIdle() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
 
-        List<Long> timestamps = requestTimestamps.computeIfAbsent(
-            ip, k -> Collections.synchronizedList(new ArrayList<>())
-        );
+    /** Number of clients currently tracked, over all rules. */
+    int trackedKeys() {
+        return buckets.size();
+    }
 
-        synchronized (timestamps) {
-            timestamps.removeIf(t -> now - t > WINDOW_MS);
-            if (timestamps.size() >= MAX_REQUESTS_PER_MINUTE) {
-                return true;
+    /**
+     * Evict until at most {@link #maxKeys} buckets remain: the hand sweeps the table,
+     * giving buckets used since its last visit a second chance. One thread evicts at a
+     * time; others carry on and may briefly leave the table a few entries over.
+     */
+    private void evictIfFull() {
+        if (buckets.size() <= maxKeys || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            // Two full turns clear every reference bit, so this always ends
+            long steps = 2L * buckets.size() + 1;
+            while (buckets.size() > maxKeys && steps-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = buckets.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<Key, Bucket> entry = hand.next();
+                Bucket bucket = entry.getValue();
+                if (bucket.referenced) {
+                    bucket.referenced = false;
+                } else {
+                    buckets.remove(entry.getKey(), bucket);
+                }
             }
-            timestamps.add(now);
-            return false;
+        } finally {
+            evictionLock.unlock();
         }
     }
 
-    private void cleanupIfNeeded(long now) {
-        if (now - lastCleanup > CLEANUP_INTERVAL_MS) {
-            lastCleanup = now;
-            requestTimestamps.entrySet().removeIf(entry -> {
-                synchronized (entry.getValue()) {
-                    entry.getValue().removeIf(t -> now - t > WINDOW_MS);
-                    return entry.getValue().isEmpty();
-                }
-            });
+    private Rule match(String method, String path) {
+        for (Rule rule : rules) {
+            if (rule.matches(method, path)) {
+                return rule;
+            }
         }
+        return null;
     }
 
     private String getClientIp(HttpServletRequest request) {
@@ -94,4 +172,95 @@ public class RateLimitFilter extends OncePerRequestFilter {
         // Fall back to remoteAddr (direct connection IP)
         return request.getRemoteAddr();
     }
+
+    /** Parse {@code METHOD PATH=REQUESTS/SECONDS[, ...]}. */
+    static List<Rule> parseRules(String spec) {
+        List<Rule> rules = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String rule = part.trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            try {
+                int eq = rule.lastIndexOf('=');
+                String[] target = rule.substring(0, eq).trim().split("\\s+");
+                String[] limit = rule.substring(eq + 1).trim().split("/");
+                if (target.length != 2 || limit.length != 2) {
+                    throw new IllegalArgumentException("expected METHOD PATH=REQUESTS/SECONDS");
+                }
+                int requests = Integer.parseInt(limit[0].trim());
+                long seconds = Long.parseLong(limit[1].trim());
+                if (requests <= 0 || seconds <= 0) {
+                    throw new IllegalArgumentException("requests and seconds must be positive");
+                }
+                rules.add(new Rule(target[0].toUpperCase(), target[1], requests, Duration.ofSeconds(seconds).toNanos()));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid rate limit rule '" + rule + "': " + e.getMessage(), e);
+            }
+        }
+        return List.copyOf(rules);
+    }
+
+    /** Up to {@code requests} requests per {@code windowNanos} for one method and path. */
+    record Rule(String method, String path, int requests, long windowNanos) {
+
+        boolean matches(String requestMethod, String requestPath) {
+            if (!method.equals("*") && !method.equalsIgnoreCase(requestMethod)) {
+                return false;
+            }
+            if (path.endsWith("/**")) {
+                String prefix = path.substring(0, path.length() - 3);
+                return requestPath.equals(prefix) || requestPath.startsWith(prefix + "/");
+            }
+            return path.equals(requestPath);
+        }
+
+        /** Time for one request to be refilled. */
+        long interval() {
+            return windowNanos / requests;
+        }
+    }
+
+    private record Key(Rule rule, String client) {
+    }
+
+    /**
+     * A token bucket as its theoretical arrival time: the moment it will be full again.
+     * A request is allowed while that moment is at most a window (less one interval) away,
+     * and pushes it one interval further.
+     */
+    private static final class Bucket extends AtomicLong {
+
+        private final long interval;
+        private final long tolerance;
+        /**
+         * Set when used again, cleared by the CLOCK hand. New buckets start cleared, so a
+         * flood of one-off clients is evicted before clients that keep coming back.
+         */
+        volatile boolean referenced;
+
+        Bucket(Rule rule, long now) {
+            super(now);
+            this.interval = rule.interval();
+            this.tolerance = rule.windowNanos() - interval;
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long full = get();
+                long start = Math.max(full, now);
+                long ahead = start - now;
+                if (ahead > tolerance) {
+                    return ahead - tolerance;
+                }
+                if (compareAndSet(full, start + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return get() - now <= 0;
+        }
+    }
 }
@@ -8,8 +8,14 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+/**
+ * Metadata of an uploaded PDF for catering emails. The bytes live in
+ * {@link EmailAttachmentContent}, so loading or listing attachments never reads a blob.
+ */
 @Entity
-@Table(name = "email_attachments")
+@Table(name = "email_attachments", indexes = {
+        @Index(name = "idx_email_attachments_sha256", columnList = "sha256")
+})
 @Data
 @Builder
 @AllArgsConstructor
@@ -29,9 +35,12 @@ public class EmailAttachment {
     @Column(nullable = false)
     private String contentType;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB", nullable = false)
-    private byte[] data;
+    /** Key of the {@link EmailAttachmentContent} holding the bytes. */
+    @Column(length = 64)
+    private String sha256;
+
+    @Column
+    private Long sizeBytes;
 
     @Column(nullable = false)
     @Builder.Default
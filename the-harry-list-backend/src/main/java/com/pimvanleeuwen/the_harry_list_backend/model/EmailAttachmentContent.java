@@ -0,0 +1,41 @@
+package com.pimvanleeuwen.the_harry_list_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The bytes of an {@link EmailAttachment}, stored apart from its metadata and keyed by
+ * their SHA-256 hash (lowercase hex). Attachments with identical content share one row.
+ */
+@Entity
+@Table(name = "email_attachment_contents")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailAttachmentContent {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] data;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @Column
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,75 @@
+package com.pimvanleeuwen.the_harry_list_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A rendered email waiting to be sent (transactional outbox).
+ *
+ * <p>The row is written in the same transaction as the change that triggers the email,
+ * so the email exists exactly when the change does. It is delivered afterwards by
+ * {@link com.pimvanleeuwen.the_harry_list_backend.service.EmailOutboxWorker}, which
+ * retries failed attempts with backoff. The {@link #idempotencyKey} identifies the
+ * logical email: the same key is never queued twice, and a row is only sent while it
+ * is still {@link EmailOutboxStatus#PENDING}.
+ */
+@Data
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_recipient", columnList = "recipient, status")
+})
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /** Identifies the logical email, e.g. {@code reservation/42/submitted}. */
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 150)
+    private String idempotencyKey;
+
+    @Column(name = "recipient", nullable = false, length = 255)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false, length = 500)
+    private String subject;
+
+    @Column(name = "html_body", nullable = false, columnDefinition = "TEXT")
+    private String htmlBody;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    /** Number of delivery attempts made so far. */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /** Not sent before this time: the retry backoff, or the lease of the attempt in progress. */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /** Error of the most recent failed attempt. */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
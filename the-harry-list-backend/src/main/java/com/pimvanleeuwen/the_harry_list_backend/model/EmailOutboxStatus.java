@@ -0,0 +1,13 @@
+package com.pimvanleeuwen.the_harry_list_backend.model;
+
+/**
+ * Delivery state of an {@link EmailOutbox} row.
+ */
+public enum EmailOutboxStatus {
+    /** Waiting to be sent, possibly after a failed attempt. */
+    PENDING,
+    /** Accepted by the mail server. */
+    SENT,
+    /** Gave up after the maximum number of attempts; kept for inspection. */
+    FAILED
+}
@@ -7,12 +7,14 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.security.SecureRandom;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 
 /**
@@ -21,9 +23,20 @@ import java.util.Set;
  */
 @Data
 @Entity
-@Table(name = "reservation")
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_event_date", columnList = "event_date"),
+        @Index(name = "idx_reservation_status_event_date", columnList = "status, event_date"),
+        @Index(name = "idx_reservation_location_event_date", columnList = "location, event_date")
+})
 public class Reservation {
 
+    /** The special activities that make a reservation a catering event (see {@link #hasCateringActivity()}). */
+    public static final Set<SpecialActivity> CATERING_ACTIVITIES = Collections.unmodifiableSet(EnumSet.of(
+            SpecialActivity.EAT_A_LA_CARTE, SpecialActivity.EAT_CATERING, SpecialActivity.CATERING_CORONA_ROOM));
+
+    /** {@link #CATERING_ACTIVITIES} as a mask, for {@code bitand(r.specialActivities, :cateringMask) <> 0} in queries. */
+    public static final long CATERING_MASK = SpecialActivity.mask(CATERING_ACTIVITIES);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
@@ -72,12 +85,11 @@ public class Reservation {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
-    /** Special activities selected for this reservation */
-    @ElementCollection(targetClass = SpecialActivity.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "reservation_special_activities", joinColumns = @JoinColumn(name = "reservation_id"))
-    @Column(name = "special_activity")
-    @Enumerated(EnumType.STRING)
-    private Set<SpecialActivity> specialActivities = new HashSet<>();
+    /** Special activities selected for this reservation, stored as a bitmask (see {@link SpecialActivitiesConverter}) */
+    @Convert(converter = SpecialActivitiesConverter.class)
+    @Column(name = "special_activities", nullable = false)
+    @ColumnDefault("0")
+    private Set<SpecialActivity> specialActivities = EnumSet.noneOf(SpecialActivity.class);
 
     /** Expected number of guests */
     @Positive(message = "Number of guests must be positive")
@@ -226,10 +238,7 @@ public class Reservation {
      * {@link #cateringArranged} follow-up flag.
      */
     public boolean hasCateringActivity() {
-        return specialActivities != null && specialActivities.stream()
-                .anyMatch(a -> a == SpecialActivity.EAT_A_LA_CARTE
-                        || a == SpecialActivity.EAT_CATERING
-                        || a == SpecialActivity.CATERING_CORONA_ROOM);
+        return (SpecialActivity.mask(specialActivities) & CATERING_MASK) != 0;
     }
 
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
@@ -0,0 +1,27 @@
+package com.pimvanleeuwen.the_harry_list_backend.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores a set of {@link SpecialActivity}s as one {@code BIGINT} bitmask (bit
+ * {@code ordinal()} per activity) instead of a row per activity in a join table. Queries
+ * can then filter with {@code bitand(r.specialActivities, :mask)}. Always reads back a
+ * mutable {@link EnumSet}, empty for a null column.
+ */
+@Converter
+public class SpecialActivitiesConverter implements AttributeConverter<Set<SpecialActivity>, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Set<SpecialActivity> activities) {
+        return SpecialActivity.mask(activities);
+    }
+
+    @Override
+    public Set<SpecialActivity> convertToEntityAttribute(Long mask) {
+        return mask == null ? EnumSet.noneOf(SpecialActivity.class) : SpecialActivity.fromMask(mask);
+    }
+}
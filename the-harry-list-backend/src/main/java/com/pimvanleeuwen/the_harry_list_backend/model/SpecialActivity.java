@@ -1,8 +1,15 @@
 package com.pimvanleeuwen.the_harry_list_backend.model;
 
+import java.util.Collection;
+import java.util.EnumSet;
+
 /**
  * Special activities that can be selected for a reservation.
  * Replaces EventType - these drive constraints throughout the form.
+ *
+ * <p>A reservation stores its activities as a bitmask with bit {@code ordinal()} per
+ * activity (see {@link SpecialActivitiesConverter}), so new activities must be added at
+ * the end and existing ones never reordered or removed.
  */
 public enum SpecialActivity {
     GRADUATION("Graduation / PhD Defense"),
@@ -20,4 +27,31 @@ public enum SpecialActivity {
     public String getDisplayName() {
         return displayName;
     }
+
+    /** This activity's bit in a stored mask. */
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    /** The mask with the bits of {@code activities} set; 0 for null or empty. */
+    public static long mask(Collection<SpecialActivity> activities) {
+        long mask = 0;
+        if (activities != null) {
+            for (SpecialActivity activity : activities) {
+                mask |= activity.bit();
+            }
+        }
+        return mask;
+    }
+
+    /** The activities whose bits are set in {@code mask}; bits without an activity are ignored. */
+    public static EnumSet<SpecialActivity> fromMask(long mask) {
+        EnumSet<SpecialActivity> activities = EnumSet.noneOf(SpecialActivity.class);
+        for (SpecialActivity activity : values()) {
+            if ((mask & activity.bit()) != 0) {
+                activities.add(activity);
+            }
+        }
+        return activities;
+    }
 }
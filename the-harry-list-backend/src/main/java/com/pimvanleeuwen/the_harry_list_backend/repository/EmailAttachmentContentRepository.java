@@ -0,0 +1,13 @@
+package com.pimvanleeuwen.the_harry_list_backend.repository;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachmentContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface EmailAttachmentContentRepository extends JpaRepository<EmailAttachmentContent, String> {
+
+    @Query("SELECT c.sha256 FROM EmailAttachmentContent c")
+    List<String> findAllSha256();
+}
@@ -7,4 +7,6 @@ import java.util.List;
 
 public interface EmailAttachmentRepository extends JpaRepository<EmailAttachment, Long> {
     List<EmailAttachment> findByActiveTrue();
+
+    boolean existsBySha256(String sha256);
 }
@@ -0,0 +1,50 @@
+package com.pimvanleeuwen.the_harry_list_backend.repository;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Pending emails due at {@code now}, oldest first. An email is left out while an older
+     * one to the same recipient is still waiting for its retry, so each recipient receives
+     * its emails in the order they were queued.
+     */
+    @Query("""
+            SELECT o FROM EmailOutbox o
+            WHERE o.status = com.pimvanleeuwen.the_harry_list_backend.model.EmailOutboxStatus.PENDING
+              AND o.nextAttemptAt <= :now
+              AND NOT EXISTS (
+                  SELECT 1 FROM EmailOutbox p
+                  WHERE p.recipient = o.recipient
+                    AND p.status = com.pimvanleeuwen.the_harry_list_backend.model.EmailOutboxStatus.PENDING
+                    AND p.id < o.id
+                    AND p.nextAttemptAt > :now)
+            ORDER BY o.id""")
+    List<EmailOutbox> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Take a due email for one delivery attempt by moving its next attempt to
+     * {@code leaseUntil}. Returns 0 when it is no longer pending and due (sent or taken
+     * by another worker meanwhile); should the worker die mid-attempt, the email becomes
+     * due again once the lease expires.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE EmailOutbox o SET o.nextAttemptAt = :leaseUntil
+            WHERE o.id = :id
+              AND o.status = com.pimvanleeuwen.the_harry_list_backend.model.EmailOutboxStatus.PENDING
+              AND o.nextAttemptAt <= :now""")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -1,17 +1,173 @@
 package com.pimvanleeuwen.the_harry_list_backend.repository;
 
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation> {
+
+    /** The columns of a reservation that decide where and when it takes up seats. */
+    interface CapacityRow {
+        Long getId();
+        ReservationStatus getStatus();
+        BarLocation getLocation();
+        SeatingArea getSeatingArea();
+        LocalDate getEventDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        Integer getExpectedGuests();
+    }
 
     List<Reservation> findByEventDateBefore(LocalDate date);
 
     long countByEventDateBefore(LocalDate date);
 
+    /**
+     * Reservations for one day at one location, for the day report. Uses the
+     * {@code (location, event_date)} index.
+     *
+     * @param status only this status, or null for every status
+     */
+    @Query("SELECT r FROM Reservation r " +
+           "WHERE r.eventDate = :date AND r.location = :location " +
+           "AND (:status IS NULL OR r.status = :status)")
+    List<Reservation> findForDayReport(@Param("date") LocalDate date,
+                                       @Param("location") BarLocation location,
+                                       @Param("status") ReservationStatus status);
+
+    /**
+     * Reservations in {@code [from, to]} at the given locations, for a multi-day report.
+     *
+     * @param status only this status, or null for every status
+     */
+    @Query("SELECT r FROM Reservation r " +
+           "WHERE r.eventDate BETWEEN :from AND :to AND r.location IN :locations " +
+           "AND (:status IS NULL OR r.status = :status)")
+    List<Reservation> findForRangeReport(@Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         @Param("locations") Collection<BarLocation> locations,
+                                         @Param("status") ReservationStatus status);
+
+    /**
+     * Reservations for a calendar feed, filtered in the database rather than in memory and
+     * streamed row by row so a feed never holds the whole result set at once.
+     *
+     * <p>Backed by the {@code (status, event_date)} and {@code (location, event_date)}
+     * indexes on {@code reservation}. The catering filter tests the special activities
+     * bitmask against {@link Reservation#CATERING_MASK}. The caller must close the stream
+     * and run inside a transaction.
+     *
+     * @param statuses the statuses to include (must not be empty)
+     * @param location only this location, or null for all locations
+     * @param fromDate only events on or after this date, or null for the full history
+     * @param catering null = all; true = catering reservations only; false = non-catering only
+     */
+    default Stream<Reservation> streamForFeed(Collection<ReservationStatus> statuses, BarLocation location,
+                                              LocalDate fromDate, Boolean catering) {
+        return streamForFeed(statuses, location, fromDate, catering, Reservation.CATERING_MASK);
+    }
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT r FROM Reservation r " +
+           "WHERE r.status IN :statuses " +
+           "AND (:location IS NULL OR r.location = :location) " +
+           "AND (:fromDate IS NULL OR r.eventDate >= :fromDate) " +
+           "AND (:catering IS NULL " +
+           "  OR (:catering = TRUE AND bitand(r.specialActivities, cast(:cateringMask as Long)) <> 0) " +
+           "  OR (:catering = FALSE AND bitand(r.specialActivities, cast(:cateringMask as Long)) = 0)) " +
+           "ORDER BY r.eventDate, r.id")
+    Stream<Reservation> streamForFeed(@Param("statuses") Collection<ReservationStatus> statuses,
+                                      @Param("location") BarLocation location,
+                                      @Param("fromDate") LocalDate fromDate,
+                                      @Param("catering") Boolean catering,
+                                      @Param("cateringMask") long cateringMask);
+
+    /** How many reservations a feed holds and when the newest of them last changed. */
+    interface FeedStats {
+        long getCount();
+        LocalDateTime getLastChange();
+    }
+
+    /**
+     * {@link FeedStats} for the reservations {@link #streamForFeed} would return, from one
+     * aggregate query. Every change to a reservation moves {@code updatedAt}, so a feed's
+     * content is the same as long as these are.
+     */
+    default FeedStats feedStats(Collection<ReservationStatus> statuses, BarLocation location,
+                                LocalDate fromDate, Boolean catering) {
+        return feedStats(statuses, location, fromDate, catering, Reservation.CATERING_MASK);
+    }
+
+    @Query("SELECT COUNT(r) AS count, MAX(COALESCE(r.updatedAt, r.createdAt)) AS lastChange " +
+           "FROM Reservation r " +
+           "WHERE r.status IN :statuses " +
+           "AND (:location IS NULL OR r.location = :location) " +
+           "AND (:fromDate IS NULL OR r.eventDate >= :fromDate) " +
+           "AND (:catering IS NULL " +
+           "  OR (:catering = TRUE AND bitand(r.specialActivities, cast(:cateringMask as Long)) <> 0) " +
+           "  OR (:catering = FALSE AND bitand(r.specialActivities, cast(:cateringMask as Long)) = 0))")
+    FeedStats feedStats(@Param("statuses") Collection<ReservationStatus> statuses,
+                        @Param("location") BarLocation location,
+                        @Param("fromDate") LocalDate fromDate,
+                        @Param("catering") Boolean catering,
+                        @Param("cateringMask") long cateringMask);
+
+    /** Capacity columns of the reservations with the given status on or after {@code from}. */
+    @Query("SELECT r.id AS id, r.status AS status, r.location AS location, r.seatingArea AS seatingArea, " +
+           "r.eventDate AS eventDate, r.startTime AS startTime, r.endTime AS endTime, " +
+           "r.expectedGuests AS expectedGuests " +
+           "FROM Reservation r WHERE r.status = :status AND r.eventDate >= :from")
+    List<CapacityRow> findCapacityRows(@Param("status") ReservationStatus status, @Param("from") LocalDate from);
+
+    /** Capacity columns of the reservations with one of the given statuses from {@code from} through {@code to}. */
+    @Query("SELECT r.id AS id, r.status AS status, r.location AS location, r.seatingArea AS seatingArea, " +
+           "r.eventDate AS eventDate, r.startTime AS startTime, r.endTime AS endTime, " +
+           "r.expectedGuests AS expectedGuests " +
+           "FROM Reservation r WHERE r.status IN :statuses AND r.eventDate BETWEEN :from AND :to")
+    List<CapacityRow> findCapacityRowsBetween(@Param("statuses") Collection<ReservationStatus> statuses,
+                                              @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /** Capacity columns of the given reservations; ids that no longer exist are skipped. */
+    @Query("SELECT r.id AS id, r.status AS status, r.location AS location, r.seatingArea AS seatingArea, " +
+           "r.eventDate AS eventDate, r.startTime AS startTime, r.endTime AS endTime, " +
+           "r.expectedGuests AS expectedGuests " +
+           "FROM Reservation r WHERE r.id IN :ids")
+    List<CapacityRow> findCapacityRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Set the status of all given reservations in one statement, and {@code confirmedBy}
+     * unless it is null. A bulk update skips entity callbacks and events, so
+     * {@code updatedAt} is set here and the caller must report the change to
+     * {@link com.pimvanleeuwen.the_harry_list_backend.config.EntityChangePublisher}. Pending
+     * changes are flushed first and the persistence context is cleared afterwards, so
+     * reservations loaded earlier are detached and never written back over this update.
+     *
+     * @return the number of reservations updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = :status, " +
+           "r.confirmedBy = COALESCE(:confirmedBy, r.confirmedBy), r.updatedAt = :now " +
+           "WHERE r.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") ReservationStatus status,
+                           @Param("confirmedBy") String confirmedBy,
+                           @Param("now") LocalDateTime now);
 }
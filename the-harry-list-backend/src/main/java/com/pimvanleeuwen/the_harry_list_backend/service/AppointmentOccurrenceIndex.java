@@ -0,0 +1,184 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.repository.CalendarAppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Materialized occurrences of the enabled {@link CalendarAppointment}s, so day reports,
+ * range views and availability checks can ask "what happens on these days" without
+ * testing every appointment against every date.
+ *
+ * <p>Occurrences from {@value #HORIZON_PAST_DAYS} days ago through
+ * {@value #HORIZON_MONTHS} months ahead are expanded once with
+ * {@link AppointmentRecurrenceService#occurrences} and kept per date. Dates outside that
+ * window are expanded on demand from the appointments held in memory, so no query ever
+ * goes to the database. The index is loaded on first use, rebuilt whenever a
+ * {@link CalendarAppointment} change commits (see {@link EntityChangedEvent}), and
+ * re-expanded when the date rolls over. The appointments handed out are shared and must
+ * not be modified.
+ */
+@Service
+public class AppointmentOccurrenceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentOccurrenceIndex.class);
+
+    public static final int HORIZON_PAST_DAYS = 31;
+    public static final int HORIZON_MONTHS = 12;
+
+    /** One appointment on one date. */
+    public record Occurrence(LocalDate date, CalendarAppointment appointment) {
+    }
+
+    /** All-day appointments first, then by start time (appointments without one last). */
+    static final Comparator<CalendarAppointment> DAY_ORDER = Comparator
+            .comparing((CalendarAppointment a) -> Boolean.TRUE.equals(a.getAllDay()) ? 0 : 1)
+            .thenComparing(a -> a.getStartTime() != null ? a.getStartTime() : LocalTime.MAX);
+
+    private final CalendarAppointmentRepository calendarAppointmentRepository;
+    private final AppointmentRecurrenceService recurrenceService;
+
+    /** Current snapshot; null until first loaded. */
+    private volatile Snapshot snapshot;
+
+    public AppointmentOccurrenceIndex(CalendarAppointmentRepository calendarAppointmentRepository,
+                                      AppointmentRecurrenceService recurrenceService) {
+        this.calendarAppointmentRepository = calendarAppointmentRepository;
+        this.recurrenceService = recurrenceService;
+    }
+
+    /**
+     * Enabled appointments occurring on {@code date}, at {@code location} (null for every
+     * location), all-day ones first and then by start time.
+     */
+    public List<CalendarAppointment> onDate(LocalDate date, BarLocation location) {
+        Snapshot s = current();
+        List<CalendarAppointment> day = s.covers(date) ? s.byDate.getOrDefault(date, List.of()) : s.expand(date);
+        return location == null ? day : day.stream().filter(a -> a.getLocation() == location).toList();
+    }
+
+    /**
+     * Every occurrence of an enabled appointment in {@code [from, to]} at {@code location}
+     * (null for every location), ordered by date and then as in {@link #onDate}.
+     */
+    public List<Occurrence> between(LocalDate from, LocalDate to, BarLocation location) {
+        List<Occurrence> result = new ArrayList<>();
+        if (from.isAfter(to)) {
+            return result;
+        }
+        Snapshot s = current();
+        if (s.covers(from) && s.covers(to)) {
+            for (Map.Entry<LocalDate, List<CalendarAppointment>> day : s.byDate.subMap(from, true, to, true).entrySet()) {
+                for (CalendarAppointment appointment : day.getValue()) {
+                    if (location == null || appointment.getLocation() == location) {
+                        result.add(new Occurrence(day.getKey(), appointment));
+                    }
+                }
+            }
+            return result;
+        }
+        NavigableMap<LocalDate, List<CalendarAppointment>> expanded =
+                expand(s.appointments, from, to, recurrenceService);
+        expanded.forEach((date, day) -> day.stream()
+                .filter(a -> location == null || a.getLocation() == location)
+                .forEach(a -> result.add(new Occurrence(date, a))));
+        return result;
+    }
+
+    /** Reload the enabled appointments and rebuild the index. */
+    public synchronized void refresh() {
+        snapshot = new Snapshot(calendarAppointmentRepository.findByEnabledTrue(), LocalDate.now());
+    }
+
+    @EventListener
+    @Order(EntityChangedEvent.INDEX_ORDER)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(CalendarAppointment.class)) {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                // Load again on next use rather than keep serving stale occurrences
+                snapshot = null;
+                log.warn("Refreshing the appointment occurrences failed; loading them again on next use", e);
+            }
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        LocalDate today = LocalDate.now();
+        if (current != null && current.builtOn.equals(today)) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                refresh();
+            } else if (!snapshot.builtOn.equals(today)) {
+                // A new day: move the horizon using the appointments already in memory
+                snapshot = new Snapshot(snapshot.appointments, today);
+            }
+            return snapshot;
+        }
+    }
+
+    /** Occurrences of {@code appointments} in {@code [from, to]}, grouped by date in day order. */
+    private static NavigableMap<LocalDate, List<CalendarAppointment>> expand(
+            List<CalendarAppointment> appointments, LocalDate from, LocalDate to,
+            AppointmentRecurrenceService recurrenceService) {
+        NavigableMap<LocalDate, List<CalendarAppointment>> byDate = new TreeMap<>();
+        for (CalendarAppointment appointment : appointments) {
+            for (LocalDate date : recurrenceService.occurrences(appointment, from, to)) {
+                byDate.computeIfAbsent(date, d -> new ArrayList<>()).add(appointment);
+            }
+        }
+        byDate.replaceAll((date, day) -> {
+            day.sort(DAY_ORDER);
+            return Collections.unmodifiableList(day);
+        });
+        return byDate;
+    }
+
+    /** The enabled appointments and their occurrences within the horizon around {@code builtOn}. */
+    private final class Snapshot {
+
+        final List<CalendarAppointment> appointments;
+        final LocalDate builtOn;
+        final LocalDate horizonStart;
+        final LocalDate horizonEnd;
+        final NavigableMap<LocalDate, List<CalendarAppointment>> byDate;
+
+        Snapshot(List<CalendarAppointment> appointments, LocalDate builtOn) {
+            this.appointments = List.copyOf(appointments);
+            this.builtOn = builtOn;
+            this.horizonStart = builtOn.minusDays(HORIZON_PAST_DAYS);
+            this.horizonEnd = builtOn.plusMonths(HORIZON_MONTHS);
+            this.byDate = Collections.unmodifiableNavigableMap(
+                    AppointmentOccurrenceIndex.expand(this.appointments, horizonStart, horizonEnd, recurrenceService));
+        }
+
+        boolean covers(LocalDate date) {
+            return !date.isBefore(horizonStart) && !date.isAfter(horizonEnd);
+        }
+
+        List<CalendarAppointment> expand(LocalDate date) {
+            return AppointmentOccurrenceIndex.expand(appointments, date, date, recurrenceService)
+                    .getOrDefault(date, List.of());
+        }
+    }
+}
@@ -6,6 +6,10 @@ import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Resolves whether a {@link CalendarAppointment} occurs on a concrete date.
@@ -59,6 +63,101 @@ public class AppointmentRecurrenceService {
         };
     }
 
+    /**
+     * Every date in {@code [from, to]} on which {@code appointment} occurs, in order; the
+     * same dates {@link #occursOn} accepts. Steps straight from one occurrence to the
+     * next, so the cost is proportional to the number of occurrences (or of recurrence
+     * periods, for monthly/yearly patterns that skip short months) rather than the number
+     * of days in the range.
+     */
+    public List<LocalDate> occurrences(CalendarAppointment appointment, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (appointment == null || from == null || to == null || appointment.getDate() == null) {
+            return dates;
+        }
+
+        LocalDate start = appointment.getDate();
+        LocalDate first = from.isBefore(start) ? start : from;
+        LocalDate last = appointment.getRecurrenceEndDate() != null && appointment.getRecurrenceEndDate().isBefore(to)
+                ? appointment.getRecurrenceEndDate()
+                : to;
+        if (first.isAfter(last)) {
+            return dates;
+        }
+
+        RecurrenceType type = appointment.getRecurrenceType() != null
+                ? appointment.getRecurrenceType()
+                : RecurrenceType.NONE;
+        int interval = effectiveInterval(appointment);
+
+        switch (type) {
+            case NONE -> {
+                if (!start.isBefore(first)) {
+                    dates.add(start);
+                }
+            }
+            case DAILY -> addEvery(dates, start, first, last, interval);
+            case WEEKLY -> addEvery(dates, start, first, last, 7L * interval);
+            case MONTHLY -> {
+                for (YearMonth month = firstPeriod(start, first, interval); !month.atDay(1).isAfter(last);
+                     month = month.plusMonths(interval)) {
+                    if (month.isValidDay(start.getDayOfMonth())) {
+                        addIfWithin(dates, month.atDay(start.getDayOfMonth()), first, last);
+                    }
+                }
+            }
+            case YEARLY -> {
+                long years = Math.max(0, first.getYear() - start.getYear());
+                for (int year = start.getYear() + (int) ceilToMultiple(years, interval); year <= last.getYear();
+                     year += interval) {
+                    YearMonth month = YearMonth.of(year, start.getMonth());
+                    if (month.isValidDay(start.getDayOfMonth())) {
+                        addIfWithin(dates, month.atDay(start.getDayOfMonth()), first, last);
+                    }
+                }
+            }
+            case MONTHLY_NTH_WEEKDAY -> {
+                Integer week = appointment.getRecurrenceWeekOfMonth();
+                DayOfWeek day = appointment.getRecurrenceDayOfWeek();
+                if (week == null || day == null || (week < 1 && week != -1)) {
+                    break;
+                }
+                for (YearMonth month = firstPeriod(start, first, interval); !month.atDay(1).isAfter(last);
+                     month = month.plusMonths(interval)) {
+                    LocalDate date = month.atDay(1).with(TemporalAdjusters.dayOfWeekInMonth(week, day));
+                    if (YearMonth.from(date).equals(month)) {
+                        addIfWithin(dates, date, first, last);
+                    }
+                }
+            }
+        }
+        return dates;
+    }
+
+    /** Dates {@code start + k * step} days within {@code [first, last]}. */
+    private void addEvery(List<LocalDate> dates, LocalDate start, LocalDate first, LocalDate last, long step) {
+        long offset = ceilToMultiple(daysBetween(start, first), step);
+        for (LocalDate date = start.plusDays(offset); !date.isAfter(last); date = date.plusDays(step)) {
+            dates.add(date);
+        }
+    }
+
+    /** The first month on or after {@code first}'s month that is a whole number of intervals after {@code start}'s. */
+    private YearMonth firstPeriod(LocalDate start, LocalDate first, int interval) {
+        return YearMonth.from(start).plusMonths(ceilToMultiple(monthsBetween(start, first), interval));
+    }
+
+    private void addIfWithin(List<LocalDate> dates, LocalDate date, LocalDate first, LocalDate last) {
+        if (!date.isBefore(first) && !date.isAfter(last)) {
+            dates.add(date);
+        }
+    }
+
+    /** The smallest multiple of {@code step} that is at least {@code value} (value >= 0). */
+    private static long ceilToMultiple(long value, long step) {
+        return (value + step - 1) / step * step;
+    }
+
     private boolean occursOnNthWeekday(CalendarAppointment appointment, LocalDate start,
                                        LocalDate date, int interval) {
         Integer week = appointment.getRecurrenceWeekOfMonth();
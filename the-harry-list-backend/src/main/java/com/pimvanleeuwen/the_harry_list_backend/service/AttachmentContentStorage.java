@@ -0,0 +1,55 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Where the bytes of email attachments live, addressed by their SHA-256 hash (lowercase
+ * hex). Chosen with {@code app.mail.attachments.storage}: {@code database} (default,
+ * {@link DatabaseAttachmentContentStorage}) or {@code filesystem}
+ * ({@link FilesystemAttachmentContentStorage}).
+ *
+ * <p>Storing the same bytes twice keeps one copy. Implementations are safe for concurrent use.
+ */
+public interface AttachmentContentStorage {
+
+    /** Hash and size of stored content. */
+    record StoredContent(String sha256, long sizeBytes) {
+    }
+
+    /**
+     * Content read and hashed by {@link #stage}, but not yet readable under its hash.
+     * Closing it drops whatever {@link #commit} did not take over.
+     */
+    interface Staged extends Closeable {
+        String sha256();
+
+        long sizeBytes();
+    }
+
+    /** Read and hash everything {@code content} yields (the stream is not closed), without publishing it. */
+    Staged stage(InputStream content) throws IOException;
+
+    /** Make staged content readable under its hash; content already there is kept as it is. */
+    void commit(Staged staged) throws IOException;
+
+    /** Store everything {@code content} yields (the stream is not closed) and return its hash. */
+    default StoredContent put(InputStream content) throws IOException {
+        try (Staged staged = stage(content)) {
+            commit(staged);
+            return new StoredContent(staged.sha256(), staged.sizeBytes());
+        }
+    }
+
+    /** The content with this hash, readable as often as needed, or empty when there is none. */
+    Optional<Resource> get(String sha256);
+
+    boolean exists(String sha256);
+
+    /** Remove the content with this hash; does nothing when there is none. */
+    void delete(String sha256);
+}
@@ -2,6 +2,9 @@ package com.pimvanleeuwen.the_harry_list_backend.service;
 
 import com.pimvanleeuwen.the_harry_list_backend.dto.FieldChange;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
@@ -14,6 +17,10 @@ import java.util.Set;
 /**
  * Reflection-based helper that computes field-level diffs between two instances
  * of the same entity, for use in audit logging.
+ *
+ * <p>The instance fields of each class are resolved once and cached as
+ * {@link MethodHandle} getters, so a diff does no reflective lookups or access checks.
+ * Values are compared as objects and only rendered to strings when they differ.
  */
 public final class AuditDiff {
 
@@ -23,6 +30,18 @@ public final class AuditDiff {
     /** Metadata fields that are never meaningful to audit. */
     public static final Set<String> DEFAULT_IGNORE = Set.of("id", "createdAt", "updatedAt");
 
+    /** A readable instance field and its getter, adapted to {@code (Object)Object}. */
+    private record Accessor(String name, MethodHandle getter) {
+    }
+
+    /** Readable instance fields per class, own fields first, then superclass fields. */
+    private static final ClassValue<List<Accessor>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected List<Accessor> computeValue(Class<?> type) {
+            return accessorsOf(type);
+        }
+    };
+
     /**
      * Compare two objects of the same type using {@link #DEFAULT_IGNORE} and no
      * display-name overrides.
@@ -50,35 +69,77 @@ public final class AuditDiff {
         Set<String> ignored = ignore != null ? ignore : Collections.emptySet();
         Map<String, String> labels = displayNames != null ? displayNames : Collections.emptyMap();
 
-        for (Field field : collectFields(after.getClass())) {
-            if (Modifier.isStatic(field.getModifiers()) || ignored.contains(field.getName())) {
+        for (Accessor accessor : ACCESSORS.get(after.getClass())) {
+            if (ignored.contains(accessor.name())) {
                 continue;
             }
+            Object oldRaw;
+            Object newRaw;
             try {
-                field.setAccessible(true);
-                // Normalize null and blank strings to the same value so that, e.g.,
-                // null -> "" (common when an edit form sends empty strings for previously
-                // unset optional fields) is not reported as a spurious change.
-                String oldValue = normalize(field.get(before));
-                String newValue = normalize(field.get(after));
-                if (!Objects.equals(oldValue, newValue)) {
-                    String label = labels.getOrDefault(field.getName(), field.getName());
-                    changes.add(new FieldChange(label, oldValue, newValue));
-                }
-            } catch (Exception e) {
-                // Skip fields we cannot read (e.g. IllegalAccessException, InaccessibleObjectException)
+                oldRaw = (Object) accessor.getter().invokeExact(before);
+                newRaw = (Object) accessor.getter().invokeExact(after);
+            } catch (Throwable e) {
+                // Skip fields we cannot read (e.g. `before` is of an unrelated class)
                 // rather than failing the whole diff. Auditing must never break the caller.
+                continue;
+            }
+            if (sameValue(oldRaw, newRaw)) {
+                continue;
+            }
+            // Normalize null and blank strings to the same value so that, e.g.,
+            // null -> "" (common when an edit form sends empty strings for previously
+            // unset optional fields) is not reported as a spurious change.
+            String oldValue = normalize(oldRaw);
+            String newValue = normalize(newRaw);
+            if (!Objects.equals(oldValue, newValue)) {
+                String label = labels.getOrDefault(accessor.name(), accessor.name());
+                changes.add(new FieldChange(label, oldValue, newValue));
             }
         }
         return changes;
     }
 
-    private static List<Field> collectFields(Class<?> type) {
-        List<Field> fields = new ArrayList<>();
+    /**
+     * Cheap equality check before any rendering. Equal values (including equal sets of a
+     * different implementation, such as a Hibernate {@code PersistentSet} and a
+     * {@code HashSet}) are unchanged; anything else is settled by comparing the
+     * normalized strings.
+     */
+    private static boolean sameValue(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            // null vs blank string counts as unchanged; decided on the normalized form
+            return false;
+        }
+        return Objects.deepEquals(a, b);
+    }
+
+    private static List<Accessor> accessorsOf(Class<?> type) {
+        List<Accessor> accessors = new ArrayList<>();
         for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
-            Collections.addAll(fields, c.getDeclaredFields());
+            MethodHandles.Lookup lookup;
+            try {
+                lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Class in a module that is not open to us: its fields cannot be read
+                continue;
+            }
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    MethodHandle getter = lookup.unreflectGetter(field)
+                            .asType(MethodType.methodType(Object.class, Object.class));
+                    accessors.add(new Accessor(field.getName(), getter));
+                } catch (IllegalAccessException e) {
+                    // Unreadable field: skip it, as an uncached diff would
+                }
+            }
         }
-        return fields;
+        return List.copyOf(accessors);
     }
 
     /**
@@ -0,0 +1,223 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditLog;
+import com.pimvanleeuwen.the_harry_list_backend.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes audit entries off the request thread. {@link AuditService} hands finished
+ * entries to {@link #submit}; a single background thread collects them into batches of
+ * up to {@code app.audit.batch-size} entries (or whatever arrived within
+ * {@code app.audit.flush-interval-ms} of the first one) and inserts each batch with one
+ * {@code saveAll}, i.e. one transaction and one commit per batch.
+ *
+ * <p>The queue is bounded. When it is full (the database is down or far behind) new
+ * entries are dropped and counted rather than blocking the admin request. A batch that
+ * fails as a whole is retried entry by entry, so a single bad entry costs only itself.
+ *
+ * <p>The writer stops after the web server has finished its graceful shutdown and drains
+ * whatever is still queued before the datasource closes. While the writer is not running
+ * (before startup, after shutdown, or in plain unit tests) entries are written directly.
+ *
+ * <p>Metrics: {@code audit.writer.queue.depth}, {@code audit.writer.dropped},
+ * {@code audit.writer.failed} and {@code audit.writer.written}.
+ */
+@Component
+public class AuditLogWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    /** How long {@link #stop()} waits for the queue to drain. */
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    /** Longest single wait on the queue, so the flusher notices a shutdown promptly. */
+    private static final long POLL_SLICE_MS = 100;
+
+    private final AuditLogRepository auditLogRepository;
+    private final BlockingQueue<AuditLog> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter written;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository, MeterRegistry meterRegistry,
+                          @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+                          @Value("${app.audit.batch-size:100}") int batchSize,
+                          @Value("${app.audit.flush-interval-ms:500}") long flushIntervalMs) {
+        this.auditLogRepository = auditLogRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        Gauge.builder("audit.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Audit entries waiting to be written")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.writer.dropped")
+                .description("Audit entries discarded because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("audit.writer.failed")
+                .description("Audit entries that could not be inserted")
+                .register(meterRegistry);
+        this.written = Counter.builder("audit.writer.written")
+                .description("Audit entries inserted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an entry for writing. Never blocks and never throws; when the queue is full
+     * the entry is logged and dropped.
+     */
+    public void submit(AuditLog entry) {
+        if (!running) {
+            write(List.of(entry));
+            return;
+        }
+        if (!queue.offer(entry)) {
+            dropped.increment();
+            log.warn("Audit queue full, dropping entry: entityType={} action={} entityId={}",
+                    entry.getEntityType(), entry.getAction(), entry.getEntityId());
+        }
+    }
+
+    /** Queue several entries at once, e.g. those of one bulk operation; as {@link #submit}. */
+    public void submitAll(List<AuditLog> entries) {
+        if (!running) {
+            write(entries);
+            return;
+        }
+        entries.forEach(this::submit);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofPlatform().name("audit-writer").daemon().start(this::run);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.warn("Audit writer did not drain within {} ms; {} entries still queued",
+                    SHUTDOWN_TIMEOUT_MS, queue.size());
+            return;
+        }
+        // Entries that raced the shutdown into the queue after the flusher's last drain
+        List<AuditLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server (whose graceful shutdown runs in an earlier phase) has
+     * finished its in-flight requests, so their entries are part of the final drain.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(POLL_SLICE_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    long wait = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_SLICE_MS));
+                    AuditLog next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                // Top up without waiting; this is all the batching there is while shutting down
+                queue.drainTo(batch, batchSize - batch.size());
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in audit writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        try {
+            auditLogRepository.saveAll(batch);
+            written.increment(batch.size());
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                logFailure(batch.getFirst(), e);
+                return;
+            }
+            log.warn("Batch insert of {} audit entries failed, retrying one by one", batch.size(), e);
+        }
+
+        for (AuditLog entry : batch) {
+            // The rolled-back batch may already have assigned identity values
+            entry.setId(null);
+            try {
+                auditLogRepository.save(entry);
+                written.increment();
+            } catch (Exception e) {
+                logFailure(entry, e);
+            }
+        }
+    }
+
+    private void logFailure(AuditLog entry, Exception e) {
+        failed.increment();
+        // Auditing must never break the underlying operation.
+        log.error("Failed to write audit log entry: entityType={} action={} entityId={}",
+                entry.getEntityType(), entry.getAction(), entry.getEntityId(), e);
+    }
+}
@@ -6,12 +6,14 @@ import com.pimvanleeuwen.the_harry_list_backend.dto.FieldChange;
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditAction;
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditLog;
-import com.pimvanleeuwen.the_harry_list_backend.repository.AuditLogRepository;
 import com.pimvanleeuwen.the_harry_list_backend.util.AuditActorResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -22,17 +24,22 @@ import java.util.List;
  * <p>All writes are wrapped defensively: a failure to record an audit entry is
  * logged but never propagated, so it can never break the underlying business
  * operation (same philosophy as the existing email-send paths).
+ *
+ * <p>Entries are built on the caller's thread (actor and timestamp are captured
+ * there) and inserted asynchronously in batches by {@link AuditLogWriter}. Inside
+ * a transaction the entry is handed over only once it commits, so a rolled-back
+ * change leaves no audit trail, as when the insert shared the transaction.
  */
 @Service
 public class AuditService {
 
     private static final Logger log = LoggerFactory.getLogger(AuditService.class);
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public AuditService(AuditLogRepository auditLogRepository) {
-        this.auditLogRepository = auditLogRepository;
+    public AuditService(AuditLogWriter auditLogWriter) {
+        this.auditLogWriter = auditLogWriter;
     }
 
     /** Record a creation. {@code snapshot} may carry the initial field values, or be empty. */
@@ -61,23 +68,37 @@ public class AuditService {
         record(entityType, entityId, label, action, changes, summary);
     }
 
-    private void record(AuditEntityType entityType, Long entityId, String label,
-                        AuditAction action, List<FieldChange> changes, String summary) {
+    /** One entity's part of {@link #recordActions}. */
+    public record Entry(Long entityId, String label, List<FieldChange> changes, String summary) {
+    }
+
+    /**
+     * Record the same action on several entities, e.g. a bulk status change. The entries
+     * are handed to the writer together, so they are inserted in one batch.
+     */
+    public void recordActions(AuditEntityType entityType, AuditAction action, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
         try {
             AuditActorResolver.Actor actor = AuditActorResolver.resolveCurrentActor();
+            List<AuditLog> built = entries.stream()
+                    .map(e -> build(actor, entityType, e.entityId(), e.label(), action, e.changes(), e.summary()))
+                    .toList();
+            afterCommit(() -> auditLogWriter.submitAll(built));
+        } catch (Exception e) {
+            // Auditing must never break the underlying operation.
+            log.error("Failed to write {} audit log entries: entityType={} action={}",
+                    entries.size(), entityType, action, e);
+        }
+    }
 
-            AuditLog entry = new AuditLog();
-            entry.setEntityType(entityType);
-            entry.setEntityId(entityId);
-            entry.setEntityLabel(label);
-            entry.setAction(action);
-            entry.setActorOid(actor.oid());
-            entry.setActorEmail(actor.email());
-            entry.setActorName(actor.name());
-            entry.setChanges(serialize(changes));
-            entry.setSummary(summary);
-
-            auditLogRepository.save(entry);
+    private void record(AuditEntityType entityType, Long entityId, String label,
+                        AuditAction action, List<FieldChange> changes, String summary) {
+        try {
+            AuditLog entry = build(AuditActorResolver.resolveCurrentActor(),
+                    entityType, entityId, label, action, changes, summary);
+            afterCommit(() -> auditLogWriter.submit(entry));
         } catch (Exception e) {
             // Auditing must never break the underlying operation.
             log.error("Failed to write audit log entry: entityType={} action={} entityId={}",
@@ -85,6 +106,36 @@ public class AuditService {
         }
     }
 
+    private AuditLog build(AuditActorResolver.Actor actor, AuditEntityType entityType, Long entityId,
+                           String label, AuditAction action, List<FieldChange> changes, String summary) {
+        AuditLog entry = new AuditLog();
+        entry.setEntityType(entityType);
+        entry.setEntityId(entityId);
+        entry.setEntityLabel(label);
+        entry.setAction(action);
+        entry.setActorOid(actor.oid());
+        entry.setActorEmail(actor.email());
+        entry.setActorName(actor.name());
+        entry.setChanges(serialize(changes));
+        entry.setSummary(summary);
+        entry.setCreatedAt(LocalDateTime.now());
+        return entry;
+    }
+
+    /** Run {@code handOver} once the current transaction commits, or now when there is none. */
+    private static void afterCommit(Runnable handOver) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    handOver.run();
+                }
+            });
+        } else {
+            handOver.run();
+        }
+    }
+
     private String serialize(List<FieldChange> changes) {
         if (changes == null || changes.isEmpty()) {
             return null;
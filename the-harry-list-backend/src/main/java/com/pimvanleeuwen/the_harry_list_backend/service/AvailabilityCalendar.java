@@ -0,0 +1,334 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability;
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability.Level;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod;
+import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository.CapacityRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Precomputed {@link MonthAvailability} for the current month and the
+ * {@value #HORIZON_MONTHS} after it, so the public date picker is served from memory and,
+ * through the ETag, mostly not served at all.
+ *
+ * <p>A location's level on a day combines the blocked periods ({@link BlockedPeriodIndex}),
+ * the enabled appointments ({@link AppointmentOccurrenceIndex}) and the confirmed and
+ * pending reservations, which make a day busy (overnight guests make the next day busy
+ * too). A day is full when {@link CapacityIndex} would not fit a single guest more: the
+ * confirmed guests of every seating area reach its configured capacity at some point of
+ * the day. Without a capacity for every area it never is, and neither is a day before
+ * yesterday, which the index no longer holds.
+ *
+ * <p>Everything is computed on first use. A committed reservation change (see
+ * {@link EntityChangedEvent#ids}) reloads only the changed reservations and recomputes the
+ * months they were or are in; a blocked period or appointment change recomputes every
+ * month from memory once those indexes have refreshed. A new month moves the horizon with
+ * a full reload. Published months are immutable and replaced whole.
+ */
+@Service
+public class AvailabilityCalendar {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityCalendar.class);
+
+    /** Months after the current one that are precomputed. */
+    public static final int HORIZON_MONTHS = 12;
+
+    private static final Set<ReservationStatus> COUNTED = EnumSet.of(ReservationStatus.CONFIRMED,
+            ReservationStatus.PENDING);
+    private static final List<BarLocation> LOCATIONS = List.of(BarLocation.HUBBLE, BarLocation.METEOR);
+
+    /**
+     * One month as served.
+     *
+     * @param availability the month's levels
+     * @param etag         quoted strong entity tag derived from the levels
+     */
+    public record PublishedMonth(MonthAvailability availability, String etag) {
+    }
+
+    private final ReservationRepository reservationRepository;
+    private final BlockedPeriodIndex blockedPeriodIndex;
+    private final AppointmentOccurrenceIndex appointmentOccurrenceIndex;
+    private final CapacityIndex capacityIndex;
+
+    /** Current snapshot; null until first loaded. */
+    private volatile Snapshot snapshot;
+
+    // Guarded by this
+    /** Counted reservations on or running into each day. */
+    private final Map<DayKey, Integer> bookedDays = new HashMap<>();
+    private final Map<Long, Booking> bookings = new HashMap<>();
+
+    public AvailabilityCalendar(ReservationRepository reservationRepository,
+                                BlockedPeriodIndex blockedPeriodIndex,
+                                AppointmentOccurrenceIndex appointmentOccurrenceIndex,
+                                CapacityIndex capacityIndex) {
+        this.reservationRepository = reservationRepository;
+        this.blockedPeriodIndex = blockedPeriodIndex;
+        this.appointmentOccurrenceIndex = appointmentOccurrenceIndex;
+        this.capacityIndex = capacityIndex;
+    }
+
+    /**
+     * Availability of {@code month}, which must be the current month or one of the
+     * {@value #HORIZON_MONTHS} after it.
+     */
+    public PublishedMonth month(YearMonth month) {
+        Snapshot s = current();
+        PublishedMonth published = s.months.get(month);
+        if (published == null) {
+            throw new IllegalArgumentException("month must be between " + s.first + " and "
+                    + s.first.plusMonths(HORIZON_MONTHS));
+        }
+        return published;
+    }
+
+    /** Reload the counted reservations of the horizon and recompute every month. */
+    public synchronized void refresh() {
+        YearMonth first = YearMonth.now();
+        bookedDays.clear();
+        bookings.clear();
+        // From the day before, for overnight guests on the first day
+        LocalDate from = first.atDay(1).minusDays(1);
+        LocalDate to = first.plusMonths(HORIZON_MONTHS).atEndOfMonth();
+        for (CapacityRow row : reservationRepository.findCapacityRowsBetween(COUNTED, from, to)) {
+            Booking booking = bookingOf(row);
+            if (booking != null) {
+                apply(booking, 1);
+                bookings.put(row.getId(), booking);
+            }
+        }
+        Map<YearMonth, PublishedMonth> months = new HashMap<>();
+        for (int i = 0; i <= HORIZON_MONTHS; i++) {
+            months.put(first.plusMonths(i), compute(first.plusMonths(i)));
+        }
+        snapshot = new Snapshot(first, Map.copyOf(months));
+    }
+
+    /**
+     * Runs after {@link BlockedPeriodIndex}, {@link AppointmentOccurrenceIndex} and
+     * {@link CapacityIndex} have applied the change (see {@link EntityChangedEvent#INDEX_ORDER}).
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        boolean reservations = event.isAbout(Reservation.class);
+        Snapshot s = snapshot;
+        if (s == null || !(reservations || event.isAbout(BlockedPeriod.class)
+                || event.isAbout(CalendarAppointment.class))) {
+            return;
+        }
+        try {
+            if (reservations && event.ids() == null) {
+                refresh();
+            } else if (reservations) {
+                update(event.ids());
+            } else {
+                republish(s.months.keySet());
+            }
+        } catch (RuntimeException e) {
+            // Load again on next use rather than keep serving stale availability
+            snapshot = null;
+            log.warn("Updating the availability calendar failed; loading it again on next use", e);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        YearMonth now = YearMonth.now();
+        if (current != null && current.first.equals(now)) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null || !snapshot.first.equals(now)) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    private synchronized void update(Set<Object> ids) {
+        if (snapshot == null) {
+            return;
+        }
+        List<Long> reservationIds = ids.stream().map(id -> (Long) id).toList();
+        Map<Long, CapacityRow> rows = new HashMap<>();
+        for (CapacityRow row : reservationRepository.findCapacityRowsByIdIn(reservationIds)) {
+            rows.put(row.getId(), row);
+        }
+        Set<YearMonth> touched = new HashSet<>();
+        for (Long id : reservationIds) {
+            Booking before = bookings.remove(id);
+            if (before != null) {
+                apply(before, -1);
+                touched.addAll(before.months());
+            }
+            // Deleted when there is no row
+            CapacityRow row = rows.get(id);
+            Booking after = row != null && withinHorizon(row.getEventDate()) ? bookingOf(row) : null;
+            if (after != null) {
+                apply(after, 1);
+                bookings.put(id, after);
+                touched.addAll(after.months());
+            }
+        }
+        republish(touched);
+    }
+
+    /** Recompute the given months (those outside the horizon are skipped) and publish them. */
+    private synchronized void republish(Set<YearMonth> months) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            return;
+        }
+        Map<YearMonth, PublishedMonth> updated = new HashMap<>(s.months);
+        for (YearMonth month : months) {
+            if (updated.containsKey(month)) {
+                updated.put(month, compute(month));
+            }
+        }
+        snapshot = new Snapshot(s.first, Map.copyOf(updated));
+    }
+
+    private boolean withinHorizon(LocalDate date) {
+        YearMonth first = snapshot.first;
+        return date != null && !date.isBefore(first.atDay(1).minusDays(1))
+                && !date.isAfter(first.plusMonths(HORIZON_MONTHS).atEndOfMonth());
+    }
+
+    private PublishedMonth compute(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.atEndOfMonth();
+        Set<DayKey> appointments = new HashSet<>();
+        for (AppointmentOccurrenceIndex.Occurrence occurrence : appointmentOccurrenceIndex.between(from, to, null)) {
+            appointments.add(new DayKey(occurrence.appointment().getLocation(), occurrence.date()));
+        }
+        MessageDigest digest = sha256();
+        digest.update(month.toString().getBytes(StandardCharsets.UTF_8));
+        List<MonthAvailability.Day> days = new ArrayList<>(month.lengthOfMonth());
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Map<BarLocation, Level> levels = new EnumMap<>(BarLocation.class);
+            for (BarLocation location : LOCATIONS) {
+                DayKey key = new DayKey(location, date);
+                Level level = level(key, bookedDays.containsKey(key), appointments.contains(key));
+                levels.put(location, level);
+                digest.update((byte) level.ordinal());
+            }
+            days.add(new MonthAvailability.Day(date, levels));
+        }
+        return new PublishedMonth(new MonthAvailability(month, List.copyOf(days)),
+                "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"");
+    }
+
+    private Level level(DayKey key, boolean booked, boolean appointment) {
+        boolean soft = false;
+        boolean partial = false;
+        for (BlockedPeriod bp : blockedPeriodIndex.findBlocking(key.date(), key.location())) {
+            if (Boolean.TRUE.equals(bp.getSoftBlock())) {
+                soft = true;
+            } else if (bp.getStartTime() == null || bp.getEndTime() == null) {
+                return Level.BLOCKED;
+            } else {
+                partial = true;
+            }
+        }
+        if (full(key)) {
+            return Level.FULL;
+        }
+        if (soft) {
+            return Level.SOFT_BLOCKED;
+        }
+        return partial || booked || appointment ? Level.BUSY : Level.FREE;
+    }
+
+    /** Whether every seating area has a capacity, and its confirmed guests reach it at some point of the day. */
+    private boolean full(DayKey key) {
+        for (SeatingArea area : SeatingArea.values()) {
+            OptionalInt capacity = capacityIndex.capacity(key.location(), area);
+            if (capacity.isEmpty()
+                    || capacityIndex.peakGuests(key.location(), area, key.date()) < capacity.getAsInt()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Add ({@code sign} 1) or remove ({@code sign} -1) a booking from the booked days. */
+    private void apply(Booking booking, int sign) {
+        for (LocalDate date : booking.dates()) {
+            bookedDays.merge(new DayKey(booking.location(), date), sign, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    /** Where and when a reservation counts, or null when it does not. */
+    private static Booking bookingOf(CapacityRow row) {
+        if (!COUNTED.contains(row.getStatus()) || !LOCATIONS.contains(row.getLocation())
+                || row.getEventDate() == null) {
+            return null;
+        }
+        return new Booking(row.getLocation(), row.getEventDate(), row.getStartTime(), row.getEndTime());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every JVM
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** The published months, from {@code first} through {@value #HORIZON_MONTHS} months later. */
+    private record Snapshot(YearMonth first, Map<YearMonth, PublishedMonth> months) {
+    }
+
+    private record DayKey(BarLocation location, LocalDate date) {
+    }
+
+    /** A counted reservation; start and end may be missing, in which case it only makes its day busy. */
+    private record Booking(BarLocation location, LocalDate date, LocalTime start, LocalTime end) {
+
+        /** The days this booking makes busy: its date, and the next when it runs on past midnight. */
+        Set<LocalDate> dates() {
+            Set<LocalDate> dates = new TreeSet<>();
+            dates.add(date);
+            if (start != null && end != null && end.isBefore(start) && end.isAfter(LocalTime.MIDNIGHT)) {
+                dates.add(date.plusDays(1));
+            }
+            return dates;
+        }
+
+        Set<YearMonth> months() {
+            Set<YearMonth> months = new HashSet<>();
+            dates().forEach(d -> months.add(YearMonth.from(d)));
+            return months;
+        }
+    }
+}
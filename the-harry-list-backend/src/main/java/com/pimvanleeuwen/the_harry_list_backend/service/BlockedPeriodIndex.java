@@ -0,0 +1,319 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BlockedDates;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod;
+import com.pimvanleeuwen.the_harry_list_backend.repository.BlockedPeriodRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index of the enabled {@link BlockedPeriod}s, so the public form and
+ * submission validation never query the database for them.
+ *
+ * <p>Periods are partitioned into a global bucket (no location, blocks everywhere) and
+ * one bucket per {@link BarLocation}. Each bucket is a static interval tree, answering
+ * "which periods cover date D" in O(log n + k). Alongside it, the blocked dates of the
+ * next {@value #HORIZON_MONTHS} months are precomputed per location for the date picker.
+ *
+ * <p>The index is loaded on first use and rebuilt whenever a {@link BlockedPeriod}
+ * change commits (see {@link EntityChangedEvent}); each rebuild swaps in a complete new
+ * snapshot. The periods handed out are shared and must not be modified.
+ */
+@Service
+public class BlockedPeriodIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockedPeriodIndex.class);
+
+    /** How far ahead {@link #blockedDates} can look. */
+    public static final int HORIZON_MONTHS = 12;
+
+    private final BlockedPeriodRepository blockedPeriodRepository;
+
+    /** Current snapshot; null until first loaded. */
+    private volatile Snapshot snapshot;
+
+    public BlockedPeriodIndex(BlockedPeriodRepository blockedPeriodRepository) {
+        this.blockedPeriodRepository = blockedPeriodRepository;
+    }
+
+    /** All enabled periods, ordered by start date. */
+    public List<BlockedPeriod> enabledPeriods() {
+        return current().enabled;
+    }
+
+    /**
+     * Enabled periods (hard and soft) covering {@code date} that apply to {@code location}:
+     * the global ones plus that location's own. For a null or {@code NO_PREFERENCE}
+     * location only global periods apply.
+     */
+    public List<BlockedPeriod> findBlocking(LocalDate date, BarLocation location) {
+        Snapshot s = current();
+        long day = date.toEpochDay();
+        List<BlockedPeriod> result = new ArrayList<>();
+        s.global.stab(day, result);
+        IntervalTree own = location == BarLocation.NO_PREFERENCE ? null : s.byLocation.get(location);
+        if (own != null) {
+            own.stab(day, result);
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #findBlocking(LocalDate, BarLocation)}, restricted to periods that
+     * overlap the time window {@code [from, to)} on that date. A period without a time
+     * range covers the whole day; an overnight window ({@code to} before {@code from})
+     * runs to midnight.
+     */
+    public List<BlockedPeriod> findBlocking(LocalDate date, LocalTime from, LocalTime to, BarLocation location) {
+        List<BlockedPeriod> result = findBlocking(date, location);
+        result.removeIf(bp -> !overlaps(bp, from, to));
+        return result;
+    }
+
+    /**
+     * Blocked dates for the date picker, from today through {@code months} months ahead
+     * (at most {@value #HORIZON_MONTHS}), for {@code location} (null or
+     * {@code NO_PREFERENCE}: global periods only).
+     */
+    public BlockedDates blockedDates(int months, BarLocation location) {
+        if (months < 1 || months > HORIZON_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + HORIZON_MONTHS);
+        }
+        Snapshot s = current();
+        LocalDate today = LocalDate.now();
+        if (!today.equals(s.viewFrom)) {
+            // A new day: recompute the views from the periods already in memory
+            s = rollOver(s, today);
+        }
+        BlockedDates full = s.views.get(location == BarLocation.NO_PREFERENCE ? null : location);
+        LocalDate to = today.plusMonths(months).minusDays(1);
+        return new BlockedDates(today, to, upTo(full.blocked(), to),
+                upTo(full.partiallyBlocked(), to), upTo(full.softBlocked(), to));
+    }
+
+    /** Reload the enabled periods and swap in a fresh snapshot. */
+    public synchronized void refresh() {
+        snapshot = new Snapshot(blockedPeriodRepository.findByEnabledTrue(), LocalDate.now());
+    }
+
+    @EventListener
+    @Order(EntityChangedEvent.INDEX_ORDER)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(BlockedPeriod.class)) {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                // Load again on next use rather than keep serving stale periods
+                snapshot = null;
+                log.warn("Refreshing the blocked periods failed; loading them again on next use", e);
+            }
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /** Replace a snapshot whose date picker views were computed on an earlier day. */
+    private synchronized Snapshot rollOver(Snapshot seen, LocalDate today) {
+        if (snapshot == null) {
+            // Invalidated meanwhile: serve from what we have, the next call reloads
+            return new Snapshot(seen.enabled, today);
+        }
+        if (!today.equals(snapshot.viewFrom)) {
+            snapshot = new Snapshot(snapshot.enabled, today);
+        }
+        return snapshot;
+    }
+
+    private static boolean overlaps(BlockedPeriod bp, LocalTime from, LocalTime to) {
+        if (bp.getStartTime() == null || bp.getEndTime() == null || from == null) {
+            return true;
+        }
+        boolean toMidnight = to == null || !to.isAfter(from);
+        return bp.getStartTime().isBefore(toMidnight ? LocalTime.MAX : to) && bp.getEndTime().isAfter(from);
+    }
+
+    private static List<LocalDate> upTo(List<LocalDate> sorted, LocalDate to) {
+        int i = Collections.binarySearch(sorted, to);
+        return sorted.subList(0, i >= 0 ? i + 1 : -i - 1);
+    }
+
+    /** One consistent view of the enabled periods. */
+    private static final class Snapshot {
+
+        final List<BlockedPeriod> enabled;
+        final IntervalTree global;
+        final Map<BarLocation, IntervalTree> byLocation = new EnumMap<>(BarLocation.class);
+        final LocalDate viewFrom;
+        /** Date picker view per location, plus the global-only view under the null key. */
+        final Map<BarLocation, BlockedDates> views = new HashMap<>();
+
+        Snapshot(List<BlockedPeriod> periods, LocalDate viewFrom) {
+            List<BlockedPeriod> sorted = new ArrayList<>(periods);
+            sorted.sort(Comparator.comparing(BlockedPeriod::getStartDate));
+            this.enabled = List.copyOf(sorted);
+            this.viewFrom = viewFrom;
+
+            List<BlockedPeriod> global = new ArrayList<>();
+            Map<BarLocation, List<BlockedPeriod>> own = new EnumMap<>(BarLocation.class);
+            for (BlockedPeriod bp : enabled) {
+                if (bp.getLocation() == null) {
+                    global.add(bp);
+                } else {
+                    own.computeIfAbsent(bp.getLocation(), l -> new ArrayList<>()).add(bp);
+                }
+            }
+            this.global = new IntervalTree(global);
+            own.forEach((location, list) -> byLocation.put(location, new IntervalTree(list)));
+
+            LocalDate end = viewFrom.plusMonths(HORIZON_MONTHS);
+            DayMarks globalMarks = new DayMarks(viewFrom, end, global);
+            views.put(null, globalMarks.toBlockedDates());
+            for (BarLocation location : BarLocation.values()) {
+                if (location == BarLocation.NO_PREFERENCE) {
+                    continue;
+                }
+                DayMarks marks = new DayMarks(viewFrom, end, own.getOrDefault(location, List.of()));
+                marks.or(globalMarks);
+                views.put(location, marks.toBlockedDates());
+            }
+        }
+    }
+
+    /** Per-day flags over {@code [from, end)}, one bit per day offset. */
+    private static final class DayMarks {
+
+        final LocalDate from;
+        final LocalDate end;
+        final BitSet wholeDay = new BitSet();
+        final BitSet partDay = new BitSet();
+        final BitSet soft = new BitSet();
+
+        DayMarks(LocalDate from, LocalDate end, List<BlockedPeriod> periods) {
+            this.from = from;
+            this.end = end;
+            long first = from.toEpochDay();
+            int days = (int) (end.toEpochDay() - first);
+            for (BlockedPeriod bp : periods) {
+                int a = (int) Math.max(0, bp.getStartDate().toEpochDay() - first);
+                int b = (int) Math.min(days, bp.getEndDate().toEpochDay() - first + 1);
+                if (a >= b) {
+                    continue;
+                }
+                if (Boolean.TRUE.equals(bp.getSoftBlock())) {
+                    soft.set(a, b);
+                } else if (bp.getStartTime() == null || bp.getEndTime() == null) {
+                    wholeDay.set(a, b);
+                } else {
+                    partDay.set(a, b);
+                }
+            }
+        }
+
+        void or(DayMarks other) {
+            wholeDay.or(other.wholeDay);
+            partDay.or(other.partDay);
+            soft.or(other.soft);
+        }
+
+        BlockedDates toBlockedDates() {
+            BitSet partOnly = (BitSet) partDay.clone();
+            partOnly.andNot(wholeDay);
+            return new BlockedDates(from, end.minusDays(1), dates(wholeDay), dates(partOnly), dates(soft));
+        }
+
+        private List<LocalDate> dates(BitSet bits) {
+            List<LocalDate> dates = new ArrayList<>(bits.cardinality());
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                dates.add(from.plusDays(i));
+            }
+            return List.copyOf(dates);
+        }
+    }
+
+    /**
+     * Static interval tree over date ranges: the periods sorted by start date, read as an
+     * implicit balanced binary tree (the middle element of each range is its root), where
+     * every node also stores the latest end date in its subtree. A stabbing query skips
+     * any subtree whose latest end is before the date, and any right subtree whose root
+     * starts after it.
+     */
+    private static final class IntervalTree {
+
+        private final BlockedPeriod[] periods;
+        private final long[] start;
+        private final long[] end;
+        private final long[] maxEnd;
+
+        IntervalTree(List<BlockedPeriod> sortedByStart) {
+            int n = sortedByStart.size();
+            periods = sortedByStart.toArray(new BlockedPeriod[0]);
+            start = new long[n];
+            end = new long[n];
+            maxEnd = new long[n];
+            for (int i = 0; i < n; i++) {
+                start[i] = periods[i].getStartDate().toEpochDay();
+                end[i] = periods[i].getEndDate().toEpochDay();
+            }
+            build(0, n);
+        }
+
+        private long build(int lo, int hi) {
+            if (lo >= hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long max = Math.max(end[mid], Math.max(build(lo, mid), build(mid + 1, hi)));
+            maxEnd[mid] = max;
+            return max;
+        }
+
+        /** Append the periods covering {@code day} (epoch day) to {@code out}, in start order. */
+        void stab(long day, List<BlockedPeriod> out) {
+            stab(0, periods.length, day, out);
+        }
+
+        private void stab(int lo, int hi, long day, List<BlockedPeriod> out) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] < day) {
+                return;
+            }
+            stab(lo, mid, day, out);
+            if (start[mid] <= day) {
+                if (end[mid] >= day) {
+                    out.add(periods[mid]);
+                }
+                stab(mid + 1, hi, day, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangePublisher;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeRequest;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResponse;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResult;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResult.Outcome;
+import com.pimvanleeuwen.the_harry_list_backend.dto.FieldChange;
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditAction;
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Changes the status of many reservations in one request, for the admin list's bulk
+ * actions (confirming or rejecting a batch of pending requests at once).
+ *
+ * <p>Everything happens in one transaction: the reservations are loaded with one query
+ * and updated with one {@code UPDATE ... WHERE id IN} per target status. The audit
+ * entries are handed to the audit writer as one batch, and the customer emails are
+ * queued in the outbox and sent after commit. The same rules apply as for a single
+ * change: a reservation can only be confirmed once its location is set. Unlike a single
+ * change, a reservation that already has the requested status is left alone (no audit
+ * entry, no email), so re-running a bulk action does not email anyone twice.
+ */
+@Service
+public class BulkStatusChangeService {
+
+    /** Most items accepted in one request. */
+    public static final int MAX_ITEMS = 200;
+
+    private static final Logger log = LoggerFactory.getLogger(BulkStatusChangeService.class);
+    /** Dedicated, PII-free analytics logger scraped into Loki (job=app-analytics). */
+    private static final Logger analyticsLog = LoggerFactory.getLogger("analytics");
+
+    private final ReservationRepository reservationRepository;
+    private final AuditService auditService;
+    private final EmailOutboxService emailOutboxService;
+    private final EntityChangePublisher entityChangePublisher;
+
+    public BulkStatusChangeService(ReservationRepository reservationRepository,
+                                   AuditService auditService,
+                                   EmailOutboxService emailOutboxService,
+                                   EntityChangePublisher entityChangePublisher) {
+        this.reservationRepository = reservationRepository;
+        this.auditService = auditService;
+        this.emailOutboxService = emailOutboxService;
+        this.entityChangePublisher = entityChangePublisher;
+    }
+
+    /**
+     * Apply the requested changes and report on each item, in request order.
+     *
+     * @param user name of the signed-in user, for the log
+     * @throws IllegalArgumentException when there are no items or more than {@value #MAX_ITEMS}
+     */
+    @Transactional
+    public BulkStatusChangeResponse execute(BulkStatusChangeRequest request, String user) {
+        List<BulkStatusChangeRequest.Item> items = request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one reservation is required");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " reservations can be changed at once");
+        }
+
+        Set<Long> ids = items.stream()
+                .map(BulkStatusChangeRequest.Item::id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Reservation> found = reservationRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Reservation::getId, Function.identity()));
+
+        List<BulkStatusChangeResult> results = new ArrayList<>(items.size());
+        Map<ReservationStatus, List<Reservation>> toUpdate = new EnumMap<>(ReservationStatus.class);
+        Set<Long> seen = new HashSet<>();
+        for (BulkStatusChangeRequest.Item item : items) {
+            BulkStatusChangeResult result = check(item, found.get(item.id()), seen);
+            if (result.outcome() == Outcome.UPDATED) {
+                toUpdate.computeIfAbsent(item.status(), s -> new ArrayList<>()).add(found.get(item.id()));
+            }
+            results.add(result);
+        }
+        if (toUpdate.isEmpty()) {
+            return new BulkStatusChangeResponse(0, results);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        List<Long> updatedIds = new ArrayList<>();
+        for (Map.Entry<ReservationStatus, List<Reservation>> group : toUpdate.entrySet()) {
+            ReservationStatus status = group.getKey();
+            String confirmedBy = status == ReservationStatus.CONFIRMED ? request.getConfirmedBy() : null;
+            List<Long> groupIds = group.getValue().stream().map(Reservation::getId).toList();
+            updated += reservationRepository.updateStatusByIdIn(groupIds, status, confirmedBy, now);
+            updatedIds.addAll(groupIds);
+        }
+        // The bulk update bypasses Hibernate's events; the calendar feed cache and the
+        // capacity index rely on this
+        entityChangePublisher.changed(Reservation.class, updatedIds);
+
+        boolean hasCustomMessage = request.getCustomMessage() != null && !request.getCustomMessage().isBlank();
+        List<AuditService.Entry> auditEntries = new ArrayList<>();
+        for (Map.Entry<ReservationStatus, List<Reservation>> group : toUpdate.entrySet()) {
+            ReservationStatus status = group.getKey();
+            for (Reservation reservation : group.getValue()) {
+                // Detached by the bulk update: bring the copy in line for the email, never saved
+                ReservationStatus oldStatus = reservation.getStatus();
+                LocalDateTime previousUpdate = reservation.getUpdatedAt();
+                reservation.setStatus(status);
+                reservation.setUpdatedAt(now);
+                if (status == ReservationStatus.CONFIRMED && request.getConfirmedBy() != null) {
+                    reservation.setConfirmedBy(request.getConfirmedBy());
+                }
+
+                auditEntries.add(new AuditService.Entry(reservation.getId(),
+                        reservation.getConfirmationNumber() + " - " + reservation.getEventTitle(),
+                        List.of(new FieldChange("status", String.valueOf(oldStatus), String.valueOf(status))),
+                        "Status changed (bulk)"
+                                + (status == ReservationStatus.CONFIRMED && request.getConfirmedBy() != null
+                                        ? " (confirmed by " + request.getConfirmedBy() + ")" : "")
+                                + (hasCustomMessage ? " (with message)" : "")));
+                if (status != ReservationStatus.PENDING) {
+                    analyticsLog.info(ReservationAnalytics.reservationStatusChangedLine(status, reservation.getLocation()));
+                }
+                if (request.isSendEmail()) {
+                    emailOutboxService.enqueueStatusChange(reservation, previousUpdate, request.getCustomMessage());
+                }
+            }
+        }
+        auditService.recordActions(AuditEntityType.RESERVATION, AuditAction.STATUS_CHANGE, auditEntries);
+
+        log.info("AUDIT reservation.bulk_status_changed count={} statuses={} user='{}'",
+                updated, toUpdate.keySet(), user != null ? user : "unknown");
+        return new BulkStatusChangeResponse(updated, results);
+    }
+
+    private static BulkStatusChangeResult check(BulkStatusChangeRequest.Item item, Reservation reservation,
+                                                Set<Long> seen) {
+        if (item.id() == null || item.status() == null) {
+            return new BulkStatusChangeResult(item.id(), Outcome.INVALID, null, null, "Id and status are required");
+        }
+        if (!seen.add(item.id())) {
+            return new BulkStatusChangeResult(item.id(), Outcome.INVALID, null, null, "Duplicate reservation id");
+        }
+        if (reservation == null) {
+            return new BulkStatusChangeResult(item.id(), Outcome.NOT_FOUND, null, null, "Reservation not found");
+        }
+        ReservationStatus current = reservation.getStatus();
+        if (item.status() == ReservationStatus.CONFIRMED
+                && (reservation.getLocation() == null || reservation.getLocation() == BarLocation.NO_PREFERENCE)) {
+            return new BulkStatusChangeResult(item.id(), Outcome.INVALID, current, current,
+                    "Location must be set before confirming");
+        }
+        if (item.status() == current) {
+            return new BulkStatusChangeResult(item.id(), Outcome.UNCHANGED, current, current, null);
+        }
+        return new BulkStatusChangeResult(item.id(), Outcome.UPDATED, current, item.status(), null);
+    }
+}
@@ -0,0 +1,192 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Validators (ETag and Last-Modified) for the ICS feeds, keyed by every parameter that
+ * affects the output.
+ *
+ * <p>Calendar clients poll every 15 minutes, but reservations and appointments change far
+ * less often. Only the validators are cached, never the feed itself: they are derived from
+ * the variant's {@link ICalendarService.FeedVersion} (event counts and newest change), which
+ * costs one aggregate query, and kept until a {@link Reservation} or
+ * {@link CalendarAppointment} change commits (see {@link EntityChangedEvent}). A poll then
+ * costs a map lookup when its If-None-Match still matches; otherwise the feed is streamed
+ * from the database straight to the response, so heap use does not grow with its size.
+ *
+ * <p>The version is read before the body is rendered, so a change committing in between can
+ * only make the body newer than its ETag. The client's next poll then sees a different
+ * version and gets the feed again; it is never told its copy is current when it is not.
+ */
+@Service
+public class CalendarFeedCache {
+
+    /** Writes a feed to {@code out}, which is not closed. */
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * One feed variant's validators and a way to write its current content.
+     *
+     * @param etag         quoted strong entity tag derived from the feed's version
+     * @param lastModified newest change of anything in the feed, to the second
+     * @param body         streams the feed as UTF-8; renders from the database on every call
+     */
+    public record Feed(String etag, Instant lastModified, Body body) {
+
+        /** Writes the feed to {@code out}, which is not closed. */
+        public void writeTo(OutputStream out) throws IOException {
+            body.writeTo(out);
+        }
+    }
+
+    /** Everything that determines a feed's content. {@code fromDate} is today for upcoming-only feeds. */
+    private record Key(boolean includeConfidentialDetails, Set<ReservationStatus> statuses, BarLocation location,
+                       Boolean catering, LocalDate fromDate) {
+    }
+
+    /** Validators worked out in a cache generation; stale once the generation moves on. */
+    private record Entry(long generation, ICalendarService.FeedVersion version, String etag, Instant lastModified) {
+    }
+
+    private final ICalendarService iCalendarService;
+    private final Map<Key, Entry> feeds = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Part of every ETag, so that a restart (possibly with a different renderer) never
+     * confirms a copy a previous run served.
+     */
+    private final String epoch = Long.toHexString(System.nanoTime() ^ System.currentTimeMillis());
+
+    /**
+     * When the cache was last invalidated. Used as a floor for Last-Modified when a feed's
+     * version changes: deleting an event changes the feed without making any remaining
+     * event newer.
+     */
+    private volatile Instant invalidatedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    public CalendarFeedCache(ICalendarService iCalendarService) {
+        this.iCalendarService = iCalendarService;
+    }
+
+    /**
+     * Returns the validators and body for the given filters, working the validators out on a
+     * miss. Parameters have the same meaning as in {@link ICalendarService#writeFeed}.
+     */
+    public Feed getFeed(List<ReservationStatus> includeStatuses, String location, Boolean catering,
+                        boolean upcomingOnly, boolean includeConfidentialDetails) {
+        LocalDate fromDate = upcomingOnly ? LocalDate.now() : null;
+        Body body = out -> write(includeStatuses, location, catering, fromDate, includeConfidentialDetails, out);
+
+        BarLocation locationFilter = null;
+        if (location != null && !location.isEmpty()) {
+            locationFilter = ICalendarService.parseLocation(location);
+            if (locationFilter == null) {
+                // Unknown locations render an empty calendar without touching the database;
+                // not caching them keeps arbitrary query strings from growing the map.
+                return new Feed(etag("unknown-location", includeConfidentialDetails), invalidatedAt, body);
+            }
+        }
+
+        Set<ReservationStatus> statuses = (includeStatuses != null && !includeStatuses.isEmpty())
+                ? EnumSet.copyOf(includeStatuses)
+                : EnumSet.allOf(ReservationStatus.class);
+        Key key = new Key(includeConfidentialDetails, statuses, locationFilter, catering, fromDate);
+
+        long current = generation.get();
+        Entry entry = feeds.get(key);
+        if (entry == null || entry.generation() != current) {
+            // Read against the generation above: if an invalidation lands meanwhile, the
+            // entry is already stale and the next poll reads the version again.
+            ICalendarService.FeedVersion version = iCalendarService.feedVersion(statuses, locationFilter, catering, fromDate);
+            entry = (entry != null && entry.version().equals(version))
+                    // A change to something outside this variant: it still is what the client has
+                    ? new Entry(current, version, entry.etag(), entry.lastModified())
+                    : new Entry(current, version, etag(key, version), lastModified(version));
+            feeds.put(key, entry);
+        }
+        return new Feed(entry.etag(), entry.lastModified(), body);
+    }
+
+    /** Mark every cached validator stale. Called automatically when reservations or appointments change. */
+    public void invalidate() {
+        generation.incrementAndGet();
+        invalidatedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        // Entries stay to be compared with the next version; only past upcoming-only days go
+        LocalDate today = LocalDate.now();
+        feeds.keySet().removeIf(key -> key.fromDate() != null && key.fromDate().isBefore(today));
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(Reservation.class) || event.isAbout(CalendarAppointment.class)) {
+            invalidate();
+        }
+    }
+
+    private void write(List<ReservationStatus> statuses, String location, Boolean catering, LocalDate fromDate,
+                       boolean includeConfidentialDetails, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        iCalendarService.writeFeed(statuses, location, catering, fromDate, includeConfidentialDetails, writer);
+        writer.flush();
+    }
+
+    private Instant lastModified(ICalendarService.FeedVersion version) {
+        Instant lastModified = invalidatedAt;
+        if (version.lastModified() != null) {
+            Instant newest = version.lastModified().atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.SECONDS);
+            if (newest.isAfter(lastModified)) {
+                lastModified = newest;
+            }
+        }
+        return lastModified;
+    }
+
+    private String etag(Object... parts) {
+        MessageDigest digest = sha256();
+        digest.update(epoch.getBytes(StandardCharsets.UTF_8));
+        for (Object part : parts) {
+            digest.update((byte) 0);
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+        }
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every JVM
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
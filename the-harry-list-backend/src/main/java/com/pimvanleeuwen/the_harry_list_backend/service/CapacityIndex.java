@@ -0,0 +1,315 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository.CapacityRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory occupancy of every {@link BarLocation} and {@link SeatingArea}, per day, in
+ * quarter-hour slots, so "can N more guests fit between T1 and T2" never goes to the
+ * database.
+ *
+ * <p>Confirmed reservations count with their expected guests, from the slot their start
+ * time falls in up to the slot their end time falls in (times are rounded outward to whole
+ * quarter hours). An overnight reservation, ending before it starts, occupies its date up
+ * to midnight and the next date from midnight. For each day and area the index keeps the
+ * guests per slot plus a sparse table of range maxima, so the peak of any window is two
+ * array reads whatever the number of reservations.
+ *
+ * <p>The index is built from the database when the application is ready (or on first
+ * use, should that come earlier), from yesterday on. After that, every committed
+ * reservation change (see {@link EntityChangedEvent#ids}) reloads only the changed
+ * reservations, takes out what each added before and adds its new state; a change to
+ * unknown reservations rebuilds everything. A changed day is replaced rather than
+ * modified, so readers take no locks.
+ *
+ * <p>Capacities come from {@code app.capacity.limits}, a comma-separated list of
+ * {@code LOCATION.AREA=GUESTS}; an area without one never fills up.
+ */
+@Service
+public class CapacityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CapacityIndex.class);
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private final ReservationRepository reservationRepository;
+    private final Map<BarLocation, Map<SeatingArea, Integer>> capacities;
+
+    /** Occupied days; swapped whole on rebuild. */
+    private volatile ConcurrentHashMap<DayKey, Day> days = new ConcurrentHashMap<>();
+    /** What each counted reservation added, to take it out again. Guarded by this. */
+    private Map<Long, Placement> placements = new HashMap<>();
+    private volatile boolean loaded;
+
+    public CapacityIndex(ReservationRepository reservationRepository,
+                         @Value("${app.capacity.limits:}") String limits) {
+        this.reservationRepository = reservationRepository;
+        this.capacities = parseLimits(limits);
+    }
+
+    /** Configured number of guests {@code area} at {@code location} holds; empty when unlimited. */
+    public OptionalInt capacity(BarLocation location, SeatingArea area) {
+        Integer capacity = capacities.getOrDefault(location, Map.of()).get(area);
+        return capacity != null ? OptionalInt.of(capacity) : OptionalInt.empty();
+    }
+
+    /**
+     * Most confirmed guests at any moment of {@code [from, to)} on {@code date}; {@code to}
+     * before {@code from} runs on into the next day.
+     */
+    public int peakGuests(BarLocation location, SeatingArea area, LocalDate date, LocalTime from, LocalTime to) {
+        Map<DayKey, Day> current = current();
+        int[] peak = {0};
+        forEachSegment(date, from, to, (day, fromSlot, toSlot) -> {
+            Day d = current.get(new DayKey(location, area, day));
+            if (d != null) {
+                peak[0] = Math.max(peak[0], d.peak(fromSlot, toSlot));
+            }
+        });
+        return peak[0];
+    }
+
+    /** Most confirmed guests at any moment of {@code date}, overnight guests from the day before included. */
+    public int peakGuests(BarLocation location, SeatingArea area, LocalDate date) {
+        Day d = current().get(new DayKey(location, area, date));
+        return d != null ? d.peak(0, SLOTS_PER_DAY) : 0;
+    }
+
+    /** Whether {@code guests} more guests fit in {@code area} during {@code [from, to)} on {@code date}. */
+    public boolean canFit(BarLocation location, SeatingArea area, LocalDate date, LocalTime from, LocalTime to,
+                          int guests) {
+        OptionalInt capacity = capacity(location, area);
+        return capacity.isEmpty() || peakGuests(location, area, date, from, to) + guests <= capacity.getAsInt();
+    }
+
+    /** Confirmed guests in each quarter-hour slot of {@code date}, a fresh array of {@value #SLOTS_PER_DAY}. */
+    public int[] guestsPerSlot(BarLocation location, SeatingArea area, LocalDate date) {
+        Day d = current().get(new DayKey(location, area, date));
+        return d != null ? d.guests().clone() : new int[SLOTS_PER_DAY];
+    }
+
+    /** Reload the confirmed reservations from yesterday on and swap in a fresh index. */
+    public synchronized void rebuild() {
+        ConcurrentHashMap<DayKey, Day> rebuilt = new ConcurrentHashMap<>();
+        Map<Long, Placement> rebuiltPlacements = new HashMap<>();
+        for (CapacityRow row : reservationRepository.findCapacityRows(
+                ReservationStatus.CONFIRMED, LocalDate.now().minusDays(1))) {
+            Placement placement = placementOf(row);
+            if (placement != null) {
+                apply(rebuilt, placement, 1);
+                rebuiltPlacements.put(row.getId(), placement);
+            }
+        }
+        days = rebuilt;
+        placements = rebuiltPlacements;
+        loaded = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @EventListener
+    @Order(EntityChangedEvent.INDEX_ORDER)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!event.isAbout(Reservation.class) || !loaded) {
+            // Not loaded yet: the first use loads the committed state anyway
+            return;
+        }
+        try {
+            if (event.ids() == null) {
+                rebuild();
+            } else {
+                update(event.ids());
+            }
+        } catch (RuntimeException e) {
+            // Rebuild on next use rather than keep answering from a stale index
+            loaded = false;
+            log.warn("Updating the capacity index failed; rebuilding it on next use", e);
+        }
+    }
+
+    private synchronized void update(Set<Object> ids) {
+        List<Long> reservationIds = ids.stream().map(id -> (Long) id).toList();
+        Map<Long, CapacityRow> rows = new HashMap<>();
+        for (CapacityRow row : reservationRepository.findCapacityRowsByIdIn(reservationIds)) {
+            rows.put(row.getId(), row);
+        }
+        for (Long id : reservationIds) {
+            Placement before = placements.remove(id);
+            if (before != null) {
+                apply(days, before, -1);
+            }
+            // Deleted when there is no row
+            CapacityRow row = rows.get(id);
+            Placement after = row != null ? placementOf(row) : null;
+            if (after != null) {
+                apply(days, after, 1);
+                placements.put(id, after);
+            }
+        }
+    }
+
+    private Map<DayKey, Day> current() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+        return days;
+    }
+
+    /** Add ({@code sign} 1) or remove ({@code sign} -1) the guests of {@code placement}. */
+    private static void apply(Map<DayKey, Day> days, Placement placement, int sign) {
+        forEachSegment(placement.date(), placement.start(), placement.end(), (date, fromSlot, toSlot) -> {
+            DayKey key = new DayKey(placement.location(), placement.area(), date);
+            Day before = days.get(key);
+            int[] guests = before != null ? before.guests().clone() : new int[SLOTS_PER_DAY];
+            boolean empty = true;
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                if (slot >= fromSlot && slot < toSlot) {
+                    guests[slot] += sign * placement.guests();
+                }
+                empty &= guests[slot] == 0;
+            }
+            if (empty) {
+                days.remove(key);
+            } else {
+                days.put(key, new Day(guests));
+            }
+        });
+    }
+
+    /** Where and when a reservation takes up seats, or null when it does not count. */
+    private static Placement placementOf(CapacityRow row) {
+        BarLocation location = row.getLocation();
+        if (row.getStatus() != ReservationStatus.CONFIRMED
+                || location == null || location == BarLocation.NO_PREFERENCE
+                || row.getSeatingArea() == null || row.getEventDate() == null
+                || row.getStartTime() == null || row.getEndTime() == null
+                || row.getExpectedGuests() == null || row.getExpectedGuests() <= 0) {
+            return null;
+        }
+        return new Placement(location, row.getSeatingArea(), row.getEventDate(),
+                row.getStartTime(), row.getEndTime(), row.getExpectedGuests());
+    }
+
+    /**
+     * Split {@code [from, to)} on {@code date} into per-day slot ranges: one range, or two
+     * when {@code to} is before {@code from} (the second on the next day). Nothing when
+     * they are equal.
+     */
+    static void forEachSegment(LocalDate date, LocalTime from, LocalTime to, SegmentConsumer consumer) {
+        int fromSlot = (from.getHour() * 60 + from.getMinute()) / SLOT_MINUTES;
+        int toSlot = Math.ceilDiv(to.getHour() * 60 + to.getMinute() + (to.getSecond() > 0 ? 1 : 0), SLOT_MINUTES);
+        if (to.isAfter(from)) {
+            consumer.accept(date, fromSlot, toSlot);
+        } else if (to.isBefore(from)) {
+            consumer.accept(date, fromSlot, SLOTS_PER_DAY);
+            if (toSlot > 0) {
+                consumer.accept(date.plusDays(1), 0, toSlot);
+            }
+        }
+    }
+
+    /** Parse {@code LOCATION.AREA=GUESTS[, ...]}. */
+    static Map<BarLocation, Map<SeatingArea, Integer>> parseLimits(String spec) {
+        Map<BarLocation, Map<SeatingArea, Integer>> limits = new EnumMap<>(BarLocation.class);
+        for (String part : spec.split(",")) {
+            String limit = part.trim();
+            if (limit.isEmpty()) {
+                continue;
+            }
+            try {
+                int eq = limit.indexOf('=');
+                String[] target = limit.substring(0, eq).trim().split("\\.");
+                if (target.length != 2) {
+                    throw new IllegalArgumentException("expected LOCATION.AREA=GUESTS");
+                }
+                int guests = Integer.parseInt(limit.substring(eq + 1).trim());
+                if (guests < 0) {
+                    throw new IllegalArgumentException("guests must not be negative");
+                }
+                limits.computeIfAbsent(BarLocation.valueOf(target[0].trim().toUpperCase()),
+                                l -> new EnumMap<>(SeatingArea.class))
+                        .put(SeatingArea.valueOf(target[1].trim().toUpperCase()), guests);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid capacity limit '" + limit + "': " + e.getMessage(), e);
+            }
+        }
+        return limits;
+    }
+
+    @FunctionalInterface
+    interface SegmentConsumer {
+        /** Slots {@code [fromSlot, toSlot)} of {@code date}. */
+        void accept(LocalDate date, int fromSlot, int toSlot);
+    }
+
+    private record DayKey(BarLocation location, SeatingArea area, LocalDate date) {
+    }
+
+    private record Placement(BarLocation location, SeatingArea area, LocalDate date,
+                             LocalTime start, LocalTime end, int guests) {
+    }
+
+    /**
+     * Guests per slot of one day, with {@code max[k][i]} the peak of slots
+     * {@code [i, i + 2^k)}: any window is covered by two (overlapping) power-of-two runs.
+     */
+    private static final class Day {
+
+        private final int[][] max;
+
+        Day(int[] guests) {
+            int levels = 32 - Integer.numberOfLeadingZeros(guests.length);
+            max = new int[levels][];
+            max[0] = guests;
+            for (int k = 1; k < levels; k++) {
+                int half = 1 << (k - 1);
+                int[] previous = max[k - 1];
+                int[] level = new int[guests.length - (1 << k) + 1];
+                for (int i = 0; i < level.length; i++) {
+                    level[i] = Math.max(previous[i], previous[i + half]);
+                }
+                max[k] = level;
+            }
+        }
+
+        int[] guests() {
+            return max[0];
+        }
+
+        /** Peak of slots {@code [fromSlot, toSlot)}, which must not be empty. */
+        int peak(int fromSlot, int toSlot) {
+            int k = 31 - Integer.numberOfLeadingZeros(toSlot - fromSlot);
+            return Math.max(max[k][fromSlot], max[k][toSlot - (1 << k)]);
+        }
+    }
+}
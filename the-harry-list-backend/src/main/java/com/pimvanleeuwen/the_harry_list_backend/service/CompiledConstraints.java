@@ -0,0 +1,187 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.FormConstraint;
+import com.pimvanleeuwen.the_harry_list_backend.model.FormConstraintType;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, pre-parsed view of the enabled {@link FormConstraint}s, as used by
+ * {@link ConstraintValidationService}.
+ *
+ * <p>The string columns of each constraint (trigger activity, target location, seating
+ * or activity) are resolved to enum constants once, when the snapshot is built, and the
+ * rules are indexed by their trigger {@link SpecialActivity}. Checking a submission then
+ * touches only the rules its activities trigger and does no string comparisons.
+ * Constraints that can never fire (an unknown trigger, an unknown conflicting activity,
+ * a guest minimum for an unknown location) are dropped at build time.
+ */
+final class CompiledConstraints {
+
+    /**
+     * One enforceable constraint. {@code order} is its position in the source list;
+     * {@code trigger} is null for guest minimums, which apply whatever the activities.
+     */
+    private record Rule(int order, FormConstraintType type, SpecialActivity trigger,
+                        SpecialActivity conflicting, BarLocation location, SeatingArea seating,
+                        Integer numericValue, String message) {
+
+        Rule(int order, FormConstraint constraint, SpecialActivity trigger,
+             SpecialActivity conflicting, BarLocation location, SeatingArea seating) {
+            this(order, constraint.getConstraintType(), trigger, conflicting, location, seating,
+                    constraint.getNumericValue(), constraint.getMessage());
+        }
+    }
+
+    private static final Comparator<Rule> BY_ORDER = Comparator.comparingInt(Rule::order);
+
+    private final Map<SpecialActivity, List<Rule>> byTrigger = new EnumMap<>(SpecialActivity.class);
+    private final List<Rule> guestMinimums = new ArrayList<>();
+
+    CompiledConstraints(List<FormConstraint> enabled) {
+        int order = 0;
+        for (FormConstraint constraint : enabled) {
+            Rule rule = compile(order++, constraint);
+            if (rule == null) {
+                continue;
+            }
+            if (rule.trigger() == null) {
+                guestMinimums.add(rule);
+            } else {
+                byTrigger.computeIfAbsent(rule.trigger(), a -> new ArrayList<>()).add(rule);
+            }
+        }
+    }
+
+    /**
+     * Append the message of every constraint the submission violates, in the order the
+     * constraints were loaded.
+     */
+    void validate(Set<SpecialActivity> activities, BarLocation location, SeatingArea seatingArea,
+                  LocalDate eventDate, Integer expectedGuests, List<String> violations) {
+        EnumSet<SpecialActivity> selected = EnumSet.copyOf(activities);
+
+        List<Rule> triggered = new ArrayList<>(guestMinimums);
+        for (SpecialActivity activity : selected) {
+            List<Rule> rules = byTrigger.get(activity);
+            if (rules != null) {
+                triggered.addAll(rules);
+            }
+        }
+        triggered.sort(BY_ORDER);
+
+        for (Rule rule : triggered) {
+            if (violates(rule, selected, location, seatingArea, eventDate, expectedGuests)) {
+                violations.add(rule.message());
+            }
+        }
+    }
+
+    /**
+     * Narrow {@code window} to what the rules triggered by {@code activities} allow: the
+     * latest advance booking wins, and location and seating locks leave only their target
+     * (nothing, for an unparseable target).
+     */
+    ConstraintValidationService.BookingWindow window(Set<SpecialActivity> activities,
+                                                     ConstraintValidationService.BookingWindow window) {
+        LocalDate earliest = window.earliestDate();
+        EnumSet<BarLocation> locations = EnumSet.noneOf(BarLocation.class);
+        locations.addAll(window.locations());
+        EnumSet<SeatingArea> seatingAreas = EnumSet.noneOf(SeatingArea.class);
+        seatingAreas.addAll(window.seatingAreas());
+        for (SpecialActivity activity : EnumSet.copyOf(activities)) {
+            for (Rule rule : byTrigger.getOrDefault(activity, List.of())) {
+                switch (rule.type()) {
+                    case ADVANCE_BOOKING -> {
+                        if (rule.numericValue() != null) {
+                            LocalDate allowed = LocalDate.now().plusDays(rule.numericValue());
+                            if (allowed.isAfter(earliest)) {
+                                earliest = allowed;
+                            }
+                        }
+                    }
+                    case LOCATION_LOCK -> locations.removeIf(l -> l != rule.location());
+                    case SEATING_LOCK -> seatingAreas.removeIf(a -> a != rule.seating());
+                    default -> {
+                        // Not a matter of when or where
+                    }
+                }
+            }
+        }
+        return new ConstraintValidationService.BookingWindow(earliest, Set.copyOf(locations), Set.copyOf(seatingAreas));
+    }
+
+    private static boolean violates(Rule rule, EnumSet<SpecialActivity> selected, BarLocation location,
+                                    SeatingArea seatingArea, LocalDate eventDate, Integer expectedGuests) {
+        Integer numericValue = rule.numericValue();
+        return switch (rule.type()) {
+            case ACTIVITY_CONFLICT -> selected.contains(rule.conflicting());
+            // NO_PREFERENCE is acceptable — admin will set before confirming.
+            // An unparseable target (null here) is violated by every concrete location.
+            case LOCATION_LOCK -> location != null && location != BarLocation.NO_PREFERENCE
+                    && location != rule.location();
+            case SEATING_LOCK -> seatingArea != null && seatingArea != rule.seating();
+            case ADVANCE_BOOKING -> eventDate != null && numericValue != null
+                    && eventDate.isBefore(LocalDate.now().plusDays(numericValue));
+            case GUEST_LIMIT -> expectedGuests != null && numericValue != null && expectedGuests > numericValue;
+            // rule.location() is the location the minimum applies to (null means all locations)
+            case GUEST_MINIMUM -> expectedGuests != null && numericValue != null
+                    && (rule.location() == null || rule.location() == location)
+                    && expectedGuests < numericValue;
+            // Never compiled: time restrictions and notices are informational for the frontend
+            case TIME_RESTRICTION, ACTIVITY_NOTICE -> false;
+        };
+    }
+
+    /** Resolve a constraint's strings to enums, or null when it can never be violated. */
+    private static Rule compile(int order, FormConstraint constraint) {
+        FormConstraintType type = constraint.getConstraintType();
+        String target = constraint.getTargetValue();
+
+        if (type == FormConstraintType.GUEST_MINIMUM) {
+            BarLocation location = parse(BarLocation.class, target);
+            if (target != null && location == null) {
+                return null; // applies to a location that does not exist
+            }
+            return new Rule(order, constraint, null, null, location, null);
+        }
+
+        SpecialActivity trigger = parse(SpecialActivity.class, constraint.getTriggerActivity());
+        if (type == null || trigger == null) {
+            return null;
+        }
+        return switch (type) {
+            case ACTIVITY_CONFLICT -> {
+                SpecialActivity conflicting = parse(SpecialActivity.class, target);
+                yield conflicting == null ? null : new Rule(order, constraint, trigger, conflicting, null, null);
+            }
+            case LOCATION_LOCK -> new Rule(order, constraint, trigger, null, parse(BarLocation.class, target), null);
+            case SEATING_LOCK -> new Rule(order, constraint, trigger, null, null, parse(SeatingArea.class, target));
+            case ADVANCE_BOOKING, GUEST_LIMIT -> new Rule(order, constraint, trigger, null, null, null);
+            // Nothing to enforce server-side
+            case TIME_RESTRICTION, ACTIVITY_NOTICE, GUEST_MINIMUM -> null;
+        };
+    }
+
+    /** The constant named exactly {@code name}, or null. */
+    private static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An email template parsed once into literal text and {@code {{variable}}} placeholders,
+ * as used by {@link EmailTemplateService}.
+ *
+ * <p>Rendering walks the segments once, appending each literal and each substituted value
+ * to a builder sized for the expected output, instead of copying the whole template for
+ * every variable. Values are HTML-escaped in the same pass. A placeholder name is the
+ * text between {@code {{} and {@code }}}, taken exactly (no trimming) and containing no
+ * braces; placeholders with no value in either map are written back literally.
+ */
+final class CompiledTemplate {
+
+    static final CompiledTemplate EMPTY = new CompiledTemplate(new String[]{""}, new String[0]);
+
+    /** Rough allowance per placeholder when sizing the output. */
+    private static final int VALUE_ESTIMATE = 16;
+
+    /** {@code literals[i]} precedes {@code names[i]}; the last literal follows the last name. */
+    private final String[] literals;
+    private final String[] names;
+    private final int sizeEstimate;
+
+    private CompiledTemplate(String[] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+        int size = names.length * VALUE_ESTIMATE;
+        for (String literal : literals) {
+            size += literal.length();
+        }
+        this.sizeEstimate = size;
+    }
+
+    static CompiledTemplate compile(String template) {
+        if (template == null || template.isEmpty()) {
+            return EMPTY;
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int i = template.indexOf("{{");
+        while (i >= 0) {
+            int close = placeholderEnd(template, i);
+            if (close < 0) {
+                // Not a placeholder here (e.g. "{{{name}}}"): try one character further
+                i = template.indexOf("{{", i + 1);
+                continue;
+            }
+            literals.add(template.substring(literalStart, i));
+            names.add(template.substring(i + 2, close));
+            literalStart = close + 2;
+            i = template.indexOf("{{", literalStart);
+        }
+        literals.add(template.substring(literalStart));
+        return new CompiledTemplate(literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /** Index of the {@code }}} closing the placeholder opened at {@code open}, or -1. */
+    private static int placeholderEnd(String template, int open) {
+        for (int j = open + 2; j < template.length(); j++) {
+            char c = template.charAt(j);
+            if (c == '{') {
+                return -1;
+            }
+            if (c == '}') {
+                return j > open + 2 && j + 1 < template.length() && template.charAt(j + 1) == '}' ? j : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Substitute the placeholders: {@code variables} are HTML-escaped (null renders as
+     * empty), {@code rawHtmlVariables} are written verbatim and only used for names not in
+     * {@code variables}. Substituted values are never scanned for further placeholders.
+     */
+    String render(Map<String, String> variables, Map<String, String> rawHtmlVariables) {
+        if (names.length == 0) {
+            return literals[0];
+        }
+        StringBuilder out = new StringBuilder(sizeEstimate);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String name = names[i];
+            if (variables.containsKey(name)) {
+                escapeHtml(variables.get(name), out);
+            } else if (rawHtmlVariables.containsKey(name)) {
+                String raw = rawHtmlVariables.get(name);
+                out.append(raw != null ? raw : "");
+            } else {
+                out.append("{{").append(name).append("}}");
+            }
+        }
+        return out.append(literals[names.length]).toString();
+    }
+
+    /** Append {@code input} with {@code & < > " '} escaped, in one scan. */
+    static void escapeHtml(String input, StringBuilder out) {
+        if (input == null) {
+            return;
+        }
+        int start = 0;
+        for (int i = 0; i < input.length(); i++) {
+            String entity = switch (input.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#x27;";
+                default -> null;
+            };
+            if (entity != null) {
+                out.append(input, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(input, start, input.length());
+    }
+}
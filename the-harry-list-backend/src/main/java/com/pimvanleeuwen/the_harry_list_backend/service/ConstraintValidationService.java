@@ -1,30 +1,57 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
 import com.pimvanleeuwen.the_harry_list_backend.model.*;
-import com.pimvanleeuwen.the_harry_list_backend.repository.BlockedPeriodRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.FormConstraintRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Validates reservation submissions against dynamic form constraints
  * and blocked periods configured by staff.
+ *
+ * <p>Enabled constraints are held in memory as a {@link CompiledConstraints} snapshot,
+ * loaded on first use and rebuilt whenever a {@link FormConstraint} change commits (see
+ * {@link EntityChangedEvent}). A rebuild swaps in a complete new snapshot, so a
+ * submission is always checked against one consistent set of constraints and
+ * validating one never queries the constraint table. Blocked periods likewise come
+ * from the in-memory {@link BlockedPeriodIndex}.
  */
 @Service
 public class ConstraintValidationService {
 
+    private static final Logger log = LoggerFactory.getLogger(ConstraintValidationService.class);
+
+    /**
+     * Where and from when a reservation with given activities may be booked, as far as the
+     * constraints are concerned.
+     *
+     * @param earliestDate first allowed date (today, or later under an advance booking rule)
+     * @param locations    allowed bar locations (never {@code NO_PREFERENCE})
+     * @param seatingAreas allowed seating areas
+     */
+    public record BookingWindow(LocalDate earliestDate, Set<BarLocation> locations, Set<SeatingArea> seatingAreas) {
+    }
+
     private final FormConstraintRepository constraintRepository;
-    private final BlockedPeriodRepository blockedPeriodRepository;
+    private final BlockedPeriodIndex blockedPeriodIndex;
+
+    /** Current constraints; null until first loaded. */
+    private volatile CompiledConstraints constraints;
 
     public ConstraintValidationService(FormConstraintRepository constraintRepository,
-                                        BlockedPeriodRepository blockedPeriodRepository) {
+                                        BlockedPeriodIndex blockedPeriodIndex) {
         this.constraintRepository = constraintRepository;
-        this.blockedPeriodRepository = blockedPeriodRepository;
+        this.blockedPeriodIndex = blockedPeriodIndex;
     }
 
     /**
@@ -45,138 +72,65 @@ public class ConstraintValidationService {
             return violations;
         }
 
-        List<FormConstraint> constraints = constraintRepository.findByEnabledTrue();
-
-        for (FormConstraint constraint : constraints) {
-            if (constraint.getConstraintType() == FormConstraintType.GUEST_MINIMUM) {
-                validateGuestMinimum(expectedGuests, location, constraint, violations);
-                continue;
-            }
-
-            String trigger = constraint.getTriggerActivity();
-            boolean hasTrigger = activities.stream()
-                    .anyMatch(a -> a.name().equals(trigger));
-
-            if (!hasTrigger) continue;
-
-            switch (constraint.getConstraintType()) {
-                case ACTIVITY_CONFLICT:
-                    validateActivityConflict(activities, constraint, violations);
-                    break;
-                case LOCATION_LOCK:
-                    validateLocationLock(location, constraint, violations);
-                    break;
-                case SEATING_LOCK:
-                    validateSeatingLock(seatingArea, constraint, violations);
-                    break;
-                case ADVANCE_BOOKING:
-                    validateAdvanceBooking(eventDate, constraint, violations);
-                    break;
-                case GUEST_LIMIT:
-                    validateGuestLimit(expectedGuests, constraint, violations);
-                    break;
-                case TIME_RESTRICTION:
-                    // Time restrictions are informational for the frontend;
-                    // no server-side enforcement needed (early slots are allowed
-                    // when the triggering activity is selected)
-                    break;
-                case ACTIVITY_NOTICE:
-                    // Advisory only: the frontend shows the message (e.g. "this option
-                    // costs money") when the trigger activity is selected. Nothing to
-                    // enforce server-side.
-                    break;
-                default:
-                    break;
-            }
-        }
+        currentConstraints().validate(activities, location, seatingArea, eventDate, expectedGuests, violations);
 
         validateBlockedPeriods(eventDate, location, violations);
 
         return violations;
     }
 
-    private void validateActivityConflict(Set<SpecialActivity> activities,
-                                           FormConstraint constraint,
-                                           List<String> violations) {
-        String conflicting = constraint.getTargetValue();
-        boolean hasConflict = activities.stream()
-                .anyMatch(a -> a.name().equals(conflicting));
-        if (hasConflict) {
-            violations.add(constraint.getMessage());
-        }
-    }
-
-    private void validateLocationLock(BarLocation location,
-                                       FormConstraint constraint,
-                                       List<String> violations) {
-        if (location == null || location == BarLocation.NO_PREFERENCE) {
-            // NO_PREFERENCE is acceptable — admin will set before confirming
-            return;
-        }
-        String requiredLocation = constraint.getTargetValue();
-        if (!location.name().equals(requiredLocation)) {
-            violations.add(constraint.getMessage());
-        }
-    }
-
-    private void validateSeatingLock(SeatingArea seatingArea,
-                                      FormConstraint constraint,
-                                      List<String> violations) {
-        if (seatingArea == null) return;
-        String requiredSeating = constraint.getTargetValue();
-        if (!seatingArea.name().equals(requiredSeating)) {
-            violations.add(constraint.getMessage());
+    /**
+     * The dates and places the {@code ADVANCE_BOOKING}, {@code LOCATION_LOCK} and
+     * {@code SEATING_LOCK} constraints triggered by {@code activities} leave open. Other
+     * constraints and blocked periods still need {@link #validate}.
+     */
+    public BookingWindow bookingWindow(Set<SpecialActivity> activities) {
+        BookingWindow open = new BookingWindow(LocalDate.now(),
+                Set.copyOf(EnumSet.complementOf(EnumSet.of(BarLocation.NO_PREFERENCE))),
+                Set.copyOf(EnumSet.allOf(SeatingArea.class)));
+        if (activities == null || activities.isEmpty()) {
+            return open;
         }
+        return currentConstraints().window(activities, open);
     }
 
-    private void validateAdvanceBooking(LocalDate eventDate,
-                                         FormConstraint constraint,
-                                         List<String> violations) {
-        if (eventDate == null || constraint.getNumericValue() == null) return;
-        LocalDate minDate = LocalDate.now().plusDays(constraint.getNumericValue());
-        if (eventDate.isBefore(minDate)) {
-            violations.add(constraint.getMessage());
-        }
+    /** Reload the enabled constraints and swap in a fresh snapshot. */
+    public synchronized void refreshConstraints() {
+        constraints = new CompiledConstraints(constraintRepository.findByEnabledTrue());
     }
 
-    private void validateGuestMinimum(Integer expectedGuests,
-                                       BarLocation location,
-                                       FormConstraint constraint,
-                                       List<String> violations) {
-        if (expectedGuests == null || constraint.getNumericValue() == null) return;
-        // targetValue is the location this minimum applies to (null means all locations)
-        String targetLocation = constraint.getTargetValue();
-        if (targetLocation != null && (location == null || !location.name().equals(targetLocation))) {
-            return; // Constraint applies to a different location
-        }
-        if (expectedGuests < constraint.getNumericValue()) {
-            violations.add(constraint.getMessage());
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(FormConstraint.class)) {
+            try {
+                refreshConstraints();
+            } catch (RuntimeException e) {
+                // Load again on the next submission rather than keep enforcing stale rules
+                constraints = null;
+                log.warn("Refreshing the form constraints failed; loading them again on the next submission", e);
+            }
         }
     }
 
-    private void validateGuestLimit(Integer expectedGuests,
-                                     FormConstraint constraint,
-                                     List<String> violations) {
-        if (expectedGuests == null || constraint.getNumericValue() == null) return;
-        if (expectedGuests > constraint.getNumericValue()) {
-            violations.add(constraint.getMessage());
+    private CompiledConstraints currentConstraints() {
+        CompiledConstraints current = constraints;
+        if (current == null) {
+            synchronized (this) {
+                if (constraints == null) {
+                    refreshConstraints();
+                }
+                current = constraints;
+            }
         }
+        return current;
     }
 
     private void validateBlockedPeriods(LocalDate eventDate,
                                          BarLocation location,
                                          List<String> violations) {
         if (eventDate == null) return;
-        BarLocation queryLocation = (location == null || location == BarLocation.NO_PREFERENCE)
-                ? null : location;
-
-        List<BlockedPeriod> blocking;
-        if (queryLocation != null) {
-            blocking = blockedPeriodRepository.findBlockingPeriods(eventDate, queryLocation);
-        } else {
-            // For NO_PREFERENCE, check global blocks (location IS NULL)
-            blocking = blockedPeriodRepository.findBlockingPeriods(eventDate, null);
-        }
+        // For NO_PREFERENCE (or no location) only global blocks apply
+        List<BlockedPeriod> blocking = blockedPeriodIndex.findBlocking(eventDate, location);
 
         for (BlockedPeriod bp : blocking) {
             // Soft blocks are advisory only: the guest is warned and must acknowledge
@@ -1,15 +1,16 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -23,34 +24,46 @@ public class CreateReservationService implements Command<com.pimvanleeuwen.the_h
      */
     private static final Logger analyticsLog = LoggerFactory.getLogger("analytics");
 
+    /** Alternatives offered with a rejection. */
+    private static final int SUGGESTIONS = 3;
+
     private final ReservationRepository reservationRepository;
     private final ReservationMapper reservationMapper;
     private final ConstraintValidationService constraintValidationService;
     private final AuditService auditService;
-
-    @Autowired(required = false)
-    private EmailNotificationService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final CapacityIndex capacityIndex;
+    private final SlotSuggestionService slotSuggestionService;
 
     public CreateReservationService(ReservationRepository reservationRepository,
                                      ReservationMapper reservationMapper,
                                      ConstraintValidationService constraintValidationService,
-                                     AuditService auditService) {
+                                     AuditService auditService,
+                                     EmailOutboxService emailOutboxService,
+                                     CapacityIndex capacityIndex,
+                                     SlotSuggestionService slotSuggestionService) {
         this.reservationRepository = reservationRepository;
         this.reservationMapper = reservationMapper;
         this.constraintValidationService = constraintValidationService;
         this.auditService = auditService;
+        this.emailOutboxService = emailOutboxService;
+        this.capacityIndex = capacityIndex;
+        this.slotSuggestionService = slotSuggestionService;
     }
 
     @Override
+    @Transactional
     public ResponseEntity<com.pimvanleeuwen.the_harry_list_backend.dto.Reservation> execute(com.pimvanleeuwen.the_harry_list_backend.dto.Reservation input) {
         return executeWithEmail(input, true);
     }
 
     /**
-     * Create a reservation with optional email notification.
+     * Create a reservation with optional email notification. The emails are queued in the
+     * same transaction as the reservation and sent in the background.
      * @param input The reservation DTO
      * @param sendEmail Whether to send email notification
      */
+    @Transactional
     public ResponseEntity<com.pimvanleeuwen.the_harry_list_backend.dto.Reservation> executeWithEmail(
             com.pimvanleeuwen.the_harry_list_backend.dto.Reservation input, boolean sendEmail) {
         // Note: never log name/email/phone here. These logs are centralized (Loki), so guest
@@ -69,7 +82,15 @@ public class CreateReservationService implements Command<com.pimvanleeuwen.the_h
 
         if (!violations.isEmpty()) {
             log.warn("Reservation rejected due to constraint violations: {}", violations);
-            throw new IllegalArgumentException(String.join("; ", violations));
+            throw rejected(input, String.join("; ", violations));
+        }
+
+        // Confirmed guests already there at the requested time (only with a configured capacity)
+        if (!fitsCapacity(input)) {
+            log.warn("Reservation rejected: no room at location={} seating={} date={}",
+                    input.getLocation(), input.getSeatingArea(), input.getEventDate());
+            throw rejected(input, "There is not enough room left at " + input.getLocation().getDisplayName()
+                    + " (" + input.getSeatingArea().getDisplayName() + ") at the requested time");
         }
 
         // Convert DTO to entity
@@ -93,16 +114,33 @@ public class CreateReservationService implements Command<com.pimvanleeuwen.the_h
                 savedEntity.getConfirmationNumber() + " - " + savedEntity.getEventTitle(),
                 List.of(), "Reservation created");
 
-        // Send email notification if enabled
-        if (sendEmail && emailService != null) {
-            try {
-                emailService.sendReservationSubmittedEmail(savedEntity);
-            } catch (Exception e) {
-                log.error("Failed to send confirmation email, but reservation was created successfully", e);
-            }
+        // Queue the confirmation and staff notification if enabled
+        if (sendEmail) {
+            emailOutboxService.enqueueReservationSubmitted(savedEntity);
         }
 
         // Convert back to DTO and return
         return ResponseEntity.status(HttpStatus.CREATED).body(reservationMapper.toDto(savedEntity));
     }
+
+    private boolean fitsCapacity(com.pimvanleeuwen.the_harry_list_backend.dto.Reservation input) {
+        if (input.getLocation() == null || input.getLocation() == BarLocation.NO_PREFERENCE
+                || input.getSeatingArea() == null || input.getEventDate() == null
+                || input.getStartTime() == null || input.getEndTime() == null) {
+            return true;
+        }
+        return capacityIndex.canFit(input.getLocation(), input.getSeatingArea(), input.getEventDate(),
+                input.getStartTime(), input.getEndTime(), guests(input));
+    }
+
+    private ReservationRejectedException rejected(com.pimvanleeuwen.the_harry_list_backend.dto.Reservation input,
+                                                  String message) {
+        return new ReservationRejectedException(message, slotSuggestionService.suggest(
+                input.getSpecialActivities(), input.getLocation(), input.getSeatingArea(), input.getEventDate(),
+                input.getStartTime(), input.getEndTime(), guests(input), SUGGESTIONS));
+    }
+
+    private static int guests(com.pimvanleeuwen.the_harry_list_backend.dto.Reservation input) {
+        return input.getExpectedGuests() != null ? input.getExpectedGuests() : 0;
+    }
 }
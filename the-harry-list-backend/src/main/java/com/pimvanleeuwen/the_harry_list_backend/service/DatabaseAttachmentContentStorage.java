@@ -0,0 +1,73 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachmentContent;
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentContentRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Keeps attachment content in the {@code email_attachment_contents} table. Content is
+ * read into memory whole, on the way in and out.
+ */
+@Service
+@ConditionalOnProperty(name = "app.mail.attachments.storage", havingValue = "database", matchIfMissing = true)
+public class DatabaseAttachmentContentStorage implements AttachmentContentStorage {
+
+    private final EmailAttachmentContentRepository repository;
+
+    public DatabaseAttachmentContentStorage(EmailAttachmentContentRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Staged stage(InputStream content) throws IOException {
+        byte[] data = content.readAllBytes();
+        return new StagedBytes(EmailAttachmentStore.sha256Hex(data), data);
+    }
+
+    @Override
+    public void commit(Staged staged) {
+        StagedBytes bytes = (StagedBytes) staged;
+        if (!repository.existsById(bytes.sha256())) {
+            repository.save(EmailAttachmentContent.builder()
+                    .sha256(bytes.sha256())
+                    .data(bytes.data())
+                    .sizeBytes(bytes.sizeBytes())
+                    .build());
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(String sha256) {
+        return repository.findById(sha256).map(content -> new ByteArrayResource(content.getData()));
+    }
+
+    @Override
+    public boolean exists(String sha256) {
+        return repository.existsById(sha256);
+    }
+
+    @Override
+    public void delete(String sha256) {
+        repository.deleteById(sha256);
+    }
+
+    private record StagedBytes(String sha256, byte[] data) implements Staged {
+
+        @Override
+        public long sizeBytes() {
+            return data.length;
+        }
+
+        @Override
+        public void close() {
+            // Nothing held outside the heap
+        }
+    }
+}
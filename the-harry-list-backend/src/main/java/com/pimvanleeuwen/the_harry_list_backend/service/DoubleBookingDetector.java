@@ -0,0 +1,323 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BookingConflict;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository.CapacityRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Finds double bookings: pending or confirmed reservations that overlap another one in the
+ * same location and seating area, or an occurrence of an enabled calendar appointment at
+ * the same location (appointments have no seating area, so they take the whole location).
+ *
+ * <p>Every booking becomes a start and an end event; the events are sorted once and swept
+ * in order, keeping the bookings in progress per location. A starting booking conflicts
+ * with exactly the ones in progress at its place, so a season is checked in
+ * O(n log n + conflicts) instead of comparing every pair. Intervals are half-open, so a
+ * booking starting when another ends is fine; overnight reservations run into the next
+ * day, all-day appointments cover their whole date, and zero-length bookings (including
+ * appointments with a start but no end) take no time at all.
+ *
+ * <p>{@link #findConflicts} scans a range of up to {@value #MAX_RANGE_DAYS} days on
+ * request. The conflicts from {@value AppointmentOccurrenceIndex#HORIZON_PAST_DAYS} days ago through
+ * {@value AppointmentOccurrenceIndex#HORIZON_MONTHS} months ahead are also kept, so
+ * reservation responses can carry them without another query: they are scanned on first
+ * use, again after any reservation or appointment change commits, on a new day, and by a
+ * background job every {@code app.conflicts.scan-interval-ms} that logs what it finds.
+ */
+@Service
+public class DoubleBookingDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(DoubleBookingDetector.class);
+
+    /** Furthest {@code to} may lie after {@code from} in {@link #findConflicts}: a year, leap day included. */
+    public static final int MAX_RANGE_DAYS = 366;
+
+    /** Statuses that hold a place. */
+    static final Set<ReservationStatus> ACTIVE_STATUSES = EnumSet.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED);
+
+    /** Ends before starts at the same instant: touching bookings do not overlap. */
+    private static final Comparator<Event> SWEEP_ORDER = Comparator
+            .comparing(Event::time)
+            .thenComparing(Event::start);
+
+    private final ReservationRepository reservationRepository;
+    private final AppointmentOccurrenceIndex appointmentOccurrenceIndex;
+
+    /** Conflicts within the horizon; null until first scanned or after a change. */
+    private volatile Snapshot snapshot;
+
+    public DoubleBookingDetector(ReservationRepository reservationRepository,
+                                 AppointmentOccurrenceIndex appointmentOccurrenceIndex) {
+        this.reservationRepository = reservationRepository;
+        this.appointmentOccurrenceIndex = appointmentOccurrenceIndex;
+    }
+
+    /**
+     * Conflicts with any part of their overlap on {@code from} through {@code to}, ordered
+     * by when the overlap starts.
+     *
+     * @throws IllegalArgumentException when {@code from} is after {@code to}, or more than
+     *                                  {@value #MAX_RANGE_DAYS} days before it
+     */
+    public List<BookingConflict> findConflicts(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("to must be at most " + MAX_RANGE_DAYS + " days after from");
+        }
+        return scan(from, to);
+    }
+
+    /** {@link #findConflicts} for any range, such as the kept horizon. */
+    private List<BookingConflict> scan(LocalDate from, LocalDate to) {
+        // A day earlier for reservations and appointments running overnight into the range
+        List<CapacityRow> rows = reservationRepository.findCapacityRowsBetween(ACTIVE_STATUSES, from.minusDays(1), to);
+        List<AppointmentOccurrenceIndex.Occurrence> occurrences =
+                appointmentOccurrenceIndex.between(from.minusDays(1), to, null);
+
+        List<Booking> bookings = new ArrayList<>(rows.size() + occurrences.size());
+        for (CapacityRow row : rows) {
+            Booking booking = reservation(row);
+            if (booking != null) {
+                bookings.add(booking);
+            }
+        }
+        for (AppointmentOccurrenceIndex.Occurrence occurrence : occurrences) {
+            Booking booking = appointment(occurrence);
+            if (booking != null) {
+                bookings.add(booking);
+            }
+        }
+        return sweep(bookings, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    /** Ids of the reservations overlapping reservation {@code id} within the horizon. */
+    public Set<Long> conflictingReservations(Long id) {
+        return current().reservations.getOrDefault(id, Set.of());
+    }
+
+    /** Ids of the calendar appointments overlapping reservation {@code id} within the horizon. */
+    public Set<Long> conflictingAppointments(Long id) {
+        return current().appointments.getOrDefault(id, Set.of());
+    }
+
+    /** Scan the horizon again and log the conflicts found. */
+    @Scheduled(fixedDelayString = "${app.conflicts.scan-interval-ms:900000}",
+            initialDelayString = "${app.conflicts.scan-interval-ms:900000}")
+    public synchronized void rescan() {
+        Snapshot scanned = scan(LocalDate.now());
+        snapshot = scanned;
+        if (scanned.conflicts == 0) {
+            log.debug("Double booking scan: no conflicts from {} to {}", scanned.from, scanned.to);
+        } else {
+            Set<Long> flagged = new HashSet<>(scanned.reservations.keySet());
+            flagged.addAll(scanned.appointments.keySet());
+            log.info("LOGGING reservations.conflicts count={} reservations={} from={} to={}",
+                    scanned.conflicts, flagged.size(), scanned.from, scanned.to);
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(Reservation.class) || event.isAbout(CalendarAppointment.class)) {
+            // Scan again on next use, by which time the appointment index has refreshed too
+            snapshot = null;
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        LocalDate today = LocalDate.now();
+        if (current != null && current.builtOn.equals(today)) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null || !snapshot.builtOn.equals(today)) {
+                snapshot = scan(today);
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot scan(LocalDate today) {
+        LocalDate from = today.minusDays(AppointmentOccurrenceIndex.HORIZON_PAST_DAYS);
+        LocalDate to = today.plusMonths(AppointmentOccurrenceIndex.HORIZON_MONTHS);
+        List<BookingConflict> conflicts = scan(from, to);
+
+        Map<Long, Set<Long>> reservations = new HashMap<>();
+        Map<Long, Set<Long>> appointments = new HashMap<>();
+        for (BookingConflict conflict : conflicts) {
+            if (conflict.otherReservationId() != null) {
+                reservations.computeIfAbsent(conflict.reservationId(), id -> new TreeSet<>()).add(conflict.otherReservationId());
+                reservations.computeIfAbsent(conflict.otherReservationId(), id -> new TreeSet<>()).add(conflict.reservationId());
+            } else {
+                appointments.computeIfAbsent(conflict.reservationId(), id -> new TreeSet<>()).add(conflict.appointmentId());
+            }
+        }
+        reservations.replaceAll((id, ids) -> Set.copyOf(ids));
+        appointments.replaceAll((id, ids) -> Set.copyOf(ids));
+        return new Snapshot(today, from, to, conflicts.size(), Map.copyOf(reservations), Map.copyOf(appointments));
+    }
+
+    /**
+     * The conflicts among {@code bookings} whose overlap falls at least partly within
+     * {@code [from, to)}, in sweep order.
+     */
+    static List<BookingConflict> sweep(List<Booking> bookings, LocalDateTime from, LocalDateTime to) {
+        List<Event> events = new ArrayList<>(2 * bookings.size());
+        for (Booking booking : bookings) {
+            events.add(new Event(booking.start(), true, booking));
+            events.add(new Event(booking.end(), false, booking));
+        }
+        events.sort(SWEEP_ORDER);
+
+        // In progress: reservations per location and seating area, appointments per location
+        Map<BarLocation, Map<SeatingArea, Set<Booking>>> reservations = new EnumMap<>(BarLocation.class);
+        Map<BarLocation, Set<Booking>> appointments = new EnumMap<>(BarLocation.class);
+        List<BookingConflict> conflicts = new ArrayList<>();
+        for (Event event : events) {
+            Booking booking = event.booking();
+            Set<Booking> sameAppointments = appointments.computeIfAbsent(booking.location(), l -> new LinkedHashSet<>());
+            Map<SeatingArea, Set<Booking>> areas = reservations.computeIfAbsent(booking.location(),
+                    l -> new EnumMap<>(SeatingArea.class));
+            if (!event.start()) {
+                (booking.appointment() ? sameAppointments : areas.get(booking.seatingArea())).remove(booking);
+                continue;
+            }
+            if (booking.appointment()) {
+                for (Set<Booking> area : areas.values()) {
+                    for (Booking reservation : area) {
+                        add(conflicts, reservation, booking, from, to);
+                    }
+                }
+                sameAppointments.add(booking);
+            } else {
+                Set<Booking> sameArea = areas.computeIfAbsent(booking.seatingArea(), a -> new LinkedHashSet<>());
+                for (Booking other : sameArea) {
+                    add(conflicts, other, booking, from, to);
+                }
+                for (Booking appointment : sameAppointments) {
+                    add(conflicts, booking, appointment, from, to);
+                }
+                sameArea.add(booking);
+            }
+        }
+        return conflicts;
+    }
+
+    /** Record that reservation {@code first} overlaps {@code second}, if the overlap is in range. */
+    private static void add(List<BookingConflict> conflicts, Booking first, Booking second,
+                            LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = first.start().isAfter(second.start()) ? first.start() : second.start();
+        LocalDateTime end = first.end().isBefore(second.end()) ? first.end() : second.end();
+        if (!end.isAfter(from) || !start.isBefore(to)) {
+            return;
+        }
+        conflicts.add(new BookingConflict(first.id(),
+                second.appointment() ? null : second.id(),
+                second.appointment() ? second.id() : null,
+                first.location(), first.seatingArea(), start, end));
+    }
+
+    /** A reservation as a booking, or null when it has no real place or takes no time. */
+    static Booking reservation(CapacityRow row) {
+        if (row.getLocation() == null || row.getLocation() == BarLocation.NO_PREFERENCE || row.getSeatingArea() == null
+                || row.getEventDate() == null || row.getStartTime() == null || row.getEndTime() == null
+                || row.getStartTime().equals(row.getEndTime())) {
+            return null;
+        }
+        return new Booking(row.getId(), false, row.getLocation(), row.getSeatingArea(),
+                row.getEventDate().atTime(row.getStartTime()), end(row.getEventDate(), row.getStartTime(), row.getEndTime()));
+    }
+
+    /** An appointment occurrence as a booking, or null when it has no real place or takes no time. */
+    static Booking appointment(AppointmentOccurrenceIndex.Occurrence occurrence) {
+        CalendarAppointment appointment = occurrence.appointment();
+        LocalDate date = occurrence.date();
+        if (appointment.getLocation() == null || appointment.getLocation() == BarLocation.NO_PREFERENCE) {
+            return null;
+        }
+        if (Boolean.TRUE.equals(appointment.getAllDay())) {
+            return new Booking(appointment.getId(), true, appointment.getLocation(), null,
+                    date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        }
+        if (appointment.getStartTime() == null || appointment.getEndTime() == null
+                || appointment.getStartTime().equals(appointment.getEndTime())) {
+            return null;
+        }
+        return new Booking(appointment.getId(), true, appointment.getLocation(), null,
+                date.atTime(appointment.getStartTime()), end(date, appointment.getStartTime(), appointment.getEndTime()));
+    }
+
+    /** End instant; an end before the start is on the next day. */
+    private static LocalDateTime end(LocalDate date, LocalTime start, LocalTime end) {
+        return (end.isBefore(start) ? date.plusDays(1) : date).atTime(end);
+    }
+
+    /**
+     * A reservation or appointment occurrence taking {@code [start, end)}; appointments have
+     * no seating area. Compared by identity, so one appointment's occurrences stay apart.
+     */
+    static final class Booking {
+
+        private final Long id;
+        private final boolean appointment;
+        private final BarLocation location;
+        private final SeatingArea seatingArea;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Booking(Long id, boolean appointment, BarLocation location, SeatingArea seatingArea,
+                LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.appointment = appointment;
+            this.location = location;
+            this.seatingArea = seatingArea;
+            this.start = start;
+            this.end = end;
+        }
+
+        Long id() { return id; }
+        boolean appointment() { return appointment; }
+        BarLocation location() { return location; }
+        SeatingArea seatingArea() { return seatingArea; }
+        LocalDateTime start() { return start; }
+        LocalDateTime end() { return end; }
+    }
+
+    private record Event(LocalDateTime time, boolean start, Booking booking) {
+    }
+
+    /** Conflict ids per reservation for {@code [from, to]}, scanned on {@code builtOn}. */
+    private record Snapshot(LocalDate builtOn, LocalDate from, LocalDate to, int conflicts,
+                            Map<Long, Set<Long>> reservations, Map<Long, Set<Long>> appointments) {
+    }
+}
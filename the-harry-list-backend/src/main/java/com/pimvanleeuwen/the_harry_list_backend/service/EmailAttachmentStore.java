@@ -0,0 +1,250 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachment;
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Stores the PDFs attached to catering emails and hands them out ready to send.
+ *
+ * <p>Metadata ({@link EmailAttachment}) and bytes are kept apart; the bytes go to the
+ * configured {@link AttachmentContentStorage}, keyed by their SHA-256 hash, so uploading
+ * the same PDF twice stores it once. Because a hash always names the same bytes, the
+ * base64 encoding of each content is cached by hash (least recently used first out, up to
+ * {@code app.mail.attachments.cache-max-bytes}) and never needs invalidating: sending the
+ * same menu to many customers reads and encodes it once.
+ *
+ * <p>Content is removed once no attachment uses it any more. Storing and removing the
+ * content of one hash are serialized (per hash, within this instance): an upload holds
+ * the lock from publishing its content until its transaction ends, so a removal either
+ * runs before the upload puts the content (back) in place, or sees the new attachment.
+ */
+@Service
+public class EmailAttachmentStore {
+
+    private final EmailAttachmentRepository attachmentRepository;
+    private final AttachmentContentStorage storage;
+    private final EncodedCache encodedCache;
+    /** Removes content in its own transaction: the one that triggers it has already ended. */
+    private final TransactionTemplate removal;
+    /** Striped by hash; see {@link #contentLock}. */
+    private final Lock[] contentLocks = new Lock[64];
+
+    public EmailAttachmentStore(EmailAttachmentRepository attachmentRepository,
+                                AttachmentContentStorage storage,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.mail.attachments.cache-max-bytes:33554432}") long cacheMaxBytes) {
+        this.attachmentRepository = attachmentRepository;
+        this.storage = storage;
+        this.encodedCache = new EncodedCache(cacheMaxBytes);
+        this.removal = new TransactionTemplate(transactionManager);
+        this.removal.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < contentLocks.length; i++) {
+            contentLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Save a new attachment, streaming {@code content} into storage (the stream is not
+     * closed). Content that was uploaded before is reused. If the transaction rolls back,
+     * content no other attachment uses is removed again.
+     */
+    @Transactional
+    public EmailAttachment store(String name, String filename, String contentType, InputStream content)
+            throws IOException {
+        try (AttachmentContentStorage.Staged staged = storage.stage(content)) {
+            String sha256 = staged.sha256();
+            Lock lock = contentLock(sha256);
+            lock.lock();
+            boolean heldUntilCompletion = afterCompletion(committed -> {
+                try {
+                    if (!committed) {
+                        removeContentIfUnused(sha256);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            });
+            try {
+                storage.commit(staged);
+                return attachmentRepository.save(EmailAttachment.builder()
+                        .name(name)
+                        .filename(filename)
+                        .contentType(contentType)
+                        .sha256(sha256)
+                        .sizeBytes(staged.sizeBytes())
+                        .active(true)
+                        .build());
+            } finally {
+                if (!heldUntilCompletion) {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete an attachment. Its content goes too once the deletion has committed and no
+     * other attachment uses it.
+     */
+    @Transactional
+    public void delete(EmailAttachment attachment) {
+        attachmentRepository.delete(attachment);
+        String sha256 = attachment.getSha256();
+        if (sha256 != null) {
+            if (!afterCompletion(committed -> {
+                if (committed) {
+                    removeContentIfUnused(sha256);
+                }
+            })) {
+                removeContentIfUnused(sha256);
+            }
+        }
+    }
+
+    /** The content of an attachment, for streaming it back; empty when it is missing. */
+    public Optional<Resource> content(EmailAttachment attachment) {
+        return attachment.getSha256() != null ? storage.get(attachment.getSha256()) : Optional.empty();
+    }
+
+    /**
+     * The attachments with the given ids (unknown ids are skipped), base64-encoded.
+     *
+     * @throws IllegalStateException when an attachment's content is missing
+     */
+    @Transactional(readOnly = true)
+    public List<EncodedAttachment> loadEncoded(Collection<Long> ids) {
+        List<EncodedAttachment> result = new ArrayList<>();
+        for (EmailAttachment attachment : attachmentRepository.findAllById(ids)) {
+            String sha256 = attachment.getSha256();
+            String base64 = sha256 != null ? encodedCache.get(sha256) : null;
+            if (base64 == null) {
+                Resource content = content(attachment).orElseThrow(() ->
+                        new IllegalStateException("Content of attachment " + attachment.getId() + " is missing"));
+                try (InputStream in = content.getInputStream()) {
+                    base64 = Base64.getEncoder().encodeToString(in.readAllBytes());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read content of attachment " + attachment.getId(), e);
+                }
+                encodedCache.put(sha256, base64);
+            }
+            result.add(new EncodedAttachment(attachment.getFilename(), attachment.getContentType(), sha256, base64));
+        }
+        return result;
+    }
+
+    /** Remove the content with this hash unless an attachment uses it, or an upload of it is in progress. */
+    private void removeContentIfUnused(String sha256) {
+        Lock lock = contentLock(sha256);
+        lock.lock();
+        try {
+            removal.executeWithoutResult(status -> {
+                if (!attachmentRepository.existsBySha256(sha256)) {
+                    storage.delete(sha256);
+                    encodedCache.remove(sha256);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock contentLock(String sha256) {
+        return contentLocks[Math.floorMod(sha256.hashCode(), contentLocks.length)];
+    }
+
+    /**
+     * Run {@code action} with whether the current transaction committed, once it has ended.
+     *
+     * @return false, without running {@code action}, when there is no transaction
+     */
+    private static boolean afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+        return true;
+    }
+
+    /** Lowercase hex SHA-256 of {@code data}. */
+    public static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every JVM
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Base64 payloads by content hash, evicting the least recently used beyond a total size. */
+    static final class EncodedCache {
+
+        private final long maxBytes;
+        private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        EncodedCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized String get(String sha256) {
+            return entries.get(sha256);
+        }
+
+        synchronized void put(String sha256, String base64) {
+            // Base64 is ASCII: one byte per char in a compact string
+            if (base64.length() > maxBytes) {
+                return;
+            }
+            String previous = entries.put(sha256, base64);
+            bytes += base64.length() - (previous != null ? previous.length() : 0);
+            Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().length();
+                eldest.remove();
+            }
+        }
+
+        synchronized void remove(String sha256) {
+            String removed = entries.remove(sha256);
+            if (removed != null) {
+                bytes -= removed.length();
+            }
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
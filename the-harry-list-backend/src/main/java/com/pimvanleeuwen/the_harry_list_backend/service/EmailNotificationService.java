@@ -1,8 +1,8 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
-import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachment;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -43,14 +43,51 @@ public interface EmailNotificationService {
     void sendCustomEmail(Reservation reservation, String subject, String message);
 
     /**
-     * Send a raw HTML email to any address. Used for template test emails.
+     * Render the confirmation email for a newly submitted reservation, without sending it.
+     */
+    OutgoingEmail renderReservationSubmittedEmail(Reservation reservation);
+
+    /**
+     * Render the new-reservation notification for staff, without sending it.
+     */
+    OutgoingEmail renderStaffNotificationEmail(Reservation reservation);
+
+    /**
+     * Render the status change email, without sending it.
+     *
+     * @param customMessage optional free-text note from staff; may be {@code null} or blank to omit it.
+     */
+    OutgoingEmail renderStatusChangeEmail(Reservation reservation, String customMessage);
+
+    /**
+     * Send a raw HTML email to any address. Used for template test emails and for
+     * delivering queued emails, so it throws when the email could not be sent.
      */
     void sendRawEmail(String to, String subject, String htmlBody);
 
     /**
-     * Send an email with PDF attachments and a custom reply-to address.
+     * Send several raw HTML emails, reporting the outcome of each one instead of throwing.
+     * Implementations may group them into fewer requests; this default sends them one by one.
+     */
+    default List<EmailSendResult> sendRawEmails(List<OutgoingEmail> emails) {
+        List<EmailSendResult> results = new ArrayList<>(emails.size());
+        for (OutgoingEmail email : emails) {
+            try {
+                sendRawEmail(email.to(), email.subject(), email.htmlBody());
+                results.add(EmailSendResult.sent(email, -1));
+            } catch (Exception e) {
+                String error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                results.add(EmailSendResult.failed(email, -1, String.valueOf(error), null));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Send an email with PDF attachments (see {@link EmailAttachmentStore#loadEncoded}) and a
+     * custom reply-to address.
      */
     void sendEmailWithAttachments(String to, String subject, String htmlBody,
-                                  List<EmailAttachment> attachments, String replyTo);
+                                  List<EncodedAttachment> attachments, String replyTo);
 }
 
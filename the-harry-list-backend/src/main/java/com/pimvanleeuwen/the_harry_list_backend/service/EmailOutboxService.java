@@ -0,0 +1,119 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailOutbox;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Queues reservation emails in the {@link EmailOutbox} table instead of sending them on
+ * the request thread. Emails are rendered right away, from the reservation as it is now,
+ * and stored in the caller's transaction: they are sent (by {@link EmailOutboxWorker})
+ * only if that transaction commits, and survive the mail server being slow or down.
+ *
+ * <p>As before, a failure to render an email is logged and never breaks the operation
+ * that triggered it. Without an {@link EmailNotificationService} (mail disabled) nothing
+ * is queued.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final Optional<EmailNotificationService> emailService;
+    private final EmailOutboxWorker emailOutboxWorker;
+
+    public EmailOutboxService(EmailOutboxRepository emailOutboxRepository,
+                              Optional<EmailNotificationService> emailService,
+                              EmailOutboxWorker emailOutboxWorker) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.emailOutboxWorker = emailOutboxWorker;
+    }
+
+    /** Queue the guest confirmation and the staff notification for a new reservation. */
+    @Transactional
+    public void enqueueReservationSubmitted(Reservation reservation) {
+        emailService.ifPresent(sender -> {
+            enqueue(key(reservation, "submitted"),
+                    () -> sender.renderReservationSubmittedEmail(reservation));
+            enqueue(key(reservation, "staff-notification"),
+                    () -> sender.renderStaffNotificationEmail(reservation));
+        });
+    }
+
+    /**
+     * Queue the email announcing the reservation's current status.
+     *
+     * <p>One status change is identified by the reservation, its new status and when the
+     * reservation was last changed before it. A double submit or a retried request that
+     * applies the same change to the same version of the reservation therefore queues one
+     * email, while a later change to a status the reservation had before gets its own.
+     *
+     * @param previousUpdate the reservation's {@code updatedAt} before this change
+     * @param customMessage optional free-text note from staff; may be {@code null} or blank to omit it.
+     */
+    @Transactional
+    public void enqueueStatusChange(Reservation reservation, LocalDateTime previousUpdate, String customMessage) {
+        emailService.ifPresent(sender -> enqueue(
+                key(reservation, "status/" + reservation.getStatus() + "/" + (previousUpdate != null ? previousUpdate : "new")),
+                () -> sender.renderStatusChangeEmail(reservation, customMessage)));
+    }
+
+    /**
+     * Queue a rendered email under {@code idempotencyKey}, unless an email with that key
+     * has been queued before.
+     *
+     * @return whether the email was queued
+     */
+    @Transactional
+    public boolean enqueue(String idempotencyKey, OutgoingEmail email) {
+        if (emailOutboxRepository.existsByIdempotencyKey(idempotencyKey)) {
+            log.info("Email '{}' was already queued, not queuing it again", idempotencyKey);
+            return false;
+        }
+        EmailOutbox row = new EmailOutbox();
+        row.setIdempotencyKey(idempotencyKey);
+        row.setRecipient(email.to());
+        row.setSubject(email.subject());
+        row.setHtmlBody(email.htmlBody());
+        emailOutboxRepository.save(row);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emailOutboxWorker.wakeUp();
+                }
+            });
+        } else {
+            emailOutboxWorker.wakeUp();
+        }
+        return true;
+    }
+
+    private void enqueue(String idempotencyKey, Supplier<OutgoingEmail> render) {
+        OutgoingEmail email;
+        try {
+            email = render.get();
+        } catch (Exception e) {
+            log.error("Failed to render email '{}', it will not be sent", idempotencyKey, e);
+            return;
+        }
+        enqueue(idempotencyKey, email);
+    }
+
+    private static String key(Reservation reservation, String kind) {
+        return "reservation/" + reservation.getId() + "/" + kind;
+    }
+}
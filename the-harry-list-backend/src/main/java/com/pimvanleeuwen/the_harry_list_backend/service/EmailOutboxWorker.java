@@ -0,0 +1,284 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailOutbox;
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailOutboxStatus;
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the emails queued in the {@link EmailOutbox} table by {@link EmailOutboxService}.
+ *
+ * <p>A background thread wakes up when a transaction that queued email commits, and
+ * otherwise every {@code app.mail.outbox.poll-interval-ms}. Each round it loads up to
+ * {@code app.mail.outbox.batch-size} due emails and takes the oldest one of each
+ * recipient, so a recipient's emails go out in the order they were queued and a failed
+ * one holds back the rest until its retry. Those are handed to
+ * {@link EmailNotificationService#sendRawEmails} in chunks of {@value #SEND_CHUNK} (one
+ * Graph {@code $batch} each) on virtual threads, at most
+ * {@code app.mail.outbox.concurrency} chunks at a time. Rounds follow each other until
+ * nothing is due.
+ *
+ * <p>Every attempt first claims the row (see {@link EmailOutboxRepository#claim}), so a
+ * sent email is never sent again, even with several instances polling the same table.
+ * A failed attempt is retried after {@code app.mail.outbox.initial-backoff-ms}, doubling
+ * each time up to an hour (or later, when throttled with a longer {@code Retry-After}); after {@code app.mail.outbox.max-attempts} attempts the row is
+ * marked {@link EmailOutboxStatus#FAILED} and kept. Delivery is at least once: should
+ * the process die between the mail server accepting an email and the row being marked
+ * sent, it is sent again after the claim expires.
+ *
+ * <p>Without an {@link EmailNotificationService} (mail disabled) the worker does not run.
+ *
+ * <p>Metrics: {@code email.outbox.sent}, {@code email.outbox.retried} and
+ * {@code email.outbox.failed}.
+ */
+@Component
+public class EmailOutboxWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxWorker.class);
+
+    /** How long a claimed email is reserved for the attempt in progress. */
+    static final Duration LEASE = Duration.ofMinutes(5);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    /** How long {@link #stop()} waits for the sends in progress. */
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /** Emails handed to the mail service at once: one Microsoft Graph {@code $batch}. */
+    private static final int SEND_CHUNK = 20;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final Optional<EmailNotificationService> emailService;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Semaphore sendPermits;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    /** Released to start a round before the poll interval is up. */
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private volatile boolean running;
+    private Thread poller;
+
+    public EmailOutboxWorker(EmailOutboxRepository emailOutboxRepository,
+                             Optional<EmailNotificationService> emailService,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                             @Value("${app.mail.outbox.poll-interval-ms:5000}") long pollIntervalMs,
+                             @Value("${app.mail.outbox.concurrency:4}") int concurrency,
+                             @Value("${app.mail.outbox.max-attempts:10}") int maxAttempts,
+                             @Value("${app.mail.outbox.initial-backoff-ms:30000}") long initialBackoffMs) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.sendPermits = new Semaphore(concurrency);
+
+        this.sent = Counter.builder("email.outbox.sent")
+                .description("Queued emails accepted by the mail server")
+                .register(meterRegistry);
+        this.retried = Counter.builder("email.outbox.retried")
+                .description("Failed email attempts scheduled for a retry")
+                .register(meterRegistry);
+        this.failed = Counter.builder("email.outbox.failed")
+                .description("Queued emails given up on after the maximum number of attempts")
+                .register(meterRegistry);
+    }
+
+    /** Start a delivery round now rather than at the next poll. Never blocks. */
+    public void wakeUp() {
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || emailService.isEmpty()) {
+            return;
+        }
+        running = true;
+        poller = Thread.ofPlatform().name("email-outbox").daemon().start(this::run);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeUp.release();
+        try {
+            poller.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (poller.isAlive()) {
+            // Unfinished emails stay claimed and are retried once the claim expires
+            log.warn("Email outbox worker did not finish within {} ms", SHUTDOWN_TIMEOUT_MS);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Stop after the web server has finished its in-flight requests, like the audit writer. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // Each round sends one email per recipient; go again until nothing is due
+                if (deliverDue() == 0) {
+                    wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in email outbox worker", e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Run one delivery round and wait for it to finish: the oldest due email of each
+     * recipient is claimed and sent.
+     *
+     * @return the number of due emails found
+     */
+    int deliverDue() {
+        if (emailService.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = emailOutboxRepository.findDue(now, PageRequest.of(0, batchSize));
+        // One email per recipient per round, so none can overtake an older one to the same address
+        Map<String, EmailOutbox> oldestPerRecipient = new LinkedHashMap<>();
+        for (EmailOutbox email : due) {
+            oldestPerRecipient.putIfAbsent(email.getRecipient(), email);
+        }
+        List<EmailOutbox> claimed = new ArrayList<>(oldestPerRecipient.size());
+        for (EmailOutbox email : oldestPerRecipient.values()) {
+            if (emailOutboxRepository.claim(email.getId(), now, now.plus(LEASE)) == 1) {
+                claimed.add(email);
+            }
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < claimed.size(); from += SEND_CHUNK) {
+                List<EmailOutbox> chunk = claimed.subList(from, Math.min(from + SEND_CHUNK, claimed.size()));
+                executor.submit(() -> deliver(chunk));
+            }
+        }
+        return due.size();
+    }
+
+    private void deliver(List<EmailOutbox> emails) {
+        List<EmailSendResult> results;
+        try {
+            sendPermits.acquire();
+        } catch (InterruptedException e) {
+            // Left claimed: retried once the claim expires
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            results = emailService.get().sendRawEmails(emails.stream()
+                    .map(e -> new OutgoingEmail(e.getRecipient(), e.getSubject(), e.getHtmlBody()))
+                    .toList());
+        } finally {
+            sendPermits.release();
+        }
+        for (int i = 0; i < emails.size(); i++) {
+            EmailOutbox email = emails.get(i);
+            try {
+                record(email, results.get(i));
+            } catch (RuntimeException e) {
+                log.error("Failed to record the delivery of queued email id={}", email.getId(), e);
+            }
+        }
+    }
+
+    private void record(EmailOutbox email, EmailSendResult result) {
+        email.setAttempts(email.getAttempts() + 1);
+        if (!result.isSent()) {
+            recordFailure(email, result);
+            return;
+        }
+        email.setStatus(EmailOutboxStatus.SENT);
+        email.setSentAt(LocalDateTime.now());
+        email.setLastError(null);
+        emailOutboxRepository.save(email);
+        sent.increment();
+        log.info("LOGGING email.outbox_sent id={} key='{}' attempts={}",
+                email.getId(), email.getIdempotencyKey(), email.getAttempts());
+    }
+
+    private void recordFailure(EmailOutbox email, EmailSendResult result) {
+        String error = result.error();
+        email.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(EmailOutboxStatus.FAILED);
+            failed.increment();
+            log.error("Giving up on queued email id={} key='{}' after {} attempts: {}",
+                    email.getId(), email.getIdempotencyKey(), email.getAttempts(), error);
+        } else {
+            Duration backoff = backoff(email.getAttempts());
+            // Never sooner than a throttling mail server asked for
+            if (result.retryAfter() != null && result.retryAfter().compareTo(backoff) > 0) {
+                backoff = result.retryAfter();
+            }
+            email.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+            retried.increment();
+            log.warn("Sending queued email id={} key='{}' failed (attempt {}), retrying in {}s: {}",
+                    email.getId(), email.getIdempotencyKey(), email.getAttempts(), backoff.toSeconds(), error);
+        }
+        emailOutboxRepository.save(email);
+    }
+
+    /** Wait before the attempt after attempt number {@code attempts}: doubling, capped at an hour. */
+    Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+}
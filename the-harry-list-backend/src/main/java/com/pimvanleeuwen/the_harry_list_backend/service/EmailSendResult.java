@@ -0,0 +1,26 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import java.time.Duration;
+
+/**
+ * Outcome of sending one email as part of {@link EmailNotificationService#sendRawEmails}.
+ *
+ * @param email      the email
+ * @param status     HTTP status the mail server answered for this email, or -1 when there was none
+ * @param error      why it was not sent, or null when it was
+ * @param retryAfter how long the server asked to wait before trying again (throttling), or null
+ */
+public record EmailSendResult(OutgoingEmail email, int status, String error, Duration retryAfter) {
+
+    public static EmailSendResult sent(OutgoingEmail email, int status) {
+        return new EmailSendResult(email, status, null, null);
+    }
+
+    public static EmailSendResult failed(OutgoingEmail email, int status, String error, Duration retryAfter) {
+        return new EmailSendResult(email, status, error, retryAfter);
+    }
+
+    public boolean isSent() {
+        return error == null;
+    }
+}
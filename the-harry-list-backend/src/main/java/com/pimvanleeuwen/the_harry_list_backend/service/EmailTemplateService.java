@@ -1,9 +1,11 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
 import com.pimvanleeuwen.the_harry_list_backend.dto.EmailTemplateDto;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailTemplate;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailTemplateType;
 import com.pimvanleeuwen.the_harry_list_backend.repository.EmailTemplateRepository;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
@@ -11,17 +13,29 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Manages editable email templates stored in the database.
  * Falls back to hardcoded default templates when no custom template exists.
  * Templates use {{variable}} placeholders that are replaced with HTML-escaped values at render time.
+ *
+ * <p>The effective subject and body of each type are compiled once (see {@link CompiledTemplate})
+ * and cached until the template is updated or reset, here or by any other committed change to
+ * {@link EmailTemplate} (see {@link EntityChangedEvent}).
  */
 @Service
 public class EmailTemplateService {
 
     private final EmailTemplateRepository repository;
 
+    /** Compiled effective subject and body of one template type. */
+    private record Compiled(CompiledTemplate subject, CompiledTemplate body) {
+    }
+
+    private final ConcurrentMap<EmailTemplateType, Compiled> compiled = new ConcurrentHashMap<>();
+
     // Available variables per template type, shown to admins as documentation
     private static final Map<EmailTemplateType, List<String>> AVAILABLE_VARIABLES = new EnumMap<>(EmailTemplateType.class);
 
@@ -308,20 +322,14 @@ public class EmailTemplateService {
      */
     public String getRenderedBody(EmailTemplateType type, Map<String, String> variables,
                                   Map<String, String> rawHtmlVariables) {
-        String template = repository.findByTemplateType(type)
-                .map(EmailTemplate::getBodyTemplate)
-                .orElse(DEFAULT_BODIES.get(type));
-        return render(template, variables, rawHtmlVariables);
+        return compiled(type).body().render(variables, rawHtmlVariables);
     }
 
     /**
      * Render a template subject, using the DB override if present, otherwise the hardcoded default.
      */
     public String getRenderedSubject(EmailTemplateType type, Map<String, String> variables) {
-        String template = repository.findByTemplateType(type)
-                .map(EmailTemplate::getSubject)
-                .orElse(DEFAULT_SUBJECTS.get(type));
-        return render(template, variables, Map.of());
+        return compiled(type).subject().render(variables, Map.of());
     }
 
     public List<EmailTemplateDto> findAll() {
@@ -340,11 +348,20 @@ public class EmailTemplateService {
         template.setSubject(subject);
         template.setBodyTemplate(bodyTemplate);
         repository.save(template);
+        compiled.remove(type);
         return toDto(type);
     }
 
     public void reset(EmailTemplateType type) {
         repository.findByTemplateType(type).ifPresent(repository::delete);
+        compiled.remove(type);
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(EmailTemplate.class)) {
+            compiled.clear();
+        }
     }
 
     public List<String> getAvailableVariables(EmailTemplateType type) {
@@ -392,13 +409,13 @@ public class EmailTemplateService {
 
     /** Render an arbitrary template string with the given variables (used for test previews). */
     public String renderForTest(String template, Map<String, String> variables) {
-        return render(template, variables, Map.of());
+        return CompiledTemplate.compile(template).render(variables, Map.of());
     }
 
     /** Render an arbitrary template string with escaped variables plus pre-sanitized raw-HTML variables. */
     public String renderForTest(String template, Map<String, String> variables,
                                 Map<String, String> rawHtmlVariables) {
-        return render(template, variables, rawHtmlVariables);
+        return CompiledTemplate.compile(template).render(variables, rawHtmlVariables);
     }
 
     /**
@@ -436,28 +453,12 @@ public class EmailTemplateService {
                 .build();
     }
 
-    private String render(String template, Map<String, String> variables,
-                          Map<String, String> rawHtmlVariables) {
-        if (template == null) return "";
-        String result = template;
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            result = result.replace("{{" + entry.getKey() + "}}", escapeHtml(entry.getValue()));
-        }
-        // Raw-HTML variables are pre-sanitized and substituted verbatim (no escaping).
-        for (Map.Entry<String, String> entry : rawHtmlVariables.entrySet()) {
-            String value = entry.getValue() != null ? entry.getValue() : "";
-            result = result.replace("{{" + entry.getKey() + "}}", value);
-        }
-        return result;
-    }
-
-    private String escapeHtml(String input) {
-        if (input == null) return "";
-        return input
-                .replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#x27;");
+    private Compiled compiled(EmailTemplateType type) {
+        return compiled.computeIfAbsent(type, t -> {
+            Optional<EmailTemplate> stored = repository.findByTemplateType(t);
+            return new Compiled(
+                    CompiledTemplate.compile(stored.map(EmailTemplate::getSubject).orElse(DEFAULT_SUBJECTS.get(t))),
+                    CompiledTemplate.compile(stored.map(EmailTemplate::getBodyTemplate).orElse(DEFAULT_BODIES.get(t))));
+        });
     }
 }
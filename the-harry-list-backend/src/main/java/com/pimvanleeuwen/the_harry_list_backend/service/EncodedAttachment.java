@@ -0,0 +1,8 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+/**
+ * An email attachment ready to send: its content already base64-encoded, as Graph
+ * expects it. Built by {@link EmailAttachmentStore#loadEncoded}.
+ */
+public record EncodedAttachment(String filename, String contentType, String sha256, String base64) {
+}
@@ -0,0 +1,145 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps attachment content as files under {@code app.mail.attachments.dir}, at
+ * {@code <first two hex digits>/<sha256>}.
+ *
+ * <p>Uploads are streamed to a temporary file in {@code .tmp} under the same directory
+ * while being hashed, forced to disk, and then renamed into place atomically: a content
+ * file either is complete or does not exist, and readers never see a partial write. When
+ * the content is already there the temporary file is simply dropped.
+ */
+@Service
+@ConditionalOnProperty(name = "app.mail.attachments.storage", havingValue = "filesystem")
+public class FilesystemAttachmentContentStorage implements AttachmentContentStorage {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Path tmp;
+
+    public FilesystemAttachmentContentStorage(@Value("${app.mail.attachments.dir}") Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.tmp = this.root.resolve(".tmp");
+        try {
+            Files.createDirectories(tmp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create attachment directory " + tmp, e);
+        }
+    }
+
+    @Override
+    public Staged stage(InputStream content) throws IOException {
+        Path upload = tmp.resolve("upload-" + UUID.randomUUID());
+        try {
+            MessageDigest digest = sha256Digest();
+            long size;
+            try (FileChannel channel = FileChannel.open(upload, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 OutputStream out = Channels.newOutputStream(channel)) {
+                size = new DigestInputStream(content, digest).transferTo(out);
+                channel.force(true);
+            }
+            return new StagedFile(upload, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+    }
+
+    @Override
+    public void commit(Staged staged) throws IOException {
+        StagedFile file = (StagedFile) staged;
+        Path target = path(file.sha256());
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(file.upload(), target);
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(String sha256) {
+        Path path = path(sha256);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean exists(String sha256) {
+        return Files.isRegularFile(path(sha256));
+    }
+
+    @Override
+    public void delete(String sha256) {
+        try {
+            Files.deleteIfExists(path(sha256));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete attachment content " + sha256, e);
+        }
+    }
+
+    /** Where the content with this hash lives; rejects anything that is not a hash. */
+    Path path(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private static void moveIntoPlace(Path upload, Path target) throws IOException {
+        try {
+            Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored concurrently by another upload of the same bytes
+        } catch (AtomicMoveNotSupportedException e) {
+            // Same directory tree, so only on exotic filesystems; never overwrite existing content
+            try {
+                Files.move(upload, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // As above
+            }
+        }
+    }
+
+    /** An upload in {@code .tmp}, removed on close unless it was moved into place. */
+    private record StagedFile(Path upload, String sha256, long sizeBytes) implements Staged {
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every JVM
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
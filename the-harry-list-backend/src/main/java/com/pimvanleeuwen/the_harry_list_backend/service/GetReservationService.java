@@ -1,15 +1,27 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
+import com.pimvanleeuwen.the_harry_list_backend.dto.ReservationSearchCriteria;
+import com.pimvanleeuwen.the_harry_list_backend.dto.ReservationSummary;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,12 +29,29 @@ public class GetReservationService implements Query<Void, List<com.pimvanleeuwen
 
     private static final Logger log = LoggerFactory.getLogger(GetReservationService.class);
 
+    /** Largest page the search will return, whatever the client asks for. */
+    static final int MAX_PAGE_SIZE = 200;
+
+    /** Properties the search can sort on; all are plain columns of {@code reservation}. */
+    static final Set<String> SORTABLE_FIELDS = Set.of(
+            "eventDate", "createdAt", "updatedAt", "status", "location", "eventTitle",
+            "organizationName", "contactName", "expectedGuests", "confirmationNumber");
+
+    /**
+     * Escape character for the text search's LIKE patterns. Not a backslash: MariaDB would
+     * read that as a string escape inside the rendered {@code ESCAPE '\'} literal.
+     */
+    private static final char LIKE_ESCAPE = '!';
+
     private final ReservationRepository reservationRepository;
     private final ReservationMapper reservationMapper;
+    private final DoubleBookingDetector doubleBookingDetector;
 
-    public GetReservationService(ReservationRepository reservationRepository, ReservationMapper reservationMapper) {
+    public GetReservationService(ReservationRepository reservationRepository, ReservationMapper reservationMapper,
+                                 DoubleBookingDetector doubleBookingDetector) {
         this.reservationRepository = reservationRepository;
         this.reservationMapper = reservationMapper;
+        this.doubleBookingDetector = doubleBookingDetector;
     }
 
     @Override
@@ -33,6 +62,7 @@ public class GetReservationService implements Query<Void, List<com.pimvanleeuwen
 
         List<com.pimvanleeuwen.the_harry_list_backend.dto.Reservation> dtoList = reservationList.stream()
                 .map(reservationMapper::toDto)
+                .map(this::withConflicts)
                 .collect(Collectors.toList());
 
         return ResponseEntity.status(HttpStatus.OK).body(dtoList);
@@ -47,10 +77,99 @@ public class GetReservationService implements Query<Void, List<com.pimvanleeuwen
         Optional<Reservation> reservation = reservationRepository.findById(id);
 
         if (reservation.isPresent()) {
-            return ResponseEntity.ok(reservationMapper.toDto(reservation.get()));
+            return ResponseEntity.ok(withConflicts(reservationMapper.toDto(reservation.get())));
         } else {
             log.warn("Reservation with ID {} not found", id);
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * One page of reservations matching {@code criteria}, as slim {@link ReservationSummary}
+     * rows. Filtering, sorting and paging all happen in the database; the page costs one
+     * query for the rows and (when there is more than one page) one count. Double bookings come from {@link DoubleBookingDetector}'s scan.
+     *
+     * @param sort      one of {@link #SORTABLE_FIELDS}; ties are broken by id so pages are stable
+     * @param direction sort direction
+     * @throws IllegalArgumentException for an unknown sort field
+     */
+    public ResponseEntity<Map<String, Object>> search(ReservationSearchCriteria criteria, int page, int size,
+                                                      String sort, Sort.Direction direction) {
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            throw new IllegalArgumentException("Cannot sort by '" + sort + "'. Use one of: "
+                    + SORTABLE_FIELDS.stream().sorted().collect(Collectors.joining(", ")));
+        }
+
+        Sort order = Sort.by(direction, sort);
+        if ("eventDate".equals(sort)) {
+            order = order.and(Sort.by(direction, "startTime"));
+        }
+        order = order.and(Sort.by(direction, "id"));
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE), order);
+
+        Page<ReservationSummary> result = reservationRepository.findBy(toSpecification(criteria),
+                query -> query.as(ReservationSummary.class).page(pageRequest));
+
+        Map<String, Object> body = Map.of(
+                "content", withConflicts(result.getContent()),
+                "page", result.getNumber(),
+                "size", result.getSize(),
+                "totalElements", result.getTotalElements(),
+                "totalPages", result.getTotalPages()
+        );
+        return ResponseEntity.ok(body);
+    }
+
+    static Specification<Reservation> toSpecification(ReservationSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.statuses() != null && !criteria.statuses().isEmpty()) {
+                predicates.add(root.get("status").in(EnumSet.copyOf(criteria.statuses())));
+            }
+            if (criteria.location() != null) predicates.add(cb.equal(root.get("location"), criteria.location()));
+            if (criteria.from() != null) predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), criteria.from()));
+            if (criteria.to() != null) predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), criteria.to()));
+            if (criteria.catering() != null) {
+                Expression<Long> catering = cb.function("bitand", Long.class,
+                        root.get("specialActivities"), cb.literal(Reservation.CATERING_MASK));
+                predicates.add(criteria.catering() ? cb.notEqual(catering, 0L) : cb.equal(catering, 0L));
+            }
+            if (criteria.text() != null && !criteria.text().isBlank()) {
+                String pattern = containsPattern(criteria.text());
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("eventTitle")), pattern, LIKE_ESCAPE),
+                        cb.like(cb.lower(root.get("organizationName")), pattern, LIKE_ESCAPE)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Case-insensitive LIKE pattern matching {@code text} anywhere, with {@code %} and
+     * {@code _} in the text taken literally.
+     */
+    static String containsPattern(String text) {
+        String escaped = text.trim().toLowerCase()
+                .replace(String.valueOf(LIKE_ESCAPE), LIKE_ESCAPE + String.valueOf(LIKE_ESCAPE))
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+        return "%" + escaped + "%";
+    }
+
+    private List<ReservationSummary> withConflicts(List<ReservationSummary> rows) {
+        return rows.stream()
+                .map(row -> row.withConflicts(doubleBookingDetector.conflictingReservations(row.id()),
+                        doubleBookingDetector.conflictingAppointments(row.id())))
+                .toList();
+    }
+
+    /** Flag the double bookings of {@code dto}, so the dashboard can highlight them. */
+    private com.pimvanleeuwen.the_harry_list_backend.dto.Reservation withConflicts(
+            com.pimvanleeuwen.the_harry_list_backend.dto.Reservation dto) {
+        if (dto != null && dto.getId() != null) {
+            dto.setConflictingReservationIds(doubleBookingDetector.conflictingReservations(dto.getId()));
+            dto.setConflictingAppointmentIds(doubleBookingDetector.conflictingAppointments(dto.getId()));
+        }
+        return dto;
+    }
 }
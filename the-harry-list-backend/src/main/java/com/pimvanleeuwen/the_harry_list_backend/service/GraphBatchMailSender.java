@@ -0,0 +1,258 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Sends many emails through Microsoft Graph with few requests: up to
+ * {@value #MAX_BATCH_SIZE} {@code sendMail} calls are combined into one JSON
+ * {@code $batch} request, and the outcome of each is reported separately.
+ *
+ * <p>Graph throttles per mailbox and answers an over-eager batch item with 429 (or 503)
+ * and a {@code Retry-After}. Those items, and whole batches refused that way, are sent
+ * again after the longest requested wait, at most {@value #MAX_ROUNDS} rounds in total.
+ * When Graph asks for more than {@link #MAX_INLINE_WAIT} the items are not retried here:
+ * their result carries the requested wait, for the caller to reschedule them.
+ *
+ * <p>The requests are made with the JDK HTTP client against a configurable base URL, so
+ * tests can point it at a local stub server.
+ */
+final class GraphBatchMailSender {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphBatchMailSender.class);
+
+    /** Graph's limit on the number of requests in one {@code $batch}. */
+    static final int MAX_BATCH_SIZE = 20;
+
+    /** Attempts per email, counting the first. */
+    static final int MAX_ROUNDS = 3;
+
+    /** Longest {@code Retry-After} honoured by waiting here. */
+    static final Duration MAX_INLINE_WAIT = Duration.ofSeconds(10);
+
+    /** Wait when a throttling response does not say how long. */
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(5);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final URI batchUri;
+    private final Supplier<String> accessToken;
+    private final String fromEmail;
+    private final String replyTo;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * @param baseUrl     Graph endpoint including the version, e.g. {@code https://graph.microsoft.com/v1.0}
+     * @param accessToken supplies a bearer token for each request
+     * @param fromEmail   mailbox the emails are sent from
+     * @param replyTo     reply-to address set on every email
+     */
+    GraphBatchMailSender(HttpClient httpClient, String baseUrl, Supplier<String> accessToken,
+                         String fromEmail, String replyTo) {
+        this.httpClient = httpClient;
+        this.batchUri = URI.create(baseUrl.replaceAll("/+$", "") + "/$batch");
+        this.accessToken = accessToken;
+        this.fromEmail = fromEmail;
+        this.replyTo = replyTo;
+    }
+
+    /** Send {@code emails}; the results are in the same order. Never throws. */
+    List<EmailSendResult> send(List<OutgoingEmail> emails) {
+        EmailSendResult[] results = new EmailSendResult[emails.size()];
+        List<Integer> pending = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            pending.add(i);
+        }
+
+        for (int round = 1; !pending.isEmpty(); round++) {
+            // Throttled emails (by index) and the result to report should they not be retried
+            Map<Integer, EmailSendResult> throttled = new LinkedHashMap<>();
+            for (int from = 0; from < pending.size(); from += MAX_BATCH_SIZE) {
+                List<Integer> batch = pending.subList(from, Math.min(from + MAX_BATCH_SIZE, pending.size()));
+                sendBatch(emails, batch, results, throttled);
+            }
+            if (throttled.isEmpty()) {
+                break;
+            }
+            Duration wait = throttled.values().stream()
+                    .map(EmailSendResult::retryAfter)
+                    .max(Duration::compareTo)
+                    .orElse(DEFAULT_RETRY_AFTER);
+            if (round == MAX_ROUNDS || wait.compareTo(MAX_INLINE_WAIT) > 0 || !sleep(wait)) {
+                throttled.forEach((i, result) -> results[i] = result);
+                break;
+            }
+            log.info("Microsoft Graph throttled {} of {} emails, retrying in {} ms",
+                    throttled.size(), emails.size(), wait.toMillis());
+            pending = new ArrayList<>(throttled.keySet());
+        }
+        return Arrays.asList(results);
+    }
+
+    /** Send the emails at {@code indexes} in one request, recording their outcomes. */
+    private void sendBatch(List<OutgoingEmail> emails, List<Integer> indexes,
+                           EmailSendResult[] results, Map<Integer, EmailSendResult> throttled) {
+        HttpResponse<String> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(batchUri)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Authorization", "Bearer " + accessToken.get())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(batchBody(emails, indexes)))
+                    .build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(emails, indexes, results, -1, "Interrupted");
+            return;
+        } catch (Exception e) {
+            log.warn("Microsoft Graph batch request failed", e);
+            failAll(emails, indexes, results, -1, String.valueOf(e.getMessage()));
+            return;
+        }
+
+        int status = response.statusCode();
+        if (isThrottled(status)) {
+            Duration retryAfter = retryAfter(response.headers().firstValue("Retry-After"));
+            for (int i : indexes) {
+                throttled.put(i, EmailSendResult.failed(emails.get(i), status,
+                        "Throttled by Microsoft Graph (HTTP " + status + ")", retryAfter));
+            }
+            return;
+        }
+        if (status / 100 != 2) {
+            failAll(emails, indexes, results, status, "HTTP " + status + ": " + errorMessage(response.body()));
+            return;
+        }
+
+        JsonNode responses;
+        try {
+            responses = objectMapper.readTree(response.body()).path("responses");
+        } catch (Exception e) {
+            failAll(emails, indexes, results, status, "Unreadable batch response: " + e.getMessage());
+            return;
+        }
+        for (JsonNode item : responses) {
+            int i = item.path("id").asInt(-1);
+            if (!indexes.contains(i)) {
+                continue;
+            }
+            int itemStatus = item.path("status").asInt(-1);
+            OutgoingEmail email = emails.get(i);
+            if (itemStatus / 100 == 2) {
+                results[i] = EmailSendResult.sent(email, itemStatus);
+            } else if (isThrottled(itemStatus)) {
+                throttled.put(i, EmailSendResult.failed(email, itemStatus,
+                        "Throttled by Microsoft Graph (HTTP " + itemStatus + ")",
+                        retryAfter(header(item.path("headers"), "Retry-After"))));
+            } else {
+                results[i] = EmailSendResult.failed(email, itemStatus,
+                        "HTTP " + itemStatus + ": " + errorMessage(item.path("body")), null);
+            }
+        }
+        for (int i : indexes) {
+            if (results[i] == null && !throttled.containsKey(i)) {
+                results[i] = EmailSendResult.failed(emails.get(i), status, "Missing from batch response", null);
+            }
+        }
+    }
+
+    private String batchBody(List<OutgoingEmail> emails, List<Integer> indexes) throws Exception {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode requests = root.putArray("requests");
+        for (int i : indexes) {
+            OutgoingEmail email = emails.get(i);
+            ObjectNode request = requests.addObject();
+            request.put("id", String.valueOf(i));
+            request.put("method", "POST");
+            request.put("url", "/users/" + fromEmail + "/sendMail");
+            request.putObject("headers").put("Content-Type", "application/json");
+
+            ObjectNode body = request.putObject("body");
+            ObjectNode message = body.putObject("message");
+            message.put("subject", email.subject());
+            ObjectNode content = message.putObject("body");
+            content.put("contentType", "HTML");
+            content.put("content", email.htmlBody());
+            message.putArray("toRecipients").addObject().putObject("emailAddress").put("address", email.to());
+            if (replyTo != null && !replyTo.isBlank()) {
+                message.putArray("replyTo").addObject().putObject("emailAddress").put("address", replyTo);
+            }
+            body.put("saveToSentItems", true);
+        }
+        return objectMapper.writeValueAsString(root);
+    }
+
+    private static void failAll(List<OutgoingEmail> emails, List<Integer> indexes,
+                                EmailSendResult[] results, int status, String error) {
+        for (int i : indexes) {
+            results[i] = EmailSendResult.failed(emails.get(i), status, error, null);
+        }
+    }
+
+    private static boolean isThrottled(int status) {
+        return status == 429 || status == 503;
+    }
+
+    private static Duration retryAfter(Optional<String> header) {
+        try {
+            return header.map(String::trim).map(Long::parseLong).map(Duration::ofSeconds).orElse(DEFAULT_RETRY_AFTER);
+        } catch (NumberFormatException e) {
+            // Graph sends seconds; an HTTP date is not worth parsing here
+            return DEFAULT_RETRY_AFTER;
+        }
+    }
+
+    private static Optional<String> header(JsonNode headers, String name) {
+        for (Map.Entry<String, JsonNode> header : headers.properties()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return Optional.of(header.getValue().asText());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private String errorMessage(String body) {
+        try {
+            return errorMessage(objectMapper.readTree(body));
+        } catch (Exception e) {
+            return body == null || body.length() <= 200 ? String.valueOf(body) : body.substring(0, 200);
+        }
+    }
+
+    private static String errorMessage(JsonNode body) {
+        JsonNode error = body.path("error");
+        if (error.isObject()) {
+            return error.path("code").asText("") + " " + error.path("message").asText("");
+        }
+        return body.toString();
+    }
+
+    private static boolean sleep(Duration wait) {
+        try {
+            Thread.sleep(wait);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
 import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
 import com.pimvanleeuwen.the_harry_list_backend.model.RecurrenceType;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
@@ -7,15 +8,28 @@ import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
 import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
 import com.pimvanleeuwen.the_harry_list_backend.repository.CalendarAppointmentRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for generating iCal/ICS calendar feeds.
@@ -27,13 +41,41 @@ public class ICalendarService {
     private static final DateTimeFormatter ICS_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
     private static final DateTimeFormatter ICS_DATE_ONLY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
 
+    /** RFC 5545 limit for a content line, excluding the CRLF. */
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private static final String PUBLIC_CALENDAR_HEADER = calendarHeader("The Harry List - Reservations");
+    private static final String STAFF_CALENDAR_HEADER = calendarHeader("The Harry List - Staff Reservations");
+
+    /** Upper bound on cached VEVENT blocks; roughly a few years of reservations in both feed variants. */
+    private static final int MAX_CACHED_EVENTS = 10_000;
+
+    /**
+     * Identifies one rendered VEVENT block. {@code version} is the entity's {@code updatedAt}
+     * (or {@code createdAt}), so an edit yields a new key and the old block ages out.
+     */
+    private record EventKey(String kind, Long id, LocalDateTime version, boolean includeConfidentialDetails) {
+    }
+
     private final ReservationRepository reservationRepository;
     private final CalendarAppointmentRepository calendarAppointmentRepository;
+    private final EntityManager entityManager;
+
+    /** Rendered VEVENT blocks, least recently used first. */
+    private final Map<EventKey, String> eventCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<EventKey, String> eldest) {
+                    return size() > MAX_CACHED_EVENTS;
+                }
+            });
 
     public ICalendarService(ReservationRepository reservationRepository,
-                            CalendarAppointmentRepository calendarAppointmentRepository) {
+                            CalendarAppointmentRepository calendarAppointmentRepository,
+                            EntityManager entityManager) {
         this.reservationRepository = reservationRepository;
         this.calendarAppointmentRepository = calendarAppointmentRepository;
+        this.entityManager = entityManager;
     }
 
     public String generateCalendarFeed(List<ReservationStatus> includeStatuses, String location, boolean includeConfidentialDetails) {
@@ -51,25 +93,7 @@ public class ICalendarService {
      *                 excluded when {@code catering} is true.
      */
     public String generateCalendarFeed(List<ReservationStatus> includeStatuses, String location, Boolean catering, boolean includeConfidentialDetails) {
-        List<Reservation> reservations = reservationRepository.findAll();
-
-        if (includeStatuses != null && !includeStatuses.isEmpty()) {
-            reservations = reservations.stream()
-                    .filter(r -> includeStatuses.contains(r.getStatus()))
-                    .toList();
-        }
-
-        if (location != null && !location.isEmpty()) {
-            reservations = reservations.stream()
-                    .filter(r -> r.getLocation() != null && r.getLocation().name().equalsIgnoreCase(location))
-                    .toList();
-        }
-
-        reservations = filterByCatering(reservations, catering);
-
-        List<CalendarAppointment> appointments = getFilteredAppointments(location, catering);
-
-        return buildIcsCalendar(reservations, appointments, includeConfidentialDetails);
+        return renderFeed(includeStatuses, location, catering, null, includeConfidentialDetails).content();
     }
 
     public String generateUpcomingCalendarFeed(List<ReservationStatus> includeStatuses, String location, boolean includeConfidentialDetails) {
@@ -82,50 +106,153 @@ public class ICalendarService {
      * catering filter semantics.
      */
     public String generateUpcomingCalendarFeed(List<ReservationStatus> includeStatuses, String location, Boolean catering, boolean includeConfidentialDetails) {
-        LocalDate today = LocalDate.now();
-        List<Reservation> reservations = reservationRepository.findAll().stream()
-                .filter(r -> r.getEventDate() != null && !r.getEventDate().isBefore(today))
-                .toList();
+        return renderFeed(includeStatuses, location, catering, LocalDate.now(), includeConfidentialDetails).content();
+    }
 
-        if (includeStatuses != null && !includeStatuses.isEmpty()) {
-            reservations = reservations.stream()
-                    .filter(r -> includeStatuses.contains(r.getStatus()))
-                    .toList();
+    /**
+     * A rendered ICS feed together with the newest change time of anything in it.
+     *
+     * @param content      the complete VCALENDAR document
+     * @param lastModified the latest {@code updatedAt} (or {@code createdAt}) of the included
+     *                     reservations and appointments; null when the feed has no events
+     */
+    public record RenderedFeed(String content, LocalDateTime lastModified) {
+    }
+
+    /**
+     * Renders a feed into memory. Prefer {@link #writeFeed} for anything served over HTTP;
+     * this is for callers that need the document as a string.
+     */
+    @Transactional(readOnly = true)
+    public RenderedFeed renderFeed(List<ReservationStatus> includeStatuses, String location, Boolean catering,
+                                   LocalDate fromDate, boolean includeConfidentialDetails) {
+        StringWriter out = new StringWriter();
+        try {
+            LocalDateTime lastModified = writeFeed(includeStatuses, location, catering, fromDate,
+                    includeConfidentialDetails, out);
+            return new RenderedFeed(out.toString(), lastModified);
+        } catch (IOException e) {
+            // StringWriter never throws
+            throw new UncheckedIOException(e);
         }
+    }
 
+    /**
+     * Shared feed path: writes the VCALENDAR document to {@code out} one VEVENT at a time.
+     *
+     * <p>All reservation filters (status, location, catering and the optional lower date
+     * bound) are pushed down to {@link ReservationRepository#streamForFeed}, and each
+     * reservation is detached once written, so memory use does not grow with the size of
+     * the feed. The caller owns {@code out} and should buffer it; it is flushed, not closed.
+     *
+     * @param fromDate null for the full history; otherwise only events on or after this date
+     * @return the latest {@code updatedAt} (or {@code createdAt}) of the written reservations
+     *         and appointments; null when the feed has no events
+     */
+    @Transactional(readOnly = true)
+    public LocalDateTime writeFeed(List<ReservationStatus> includeStatuses, String location, Boolean catering,
+                                   LocalDate fromDate, boolean includeConfidentialDetails, Writer out)
+            throws IOException {
+        BarLocation locationFilter = null;
         if (location != null && !location.isEmpty()) {
-            reservations = reservations.stream()
-                    .filter(r -> r.getLocation() != null && r.getLocation().name().equalsIgnoreCase(location))
-                    .toList();
+            locationFilter = parseLocation(location);
+            if (locationFilter == null) {
+                // Unknown location: nothing can match, so skip the queries entirely.
+                writeCalendarHeader(out, includeConfidentialDetails);
+                out.write("END:VCALENDAR\r\n");
+                out.flush();
+                return null;
+            }
         }
 
-        reservations = filterByCatering(reservations, catering);
+        Set<ReservationStatus> statuses = (includeStatuses != null && !includeStatuses.isEmpty())
+                ? EnumSet.copyOf(includeStatuses)
+                : EnumSet.allOf(ReservationStatus.class);
 
-        List<CalendarAppointment> appointments = getFilteredAppointments(location, catering).stream()
-                .filter(a -> {
-                    if (a.getRecurrenceType() != RecurrenceType.NONE) {
-                        // Recurring: include if no end date or end date is in the future
-                        return a.getRecurrenceEndDate() == null || !a.getRecurrenceEndDate().isBefore(today);
-                    }
-                    // Non-recurring: include if date is today or in the future
-                    return !a.getDate().isBefore(today);
-                })
-                .toList();
+        writeCalendarHeader(out, includeConfidentialDetails);
+
+        LocalDateTime lastModified = null;
+        try (Stream<Reservation> reservations =
+                     reservationRepository.streamForFeed(statuses, locationFilter, fromDate, catering)) {
+            Iterator<Reservation> it = reservations.iterator();
+            while (it.hasNext()) {
+                Reservation reservation = it.next();
+                out.write(reservationEvent(reservation, includeConfidentialDetails));
+                lastModified = latest(lastModified, version(reservation.getUpdatedAt(), reservation.getCreatedAt()));
+                entityManager.detach(reservation);
+            }
+        }
+
+        for (CalendarAppointment appointment : getFilteredAppointments(locationFilter, catering, fromDate)) {
+            out.write(appointmentEvent(appointment));
+            lastModified = latest(lastModified, version(appointment.getUpdatedAt(), appointment.getCreatedAt()));
+        }
 
-        return buildIcsCalendar(reservations, appointments, includeConfidentialDetails);
+        out.write("END:VCALENDAR\r\n");
+        out.flush();
+        return lastModified;
     }
 
-    /** Filters reservations to catering-only or non-catering-only; no-op when {@code catering} is null. */
-    private List<Reservation> filterByCatering(List<Reservation> reservations, Boolean catering) {
-        if (catering == null) {
-            return reservations;
+    /**
+     * What a feed's content depends on: how many reservations and appointments it holds and
+     * the newest change among each. Two renders with the same version are identical, so it
+     * can stand in for the content when computing validators.
+     *
+     * @param reservationsChanged null when there are no reservations
+     * @param appointmentsChanged null when there are no appointments
+     */
+    public record FeedVersion(long reservations, LocalDateTime reservationsChanged,
+                              long appointments, LocalDateTime appointmentsChanged) {
+
+        /** The newer of the two change times; null for an empty feed. */
+        public LocalDateTime lastModified() {
+            return latest(reservationsChanged, appointmentsChanged);
         }
-        return reservations.stream()
-                .filter(r -> r.hasCateringActivity() == catering)
-                .toList();
     }
 
-    private List<CalendarAppointment> getFilteredAppointments(String location, Boolean catering) {
+    /**
+     * The {@link FeedVersion} of the feed {@link #writeFeed} would write for these filters,
+     * without rendering it: one aggregate query for the reservations and the (small, already
+     * filtered in memory) list of appointments.
+     *
+     * @param location null for all locations; unknown names are the caller's to handle
+     */
+    @Transactional(readOnly = true)
+    public FeedVersion feedVersion(Set<ReservationStatus> statuses, BarLocation location, Boolean catering,
+                                   LocalDate fromDate) {
+        ReservationRepository.FeedStats reservations =
+                reservationRepository.feedStats(statuses, location, fromDate, catering);
+
+        List<CalendarAppointment> appointments = getFilteredAppointments(location, catering, fromDate);
+        LocalDateTime appointmentsChanged = null;
+        for (CalendarAppointment appointment : appointments) {
+            appointmentsChanged = latest(appointmentsChanged,
+                    version(appointment.getUpdatedAt(), appointment.getCreatedAt()));
+        }
+
+        return new FeedVersion(reservations.getCount(), reservations.getLastChange(),
+                appointments.size(), appointmentsChanged);
+    }
+
+    private static LocalDateTime latest(LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return (current == null || candidate.isAfter(current)) ? candidate : current;
+    }
+
+    /** Case-insensitive {@link BarLocation} lookup; null when the name is not a known location. */
+    static BarLocation parseLocation(String location) {
+        for (BarLocation candidate : BarLocation.values()) {
+            if (candidate.name().equalsIgnoreCase(location)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private List<CalendarAppointment> getFilteredAppointments(BarLocation location, Boolean catering,
+                                                              LocalDate fromDate) {
         // Appointments carry no catering attribute, so they count as non-catering:
         // when the feed is restricted to catering events, drop them entirely.
         if (Boolean.TRUE.equals(catering)) {
@@ -134,48 +261,83 @@ public class ICalendarService {
 
         List<CalendarAppointment> appointments = calendarAppointmentRepository.findByEnabledTrue();
 
-        if (location != null && !location.isEmpty()) {
-            appointments = appointments.stream()
-                    .filter(a -> a.getLocation() != null && a.getLocation().name().equalsIgnoreCase(location))
-                    .toList();
-        }
-
-        return appointments;
+        return appointments.stream()
+                .filter(a -> location == null || a.getLocation() == location)
+                .filter(a -> {
+                    if (fromDate == null) {
+                        return true;
+                    }
+                    if (a.getRecurrenceType() != RecurrenceType.NONE) {
+                        // Recurring: include if no end date or end date is in the future
+                        return a.getRecurrenceEndDate() == null || !a.getRecurrenceEndDate().isBefore(fromDate);
+                    }
+                    // Non-recurring: include if date is today or in the future
+                    return !a.getDate().isBefore(fromDate);
+                })
+                .toList();
     }
 
-    private String buildIcsCalendar(List<Reservation> reservations, List<CalendarAppointment> appointments,
-                                    boolean includeConfidentialDetails) {
-        StringBuilder ics = new StringBuilder();
-
-        String calendarName = includeConfidentialDetails
-                ? "The Harry List - Staff Reservations"
-                : "The Harry List - Reservations";
+    private void writeCalendarHeader(Writer out, boolean includeConfidentialDetails) throws IOException {
+        out.write(includeConfidentialDetails ? STAFF_CALENDAR_HEADER : PUBLIC_CALENDAR_HEADER);
+    }
 
-        ics.append("BEGIN:VCALENDAR\r\n");
-        ics.append("VERSION:2.0\r\n");
-        ics.append("PRODID:-//The Harry List//Reservation System//EN\r\n");
-        ics.append("CALSCALE:GREGORIAN\r\n");
-        ics.append("METHOD:PUBLISH\r\n");
-        ics.append("X-WR-CALNAME:").append(calendarName).append("\r\n");
-        ics.append("X-WR-TIMEZONE:").append(TIMEZONE).append("\r\n");
-        ics.append("REFRESH-INTERVAL;VALUE=DURATION:PT15M\r\n");
-        ics.append("X-PUBLISHED-TTL:PT15M\r\n");
-        ics.append(getTimezoneDefinition());
+    private static String calendarHeader(String calendarName) {
+        return "BEGIN:VCALENDAR\r\n" +
+                "VERSION:2.0\r\n" +
+                "PRODID:-//The Harry List//Reservation System//EN\r\n" +
+                "CALSCALE:GREGORIAN\r\n" +
+                "METHOD:PUBLISH\r\n" +
+                "X-WR-CALNAME:" + calendarName + "\r\n" +
+                "X-WR-TIMEZONE:" + TIMEZONE + "\r\n" +
+                "REFRESH-INTERVAL;VALUE=DURATION:PT15M\r\n" +
+                "X-PUBLISHED-TTL:PT15M\r\n" +
+                getTimezoneDefinition();
+    }
 
-        for (Reservation reservation : reservations) {
-            ics.append(buildEvent(reservation, includeConfidentialDetails));
+    /**
+     * The VEVENT block for a reservation, from the cache when the reservation has not
+     * changed since it was last rendered. Unsaved entities (no id or timestamps) are
+     * rendered every time.
+     */
+    private String reservationEvent(Reservation reservation, boolean includeConfidentialDetails) {
+        LocalDateTime version = version(reservation.getUpdatedAt(), reservation.getCreatedAt());
+        if (reservation.getId() == null || version == null) {
+            return foldLines(buildEvent(reservation, includeConfidentialDetails, LocalDateTime.now()));
         }
+        return cachedEvent(new EventKey("reservation", reservation.getId(), version, includeConfidentialDetails),
+                () -> foldLines(buildEvent(reservation, includeConfidentialDetails, version)));
+    }
 
-        for (CalendarAppointment appointment : appointments) {
-            ics.append(buildAppointmentEvent(appointment));
+    /** Like {@link #reservationEvent}; appointments render the same in public and staff feeds. */
+    private String appointmentEvent(CalendarAppointment appointment) {
+        LocalDateTime version = version(appointment.getUpdatedAt(), appointment.getCreatedAt());
+        if (appointment.getId() == null || version == null) {
+            return foldLines(buildAppointmentEvent(appointment, LocalDateTime.now()));
         }
+        return cachedEvent(new EventKey("appointment", appointment.getId(), version, false),
+                () -> foldLines(buildAppointmentEvent(appointment, version)));
+    }
 
-        ics.append("END:VCALENDAR\r\n");
+    private String cachedEvent(EventKey key, Supplier<String> renderer) {
+        String event = eventCache.get(key);
+        if (event == null) {
+            // Rendered outside the map's lock; two polls racing on the same miss just
+            // produce the same string twice.
+            event = renderer.get();
+            eventCache.put(key, event);
+        }
+        return event;
+    }
 
-        return ics.toString();
+    private static LocalDateTime version(LocalDateTime updatedAt, LocalDateTime createdAt) {
+        return updatedAt != null ? updatedAt : createdAt;
     }
 
-    private String buildEvent(Reservation reservation, boolean includeConfidentialDetails) {
+    /**
+     * @param dtstamp value for DTSTAMP; the entity's last change for cached blocks, so that
+     *                an unchanged event renders byte-for-byte the same on every poll
+     */
+    private String buildEvent(Reservation reservation, boolean includeConfidentialDetails, LocalDateTime dtstamp) {
         StringBuilder event = new StringBuilder();
 
         event.append("BEGIN:VEVENT\r\n");
@@ -183,8 +345,7 @@ public class ICalendarService {
         String uid = "reservation-" + reservation.getId() + "@harrylist.hubble.cafe";
         event.append("UID:").append(uid).append("\r\n");
 
-        LocalDateTime now = LocalDateTime.now();
-        event.append("DTSTAMP:").append(now.format(ICS_DATE_FORMAT)).append("\r\n");
+        event.append("DTSTAMP:").append(dtstamp.format(ICS_DATE_FORMAT)).append("\r\n");
 
         if (reservation.getCreatedAt() != null) {
             event.append("CREATED:").append(reservation.getCreatedAt().format(ICS_DATE_FORMAT)).append("\r\n");
@@ -211,11 +372,10 @@ public class ICalendarService {
         }
 
         // Title: "Event Title! Pax: XX [STATUS]"
-        String title = String.format("%s! Pax: %d [%s]",
-                escapeIcsText(reservation.getEventTitle()),
-                reservation.getExpectedGuests() != null ? reservation.getExpectedGuests() : 0,
-                reservation.getStatus() != null ? reservation.getStatus().name() : "PENDING");
-        event.append("SUMMARY:").append(title).append("\r\n");
+        event.append("SUMMARY:").append(escapeIcsText(reservation.getEventTitle()))
+                .append("! Pax: ").append(reservation.getExpectedGuests() != null ? reservation.getExpectedGuests() : 0)
+                .append(" [").append(reservation.getStatus() != null ? reservation.getStatus().name() : "PENDING")
+                .append("]\r\n");
 
         String location = formatLocation(reservation);
         if (!location.isEmpty()) {
@@ -394,7 +554,7 @@ public class ICalendarService {
         return sb.toString();
     }
 
-    private String buildAppointmentEvent(CalendarAppointment appointment) {
+    private String buildAppointmentEvent(CalendarAppointment appointment, LocalDateTime dtstamp) {
         StringBuilder event = new StringBuilder();
 
         event.append("BEGIN:VEVENT\r\n");
@@ -402,8 +562,7 @@ public class ICalendarService {
         String uid = "appointment-" + appointment.getId() + "@harrylist.hubble.cafe";
         event.append("UID:").append(uid).append("\r\n");
 
-        LocalDateTime now = LocalDateTime.now();
-        event.append("DTSTAMP:").append(now.format(ICS_DATE_FORMAT)).append("\r\n");
+        event.append("DTSTAMP:").append(dtstamp.format(ICS_DATE_FORMAT)).append("\r\n");
 
         if (appointment.getCreatedAt() != null) {
             event.append("CREATED:").append(appointment.getCreatedAt().format(ICS_DATE_FORMAT)).append("\r\n");
@@ -553,7 +712,39 @@ public class ICalendarService {
                 .replace("\n", "\\n");
     }
 
-    private String getTimezoneDefinition() {
+    /**
+     * Folds every content line longer than 75 octets (UTF-8) into continuation lines
+     * starting with a single space, as RFC 5545 section 3.1 requires. Never splits a
+     * multi-byte character. Event blocks are folded once, before they are cached.
+     */
+    static String foldLines(String block) {
+        StringBuilder folded = null;
+        int lineOctets = 0;
+        for (int i = 0; i < block.length(); ) {
+            int cp = block.codePointAt(i);
+            int chars = Character.charCount(cp);
+            if (cp == '\r' || cp == '\n') {
+                lineOctets = 0;
+            } else {
+                int octets = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+                if (lineOctets + octets > MAX_LINE_OCTETS) {
+                    if (folded == null) {
+                        folded = new StringBuilder(block.length() + 64).append(block, 0, i);
+                    }
+                    folded.append("\r\n ");
+                    lineOctets = 1;
+                }
+                lineOctets += octets;
+            }
+            if (folded != null) {
+                folded.append(block, i, i + chars);
+            }
+            i += chars;
+        }
+        return folded != null ? folded.toString() : block;
+    }
+
+    private static String getTimezoneDefinition() {
         return "BEGIN:VTIMEZONE\r\n" +
                 "TZID:Europe/Amsterdam\r\n" +
                 "X-LIC-LOCATION:Europe/Amsterdam\r\n" +
@@ -1,5 +1,6 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
+import com.azure.core.credential.TokenRequestContext;
 import com.azure.identity.ClientSecretCredential;
 import com.azure.identity.ClientSecretCredentialBuilder;
 import com.microsoft.graph.models.Attachment;
@@ -10,7 +11,6 @@ import com.microsoft.graph.models.ItemBody;
 import com.microsoft.graph.models.Message;
 import com.microsoft.graph.models.Recipient;
 import com.microsoft.graph.serviceclient.GraphServiceClient;
-import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachment;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailTemplateType;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
@@ -21,6 +21,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.net.http.HttpClient;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -41,8 +42,10 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
     private static final Logger log = LoggerFactory.getLogger(MicrosoftGraphEmailService.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final String GRAPH_SCOPE = "https://graph.microsoft.com/.default";
 
     private final GraphServiceClient graphClient;
+    private final GraphBatchMailSender batchSender;
     private final EmailTemplateService emailTemplateService;
     private final String fromEmail;
     private final String staffEmail;
@@ -55,6 +58,7 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
             @Value("${app.mail.from}") String fromEmail,
             @Value("${app.mail.staff}") String staffEmail,
             @Value("${app.bar.name:Hubble and Meteor Community Cafes}") String barName,
+            @Value("${app.mail.graph.base-url:https://graph.microsoft.com/v1.0}") String graphBaseUrl,
             EmailTemplateService emailTemplateService) {
 
         this.fromEmail = fromEmail;
@@ -70,6 +74,10 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
 
         this.graphClient = new GraphServiceClient(credential);
 
+        TokenRequestContext tokenRequest = new TokenRequestContext().addScopes(GRAPH_SCOPE);
+        this.batchSender = new GraphBatchMailSender(HttpClient.newHttpClient(), graphBaseUrl,
+                () -> credential.getTokenSync(tokenRequest).getToken(), fromEmail, staffEmail);
+
         log.info("Microsoft Graph Email service initialized. Sending from: {}, Staff notifications to: {}",
                 fromEmail, staffEmail);
     }
@@ -77,10 +85,7 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
     @Override
     public void sendReservationSubmittedEmail(Reservation reservation) {
         try {
-            Map<String, String> vars = buildBaseVars(reservation);
-            String subject = emailTemplateService.getRenderedSubject(EmailTemplateType.SUBMITTED, vars);
-            String body = emailTemplateService.getRenderedBody(EmailTemplateType.SUBMITTED, vars);
-            sendEmail(reservation.getEmail(), subject, body);
+            send(renderReservationSubmittedEmail(reservation));
             log.info("LOGGING email.submitted_sent confirmation='{}' to='{}'",
                     reservation.getConfirmationNumber(), reservation.getEmail());
             notifyStaffNewReservation(reservation);
@@ -92,12 +97,7 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
     @Override
     public void sendStatusChangeEmail(Reservation reservation, String customMessage) {
         try {
-            Map<String, String> vars = buildStatusChangeVars(reservation);
-            Map<String, String> rawHtmlVars = Map.of(
-                    "customMessage", EmailTemplates.buildCustomMessageBlock(customMessage));
-            String subject = emailTemplateService.getRenderedSubject(EmailTemplateType.STATUS_CHANGED, vars);
-            String body = emailTemplateService.getRenderedBody(EmailTemplateType.STATUS_CHANGED, vars, rawHtmlVars);
-            sendEmail(reservation.getEmail(), subject, body);
+            send(renderStatusChangeEmail(reservation, customMessage));
             log.info("LOGGING email.status_change_sent confirmation='{}' to='{}' status={}",
                     reservation.getConfirmationNumber(), reservation.getEmail(), reservation.getStatus());
         } catch (Exception e) {
@@ -147,6 +147,19 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
         }
     }
 
+    /**
+     * Sends the emails in JSON batches of up to 20, retrying throttled ones; see
+     * {@link GraphBatchMailSender}.
+     */
+    @Override
+    public List<EmailSendResult> sendRawEmails(List<OutgoingEmail> emails) {
+        List<EmailSendResult> results = batchSender.send(emails);
+        long sent = results.stream().filter(EmailSendResult::isSent).count();
+        log.info("Batch of {} emails sent via Microsoft Graph: {} sent, {} failed",
+                emails.size(), sent, emails.size() - sent);
+        return results;
+    }
+
     @Override
     public void sendCustomEmail(Reservation reservation, String subject, String messageContent) {
         try {
@@ -158,12 +171,35 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
         }
     }
 
+    @Override
+    public OutgoingEmail renderReservationSubmittedEmail(Reservation reservation) {
+        Map<String, String> vars = buildBaseVars(reservation);
+        return new OutgoingEmail(reservation.getEmail(),
+                emailTemplateService.getRenderedSubject(EmailTemplateType.SUBMITTED, vars),
+                emailTemplateService.getRenderedBody(EmailTemplateType.SUBMITTED, vars));
+    }
+
+    @Override
+    public OutgoingEmail renderStaffNotificationEmail(Reservation reservation) {
+        Map<String, String> vars = buildStaffNotificationVars(reservation);
+        return new OutgoingEmail(staffEmail,
+                emailTemplateService.getRenderedSubject(EmailTemplateType.STAFF_NOTIFICATION, vars),
+                emailTemplateService.getRenderedBody(EmailTemplateType.STAFF_NOTIFICATION, vars));
+    }
+
+    @Override
+    public OutgoingEmail renderStatusChangeEmail(Reservation reservation, String customMessage) {
+        Map<String, String> vars = buildStatusChangeVars(reservation);
+        Map<String, String> rawHtmlVars = Map.of(
+                "customMessage", EmailTemplates.buildCustomMessageBlock(customMessage));
+        return new OutgoingEmail(reservation.getEmail(),
+                emailTemplateService.getRenderedSubject(EmailTemplateType.STATUS_CHANGED, vars),
+                emailTemplateService.getRenderedBody(EmailTemplateType.STATUS_CHANGED, vars, rawHtmlVars));
+    }
+
     private void notifyStaffNewReservation(Reservation reservation) {
         try {
-            Map<String, String> vars = buildStaffNotificationVars(reservation);
-            String subject = emailTemplateService.getRenderedSubject(EmailTemplateType.STAFF_NOTIFICATION, vars);
-            String body = emailTemplateService.getRenderedBody(EmailTemplateType.STAFF_NOTIFICATION, vars);
-            sendEmail(staffEmail, subject, body);
+            send(renderStaffNotificationEmail(reservation));
         } catch (Exception e) {
             log.error("Failed to send staff notification", e);
         }
@@ -254,7 +290,7 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
 
     @Override
     public void sendEmailWithAttachments(String to, String subject, String htmlBody,
-                                         List<EmailAttachment> attachments, String replyTo) {
+                                         List<EncodedAttachment> attachments, String replyTo) {
         try {
             Message message = new Message();
             message.setSubject(subject);
@@ -282,13 +318,8 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
             // Add file attachments
             if (attachments != null && !attachments.isEmpty()) {
                 List<Attachment> attachmentList = new ArrayList<>();
-                for (EmailAttachment ea : attachments) {
-                    FileAttachment fa = new FileAttachment();
-                    fa.setOdataType("#microsoft.graph.fileAttachment");
-                    fa.setName(ea.getFilename());
-                    fa.setContentType(ea.getContentType());
-                    fa.setContentBytes(ea.getData());
-                    attachmentList.add(fa);
+                for (EncodedAttachment ea : attachments) {
+                    attachmentList.add(fileAttachment(ea));
                 }
                 message.setAttachments(attachmentList);
             }
@@ -307,6 +338,23 @@ public class MicrosoftGraphEmailService implements EmailNotificationService {
         }
     }
 
+    /**
+     * A Graph file attachment carrying the already encoded content. The SDK would re-encode
+     * {@code contentBytes}, so the cached base64 goes in as an additional property of that name.
+     */
+    static FileAttachment fileAttachment(EncodedAttachment attachment) {
+        FileAttachment fa = new FileAttachment();
+        fa.setOdataType("#microsoft.graph.fileAttachment");
+        fa.setName(attachment.filename());
+        fa.setContentType(attachment.contentType());
+        fa.getAdditionalData().put("contentBytes", attachment.base64());
+        return fa;
+    }
+
+    private void send(OutgoingEmail email) {
+        sendEmail(email.to(), email.subject(), email.htmlBody());
+    }
+
     private void sendEmail(String to, String subject, String htmlBody) {
         Message message = new Message();
         message.setSubject(subject);
@@ -0,0 +1,12 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+/**
+ * A fully rendered email, ready to be queued or sent with
+ * {@link EmailNotificationService#sendRawEmail}.
+ *
+ * @param to       recipient address
+ * @param subject  rendered subject line
+ * @param htmlBody rendered HTML body
+ */
+public record OutgoingEmail(String to, String subject, String htmlBody) {
+}
@@ -9,86 +9,280 @@ import com.pimvanleeuwen.the_harry_list_backend.model.PaymentOption;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
 import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
-import com.pimvanleeuwen.the_harry_list_backend.repository.CalendarAppointmentRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+/**
+ * Renders the daily reservation report handed to bar staff.
+ *
+ * <p>{@link #loadDailyReport} fetches only that day's reservations at that location, so
+ * {@link #writeDailyReport} needs no database access and can stream the PDF straight to
+ * the response. Fonts and colors are immutable constants shared by every report; the
+ * running page header and footer are drawn once per document into a {@link PdfTemplate}
+ * and stamped onto each page by reference.
+ *
+ * <p>A range report ({@link #writeRangeReport}) is one such day report per day and
+ * location with anything on it. The days are rendered on a shared pool of
+ * {@code app.export.pdf.parallelism} threads, at most that many at a time, and copied,
+ * in order, into a single document as they finish; {@link PdfSmartCopy} stores the fonts
+ * and templates the days have in common only once. The reservations for the whole range
+ * come from one query and the appointment occurrences from one
+ * {@link AppointmentOccurrenceIndex#between}.
+ */
 @Service
 public class PdfExportService {
 
+    /** Longest range a range report may cover, about two months. */
+    public static final int MAX_RANGE_DAYS = 62;
+
+    /** The locations a range report for "both locations" covers. */
+    private static final Set<BarLocation> BAR_LOCATIONS = EnumSet.of(BarLocation.HUBBLE, BarLocation.METEOR);
+
     private final ReservationRepository reservationRepository;
-    private final CalendarAppointmentRepository calendarAppointmentRepository;
-    private final AppointmentRecurrenceService appointmentRecurrenceService;
+    private final AppointmentOccurrenceIndex appointmentOccurrenceIndex;
+    private final ExecutorService renderExecutor;
+    private final int parallelism;
 
     // Colors for Hubble and Meteor branding
     private static final Color HUBBLE_PRIMARY = new Color(15, 77, 100);    // #0f4d64
-    private static final Color HUBBLE_LIGHT = new Color(189, 232, 236);    // #bde8ec
+    private static final Color HUBBLE_BAR = new Color(86, 190, 195);       // teal invoice footer bar
     private static final Color METEOR_PRIMARY = new Color(5, 56, 38);      // #053826
     private static final Color METEOR_ACCENT = new Color(155, 141, 111);   // #9B8D6F
 
+    private static final Color CARD_BACKGROUND = new Color(250, 250, 250);
+    private static final Color ROW_BORDER = new Color(220, 220, 220);
+    private static final Color RECEIPT_BORDER = new Color(200, 200, 200);
+
+    // Fonts are never modified after creation, so every report shares them
+    private static final Font HUBBLE_TITLE_FONT = new Font(Font.HELVETICA, 24, Font.BOLD, HUBBLE_PRIMARY);
+    private static final Font METEOR_TITLE_FONT = new Font(Font.HELVETICA, 24, Font.BOLD, METEOR_PRIMARY);
+    private static final Font SUBTITLE_FONT = new Font(Font.HELVETICA, 14, Font.NORMAL, Color.DARK_GRAY);
+    private static final Font HEADER_FONT = new Font(Font.HELVETICA, 12, Font.BOLD, Color.WHITE);
+    private static final Font LABEL_FONT = new Font(Font.HELVETICA, 10, Font.BOLD, Color.DARK_GRAY);
+    private static final Font VALUE_FONT = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.BLACK);
+    private static final Font SMALL_FONT = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.GRAY);
+    private static final Font RUNNING_HEADER_FONT = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.DARK_GRAY);
+    private static final Font ARRANGED_FONT = new Font(Font.HELVETICA, 10, Font.BOLD, new Color(34, 197, 94));
+    private static final Font NOT_ARRANGED_FONT = new Font(Font.HELVETICA, 10, Font.BOLD, new Color(249, 115, 22));
+
+    // Invoice form
+    private static final Font FORM_LABEL_FONT = new Font(Font.HELVETICA, 11, Font.ITALIC, Color.DARK_GRAY);
+    private static final Font BIG_TITLE_FONT = new Font(Font.HELVETICA, 22, Font.BOLD, Color.BLACK);
+    private static final Font SECTION_FONT = new Font(Font.HELVETICA, 14, Font.BOLD, Color.BLACK);
+    private static final Font FIELD_LABEL_FONT = new Font(Font.HELVETICA, 11, Font.NORMAL, Color.BLACK);
+    private static final Font FIELD_VALUE_FONT = new Font(Font.HELVETICA, 11, Font.NORMAL, Color.DARK_GRAY);
+    private static final Font NOTE_FONT = new Font(Font.HELVETICA, 9, Font.ITALIC, Color.DARK_GRAY);
+    private static final Font FOOTER_FONT = new Font(Font.HELVETICA, 8, Font.NORMAL, Color.GRAY);
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEEE, d MMMM yyyy");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
 
+    /** All-day/untimed reservations last, as before. */
+    private static final Comparator<Reservation> BY_START_TIME =
+            Comparator.comparing(r -> r.getStartTime() != null ? r.getStartTime() : LocalTime.MAX);
+
+    /** The reservations and appointments shown in one day report. */
+    public record DailyReport(LocalDate date, BarLocation location,
+                              List<Reservation> reservations, List<CalendarAppointment> appointments) {
+    }
+
     public PdfExportService(ReservationRepository reservationRepository,
-                            CalendarAppointmentRepository calendarAppointmentRepository,
-                            AppointmentRecurrenceService appointmentRecurrenceService) {
+                            AppointmentOccurrenceIndex appointmentOccurrenceIndex,
+                            @Value("${app.export.pdf.parallelism:4}") int parallelism) {
         this.reservationRepository = reservationRepository;
-        this.calendarAppointmentRepository = calendarAppointmentRepository;
-        this.appointmentRecurrenceService = appointmentRecurrenceService;
+        this.appointmentOccurrenceIndex = appointmentOccurrenceIndex;
+        this.parallelism = Math.max(1, parallelism);
+        this.renderExecutor = Executors.newFixedThreadPool(this.parallelism,
+                Thread.ofPlatform().name("pdf-render-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderExecutor.shutdownNow();
     }
 
     public byte[] generateDailyReport(LocalDate date, BarLocation location, boolean confirmedOnly, boolean cateringOnly) throws DocumentException {
-        List<Reservation> reservations = reservationRepository.findAll().stream()
-                .filter(r -> r.getEventDate() != null && r.getEventDate().equals(date))
-                .filter(r -> r.getLocation() != null && r.getLocation().equals(location))
-                .filter(r -> !confirmedOnly || r.getStatus() == ReservationStatus.CONFIRMED)
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeDailyReport(loadDailyReport(date, location, confirmedOnly, cateringOnly), baos);
+        return baos.toByteArray();
+    }
+
+    /** Everything a day report shows, so it can be rendered later without the database. */
+    public DailyReport loadDailyReport(LocalDate date, BarLocation location, boolean confirmedOnly, boolean cateringOnly) {
+        List<Reservation> reservations = reservationRepository.findForDayReport(
+                        date, location, confirmedOnly ? ReservationStatus.CONFIRMED : null).stream()
                 .filter(r -> !cateringOnly || r.hasCateringActivity())
-                .sorted(Comparator.comparing(r -> r.getStartTime() != null ? r.getStartTime() : java.time.LocalTime.MAX))
+                .sorted(BY_START_TIME)
                 .toList();
 
-        // Appointments for this date/location (recurrence expanded). Shown regardless of the
-        // confirmed-only/catering-only toggles, which only apply to reservations.
-        List<CalendarAppointment> appointments = calendarAppointmentRepository.findByEnabledTrue().stream()
-                .filter(a -> a.getLocation() != null && a.getLocation().equals(location))
-                .filter(a -> appointmentRecurrenceService.occursOn(a, date))
-                .sorted(Comparator
-                        .comparing((CalendarAppointment a) -> Boolean.TRUE.equals(a.getAllDay()) ? 0 : 1)
-                        .thenComparing(a -> a.getStartTime() != null ? a.getStartTime() : java.time.LocalTime.MAX))
-                .toList();
+        // Appointments for this date/location (recurrence expanded, all-day first, then by
+        // start time). Shown regardless of the confirmed-only/catering-only toggles, which
+        // only apply to reservations.
+        List<CalendarAppointment> appointments = appointmentOccurrenceIndex.onDate(date, location);
+
+        return new DailyReport(date, location, reservations, appointments);
+    }
+
+    /**
+     * The day reports for {@code [from, to]} at {@code location} (null for both Hubble and
+     * Meteor), by date and then location. Days with neither reservations nor appointments
+     * are left out; when that leaves nothing, the first day is kept so the report still
+     * says there is nothing.
+     */
+    public List<DailyReport> loadRangeReport(LocalDate from, LocalDate to, BarLocation location,
+                                             boolean confirmedOnly, boolean cateringOnly) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("A range report covers 1 to " + MAX_RANGE_DAYS + " days");
+        }
+        Set<BarLocation> locations = location != null ? EnumSet.of(location) : BAR_LOCATIONS;
+
+        Map<LocalDate, Map<BarLocation, List<Reservation>>> reservations = new TreeMap<>();
+        for (Reservation r : reservationRepository.findForRangeReport(
+                from, to, locations, confirmedOnly ? ReservationStatus.CONFIRMED : null)) {
+            if (!cateringOnly || r.hasCateringActivity()) {
+                reservations.computeIfAbsent(r.getEventDate(), d -> new EnumMap<>(BarLocation.class))
+                        .computeIfAbsent(r.getLocation(), l -> new ArrayList<>())
+                        .add(r);
+            }
+        }
+        Map<LocalDate, Map<BarLocation, List<CalendarAppointment>>> appointments = new TreeMap<>();
+        for (AppointmentOccurrenceIndex.Occurrence o : appointmentOccurrenceIndex.between(from, to, location)) {
+            if (locations.contains(o.appointment().getLocation())) {
+                appointments.computeIfAbsent(o.date(), d -> new EnumMap<>(BarLocation.class))
+                        .computeIfAbsent(o.appointment().getLocation(), l -> new ArrayList<>())
+                        .add(o.appointment());
+            }
+        }
+
+        List<DailyReport> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            for (BarLocation l : locations) {
+                List<Reservation> dayReservations = reservations.getOrDefault(date, Map.of()).getOrDefault(l, List.of());
+                List<CalendarAppointment> dayAppointments = appointments.getOrDefault(date, Map.of()).getOrDefault(l, List.of());
+                if (!dayReservations.isEmpty() || !dayAppointments.isEmpty()) {
+                    days.add(new DailyReport(date, l,
+                            dayReservations.stream().sorted(BY_START_TIME).toList(), dayAppointments));
+                }
+            }
+        }
+        if (days.isEmpty()) {
+            days.add(new DailyReport(from, locations.iterator().next(), List.of(), List.of()));
+        }
+        return days;
+    }
+
+    /**
+     * Render {@code days} as one PDF into {@code out}, which is left open. The days are
+     * rendered in parallel and written in the given order. At most {@code parallelism}
+     * days are in flight, so only that many finished sections wait in memory: the next
+     * day is submitted once the oldest has been copied.
+     */
+    public void writeRangeReport(List<DailyReport> days, OutputStream out) throws DocumentException, IOException {
+        Iterator<DailyReport> pending = days.iterator();
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>(parallelism);
+        while (inFlight.size() < parallelism && pending.hasNext()) {
+            inFlight.add(render(pending.next()));
+        }
+
+        Document document = new Document(PageSize.A4);
+        try {
+            PdfSmartCopy copy = new PdfSmartCopy(document, out);
+            copy.setCloseStream(false);
+            document.open();
+            while (!inFlight.isEmpty()) {
+                PdfReader reader = new PdfReader(await(inFlight.poll()));
+                if (pending.hasNext()) {
+                    inFlight.add(render(pending.next()));
+                }
+                for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                    copy.addPage(copy.getImportedPage(reader, page));
+                }
+                copy.freeReader(reader);
+                reader.close();
+            }
+        } finally {
+            // Stops rendering the days in flight when copying failed; no-op otherwise
+            inFlight.forEach(section -> section.cancel(true));
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+    }
+
+    private Future<byte[]> render(DailyReport day) {
+        return renderExecutor.submit(() -> {
+            ByteArrayOutputStream section = new ByteArrayOutputStream();
+            writeDailyReport(day, section);
+            return section.toByteArray();
+        });
+    }
+
+    private static byte[] await(Future<byte[]> section) throws IOException {
+        try {
+            return section.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering the report");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Rendering a day of the report failed", e.getCause());
+        }
+    }
+
+    /** Render {@code report} as a PDF into {@code out}, which is left open. */
+    public void writeDailyReport(DailyReport report, OutputStream out) throws DocumentException {
+        LocalDate date = report.date();
+        BarLocation location = report.location();
+        List<Reservation> reservations = report.reservations();
+        boolean hubble = location == BarLocation.HUBBLE;
+        String locationName = hubble ? "Hubble Community Café" : "Meteor Community Café";
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
         Document document = new Document(PageSize.A4, 40, 40, 50, 50);
-        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setCloseStream(false);
+        writer.setPageEvent(new RunningHeaderFooter(
+                locationName + " - " + date.format(DATE_FORMATTER),
+                "Generated on " + LocalDate.now().format(DATE_FORMATTER) + " | The Harry List"));
 
         document.open();
 
         // Get colors based on location
-        Color primaryColor = location == BarLocation.HUBBLE ? HUBBLE_PRIMARY : METEOR_PRIMARY;
-        Color lightColor = location == BarLocation.HUBBLE ? HUBBLE_LIGHT : METEOR_ACCENT;
-
-        // Fonts
-        Font titleFont = new Font(Font.HELVETICA, 24, Font.BOLD, primaryColor);
-        Font subtitleFont = new Font(Font.HELVETICA, 14, Font.NORMAL, Color.DARK_GRAY);
-        Font headerFont = new Font(Font.HELVETICA, 12, Font.BOLD, Color.WHITE);
-        Font labelFont = new Font(Font.HELVETICA, 10, Font.BOLD, Color.DARK_GRAY);
-        Font valueFont = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.BLACK);
-        Font smallFont = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.GRAY);
-
-        String locationName = location == BarLocation.HUBBLE ? "Hubble Community Café" : "Meteor Community Café";
+        Color primaryColor = hubble ? HUBBLE_PRIMARY : METEOR_PRIMARY;
+        Font titleFont = hubble ? HUBBLE_TITLE_FONT : METEOR_TITLE_FONT;
 
         // Appointments page first (if any), then continue with reservations as usual.
-        if (!appointments.isEmpty()) {
-            addAppointmentsPage(document, appointments, date, locationName,
-                    primaryColor, titleFont, subtitleFont, headerFont, labelFont, valueFont, smallFont);
+        if (!report.appointments().isEmpty()) {
+            addAppointmentsPage(document, report.appointments(), date, locationName, primaryColor, titleFont);
             document.newPage();
         }
 
@@ -98,7 +292,7 @@ public class PdfExportService {
         document.add(title);
 
         // Date
-        Paragraph datePara = new Paragraph("Reservations for " + date.format(DATE_FORMATTER), subtitleFont);
+        Paragraph datePara = new Paragraph("Reservations for " + date.format(DATE_FORMATTER), SUBTITLE_FONT);
         datePara.setAlignment(Element.ALIGN_CENTER);
         datePara.setSpacingAfter(20);
         document.add(datePara);
@@ -108,53 +302,78 @@ public class PdfExportService {
                 String.format("Total reservations: %d | Total expected guests: %d",
                         reservations.size(),
                         reservations.stream().mapToInt(Reservation::getExpectedGuests).sum()),
-                smallFont
+                SMALL_FONT
         );
         summary.setAlignment(Element.ALIGN_CENTER);
         summary.setSpacingAfter(20);
         document.add(summary);
 
         if (reservations.isEmpty()) {
-            Paragraph noReservations = new Paragraph("No reservations for this date.", valueFont);
+            Paragraph noReservations = new Paragraph("No reservations for this date.", VALUE_FONT);
             noReservations.setAlignment(Element.ALIGN_CENTER);
             noReservations.setSpacingBefore(40);
             document.add(noReservations);
         } else {
-            // Add each reservation on its own page
+            // Add each reservation on its own page; the running header names the day
             for (int i = 0; i < reservations.size(); i++) {
                 if (i > 0) {
-                    // Start a new page for each reservation after the first
                     document.newPage();
-
-                    // Add header on each new page
-                    Paragraph pageHeader = new Paragraph(locationName + " - " + date.format(DATE_FORMATTER), subtitleFont);
-                    pageHeader.setAlignment(Element.ALIGN_CENTER);
-                    pageHeader.setSpacingAfter(15);
-                    document.add(pageHeader);
                 }
 
                 Reservation res = reservations.get(i);
-                addReservationCard(document, res, i + 1, reservations.size(), primaryColor, lightColor, headerFont, labelFont, valueFont, smallFont);
+                addReservationCard(document, res, i + 1, reservations.size(), primaryColor);
 
                 // Add "Op rekening" invoice form for INVOICE payment reservations
                 if (res.getPaymentOption() == PaymentOption.INVOICE) {
                     document.newPage();
-                    addInvoiceForm(document, writer, res, locationName);
+                    addInvoiceForm(document, writer, res, locationName, hubble);
                 }
             }
         }
 
-        // Footer on last page
-        Paragraph footer = new Paragraph(
-                "Generated on " + LocalDate.now().format(DATE_FORMATTER) + " | The Harry List",
-                smallFont
-        );
-        footer.setAlignment(Element.ALIGN_CENTER);
-        footer.setSpacingBefore(30);
-        document.add(footer);
-
         document.close();
-        return baos.toByteArray();
+    }
+
+    /**
+     * Stamps the same header (from the second page on) and footer onto every page. Each is
+     * laid out once per document into a {@link PdfTemplate}, which the pages then share.
+     */
+    private static final class RunningHeaderFooter extends PdfPageEventHelper {
+
+        private static final float HEIGHT = 16;
+
+        private final String headerText;
+        private final String footerText;
+        private PdfTemplate header;
+        private PdfTemplate footer;
+
+        RunningHeaderFooter(String headerText, String footerText) {
+            this.headerText = headerText;
+            this.footerText = footerText;
+        }
+
+        @Override
+        public void onOpenDocument(PdfWriter writer, Document document) {
+            float width = document.right() - document.left();
+            header = template(writer, width, headerText, RUNNING_HEADER_FONT);
+            footer = template(writer, width, footerText, SMALL_FONT);
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            PdfContentByte cb = writer.getDirectContent();
+            if (writer.getPageNumber() > 1) {
+                cb.addTemplate(header, document.left(), document.top() + 14);
+            }
+            // Below the invoice form's company details, which sit just above the margin
+            cb.addTemplate(footer, document.left(), document.bottom() - 42);
+        }
+
+        private static PdfTemplate template(PdfWriter writer, float width, String text, Font font) {
+            PdfTemplate template = writer.getDirectContent().createTemplate(width, HEIGHT);
+            ColumnText.showTextAligned(template, Element.ALIGN_CENTER, new Phrase(text, font), width / 2, 4, 0);
+            return template;
+        }
     }
 
     /**
@@ -163,16 +382,14 @@ public class PdfExportService {
      * shows the time (or "All day"), the title, and the description when present.
      */
     private void addAppointmentsPage(Document document, List<CalendarAppointment> appointments,
-                                     LocalDate date, String locationName, Color primaryColor,
-                                     Font titleFont, Font subtitleFont, Font headerFont,
-                                     Font labelFont, Font valueFont, Font smallFont)
+                                     LocalDate date, String locationName, Color primaryColor, Font titleFont)
             throws DocumentException {
 
         Paragraph title = new Paragraph(locationName, titleFont);
         title.setAlignment(Element.ALIGN_CENTER);
         document.add(title);
 
-        Paragraph datePara = new Paragraph("Appointments for " + date.format(DATE_FORMATTER), subtitleFont);
+        Paragraph datePara = new Paragraph("Appointments for " + date.format(DATE_FORMATTER), SUBTITLE_FONT);
         datePara.setAlignment(Element.ALIGN_CENTER);
         datePara.setSpacingAfter(20);
         document.add(datePara);
@@ -184,32 +401,31 @@ public class PdfExportService {
         table.setSpacingBefore(5);
 
         // Header row
-        PdfPCell timeHeader = new PdfPCell(new Phrase("Time", headerFont));
+        PdfPCell timeHeader = new PdfPCell(new Phrase("Time", HEADER_FONT));
         timeHeader.setBackgroundColor(primaryColor);
         timeHeader.setPadding(8);
         timeHeader.setBorder(Rectangle.NO_BORDER);
         table.addCell(timeHeader);
 
-        PdfPCell detailHeader = new PdfPCell(new Phrase("Appointment", headerFont));
+        PdfPCell detailHeader = new PdfPCell(new Phrase("Appointment", HEADER_FONT));
         detailHeader.setBackgroundColor(primaryColor);
         detailHeader.setPadding(8);
         detailHeader.setBorder(Rectangle.NO_BORDER);
         table.addCell(detailHeader);
 
-        Color rowBorder = new Color(220, 220, 220);
         for (CalendarAppointment appointment : appointments) {
-            PdfPCell timeCell = new PdfPCell(new Phrase(formatAppointmentTime(appointment), valueFont));
+            PdfPCell timeCell = new PdfPCell(new Phrase(formatAppointmentTime(appointment), VALUE_FONT));
             timeCell.setPadding(8);
-            timeCell.setBorderColor(rowBorder);
+            timeCell.setBorderColor(ROW_BORDER);
             table.addCell(timeCell);
 
             PdfPCell detailCell = new PdfPCell();
             detailCell.setPadding(8);
-            detailCell.setBorderColor(rowBorder);
+            detailCell.setBorderColor(ROW_BORDER);
             Paragraph detail = new Paragraph();
-            detail.add(new Chunk(appointment.getTitle() != null ? appointment.getTitle() : "Untitled", labelFont));
+            detail.add(new Chunk(appointment.getTitle() != null ? appointment.getTitle() : "Untitled", LABEL_FONT));
             if (appointment.getDescription() != null && !appointment.getDescription().isEmpty()) {
-                detail.add(new Chunk("\n" + appointment.getDescription(), smallFont));
+                detail.add(new Chunk("\n" + appointment.getDescription(), SMALL_FONT));
             }
             detailCell.addElement(detail);
             table.addCell(detailCell);
@@ -232,9 +448,7 @@ public class PdfExportService {
         return appointment.getStartTime().format(TIME_FORMATTER);
     }
 
-    private void addReservationCard(Document document, Reservation res, int number, int total,
-                                     Color primaryColor, Color lightColor,
-                                     Font headerFont, Font labelFont, Font valueFont, Font smallFont)
+    private void addReservationCard(Document document, Reservation res, int number, int total, Color primaryColor)
             throws DocumentException {
 
         // Create a table for the card layout
@@ -255,21 +469,21 @@ public class PdfExportService {
         }
 
         Paragraph headerText = new Paragraph();
-        headerText.add(new Chunk("Reservation " + number + " of " + total + " | ", headerFont));
-        headerText.add(new Chunk(res.getEventTitle() != null ? res.getEventTitle() : "Untitled Event", headerFont));
+        headerText.add(new Chunk("Reservation " + number + " of " + total + " | ", HEADER_FONT));
+        headerText.add(new Chunk(res.getEventTitle() != null ? res.getEventTitle() : "Untitled Event", HEADER_FONT));
         if (!timeStr.isEmpty()) {
-            headerText.add(new Chunk("  •  " + timeStr, headerFont));
+            headerText.add(new Chunk("  •  " + timeStr, HEADER_FONT));
         }
-        headerText.add(new Chunk("  •  " + res.getExpectedGuests() + " guests", headerFont));
+        headerText.add(new Chunk("  •  " + res.getExpectedGuests() + " guests", HEADER_FONT));
         headerCell.addElement(headerText);
         card.addCell(headerCell);
 
         // Content
         PdfPCell contentCell = new PdfPCell();
-        contentCell.setBackgroundColor(new Color(250, 250, 250));
+        contentCell.setBackgroundColor(CARD_BACKGROUND);
         contentCell.setPadding(15);
         contentCell.setBorder(Rectangle.BOX);
-        contentCell.setBorderColor(new Color(220, 220, 220));
+        contentCell.setBorderColor(ROW_BORDER);
 
         // Create content table with 2 columns
         PdfPTable content = new PdfPTable(2);
@@ -282,13 +496,13 @@ public class PdfExportService {
         leftCol.setPaddingRight(10);
 
         Paragraph leftContent = new Paragraph();
-        addField(leftContent, "Contact", res.getContactName(), labelFont, valueFont);
+        addField(leftContent, "Contact", res.getContactName(), LABEL_FONT, VALUE_FONT);
         if (res.getOrganizationName() != null && !res.getOrganizationName().isEmpty()) {
-            addField(leftContent, "Organization", res.getOrganizationName(), labelFont, valueFont);
+            addField(leftContent, "Organization", res.getOrganizationName(), LABEL_FONT, VALUE_FONT);
         }
-        addField(leftContent, "Email", res.getEmail(), labelFont, valueFont);
+        addField(leftContent, "Email", res.getEmail(), LABEL_FONT, VALUE_FONT);
         if (res.getPhoneNumber() != null && !res.getPhoneNumber().isEmpty()) {
-            addField(leftContent, "Phone", res.getPhoneNumber(), labelFont, valueFont);
+            addField(leftContent, "Phone", res.getPhoneNumber(), LABEL_FONT, VALUE_FONT);
         }
         // Special activities
         Set<SpecialActivity> activities = res.getSpecialActivities();
@@ -296,7 +510,7 @@ public class PdfExportService {
             String activitiesStr = activities.stream()
                     .map(SpecialActivity::getDisplayName)
                     .collect(Collectors.joining(", "));
-            addField(leftContent, "Activities", activitiesStr, labelFont, valueFont);
+            addField(leftContent, "Activities", activitiesStr, LABEL_FONT, VALUE_FONT);
         }
         leftCol.addElement(leftContent);
         content.addCell(leftCol);
@@ -307,21 +521,21 @@ public class PdfExportService {
         rightCol.setPaddingLeft(10);
 
         Paragraph rightContent = new Paragraph();
-        addField(rightContent, "Status", res.getStatus() != null ? res.getStatus().name() : "Unknown", labelFont, valueFont);
+        addField(rightContent, "Status", res.getStatus() != null ? res.getStatus().name() : "Unknown", LABEL_FONT, VALUE_FONT);
         if (res.getSeatingArea() != null) {
-            addField(rightContent, "Seating", res.getSeatingArea().getDisplayName(), labelFont, valueFont);
+            addField(rightContent, "Seating", res.getSeatingArea().getDisplayName(), LABEL_FONT, VALUE_FONT);
         }
         if (res.getPaymentOption() != null) {
-            addField(rightContent, "Payment", res.getPaymentOption().getDisplayName(), labelFont, valueFont);
+            addField(rightContent, "Payment", res.getPaymentOption().getDisplayName(), LABEL_FONT, VALUE_FONT);
         }
         if (res.getInvoiceType() != null) {
-            addField(rightContent, "Invoice Type", res.getInvoiceType().getDisplayName(), labelFont, valueFont);
+            addField(rightContent, "Invoice Type", res.getInvoiceType().getDisplayName(), LABEL_FONT, VALUE_FONT);
         }
         if (res.getCostCenter() != null && !res.getCostCenter().isEmpty()) {
-            addField(rightContent, "Cost Center", res.getCostCenter(), labelFont, valueFont);
+            addField(rightContent, "Cost Center", res.getCostCenter(), LABEL_FONT, VALUE_FONT);
         }
         if (res.getInvoiceName() != null && !res.getInvoiceName().isEmpty()) {
-            addField(rightContent, "Invoice Name", res.getInvoiceName(), labelFont, valueFont);
+            addField(rightContent, "Invoice Name", res.getInvoiceName(), LABEL_FONT, VALUE_FONT);
         }
         rightCol.addElement(rightContent);
         content.addCell(rightCol);
@@ -332,16 +546,17 @@ public class PdfExportService {
         if (res.hasCateringActivity()) {
             Paragraph cateringStatusPara = new Paragraph();
             cateringStatusPara.setSpacingBefore(10);
-            cateringStatusPara.add(new Chunk("Catering Arranged: ", labelFont));
-            Font arrangedFont = new Font(Font.HELVETICA, 10, Font.BOLD, res.isCateringArranged() ? new Color(34, 197, 94) : new Color(249, 115, 22));
-            cateringStatusPara.add(new Chunk(res.isCateringArranged() ? "Yes ✓" : "Not yet", arrangedFont));
+            cateringStatusPara.add(new Chunk("Catering Arranged: ", LABEL_FONT));
+            cateringStatusPara.add(res.isCateringArranged()
+                    ? new Chunk("Yes ✓", ARRANGED_FONT)
+                    : new Chunk("Not yet", NOT_ARRANGED_FONT));
             contentCell.addElement(cateringStatusPara);
         }
         if (res.getCateringDietaryNotes() != null && !res.getCateringDietaryNotes().isEmpty()) {
             Paragraph cateringPara = new Paragraph();
             cateringPara.setSpacingBefore(5);
-            cateringPara.add(new Chunk("Catering Dietary Notes: ", labelFont));
-            cateringPara.add(new Chunk(res.getCateringDietaryNotes(), valueFont));
+            cateringPara.add(new Chunk("Catering Dietary Notes: ", LABEL_FONT));
+            cateringPara.add(new Chunk(res.getCateringDietaryNotes(), VALUE_FONT));
             contentCell.addElement(cateringPara);
         }
 
@@ -349,8 +564,8 @@ public class PdfExportService {
         if (res.getLongReservationReason() != null && !res.getLongReservationReason().isEmpty()) {
             Paragraph reasonPara = new Paragraph();
             reasonPara.setSpacingBefore(5);
-            reasonPara.add(new Chunk("Long Reservation Reason: ", labelFont));
-            reasonPara.add(new Chunk(res.getLongReservationReason(), valueFont));
+            reasonPara.add(new Chunk("Long Reservation Reason: ", LABEL_FONT));
+            reasonPara.add(new Chunk(res.getLongReservationReason(), VALUE_FONT));
             contentCell.addElement(reasonPara);
         }
 
@@ -358,8 +573,8 @@ public class PdfExportService {
         if (res.getDescription() != null && !res.getDescription().isEmpty()) {
             Paragraph descPara = new Paragraph();
             descPara.setSpacingBefore(10);
-            descPara.add(new Chunk("Description: ", labelFont));
-            descPara.add(new Chunk(res.getDescription(), valueFont));
+            descPara.add(new Chunk("Description: ", LABEL_FONT));
+            descPara.add(new Chunk(res.getDescription(), VALUE_FONT));
             contentCell.addElement(descPara);
         }
 
@@ -367,8 +582,8 @@ public class PdfExportService {
         if (res.getComments() != null && !res.getComments().isEmpty()) {
             Paragraph commentsPara = new Paragraph();
             commentsPara.setSpacingBefore(5);
-            commentsPara.add(new Chunk("Comments: ", labelFont));
-            commentsPara.add(new Chunk(res.getComments(), valueFont));
+            commentsPara.add(new Chunk("Comments: ", LABEL_FONT));
+            commentsPara.add(new Chunk(res.getComments(), VALUE_FONT));
             contentCell.addElement(commentsPara);
         }
 
@@ -376,17 +591,17 @@ public class PdfExportService {
         if (res.getInternalNotes() != null && !res.getInternalNotes().isEmpty()) {
             Paragraph notesPara = new Paragraph();
             notesPara.setSpacingBefore(5);
-            notesPara.add(new Chunk("Internal Notes: ", labelFont));
-            notesPara.add(new Chunk(res.getInternalNotes(), smallFont));
+            notesPara.add(new Chunk("Internal Notes: ", LABEL_FONT));
+            notesPara.add(new Chunk(res.getInternalNotes(), SMALL_FONT));
             contentCell.addElement(notesPara);
         }
 
         // Confirmation info
         Paragraph refPara = new Paragraph();
         refPara.setSpacingBefore(10);
-        refPara.add(new Chunk("Ref: " + (res.getConfirmationNumber() != null ? res.getConfirmationNumber() : "N/A"), smallFont));
+        refPara.add(new Chunk("Ref: " + (res.getConfirmationNumber() != null ? res.getConfirmationNumber() : "N/A"), SMALL_FONT));
         if (res.getConfirmedBy() != null && !res.getConfirmedBy().isEmpty()) {
-            refPara.add(new Chunk(" | Confirmed by: " + res.getConfirmedBy(), smallFont));
+            refPara.add(new Chunk(" | Confirmed by: " + res.getConfirmedBy(), SMALL_FONT));
         }
         contentCell.addElement(refPara);
 
@@ -394,42 +609,33 @@ public class PdfExportService {
         document.add(card);
     }
 
-    private void addInvoiceForm(Document document, PdfWriter writer, Reservation res, String locationName)
+    private void addInvoiceForm(Document document, PdfWriter writer, Reservation res, String locationName,
+                                boolean isHubble)
             throws DocumentException {
 
-        boolean isHubble = locationName.contains("Hubble");
-        Color accentColor = isHubble ? new Color(86, 190, 195) : new Color(155, 141, 111); // teal bar / gold bar
+        Color accentColor = isHubble ? HUBBLE_BAR : METEOR_ACCENT; // teal bar / gold bar
 
         // "Form" label
-        Font formLabelSmall = new Font(Font.HELVETICA, 11, Font.ITALIC, Color.DARK_GRAY);
-        Paragraph formLabel = new Paragraph("Form", formLabelSmall);
+        Paragraph formLabel = new Paragraph("Form", FORM_LABEL_FONT);
         formLabel.setSpacingAfter(2);
         document.add(formLabel);
 
         // Title: "Op rekening / Payment via Invoice"
-        Font bigTitleFont = new Font(Font.HELVETICA, 22, Font.BOLD, Color.BLACK);
-        Paragraph bigTitle = new Paragraph("Op rekening / Payment via Invoice", bigTitleFont);
+        Paragraph bigTitle = new Paragraph("Op rekening / Payment via Invoice", BIG_TITLE_FONT);
         bigTitle.setSpacingAfter(2);
         document.add(bigTitle);
 
         // Subtitle: "from Hubble/Meteor Community Café"
-        Font fromFont = new Font(Font.HELVETICA, 11, Font.ITALIC, Color.DARK_GRAY);
-        Paragraph fromPara = new Paragraph("from " + locationName, fromFont);
+        Paragraph fromPara = new Paragraph("from " + locationName, FORM_LABEL_FONT);
         fromPara.setSpacingAfter(18);
         document.add(fromPara);
 
         // --- Information section ---
-        Font sectionFont = new Font(Font.HELVETICA, 14, Font.BOLD, Color.BLACK);
-        Paragraph infoHeader = new Paragraph("Information", sectionFont);
+        Paragraph infoHeader = new Paragraph("Information", SECTION_FONT);
         infoHeader.setSpacingAfter(8);
         document.add(infoHeader);
 
         // Two-column layout: left = form fields, right = "Attach receipt below"
-        Font fldLabelFont = new Font(Font.HELVETICA, 11, Font.NORMAL, Color.BLACK);
-        Font fldValueFont = new Font(Font.HELVETICA, 11, Font.NORMAL, Color.DARK_GRAY);
-        Font italicFont = new Font(Font.HELVETICA, 11, Font.ITALIC, Color.DARK_GRAY);
-        Font noteFont = new Font(Font.HELVETICA, 9, Font.ITALIC, Color.DARK_GRAY);
-
         PdfPTable infoTable = new PdfPTable(2);
         infoTable.setWidthPercentage(100);
         infoTable.setWidths(new float[]{55, 45});
@@ -444,30 +650,30 @@ public class PdfExportService {
 
         Paragraph left = new Paragraph();
         left.setLeading(20);
-        addInvoiceField(left, "Name:", res.getContactName(), fldLabelFont, fldValueFont);
-        addInvoiceField(left, "Email:", res.getEmail(), fldLabelFont, fldValueFont);
-        addInvoiceField(left, "Phone:", res.getPhoneNumber(), fldLabelFont, fldValueFont);
+        addInvoiceField(left, "Name:", res.getContactName(), FIELD_LABEL_FONT, FIELD_VALUE_FONT);
+        addInvoiceField(left, "Email:", res.getEmail(), FIELD_LABEL_FONT, FIELD_VALUE_FONT);
+        addInvoiceField(left, "Phone:", res.getPhoneNumber(), FIELD_LABEL_FONT, FIELD_VALUE_FONT);
 
         if (isExternal) {
             // External invoice fields
-            addInvoiceField(left, "Company:", res.getInvoiceName(), fldLabelFont, fldValueFont);
-            addInvoiceField(left, "Address:", res.getInvoiceAddress(), fldLabelFont, fldValueFont);
+            addInvoiceField(left, "Company:", res.getInvoiceName(), FIELD_LABEL_FONT, FIELD_VALUE_FONT);
+            addInvoiceField(left, "Address:", res.getInvoiceAddress(), FIELD_LABEL_FONT, FIELD_VALUE_FONT);
             if (res.getInvoiceRemarks() != null && !res.getInvoiceRemarks().isEmpty()) {
-                addInvoiceField(left, "Remarks:", res.getInvoiceRemarks(), fldLabelFont, fldValueFont);
+                addInvoiceField(left, "Remarks:", res.getInvoiceRemarks(), FIELD_LABEL_FONT, FIELD_VALUE_FONT);
             }
         } else {
             // TUE / FONTYS fields
             String institution = invoiceType != null ? invoiceType.getDisplayName() : null;
-            addInvoiceField(left, "Institution:", institution, fldLabelFont, fldValueFont);
-            addInvoiceField(left, "Kostenplaats*:", res.getCostCenter(), fldLabelFont, fldValueFont);
+            addInvoiceField(left, "Institution:", institution, FIELD_LABEL_FONT, FIELD_VALUE_FONT);
+            addInvoiceField(left, "Kostenplaats*:", res.getCostCenter(), FIELD_LABEL_FONT, FIELD_VALUE_FONT);
         }
 
         // Amount - left blank for physical fill-out, with euro sign
-        left.add(new Chunk("Amount:    ", fldLabelFont));
-        left.add(new Chunk("\u20AC ___________________________\n", fldValueFont));
+        left.add(new Chunk("Amount:    ", FIELD_LABEL_FONT));
+        left.add(new Chunk("\u20AC ___________________________\n", FIELD_VALUE_FONT));
         // Blank line
-        left.add(new Chunk("\n", fldLabelFont));
-        addInvoiceField(left, "Date:", null, fldLabelFont, fldValueFont);
+        left.add(new Chunk("\n", FIELD_LABEL_FONT));
+        addInvoiceField(left, "Date:", null, FIELD_LABEL_FONT, FIELD_VALUE_FONT);
 
         leftCell.addElement(left);
         infoTable.addCell(leftCell);
@@ -476,16 +682,16 @@ public class PdfExportService {
         PdfPCell rightCell = new PdfPCell();
         rightCell.setBorder(Rectangle.NO_BORDER);
 
-        Paragraph rightHeader = new Paragraph("Attach receipt below:", italicFont);
+        Paragraph rightHeader = new Paragraph("Attach receipt below:", FORM_LABEL_FONT);
         rightHeader.setSpacingAfter(5);
         rightCell.addElement(rightHeader);
 
         // Empty bordered box for receipt
         PdfPTable receiptBox = new PdfPTable(1);
         receiptBox.setWidthPercentage(100);
-        PdfPCell receiptCell = new PdfPCell(new Phrase("", fldValueFont));
+        PdfPCell receiptCell = new PdfPCell(new Phrase("", FIELD_VALUE_FONT));
         receiptCell.setMinimumHeight(120);
-        receiptCell.setBorderColor(new Color(200, 200, 200));
+        receiptCell.setBorderColor(RECEIPT_BORDER);
         receiptCell.setBorderWidth(0.5f);
         receiptBox.addCell(receiptCell);
         rightCell.addElement(receiptBox);
@@ -496,33 +702,33 @@ public class PdfExportService {
         // Signature line
         Paragraph sigPara = new Paragraph();
         sigPara.setSpacingBefore(20);
-        sigPara.add(new Chunk("Signature:    ", fldLabelFont));
-        sigPara.add(new Chunk("___________________________", fldValueFont));
+        sigPara.add(new Chunk("Signature:    ", FIELD_LABEL_FONT));
+        sigPara.add(new Chunk("___________________________", FIELD_VALUE_FONT));
         document.add(sigPara);
 
         // Kostenplaats footnote (only for TUE/FONTYS)
         if (!isExternal) {
             Paragraph kpNote = new Paragraph();
             kpNote.setSpacingBefore(12);
-            kpNote.add(new Chunk("*Mandatory for TU/e and Fontys,\nordernumber is not kostenplaats!", noteFont));
+            kpNote.add(new Chunk("*Mandatory for TU/e and Fontys,\nordernumber is not kostenplaats!", NOTE_FONT));
             document.add(kpNote);
         }
 
         // --- Treasurer part ---
-        Paragraph treasurerHeader = new Paragraph("Treasurer part", sectionFont);
+        Paragraph treasurerHeader = new Paragraph("Treasurer part", SECTION_FONT);
         treasurerHeader.setSpacingBefore(30);
         treasurerHeader.setSpacingAfter(10);
         document.add(treasurerHeader);
 
         Paragraph treasurerFields = new Paragraph();
         treasurerFields.setLeading(20);
-        addInvoiceField(treasurerFields, "Date:", null, fldLabelFont, fldValueFont);
+        addInvoiceField(treasurerFields, "Date:", null, FIELD_LABEL_FONT, FIELD_VALUE_FONT);
         document.add(treasurerFields);
 
         Paragraph treasurerSig = new Paragraph();
         treasurerSig.setSpacingBefore(15);
-        treasurerSig.add(new Chunk("Signature:    ", fldLabelFont));
-        treasurerSig.add(new Chunk("___________________________", fldValueFont));
+        treasurerSig.add(new Chunk("Signature:    ", FIELD_LABEL_FONT));
+        treasurerSig.add(new Chunk("___________________________", FIELD_VALUE_FONT));
         document.add(treasurerSig);
 
         // --- Footer with company details (positioned at page bottom) ---
@@ -536,19 +742,18 @@ public class PdfExportService {
         cb.fill();
 
         // Footer table positioned absolutely at the bottom
-        Font footerFont = new Font(Font.HELVETICA, 8, Font.NORMAL, Color.GRAY);
         PdfPTable footerTable = new PdfPTable(3);
         footerTable.setTotalWidth(pageWidth);
         footerTable.setWidths(new float[]{33, 34, 33});
 
         if (isHubble) {
-            addFooterCell(footerTable, "Hubble - Bar Potential B.V.\nDe Lampendriessen 31-05\n5612 AH EINDHOVEN", footerFont, Element.ALIGN_LEFT);
-            addFooterCell(footerTable, "www.hubble.cafe\nboard@hubble.cafe\nHandelsnaam: Hubble", footerFont, Element.ALIGN_CENTER);
-            addFooterCell(footerTable, "KvK: 68795920\nRSIN: NL857595842B01\nIBAN: NL65 RABO 0320 7856 45", footerFont, Element.ALIGN_RIGHT);
+            addFooterCell(footerTable, "Hubble - Bar Potential B.V.\nDe Lampendriessen 31-05\n5612 AH EINDHOVEN", FOOTER_FONT, Element.ALIGN_LEFT);
+            addFooterCell(footerTable, "www.hubble.cafe\nboard@hubble.cafe\nHandelsnaam: Hubble", FOOTER_FONT, Element.ALIGN_CENTER);
+            addFooterCell(footerTable, "KvK: 68795920\nRSIN: NL857595842B01\nIBAN: NL65 RABO 0320 7856 45", FOOTER_FONT, Element.ALIGN_RIGHT);
         } else {
-            addFooterCell(footerTable, "Meteor Community Caf\u00E9\nEindhoven", footerFont, Element.ALIGN_LEFT);
-            addFooterCell(footerTable, "www.meteor.cafe\nboard@meteor.cafe", footerFont, Element.ALIGN_CENTER);
-            addFooterCell(footerTable, "", footerFont, Element.ALIGN_RIGHT);
+            addFooterCell(footerTable, "Meteor Community Caf\u00E9\nEindhoven", FOOTER_FONT, Element.ALIGN_LEFT);
+            addFooterCell(footerTable, "www.meteor.cafe\nboard@meteor.cafe", FOOTER_FONT, Element.ALIGN_CENTER);
+            addFooterCell(footerTable, "", FOOTER_FONT, Element.ALIGN_RIGHT);
         }
         footerTable.writeSelectedRows(0, -1, document.left(), footerY + 25, cb);
     }
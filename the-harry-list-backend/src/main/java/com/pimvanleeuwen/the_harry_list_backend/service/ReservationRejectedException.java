@@ -0,0 +1,23 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.dto.SlotSuggestion;
+
+import java.util.List;
+
+/**
+ * A submission was refused by the constraints, a blocked period or capacity. Carries the
+ * nearest slots that would have been accepted, so the guest gets more than an error.
+ */
+public class ReservationRejectedException extends IllegalArgumentException {
+
+    private final transient List<SlotSuggestion> suggestions;
+
+    public ReservationRejectedException(String message, List<SlotSuggestion> suggestions) {
+        super(message);
+        this.suggestions = List.copyOf(suggestions);
+    }
+
+    public List<SlotSuggestion> getSuggestions() {
+        return suggestions;
+    }
+}
@@ -0,0 +1,242 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.dto.SlotSuggestion;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
+import com.pimvanleeuwen.the_harry_list_backend.service.ConstraintValidationService.BookingWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static com.pimvanleeuwen.the_harry_list_backend.service.CapacityIndex.SLOTS_PER_DAY;
+import static com.pimvanleeuwen.the_harry_list_backend.service.CapacityIndex.SLOT_MINUTES;
+
+/**
+ * Finds the slots nearest to a requested one that would be accepted, to offer when a
+ * submission is rejected.
+ *
+ * <p>A candidate keeps the requested length and is moved in whole quarter hours, to the
+ * same day or days before and after it, at any location and seating area the
+ * {@link ConstraintValidationService#bookingWindow booking window} of its activities
+ * allows (never before the earliest date it allows). Days with a blocked period are
+ * skipped. For each remaining day and place, the quarter hours with room for the guests
+ * (from {@link CapacityIndex}, over that day and the next for overnight slots) form a
+ * bitmap; AND-ing it with itself shifted by doubling steps leaves exactly the start slots
+ * of a free run as long as the request, and the set bits either side of the requested
+ * start are the nearest feasible starts. Each day and place contributes at most one
+ * suggestion, which must still pass {@link ConstraintValidationService#validate}.
+ *
+ * <p>Suggestions are ranked by distance, a full day per day away from the requested date
+ * plus how far the start moves within its day (so the same time on a nearby day beats an
+ * odd hour), then by keeping the requested location and seating area. Days are visited outwards from the
+ * requested date, up to {@code app.suggestions.search-days} away, and the search stops as
+ * soon as no further day can beat the suggestions already found.
+ */
+@Service
+public class SlotSuggestionService {
+
+    /** Most suggestions one call returns. */
+    public static final int MAX_LIMIT = 10;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingLong(Candidate::minutes)
+            .thenComparingInt(Candidate::penalty)
+            .thenComparing(Candidate::date);
+
+    private final ConstraintValidationService constraintValidationService;
+    private final BlockedPeriodIndex blockedPeriodIndex;
+    private final CapacityIndex capacityIndex;
+    private final int searchDays;
+
+    public SlotSuggestionService(ConstraintValidationService constraintValidationService,
+                                 BlockedPeriodIndex blockedPeriodIndex,
+                                 CapacityIndex capacityIndex,
+                                 @Value("${app.suggestions.search-days:120}") int searchDays) {
+        this.constraintValidationService = constraintValidationService;
+        this.blockedPeriodIndex = blockedPeriodIndex;
+        this.capacityIndex = capacityIndex;
+        this.searchDays = searchDays;
+    }
+
+    /**
+     * Up to {@code limit} (at most {@value #MAX_LIMIT}) accepted slots nearest to
+     * {@code [startTime, endTime)} on {@code date}, best first. A null or
+     * {@code NO_PREFERENCE} location or null seating area accepts any; without a date and
+     * times there is nothing to suggest.
+     */
+    public List<SlotSuggestion> suggest(Set<SpecialActivity> activities, BarLocation location, SeatingArea seatingArea,
+                                        LocalDate date, LocalTime startTime, LocalTime endTime, int guests,
+                                        int limit) {
+        if (date == null || startTime == null || endTime == null || startTime.equals(endTime) || limit <= 0) {
+            return List.of();
+        }
+        limit = Math.min(limit, MAX_LIMIT);
+        int fromSlot = minuteOfDay(startTime) / SLOT_MINUTES;
+        int toSlot = Math.ceilDiv(minuteOfDay(endTime) + (endTime.getSecond() > 0 ? 1 : 0), SLOT_MINUTES)
+                + (endTime.isBefore(startTime) ? SLOTS_PER_DAY : 0);
+        int length = toSlot - fromSlot;
+
+        BookingWindow window = constraintValidationService.bookingWindow(activities);
+        List<Place> places = places(window, location, seatingArea);
+        LocalDate today = LocalDate.now();
+        LocalDate earliest = window.earliestDate().isAfter(today) ? window.earliestDate() : today;
+        int firstSlotToday = Math.ceilDiv(minuteOfDay(LocalTime.now()), SLOT_MINUTES);
+
+        // Worst on top, so the heap keeps the best `limit`
+        PriorityQueue<Candidate> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        for (int distance = 0; distance <= searchDays && !places.isEmpty(); distance++) {
+            long closest = (long) distance * MINUTES_PER_DAY;
+            if (best.size() == limit && closest > best.peek().minutes()) {
+                break;
+            }
+            for (int direction : distance == 0 ? new int[]{1} : new int[]{1, -1}) {
+                LocalDate day = date.plusDays((long) direction * distance);
+                if (day.isBefore(earliest)) {
+                    continue;
+                }
+                int minStart = day.equals(today) ? firstSlotToday : 0;
+                for (Place place : places) {
+                    // Global blocks and those of the place's location; soft blocks are avoided too
+                    if (!blockedPeriodIndex.findBlocking(day, place.location()).isEmpty()) {
+                        continue;
+                    }
+                    Candidate candidate = nearest(day, place, date, fromSlot, length, minStart, guests);
+                    if (candidate != null && accepted(candidate, activities, startTime, fromSlot, guests)) {
+                        best.add(candidate);
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        return ranked.stream().map(c -> {
+            long shift = (long) (c.startSlot() - fromSlot) * SLOT_MINUTES;
+            return new SlotSuggestion(c.date(), startTime.plusMinutes(shift), endTime.plusMinutes(shift),
+                    c.place().location(), c.place().seatingArea());
+        }).toList();
+    }
+
+    /**
+     * The start on {@code day} at {@code place} nearest to {@code fromSlot} (not before
+     * {@code minStart}) with room for {@code guests} throughout, or null.
+     */
+    private Candidate nearest(LocalDate day, Place place, LocalDate requested, int fromSlot, int length,
+                              int minStart, int guests) {
+        BitSet starts = feasibleStarts(day, place, length, guests);
+        int later = starts.nextSetBit(Math.max(fromSlot, minStart));
+        int earlier = fromSlot > minStart ? starts.previousSetBit(fromSlot - 1) : -1;
+        if (earlier < minStart) {
+            earlier = -1;
+        }
+        int slot;
+        if (later < 0 && earlier < 0) {
+            return null;
+        } else if (later < 0) {
+            slot = earlier;
+        } else if (earlier < 0) {
+            slot = later;
+        } else {
+            slot = later - fromSlot <= fromSlot - earlier ? later : earlier;
+        }
+        long minutes = Math.abs(ChronoUnit.DAYS.between(requested, day)) * MINUTES_PER_DAY
+                + (long) Math.abs(slot - fromSlot) * SLOT_MINUTES;
+        return new Candidate(day, slot, place, minutes);
+    }
+
+    /**
+     * Start slots on {@code day} of a run of {@code length} quarter hours, possibly into
+     * the next day, each with room for {@code guests} more.
+     */
+    private BitSet feasibleStarts(LocalDate day, Place place, int length, int guests) {
+        BitSet free = new BitSet(2 * SLOTS_PER_DAY);
+        OptionalInt capacity = capacityIndex.capacity(place.location(), place.seatingArea());
+        if (capacity.isEmpty()) {
+            free.set(0, 2 * SLOTS_PER_DAY);
+        } else {
+            int room = capacity.getAsInt() - guests;
+            if (room < 0) {
+                return free;
+            }
+            int[] today = capacityIndex.guestsPerSlot(place.location(), place.seatingArea(), day);
+            int[] tomorrow = capacityIndex.guestsPerSlot(place.location(), place.seatingArea(), day.plusDays(1));
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                if (today[slot] <= room) {
+                    free.set(slot);
+                }
+                if (tomorrow[slot] <= room) {
+                    free.set(SLOTS_PER_DAY + slot);
+                }
+            }
+        }
+        // Bit i stays set while slots [i, i + covered) are all free
+        BitSet runs = free;
+        int covered = 1;
+        while (covered < length && !runs.isEmpty()) {
+            int step = Math.min(covered, length - covered);
+            runs.and(runs.get(step, Math.max(step, runs.length())));
+            covered += step;
+        }
+        return runs.get(0, SLOTS_PER_DAY);
+    }
+
+    /** Whether the candidate passes the remaining constraints (guest limits, conflicts, ...). */
+    private boolean accepted(Candidate candidate, Set<SpecialActivity> activities, LocalTime startTime,
+                             int fromSlot, int guests) {
+        LocalTime start = startTime.plusMinutes((long) (candidate.startSlot() - fromSlot) * SLOT_MINUTES);
+        return constraintValidationService.validate(activities, candidate.place().location(),
+                candidate.place().seatingArea(), candidate.date(), start, guests).isEmpty();
+    }
+
+    /**
+     * Candidate places, the requested one first. Another seating area costs 1, another
+     * location 2, in the tie-break after distance.
+     */
+    private static List<Place> places(BookingWindow window, BarLocation location, SeatingArea seatingArea) {
+        boolean anyLocation = location == null || location == BarLocation.NO_PREFERENCE;
+        List<Place> places = new ArrayList<>();
+        for (BarLocation l : BarLocation.values()) {
+            if (!window.locations().contains(l) || l == BarLocation.NO_PREFERENCE) {
+                continue;
+            }
+            for (SeatingArea a : SeatingArea.values()) {
+                if (window.seatingAreas().contains(a)) {
+                    int penalty = (anyLocation || l == location ? 0 : 2) + (seatingArea == null || a == seatingArea ? 0 : 1);
+                    places.add(new Place(l, a, penalty));
+                }
+            }
+        }
+        places.sort(Comparator.comparingInt(Place::penalty));
+        return places;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private record Place(BarLocation location, SeatingArea seatingArea, int penalty) {
+    }
+
+    private record Candidate(LocalDate date, int startSlot, Place place, long minutes) {
+
+        int penalty() {
+            return place.penalty();
+        }
+    }
+}
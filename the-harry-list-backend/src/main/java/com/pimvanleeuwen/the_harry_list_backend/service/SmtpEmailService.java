@@ -1,6 +1,5 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
-import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachment;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailTemplateType;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
@@ -62,23 +61,37 @@ public class SmtpEmailService implements EmailNotificationService {
 
     @Override
     public void sendReservationSubmittedEmail(Reservation reservation) {
+        deliver(renderReservationSubmittedEmail(reservation));
+        deliver(renderStaffNotificationEmail(reservation));
+    }
+
+    @Override
+    public void sendStatusChangeEmail(Reservation reservation, String customMessage) {
+        deliver(renderStatusChangeEmail(reservation, customMessage));
+    }
+
+    @Override
+    public OutgoingEmail renderReservationSubmittedEmail(Reservation reservation) {
         Map<String, String> vars = buildBaseVars(reservation);
-        deliver(reservation.getEmail(),
+        return new OutgoingEmail(reservation.getEmail(),
                 emailTemplateService.getRenderedSubject(EmailTemplateType.SUBMITTED, vars),
                 emailTemplateService.getRenderedBody(EmailTemplateType.SUBMITTED, vars));
+    }
 
-        Map<String, String> staffVars = buildStaffNotificationVars(reservation);
-        deliver(staffEmail,
-                emailTemplateService.getRenderedSubject(EmailTemplateType.STAFF_NOTIFICATION, staffVars),
-                emailTemplateService.getRenderedBody(EmailTemplateType.STAFF_NOTIFICATION, staffVars));
+    @Override
+    public OutgoingEmail renderStaffNotificationEmail(Reservation reservation) {
+        Map<String, String> vars = buildStaffNotificationVars(reservation);
+        return new OutgoingEmail(staffEmail,
+                emailTemplateService.getRenderedSubject(EmailTemplateType.STAFF_NOTIFICATION, vars),
+                emailTemplateService.getRenderedBody(EmailTemplateType.STAFF_NOTIFICATION, vars));
     }
 
     @Override
-    public void sendStatusChangeEmail(Reservation reservation, String customMessage) {
+    public OutgoingEmail renderStatusChangeEmail(Reservation reservation, String customMessage) {
         Map<String, String> vars = buildStatusChangeVars(reservation);
         Map<String, String> rawHtmlVars = Map.of(
                 "customMessage", EmailTemplates.buildCustomMessageBlock(customMessage));
-        deliver(reservation.getEmail(),
+        return new OutgoingEmail(reservation.getEmail(),
                 emailTemplateService.getRenderedSubject(EmailTemplateType.STATUS_CHANGED, vars),
                 emailTemplateService.getRenderedBody(EmailTemplateType.STATUS_CHANGED, vars, rawHtmlVars));
     }
@@ -111,39 +124,51 @@ public class SmtpEmailService implements EmailNotificationService {
 
     @Override
     public void sendRawEmail(String to, String subject, String htmlBody) {
-        deliver(to, subject, htmlBody, null);
+        try {
+            send(to, subject, htmlBody, null);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to send email", e);
+        }
     }
 
     @Override
     public void sendEmailWithAttachments(String to, String subject, String htmlBody,
-                                         List<EmailAttachment> attachments, String replyTo) {
+                                         List<EncodedAttachment> attachments, String replyTo) {
         // Binary attachments are not needed for e2e assertions; the message body still
         // reaches the catcher so tests can verify subject/body and recipient.
         deliver(to, subject, htmlBody, replyTo);
     }
 
+    private void deliver(OutgoingEmail email) {
+        deliver(email.to(), email.subject(), email.htmlBody());
+    }
+
     private void deliver(String to, String subject, String htmlBody) {
         deliver(to, subject, htmlBody, null);
     }
 
     private void deliver(String to, String subject, String htmlBody, String replyTo) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            if (replyTo != null && !replyTo.isBlank()) {
-                helper.setReplyTo(replyTo);
-            }
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true);
-            mailSender.send(message);
-            log.info("LOGGING email.smtp_sent to='{}' subject='{}'", to, subject);
+            send(to, subject, htmlBody, replyTo);
         } catch (Exception e) {
             log.error("Failed to send SMTP (e2e) email to: {}", to, e);
         }
     }
 
+    private void send(String to, String subject, String htmlBody, String replyTo) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(to);
+        if (replyTo != null && !replyTo.isBlank()) {
+            helper.setReplyTo(replyTo);
+        }
+        helper.setSubject(subject);
+        helper.setText(htmlBody, true);
+        mailSender.send(message);
+        log.info("LOGGING email.smtp_sent to='{}' subject='{}'", to, subject);
+    }
+
     private Map<String, String> buildBaseVars(Reservation reservation) {
         Map<String, String> vars = new HashMap<>();
         vars.put("contactName", reservation.getContactName());
@@ -0,0 +1,109 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.dto.FieldChange;
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditAction;
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes the status of a single reservation (confirm, reject, cancel, ...). The status,
+ * the audit entry and the status email are written in one transaction, so the email is
+ * queued exactly when the change commits. See {@link BulkStatusChangeService} for many
+ * reservations at once.
+ */
+@Service
+public class UpdateReservationStatusService {
+
+    private static final Logger log = LoggerFactory.getLogger(UpdateReservationStatusService.class);
+    /** Dedicated, PII-free analytics logger scraped into Loki (job=app-analytics). */
+    private static final Logger analyticsLog = LoggerFactory.getLogger("analytics");
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationMapper reservationMapper;
+    private final AuditService auditService;
+    private final EmailOutboxService emailOutboxService;
+
+    public UpdateReservationStatusService(ReservationRepository reservationRepository,
+                                          ReservationMapper reservationMapper,
+                                          AuditService auditService,
+                                          EmailOutboxService emailOutboxService) {
+        this.reservationRepository = reservationRepository;
+        this.reservationMapper = reservationMapper;
+        this.auditService = auditService;
+        this.emailOutboxService = emailOutboxService;
+    }
+
+    /**
+     * Set the status of reservation {@code id}.
+     *
+     * @param confirmedBy   staff member to record when confirming; ignored for other statuses
+     * @param sendEmail     whether to queue the status email for the guest
+     * @param customMessage optional free-text note for the email; may be {@code null} or blank to omit it
+     * @param user          who made the change, for the log
+     * @return the updated reservation, 404 if it does not exist, or 400 when confirming
+     *         a reservation without a location
+     */
+    @Transactional
+    public ResponseEntity<?> execute(Long id, ReservationStatus status, String confirmedBy, boolean sendEmail,
+                                     String customMessage, String user) {
+        return reservationRepository.findById(id)
+                .map(reservation -> {
+                    // Block confirm when location is NO_PREFERENCE
+                    if (status == ReservationStatus.CONFIRMED
+                            && (reservation.getLocation() == null || reservation.getLocation() == BarLocation.NO_PREFERENCE)) {
+                        return ResponseEntity.badRequest()
+                                .body(Map.of("message", "Location must be set before confirming"));
+                    }
+
+                    ReservationStatus oldStatus = reservation.getStatus();
+                    LocalDateTime previousUpdate = reservation.getUpdatedAt();
+                    reservation.setStatus(status);
+                    if (confirmedBy != null && status == ReservationStatus.CONFIRMED) {
+                        reservation.setConfirmedBy(confirmedBy);
+                    }
+                    Reservation saved = reservationRepository.save(reservation);
+
+                    // Privacy-safe analytics: a coarse note that a status transition happened, for
+                    // the terminal/meaningful states only (PENDING re-opens are internal churn).
+                    if (status != ReservationStatus.PENDING) {
+                        analyticsLog.info(ReservationAnalytics.reservationStatusChangedLine(status, saved.getLocation()));
+                    }
+
+                    log.info("AUDIT reservation.status_changed id={} confirmation='{}' event='{}' date={} status={}->{} user='{}'{}",
+                            id, saved.getConfirmationNumber(), saved.getEventTitle(), saved.getEventDate(),
+                            oldStatus, status, user != null ? user : "unknown",
+                            confirmedBy != null ? " confirmedBy='" + confirmedBy + "'" : "");
+
+                    // The message content itself is not stored in the audit log (may be long); we only
+                    // record that a custom message accompanied the status change.
+                    boolean hasCustomMessage = customMessage != null && !customMessage.isBlank();
+                    auditService.recordAction(AuditEntityType.RESERVATION, id,
+                            saved.getConfirmationNumber() + " - " + saved.getEventTitle(),
+                            AuditAction.STATUS_CHANGE,
+                            List.of(new FieldChange("status", String.valueOf(oldStatus), String.valueOf(status))),
+                            "Status changed"
+                                    + (confirmedBy != null ? " (confirmed by " + confirmedBy + ")" : "")
+                                    + (hasCustomMessage ? " (with message)" : ""));
+
+                    // Queue the email with the status change; it is sent once this commits
+                    if (sendEmail) {
+                        emailOutboxService.enqueueStatusChange(saved, previousUpdate, customMessage);
+                    }
+
+                    return ResponseEntity.ok(reservationMapper.toDto(saved));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,79 @@
+package com.pimvanleeuwen.the_harry_list_backend.config;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachmentContent;
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentContentRepository;
+import com.pimvanleeuwen.the_harry_list_backend.service.EmailAttachmentStore;
+import com.pimvanleeuwen.the_harry_list_backend.service.FilesystemAttachmentContentStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentStorageMigrationTest {
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private EmailAttachmentContentRepository contentRepository;
+
+    private FilesystemAttachmentContentStorage storage;
+    private AttachmentStorageMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        storage = new FilesystemAttachmentContentStorage(root);
+        migration = new AttachmentStorageMigration(contentRepository, storage);
+    }
+
+    @Test
+    void run_shouldMoveEachContentToTheFilesystemAndDeleteTheRow() {
+        byte[] menu = {1, 2, 3};
+        String sha256 = EmailAttachmentStore.sha256Hex(menu);
+        when(contentRepository.findAllSha256()).thenReturn(List.of(sha256));
+        when(contentRepository.findById(sha256)).thenReturn(Optional.of(content(sha256, menu)));
+
+        migration.run();
+
+        assertTrue(storage.exists(sha256));
+        verify(contentRepository).deleteById(sha256);
+    }
+
+    @Test
+    void run_shouldKeepRowsWhoseBytesDoNotMatchTheirHash() {
+        String claimed = EmailAttachmentStore.sha256Hex(new byte[]{9});
+        when(contentRepository.findAllSha256()).thenReturn(List.of(claimed));
+        when(contentRepository.findById(claimed)).thenReturn(Optional.of(content(claimed, new byte[]{1, 2, 3})));
+
+        migration.run();
+
+        assertFalse(storage.exists(claimed));
+        verify(contentRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void run_shouldOnlyDeleteRowsAlreadyOnDisk() throws Exception {
+        byte[] menu = {1, 2, 3};
+        String sha256 = storage.put(new java.io.ByteArrayInputStream(menu)).sha256();
+        when(contentRepository.findAllSha256()).thenReturn(List.of(sha256));
+
+        migration.run();
+
+        verify(contentRepository, never()).findById(any());
+        verify(contentRepository).deleteById(sha256);
+    }
+
+    private static EmailAttachmentContent content(String sha256, byte[] data) {
+        return EmailAttachmentContent.builder().sha256(sha256).data(data).sizeBytes(data.length).build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.pimvanleeuwen.the_harry_list_backend.config;
+
+import com.pimvanleeuwen.the_harry_list_backend.service.EmailAttachmentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailAttachmentContentMigrationTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private EmailAttachmentContentMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:attachment-migration;MODE=MariaDB;DB_CLOSE_DELAY=-1", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // The schema as left by Hibernate's update on dev (MariaDB): new table and columns, legacy column still there
+        jdbcTemplate.execute("CREATE TABLE email_attachments (id BIGINT PRIMARY KEY, name VARCHAR(255), "
+                + "data BLOB NOT NULL, sha256 VARCHAR(64), size_bytes BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE email_attachment_contents (sha256 VARCHAR(64) PRIMARY KEY, "
+                + "data BLOB NOT NULL, size_bytes BIGINT NOT NULL, created_at TIMESTAMP)");
+        migration = new EmailAttachmentContentMigration(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void run_shouldCopyContentDeduplicatedAndKeepLegacyColumn() {
+        byte[] menu = {1, 2, 3};
+        byte[] drinks = {4, 5};
+        insertLegacy(1L, menu);
+        insertLegacy(2L, drinks);
+        insertLegacy(3L, menu.clone());
+
+        migration.run();
+
+        List<Map<String, Object>> attachments =
+                jdbcTemplate.queryForList("SELECT * FROM email_attachments ORDER BY id");
+        assertEquals(EmailAttachmentStore.sha256Hex(menu), attachments.get(0).get("SHA256"));
+        assertEquals(EmailAttachmentStore.sha256Hex(drinks), attachments.get(1).get("SHA256"));
+        assertEquals(EmailAttachmentStore.sha256Hex(menu), attachments.get(2).get("SHA256"));
+        assertEquals(2L, attachments.get(1).get("SIZE_BYTES"));
+        // Dropping the column is a manual step once the copy has been checked
+        assertArrayEquals(menu, (byte[]) attachments.getFirst().get("DATA"));
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_attachment_contents", Integer.class));
+        assertArrayEquals(menu, jdbcTemplate.queryForObject(
+                "SELECT data FROM email_attachment_contents WHERE sha256 = ?", byte[].class,
+                EmailAttachmentStore.sha256Hex(menu)));
+
+        // Nothing left to do on the next start
+        migration.run();
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_attachment_contents", Integer.class));
+    }
+
+    @Test
+    void run_shouldContinueAnInterruptedMigration() {
+        byte[] menu = {1, 2, 3};
+        insertLegacy(1L, menu);
+        jdbcTemplate.update("INSERT INTO email_attachment_contents (sha256, data, size_bytes) VALUES (?, ?, 3)",
+                EmailAttachmentStore.sha256Hex(menu), menu);
+
+        migration.run();
+
+        assertEquals(EmailAttachmentStore.sha256Hex(menu),
+                jdbcTemplate.queryForObject("SELECT sha256 FROM email_attachments WHERE id = 1", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_attachment_contents", Integer.class));
+    }
+
+    @Test
+    void run_shouldRelaxNotNullSoNewAttachmentsCanBeStored() {
+        migration.run();
+
+        jdbcTemplate.update("INSERT INTO email_attachments (id, name, sha256, size_bytes) VALUES (1, 'new', 'abc', 3)");
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM email_attachments WHERE data IS NULL", Integer.class));
+
+        // New attachments without legacy bytes are left alone
+        migration.run();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_attachment_contents", Integer.class));
+    }
+
+    @Test
+    void run_shouldDoNothingOnceTheLegacyColumnIsDropped() {
+        jdbcTemplate.execute("ALTER TABLE email_attachments DROP COLUMN data");
+
+        assertDoesNotThrow(() -> migration.run());
+    }
+
+    private void insertLegacy(long id, byte[] data) {
+        jdbcTemplate.update("INSERT INTO email_attachments (id, name, data) VALUES (?, ?, ?)", id, "a" + id, data);
+    }
+}
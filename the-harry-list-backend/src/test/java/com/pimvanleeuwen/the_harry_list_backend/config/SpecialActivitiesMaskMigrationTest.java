@@ -0,0 +1,107 @@
+package com.pimvanleeuwen.the_harry_list_backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpecialActivitiesMaskMigrationTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SpecialActivitiesMaskMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:special-activities-migration;MODE=MariaDB;DB_CLOSE_DELAY=-1", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // The schema after Step 1 of the migration guide (Hibernate's update on dev): mask added, join table kept
+        jdbcTemplate.execute("CREATE TABLE reservation (id BIGINT PRIMARY KEY, "
+                + "special_activities BIGINT DEFAULT 0 NOT NULL, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE reservation_special_activities (reservation_id BIGINT NOT NULL, "
+                + "special_activity VARCHAR(255))");
+        for (long id = 1; id <= 4; id++) {
+            jdbcTemplate.update("INSERT INTO reservation (id, updated_at) VALUES (?, ?)", id,
+                    LocalDateTime.now().minusDays(1));
+        }
+        migration = new SpecialActivitiesMaskMigration(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void run_shouldFoldActivitiesIntoMasksAndRenameLegacyTable() {
+        insertLegacy(1L, "GRADUATION");
+        insertLegacy(1L, "EAT_CATERING");
+        insertLegacy(1L, "EAT_CATERING");
+        insertLegacy(2L, "PRIVATE_EVENT");
+        insertLegacy(3L, "KARAOKE");
+
+        migration.run();
+
+        assertEquals(List.of(5L, 16L, 0L, 0L), masks());
+        // Dropping the table is a manual step once the masks have been checked
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservation_special_activities_old", Integer.class));
+    }
+
+    @Test
+    void run_shouldReplaceMasksFilledInBeforeTheOldBackendStopped() {
+        // Backfilled by hand, then changed through the old backend, which only writes the join table
+        jdbcTemplate.update("UPDATE reservation SET special_activities = 1 WHERE id IN (1, 2)");
+        insertLegacy(1L, "EAT_CATERING");
+
+        migration.run();
+
+        assertEquals(List.of(4L, 0L, 0L, 0L), masks());
+    }
+
+    @Test
+    void run_shouldLeaveReservationsChangedByThisBackendAlone() {
+        insertLegacy(1L, "GRADUATION");
+        jdbcTemplate.update("UPDATE reservation SET special_activities = 8, updated_at = ? WHERE id = 1",
+                LocalDateTime.now().plusMinutes(1));
+
+        migration.run();
+
+        assertEquals(8L, masks().getFirst());
+    }
+
+    @Test
+    void run_shouldNotReadTheLegacyTableAgain() {
+        insertLegacy(1L, "GRADUATION");
+        migration.run();
+
+        // Edited by the application afterwards
+        jdbcTemplate.update("UPDATE reservation SET special_activities = 0 WHERE id = 1");
+        migration.run();
+
+        assertEquals(0L, masks().getFirst());
+    }
+
+    @Test
+    void run_shouldDoNothingWithoutLegacyTable() {
+        jdbcTemplate.execute("DROP TABLE reservation_special_activities");
+
+        assertDoesNotThrow(() -> migration.run());
+    }
+
+    private List<Long> masks() {
+        return jdbcTemplate.queryForList("SELECT special_activities FROM reservation ORDER BY id", Long.class);
+    }
+
+    private void insertLegacy(Long reservationId, String activity) {
+        jdbcTemplate.update("INSERT INTO reservation_special_activities (reservation_id, special_activity) VALUES (?, ?)",
+                reservationId, activity);
+    }
+}
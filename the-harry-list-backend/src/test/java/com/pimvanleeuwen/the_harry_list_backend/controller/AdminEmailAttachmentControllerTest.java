@@ -4,10 +4,12 @@ import com.pimvanleeuwen.the_harry_list_backend.config.SecurityConfig;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachment;
 import com.pimvanleeuwen.the_harry_list_backend.service.AdminUserService;
 import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentRepository;
+import com.pimvanleeuwen.the_harry_list_backend.service.EmailAttachmentStore;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -16,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -35,6 +38,9 @@ class AdminEmailAttachmentControllerTest {
     @MockitoBean
     private EmailAttachmentRepository repository;
 
+    @MockitoBean
+    private EmailAttachmentStore store;
+
     @MockitoBean
     private com.pimvanleeuwen.the_harry_list_backend.service.AuditService auditService;
 
@@ -44,7 +50,8 @@ class AdminEmailAttachmentControllerTest {
                 .name("Catering Menu")
                 .filename("menu.pdf")
                 .contentType("application/pdf")
-                .data(new byte[]{1, 2, 3})
+                .sha256("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81")
+                .sizeBytes(3L)
                 .active(true)
                 .build();
     }
@@ -78,16 +85,16 @@ class AdminEmailAttachmentControllerTest {
         MockMultipartFile file = new MockMultipartFile(
                 "file", "menu.pdf", "application/pdf", new byte[]{1, 2, 3});
 
-        when(repository.save(any())).thenReturn(sampleAttachment());
+        when(store.store(any(), any(), any(), any())).thenReturn(sampleAttachment());
 
         mockMvc.perform(multipart("/api/admin/email-attachments")
                 .file(file)
-                .param("name", "Catering Menu")
+                .param("name", " Catering Menu ")
                 .with(csrf()))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.name").value("Catering Menu"));
 
-        verify(repository).save(any());
+        verify(store).store(eq("Catering Menu"), eq("menu.pdf"), eq("application/pdf"), any());
         verify(auditService).recordCreate(
                 eq(com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType.EMAIL_ATTACHMENT),
                 any(), any(), any(), any());
@@ -106,7 +113,7 @@ class AdminEmailAttachmentControllerTest {
             .andExpect(status().isBadRequest())
             .andExpect(jsonPath("$.message").value("Only PDF files are allowed"));
 
-        verify(repository, never()).save(any());
+        verify(store, never()).store(any(), any(), any(), any());
     }
 
     @Test
@@ -121,7 +128,7 @@ class AdminEmailAttachmentControllerTest {
                 .with(csrf()))
             .andExpect(status().isBadRequest());
 
-        verify(repository, never()).save(any());
+        verify(store, never()).store(any(), any(), any(), any());
     }
 
     @Test
@@ -138,7 +145,38 @@ class AdminEmailAttachmentControllerTest {
             .andExpect(status().isBadRequest())
             .andExpect(jsonPath("$.message").value("File size exceeds 3MB limit"));
 
-        verify(repository, never()).save(any());
+        verify(store, never()).store(any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void downloadAttachment_shouldStreamContentWithRangeSupport() throws Exception {
+        EmailAttachment attachment = sampleAttachment();
+        when(repository.findById(1L)).thenReturn(Optional.of(attachment));
+        when(store.content(attachment)).thenReturn(Optional.of(new ByteArrayResource(new byte[]{1, 2, 3, 4, 5})));
+
+        mockMvc.perform(get("/api/admin/email-attachments/1/content"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/pdf"))
+            .andExpect(header().string("ETag", "\"" + attachment.getSha256() + "\""))
+            .andExpect(header().string("Content-Disposition", containsString("menu.pdf")))
+            .andExpect(content().bytes(new byte[]{1, 2, 3, 4, 5}));
+
+        mockMvc.perform(get("/api/admin/email-attachments/1/content").header("Range", "bytes=1-2"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string("Content-Range", "bytes 1-2/5"))
+            .andExpect(content().bytes(new byte[]{2, 3}));
+    }
+
+    @Test
+    @WithMockUser
+    void downloadAttachment_shouldReturn404WhenContentIsMissing() throws Exception {
+        EmailAttachment attachment = sampleAttachment();
+        when(repository.findById(1L)).thenReturn(Optional.of(attachment));
+        when(store.content(attachment)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/admin/email-attachments/1/content"))
+            .andExpect(status().isNotFound());
     }
 
     @Test
@@ -149,7 +187,7 @@ class AdminEmailAttachmentControllerTest {
         mockMvc.perform(delete("/api/admin/email-attachments/1").with(csrf()))
             .andExpect(status().isOk());
 
-        verify(repository).delete(any());
+        verify(store).delete(any());
     }
 
     @Test
@@ -170,7 +208,7 @@ class AdminEmailAttachmentControllerTest {
         when(repository.findById(1L)).thenReturn(Optional.of(attachment));
         when(repository.save(any())).thenReturn(EmailAttachment.builder()
                 .id(1L).name("Catering Menu").filename("menu.pdf")
-                .contentType("application/pdf").data(new byte[]{1, 2, 3})
+                .contentType("application/pdf")
                 .active(false).build());
 
         mockMvc.perform(patch("/api/admin/email-attachments/1/active")
@@ -11,11 +11,20 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -34,29 +43,42 @@ class AdminExportControllerTest {
     @MockitoBean
     private PdfExportService pdfExportService;
 
+    private static final byte[] MOCK_PDF = "%PDF-1.4 mock pdf content".getBytes();
+
+    private static PdfExportService.DailyReport report() {
+        return new PdfExportService.DailyReport(LocalDate.of(2026, 2, 15), BarLocation.HUBBLE, List.of(), List.of());
+    }
+
     @Test
     @WithMockUser
-    void generateDailyReport_shouldReturnPdf() throws Exception {
+    void generateDailyReport_shouldStreamPdf() throws Exception {
         // Given
-        byte[] mockPdf = "%PDF-1.4 mock pdf content".getBytes();
-        when(pdfExportService.generateDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), anyBoolean(), anyBoolean()))
-            .thenReturn(mockPdf);
-
-        // When/Then
-        mockMvc.perform(get("/api/admin/export/daily-report")
+        PdfExportService.DailyReport report = report();
+        when(pdfExportService.loadDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), anyBoolean(), anyBoolean())).thenReturn(report);
+        doAnswer(inv -> {
+            inv.getArgument(1, OutputStream.class).write(MOCK_PDF);
+            return null;
+        }).when(pdfExportService).writeDailyReport(eq(report), any(OutputStream.class));
+
+        // When/Then: the PDF is written to the response after the request thread returns
+        MvcResult result = mockMvc.perform(get("/api/admin/export/daily-report")
                 .param("date", "2026-02-15")
                 .param("location", "HUBBLE"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isOk())
-            .andExpect(content().contentType(MediaType.APPLICATION_PDF));
+            .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+            .andExpect(header().string("Content-Disposition", containsString("reservations-hubble-2026-02-15.pdf")))
+            .andExpect(content().bytes(MOCK_PDF));
     }
 
     @Test
     @WithMockUser
     void generateDailyReport_shouldAcceptConfirmedOnlyParameter() throws Exception {
         // Given
-        byte[] mockPdf = "%PDF-1.4 mock pdf content".getBytes();
-        when(pdfExportService.generateDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), eq(false), anyBoolean()))
-            .thenReturn(mockPdf);
+        when(pdfExportService.loadDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), eq(false), anyBoolean())).thenReturn(report());
 
         // When/Then
         mockMvc.perform(get("/api/admin/export/daily-report")
@@ -70,9 +92,7 @@ class AdminExportControllerTest {
     @WithMockUser
     void generateDailyReport_shouldAcceptCateringOnlyParameter() throws Exception {
         // Given
-        byte[] mockPdf = "%PDF-1.4 mock pdf content".getBytes();
-        when(pdfExportService.generateDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), anyBoolean(), eq(true)))
-            .thenReturn(mockPdf);
+        when(pdfExportService.loadDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), anyBoolean(), eq(true))).thenReturn(report());
 
         // When/Then
         mockMvc.perform(get("/api/admin/export/daily-report")
@@ -86,10 +106,8 @@ class AdminExportControllerTest {
     @Test
     @WithMockUser
     void generateDailyReport_shouldDefaultCateringOnlyToFalse() throws Exception {
-        // Given - no cateringOnly param supplied, service should be called with false
-        byte[] mockPdf = "%PDF-1.4 mock pdf content".getBytes();
-        when(pdfExportService.generateDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), anyBoolean(), eq(false)))
-            .thenReturn(mockPdf);
+        // Given
+        when(pdfExportService.loadDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), anyBoolean(), eq(false))).thenReturn(report());
 
         // When/Then
         mockMvc.perform(get("/api/admin/export/daily-report")
@@ -122,9 +140,7 @@ class AdminExportControllerTest {
     @WithMockUser
     void generateDailyReport_shouldAcceptMeteorLocation() throws Exception {
         // Given
-        byte[] mockPdf = "%PDF-1.4 mock pdf content".getBytes();
-        when(pdfExportService.generateDailyReport(any(LocalDate.class), eq(BarLocation.METEOR), anyBoolean(), anyBoolean()))
-            .thenReturn(mockPdf);
+        when(pdfExportService.loadDailyReport(any(LocalDate.class), eq(BarLocation.METEOR), anyBoolean(), anyBoolean())).thenReturn(report());
 
         // When/Then
         mockMvc.perform(get("/api/admin/export/daily-report")
@@ -138,9 +154,7 @@ class AdminExportControllerTest {
     @WithMockUser
     void generateDailyReport_shouldAcceptLowercaseLocation() throws Exception {
         // Given
-        byte[] mockPdf = "%PDF-1.4 mock pdf content".getBytes();
-        when(pdfExportService.generateDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), anyBoolean(), anyBoolean()))
-            .thenReturn(mockPdf);
+        when(pdfExportService.loadDailyReport(any(LocalDate.class), eq(BarLocation.HUBBLE), anyBoolean(), anyBoolean())).thenReturn(report());
 
         // When/Then
         mockMvc.perform(get("/api/admin/export/daily-report")
@@ -153,16 +167,68 @@ class AdminExportControllerTest {
     @WithMockUser
     void generateDailyReport_shouldReturnInternalServerErrorOnException() throws Exception {
         // Given
-        when(pdfExportService.generateDailyReport(any(LocalDate.class), any(BarLocation.class), anyBoolean(), anyBoolean()))
-            .thenThrow(new DocumentException("PDF generation failed"));
+        when(pdfExportService.loadDailyReport(any(LocalDate.class), any(BarLocation.class), anyBoolean(), anyBoolean()))
+            .thenReturn(report());
+        doThrow(new DocumentException("PDF generation failed"))
+            .when(pdfExportService).writeDailyReport(any(), any(OutputStream.class));
 
         // When/Then
-        mockMvc.perform(get("/api/admin/export/daily-report")
+        MvcResult result = mockMvc.perform(get("/api/admin/export/daily-report")
                 .param("date", "2026-02-15")
                 .param("location", "HUBBLE"))
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    @WithMockUser
+    void generateRangeReport_shouldStreamMergedPdfForBothLocations() throws Exception {
+        // Given: no location means both
+        List<PdfExportService.DailyReport> days = List.of(report());
+        when(pdfExportService.loadRangeReport(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28), null, true, false))
+            .thenReturn(days);
+        doAnswer(inv -> {
+            inv.getArgument(1, OutputStream.class).write(MOCK_PDF);
+            return null;
+        }).when(pdfExportService).writeRangeReport(eq(days), any(OutputStream.class));
+
+        // When/Then
+        MvcResult result = mockMvc.perform(get("/api/admin/export/range-report")
+                .param("from", "2026-02-01")
+                .param("to", "2026-02-28"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+            .andExpect(header().string("Content-Disposition",
+                containsString("reservations-all-2026-02-01-to-2026-02-28.pdf")))
+            .andExpect(content().bytes(MOCK_PDF));
+    }
+
+    @Test
+    @WithMockUser
+    void generateRangeReport_shouldReturnBadRequestForInvalidRanges() throws Exception {
+        // Reversed, too long, unparseable, unknown location
+        mockMvc.perform(get("/api/admin/export/range-report")
+                .param("from", "2026-02-10").param("to", "2026-02-01"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/export/range-report")
+                .param("from", "2026-01-01").param("to", "2026-12-31"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/export/range-report")
+                .param("from", "2026-02-01").param("to", "invalid-date"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/export/range-report")
+                .param("from", "2026-02-01").param("to", "2026-02-07").param("location", "MOON"))
+            .andExpect(status().isBadRequest());
+
+        verify(pdfExportService, never()).loadRangeReport(any(), any(), any(), anyBoolean(), anyBoolean());
+    }
+
     @Test
     void generateDailyReport_shouldRequireAuthentication() throws Exception {
         // When/Then - no @WithMockUser, so should be unauthorized
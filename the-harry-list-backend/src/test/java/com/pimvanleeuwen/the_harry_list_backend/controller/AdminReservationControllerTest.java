@@ -5,15 +5,24 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BookingConflict;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeRequest;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResponse;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResult;
 import com.pimvanleeuwen.the_harry_list_backend.dto.CateringEmailRequest;
 import com.pimvanleeuwen.the_harry_list_backend.model.*;
 import com.pimvanleeuwen.the_harry_list_backend.service.AdminUserService;
-import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
 import com.pimvanleeuwen.the_harry_list_backend.service.AuditService;
+import com.pimvanleeuwen.the_harry_list_backend.service.EmailAttachmentStore;
 import com.pimvanleeuwen.the_harry_list_backend.service.EmailNotificationService;
+import com.pimvanleeuwen.the_harry_list_backend.service.BulkStatusChangeService;
+import com.pimvanleeuwen.the_harry_list_backend.service.DoubleBookingDetector;
+import com.pimvanleeuwen.the_harry_list_backend.service.EmailOutboxService;
 import com.pimvanleeuwen.the_harry_list_backend.service.EmailTemplateService;
+import com.pimvanleeuwen.the_harry_list_backend.service.EncodedAttachment;
 import com.pimvanleeuwen.the_harry_list_backend.service.ReservationMapper;
+import com.pimvanleeuwen.the_harry_list_backend.service.UpdateReservationStatusService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,10 +31,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +52,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Unit tests for AdminReservationController.
  */
 @WebMvcTest(AdminReservationController.class)
+@Import(UpdateReservationStatusService.class)
 class AdminReservationControllerTest {
 
     @Autowired
@@ -58,11 +70,20 @@ class AdminReservationControllerTest {
     @MockitoBean
     private EmailNotificationService emailNotificationService;
 
+    @MockitoBean
+    private EmailOutboxService emailOutboxService;
+
+    @MockitoBean
+    private BulkStatusChangeService bulkStatusChangeService;
+
+    @MockitoBean
+    private DoubleBookingDetector doubleBookingDetector;
+
     @MockitoBean
     private EmailTemplateService emailTemplateService;
 
     @MockitoBean
-    private EmailAttachmentRepository emailAttachmentRepository;
+    private EmailAttachmentStore emailAttachmentStore;
 
     @MockitoBean
     private AuditService auditService;
@@ -92,6 +113,47 @@ class AdminReservationControllerTest {
         analyticsLogger.detachAppender(analyticsAppender);
     }
 
+    @Test
+    @WithMockUser
+    void getConflicts_shouldReturnDoubleBookingsInRange() throws Exception {
+        LocalDate from = LocalDate.of(2026, 9, 1);
+        LocalDate to = LocalDate.of(2026, 12, 31);
+        when(doubleBookingDetector.findConflicts(from, to)).thenReturn(List.of(new BookingConflict(
+                1L, 2L, null, BarLocation.HUBBLE, SeatingArea.INSIDE,
+                LocalDateTime.of(2026, 10, 2, 19, 0), LocalDateTime.of(2026, 10, 2, 21, 0))));
+
+        mockMvc.perform(get("/api/admin/reservations/conflicts")
+                .param("from", "2026-09-01")
+                .param("to", "2026-12-31"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].reservationId").value(1))
+            .andExpect(jsonPath("$[0].otherReservationId").value(2))
+            .andExpect(jsonPath("$[0].overlapStart").value("2026-10-02T19:00:00"));
+    }
+
+    @Test
+    @WithMockUser
+    void getConflicts_shouldDefaultToAYearFromToday() throws Exception {
+        mockMvc.perform(get("/api/admin/reservations/conflicts"))
+            .andExpect(status().isOk());
+
+        verify(doubleBookingDetector).findConflicts(LocalDate.now(), LocalDate.now().plusYears(1));
+    }
+
+    @Test
+    @WithMockUser
+    void getConflicts_shouldRejectRangesLongerThanAYear() throws Exception {
+        mockMvc.perform(get("/api/admin/reservations/conflicts")
+                .param("from", "2026-01-01")
+                .param("to", "2027-01-03"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/reservations/conflicts")
+                .param("to", "1900-01-01"))
+            .andExpect(status().isBadRequest());
+
+        verify(doubleBookingDetector, never()).findConflicts(any(), any());
+    }
+
     @Test
     @WithMockUser(roles = "EDITOR")
     void updateStatus_shouldConfirmReservation() throws Exception {
@@ -114,6 +176,47 @@ class AdminReservationControllerTest {
         ));
     }
 
+    @Test
+    @WithMockUser(username = "editor", roles = "EDITOR")
+    void bulkUpdateStatus_shouldReturnPerReservationReport() throws Exception {
+        when(bulkStatusChangeService.execute(any(), eq("editor"))).thenReturn(new BulkStatusChangeResponse(1, List.of(
+                new BulkStatusChangeResult(1L, BulkStatusChangeResult.Outcome.UPDATED,
+                        ReservationStatus.PENDING, ReservationStatus.CONFIRMED, null),
+                new BulkStatusChangeResult(9L, BulkStatusChangeResult.Outcome.NOT_FOUND, null, null,
+                        "Reservation not found"))));
+
+        mockMvc.perform(patch("/api/admin/reservations/status")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"items": [{"id": 1, "status": "CONFIRMED"}, {"id": 9, "status": "CONFIRMED"}],
+                         "confirmedBy": "Admin User", "sendEmail": false}"""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.updated").value(1))
+            .andExpect(jsonPath("$.results[0].outcome").value("UPDATED"))
+            .andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"));
+
+        verify(bulkStatusChangeService).execute(argThat(request ->
+                request.getItems().equals(List.of(
+                        new BulkStatusChangeRequest.Item(1L, ReservationStatus.CONFIRMED),
+                        new BulkStatusChangeRequest.Item(9L, ReservationStatus.CONFIRMED)))
+                        && "Admin User".equals(request.getConfirmedBy())
+                        && !request.isSendEmail()), eq("editor"));
+    }
+
+    @Test
+    @WithMockUser(roles = "EDITOR")
+    void bulkUpdateStatus_shouldRejectEmptyRequest() throws Exception {
+        when(bulkStatusChangeService.execute(any(), any()))
+                .thenThrow(new IllegalArgumentException("At least one reservation is required"));
+
+        mockMvc.perform(patch("/api/admin/reservations/status")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"items\": []}"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "EDITOR")
     void updateStatus_shouldRecordAuditEntry() throws Exception {
@@ -193,7 +296,7 @@ class AdminReservationControllerTest {
             res.getStatus() == ReservationStatus.PENDING
         ));
         // ...and no customer email is sent for this internal correction.
-        verify(emailNotificationService, never()).sendStatusChangeEmail(any(), any());
+        verify(emailOutboxService, never()).enqueueStatusChange(any(), any(), any());
     }
 
     @Test
@@ -287,6 +390,8 @@ class AdminReservationControllerTest {
     @WithMockUser(roles = "EDITOR")
     void updateStatus_shouldSendEmailWhenEnabled() throws Exception {
         // Given
+        LocalDateTime previousUpdate = LocalDateTime.of(2026, 1, 5, 9, 30);
+        sampleReservation.setUpdatedAt(previousUpdate);
         when(reservationRepository.findById(1L)).thenReturn(Optional.of(sampleReservation));
         when(reservationRepository.save(any())).thenReturn(sampleReservation);
         when(reservationMapper.toDto(any())).thenReturn(sampleDto);
@@ -299,7 +404,7 @@ class AdminReservationControllerTest {
             .andExpect(status().isOk());
 
         // Then
-        verify(emailNotificationService).sendStatusChangeEmail(any(), any());
+        verify(emailOutboxService).enqueueStatusChange(any(), eq(previousUpdate), any());
     }
 
     @Test
@@ -318,7 +423,7 @@ class AdminReservationControllerTest {
             .andExpect(status().isOk());
 
         // Then
-        verify(emailNotificationService, never()).sendStatusChangeEmail(any(), any());
+        verify(emailOutboxService, never()).enqueueStatusChange(any(), any(), any());
     }
 
     @Test
@@ -337,7 +442,7 @@ class AdminReservationControllerTest {
             .andExpect(status().isOk());
 
         // Then
-        verify(emailNotificationService).sendStatusChangeEmail(any(),
+        verify(emailOutboxService).enqueueStatusChange(any(), any(),
                 eq("Sorry, we are fully booked that day."));
     }
 
@@ -435,10 +540,8 @@ class AdminReservationControllerTest {
         when(emailTemplateService.getRenderedBody(eq(EmailTemplateType.CATERING_OPTIONS), any()))
                 .thenReturn("<p>Body</p>");
 
-        EmailAttachment attachment = EmailAttachment.builder()
-                .id(1L).name("Menu").filename("menu.pdf")
-                .contentType("application/pdf").data(new byte[]{1, 2, 3}).active(true).build();
-        when(emailAttachmentRepository.findAllById(List.of(1L))).thenReturn(List.of(attachment));
+        EncodedAttachment attachment = new EncodedAttachment("menu.pdf", "application/pdf", "abc", "AQID");
+        when(emailAttachmentStore.loadEncoded(List.of(1L))).thenReturn(List.of(attachment));
 
         String requestBody = objectMapper.writeValueAsString(
                 new CateringEmailRequest() {{ setAttachmentIds(List.of(1L)); }});
@@ -458,7 +561,6 @@ class AdminReservationControllerTest {
     @WithMockUser(roles = "EDITOR")
     void sendCateringEmail_shouldUseCustomSubjectAndBody() throws Exception {
         when(reservationRepository.findById(1L)).thenReturn(Optional.of(sampleReservation));
-        when(emailAttachmentRepository.findAllById(any())).thenReturn(List.of());
 
         CateringEmailRequest request = new CateringEmailRequest();
         request.setAttachmentIds(List.of());
@@ -10,9 +10,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -21,7 +24,11 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -90,6 +97,63 @@ class AuditLogControllerTest {
                 .andExpect(jsonPath("$.content[0].changes[0].newValue").value("CONFIRMED"));
     }
 
+    @Test
+    @WithMockUser(roles = "EDITOR")
+    void scrollAuditLog_shouldBeForbiddenForEditor() throws Exception {
+        mockMvc.perform(get("/api/admin/audit/scroll"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void scrollAuditLog_shouldReturnNextCursorWithoutCounting() throws Exception {
+        AuditLog entry = sampleEntry();
+        when(auditLogRepository.findBy(any(Specification.class), any()))
+                .thenReturn(Window.from(List.of(entry), i -> ScrollPosition.keyset(), true));
+
+        mockMvc.perform(get("/api/admin/audit/scroll").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].action").value("STATUS_CHANGE"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(AuditLogController.encodeCursor(entry)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(auditLogRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void scrollAuditLog_shouldCountOnlyWhenAskedAndEndWithoutCursor() throws Exception {
+        when(auditLogRepository.findBy(any(Specification.class), any()))
+                .thenReturn(Window.from(List.of(sampleEntry()), i -> ScrollPosition.keyset(), false));
+        when(auditLogRepository.count(any(Specification.class))).thenReturn(1L);
+
+        mockMvc.perform(get("/api/admin/audit/scroll").param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").isEmpty())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void scrollAuditLog_shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/admin/audit/scroll").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cursor_shouldRoundTripCreatedAtAndId() {
+        AuditLog entry = sampleEntry();
+        entry.setCreatedAt(LocalDateTime.of(2026, 6, 1, 12, 0, 0, 123456000));
+
+        KeysetScrollPosition position = AuditLogController.decodeCursor(AuditLogController.encodeCursor(entry));
+
+        assertEquals(entry.getCreatedAt(), position.getKeys().get("createdAt"));
+        assertEquals(10L, position.getKeys().get("id"));
+        assertTrue(position.scrollsForward());
+    }
+
     @Test
     void getReservationHistory_shouldRequireAuthentication() throws Exception {
         mockMvc.perform(get("/api/admin/audit/reservation/1"))
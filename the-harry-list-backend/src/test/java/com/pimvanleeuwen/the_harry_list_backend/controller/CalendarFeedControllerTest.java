@@ -0,0 +1,142 @@
+package com.pimvanleeuwen.the_harry_list_backend.controller;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.SecurityConfig;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.service.AdminUserService;
+import com.pimvanleeuwen.the_harry_list_backend.service.CalendarFeedCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for CalendarFeedController: token checks and conditional GET support.
+ */
+@WebMvcTest(value = com.pimvanleeuwen.the_harry_list_backend.controller.open.CalendarFeedController.class,
+        properties = {"calendar.feed.token=", "calendar.feed.staff-token=staff-secret"})
+@Import(SecurityConfig.class)
+class CalendarFeedControllerTest {
+
+    private static final String FEED = "BEGIN:VCALENDAR\r\nSUMMARY:Café\r\nEND:VCALENDAR\r\n";
+    private static final String ETAG = "\"0123456789abcdef0123456789abcdef\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AdminUserService adminUserService;
+
+    @MockitoBean
+    private CalendarFeedCache calendarFeedCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CalendarFeedCache.Feed feed = new CalendarFeedCache.Feed(ETAG, Instant.parse("2026-06-01T12:00:00Z"),
+                out -> out.write(FEED.getBytes(StandardCharsets.UTF_8)));
+        lenient().when(calendarFeedCache.getFeed(any(), any(), any(), anyBoolean(), anyBoolean())).thenReturn(feed);
+    }
+
+    /** Performs the request and, for streamed feeds, the async dispatch that writes the body. */
+    private ResultActions performFeed(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result));
+        }
+        return mockMvc.perform(request);
+    }
+
+    @Test
+    void publicFeed_shouldStreamFeedWithValidators() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/calendar/feed.ics"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                .andExpect(content().string(FEED));
+    }
+
+    @Test
+    void publicFeed_shouldReturnNotModifiedWithoutBodyWhenEtagMatches() throws Exception {
+        mockMvc.perform(get("/api/calendar/feed.ics").header("If-None-Match", ETAG))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void publicFeed_shouldReturnNotModifiedWhenUnchangedSince() throws Exception {
+        mockMvc.perform(get("/api/calendar/feed.ics").header("If-Modified-Since", "Mon, 01 Jun 2026 12:00:00 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void publicFeed_shouldReturnFullFeedWhenEtagIsStale() throws Exception {
+        performFeed(get("/api/calendar/feed.ics").header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(content().string(FEED));
+    }
+
+    @Test
+    void publicFeed_shouldPassFiltersToCache() throws Exception {
+        performFeed(get("/api/calendar/feed.ics")
+                        .param("status", "confirmed,pending")
+                        .param("location", "HUBBLE")
+                        .param("catering", "true")
+                        .param("upcomingOnly", "true"))
+                .andExpect(status().isOk());
+
+        List<ReservationStatus> statuses = List.of(ReservationStatus.CONFIRMED, ReservationStatus.PENDING);
+        verify(calendarFeedCache).getFeed(statuses, "HUBBLE", true, true, false);
+    }
+
+    @Test
+    void publicFeed_shouldRejectInvalidStatus() throws Exception {
+        performFeed(get("/api/calendar/feed.ics").param("status", "BOGUS"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Invalid status value")));
+    }
+
+    @Test
+    void staffFeed_shouldRequireStaffToken() throws Exception {
+        performFeed(get("/api/calendar/staff-feed.ics").param("token", "wrong"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().string("Invalid or missing staff token"));
+    }
+
+    @Test
+    void staffFeed_shouldIncludeConfidentialDetailsWithValidToken() throws Exception {
+        performFeed(get("/api/calendar/staff-feed.ics").param("token", "staff-secret"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG));
+
+        verify(calendarFeedCache).getFeed(isNull(), isNull(), isNull(), eq(false), eq(true));
+    }
+}
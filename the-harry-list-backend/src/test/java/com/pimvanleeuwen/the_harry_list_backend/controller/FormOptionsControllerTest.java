@@ -0,0 +1,156 @@
+package com.pimvanleeuwen.the_harry_list_backend.controller;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.SecurityConfig;
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability;
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability.Level;
+import com.pimvanleeuwen.the_harry_list_backend.dto.SlotSuggestion;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
+import com.pimvanleeuwen.the_harry_list_backend.repository.FormConstraintRepository;
+import com.pimvanleeuwen.the_harry_list_backend.service.AdminUserService;
+import com.pimvanleeuwen.the_harry_list_backend.service.AvailabilityCalendar;
+import com.pimvanleeuwen.the_harry_list_backend.service.BlockedPeriodIndex;
+import com.pimvanleeuwen.the_harry_list_backend.service.SlotSuggestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for the availability and suggestion endpoints of FormOptionsController: month
+ * selection, conditional GET support and parameter handling.
+ */
+@WebMvcTest(com.pimvanleeuwen.the_harry_list_backend.controller.open.FormOptionsController.class)
+@Import(SecurityConfig.class)
+class FormOptionsControllerTest {
+
+    private static final String ETAG = "\"0123456789abcdef0123456789abcdef\"";
+    private static final YearMonth MONTH = YearMonth.now().plusMonths(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AdminUserService adminUserService;
+
+    @MockitoBean
+    private FormConstraintRepository formConstraintRepository;
+
+    @MockitoBean
+    private BlockedPeriodIndex blockedPeriodIndex;
+
+    @MockitoBean
+    private AvailabilityCalendar availabilityCalendar;
+
+    @MockitoBean
+    private SlotSuggestionService slotSuggestionService;
+
+    private AvailabilityCalendar.PublishedMonth published(YearMonth month) {
+        MonthAvailability availability = new MonthAvailability(month, List.of(new MonthAvailability.Day(
+                month.atDay(1), Map.of(BarLocation.HUBBLE, Level.FULL, BarLocation.METEOR, Level.FREE))));
+        return new AvailabilityCalendar.PublishedMonth(availability, ETAG);
+    }
+
+    @Test
+    void availability_shouldReturnMonthWithValidators() throws Exception {
+        when(availabilityCalendar.month(MONTH)).thenReturn(published(MONTH));
+
+        mockMvc.perform(get("/api/options/availability").param("month", MONTH.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().string("Cache-Control", "no-cache, public"))
+                .andExpect(jsonPath("$.month").value(MONTH.toString()))
+                .andExpect(jsonPath("$.days[0].date").value(MONTH.atDay(1).toString()))
+                .andExpect(jsonPath("$.days[0].locations.HUBBLE").value("FULL"))
+                .andExpect(jsonPath("$.days[0].locations.METEOR").value("FREE"));
+    }
+
+    @Test
+    void availability_shouldDefaultToTheCurrentMonth() throws Exception {
+        when(availabilityCalendar.month(YearMonth.now())).thenReturn(published(YearMonth.now()));
+
+        mockMvc.perform(get("/api/options/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.month").value(YearMonth.now().toString()));
+    }
+
+    @Test
+    void availability_shouldAnswerNotModifiedWhenTheETagMatches() throws Exception {
+        when(availabilityCalendar.month(MONTH)).thenReturn(published(MONTH));
+
+        mockMvc.perform(get("/api/options/availability").param("month", MONTH.toString())
+                        .header("If-None-Match", ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void availability_shouldRejectMonthsOutsideTheHorizon() throws Exception {
+        when(availabilityCalendar.month(any())).thenThrow(new IllegalArgumentException("month must be between"));
+
+        mockMvc.perform(get("/api/options/availability").param("month", "2001-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void availability_shouldRejectMalformedMonths() throws Exception {
+        mockMvc.perform(get("/api/options/availability").param("month", "next"))
+                .andExpect(status().isBadRequest());
+
+        verify(availabilityCalendar, never()).month(any());
+    }
+
+    @Test
+    void suggestions_shouldReturnSlotsForTheRequest() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(14);
+        when(slotSuggestionService.suggest(Set.of(SpecialActivity.GRADUATION), BarLocation.HUBBLE, SeatingArea.INSIDE,
+                date, LocalTime.of(18, 0), LocalTime.of(20, 0), 25, 2))
+                .thenReturn(List.of(new SlotSuggestion(date, LocalTime.of(20, 0), LocalTime.of(22, 0),
+                        BarLocation.HUBBLE, SeatingArea.INSIDE)));
+
+        mockMvc.perform(get("/api/options/suggestions")
+                        .param("date", date.toString())
+                        .param("startTime", "18:00")
+                        .param("endTime", "20:00")
+                        .param("location", "HUBBLE")
+                        .param("seatingArea", "INSIDE")
+                        .param("guests", "25")
+                        .param("activities", "GRADUATION")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].date").value(date.toString()))
+                .andExpect(jsonPath("$[0].startTime").value("20:00:00"))
+                .andExpect(jsonPath("$[0].location").value("HUBBLE"));
+    }
+
+    @Test
+    void suggestions_shouldRejectLimitsOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/options/suggestions")
+                        .param("date", LocalDate.now().toString())
+                        .param("startTime", "18:00")
+                        .param("endTime", "20:00")
+                        .param("limit", "11"))
+                .andExpect(status().isBadRequest());
+
+        verify(slotSuggestionService, never()).suggest(any(), any(), any(), any(), any(), any(), anyInt(), anyInt());
+    }
+}
@@ -3,6 +3,7 @@ package com.pimvanleeuwen.the_harry_list_backend.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.pimvanleeuwen.the_harry_list_backend.dto.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.dto.ReservationSearchCriteria;
 import com.pimvanleeuwen.the_harry_list_backend.model.*;
 import com.pimvanleeuwen.the_harry_list_backend.service.AdminUserService;
 import com.pimvanleeuwen.the_harry_list_backend.service.CreateReservationService;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -23,10 +25,14 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -81,6 +87,56 @@ class ReservationControllerTest {
                 .andExpect(jsonPath("$[0].email").value("john@example.com"));
     }
 
+    @Test
+    @WithMockUser
+    void searchReservations_shouldPassFiltersAndPaging() throws Exception {
+        // Given
+        when(getReservationService.search(any(), anyInt(), anyInt(), anyString(), any()))
+                .thenReturn(ResponseEntity.ok(Map.of("content", List.of(), "totalElements", 0L)));
+
+        // When & Then
+        mockMvc.perform(get("/api/reservations/search")
+                        .param("status", "CONFIRMED,PENDING")
+                        .param("location", "HUBBLE")
+                        .param("from", "2026-06-01")
+                        .param("to", "2026-06-30")
+                        .param("catering", "true")
+                        .param("q", "borrel")
+                        .param("page", "2")
+                        .param("size", "25")
+                        .param("sort", "createdAt")
+                        .param("direction", "ASC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        ReservationSearchCriteria expected = new ReservationSearchCriteria(
+                List.of(ReservationStatus.CONFIRMED, ReservationStatus.PENDING), BarLocation.HUBBLE,
+                LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 30), true, "borrel");
+        verify(getReservationService).search(expected, 2, 25, "createdAt", Sort.Direction.ASC);
+    }
+
+    @Test
+    @WithMockUser
+    void searchReservations_shouldDefaultToNewestEventsFirst() throws Exception {
+        // Given
+        when(getReservationService.search(any(), anyInt(), anyInt(), anyString(), any()))
+                .thenReturn(ResponseEntity.ok(Map.of("content", List.of())));
+
+        // When & Then
+        mockMvc.perform(get("/api/reservations/search"))
+                .andExpect(status().isOk());
+
+        verify(getReservationService).search(new ReservationSearchCriteria(null, null, null, null, null, null),
+                0, 50, "eventDate", Sort.Direction.DESC);
+    }
+
+    @Test
+    @WithMockUser
+    void searchReservations_shouldRejectUnknownStatus() throws Exception {
+        mockMvc.perform(get("/api/reservations/search").param("status", "BOGUS"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void getReservationById_shouldReturnReservation() throws Exception {
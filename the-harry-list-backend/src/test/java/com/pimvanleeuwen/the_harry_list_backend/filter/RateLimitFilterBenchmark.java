@@ -0,0 +1,78 @@
+package com.pimvanleeuwen.the_harry_list_backend.filter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimitFilter#acquire} from eight threads at once: all on one client's bucket
+ * (contended compare-and-set) and each on its own rotation of distinct clients (map lookups,
+ * and bucket creation while the first round fills the table). Run with
+ * {@code ./mvnw -Pbenchmark test-compile -Djmh.args=RateLimitFilterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimitFilterBenchmark {
+
+    /** Distinct clients per thread; all of them fit in the table, so none are evicted. */
+    private static final int CLIENTS_PER_THREAD = 1 << 14;
+
+    private RateLimitFilter filter;
+    private RateLimitFilter.Rule rule;
+
+    @Setup
+    public void setUp() {
+        // A limit no thread reaches, so every call takes the allow path and updates the bucket
+        String rules = "POST /api/public/reservations=1000000000/1";
+        filter = new RateLimitFilter(rules, 1_000_000, System::nanoTime);
+        rule = RateLimitFilter.parseRules(rules).getFirst();
+    }
+
+    /** The clients one thread sends as, disjoint from every other thread's. */
+    @State(Scope.Thread)
+    public static class Clients {
+
+        String[] ips;
+        int next;
+
+        @Setup
+        public void setUp(ThreadParams thread) {
+            ips = new String[CLIENTS_PER_THREAD];
+            for (int i = 0; i < ips.length; i++) {
+                ips[i] = "10." + thread.getThreadIndex() + "." + (i >> 8) + "." + (i & 0xff);
+            }
+        }
+
+        String nextIp() {
+            String ip = ips[next];
+            next = (next + 1) & (CLIENTS_PER_THREAD - 1);
+            return ip;
+        }
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return filter.acquire(rule, "1.2.3.4");
+    }
+
+    @Benchmark
+    public long distinctKeys(Clients clients) {
+        return filter.acquire(rule, clients.nextIp());
+    }
+}
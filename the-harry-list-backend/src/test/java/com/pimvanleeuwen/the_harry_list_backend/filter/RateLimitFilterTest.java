@@ -5,12 +5,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,10 +25,11 @@ class RateLimitFilterTest {
     private MockHttpServletRequest request;
     private MockHttpServletResponse response;
     private FilterChain filterChain;
+    private final AtomicLong clock = new AtomicLong(1_000_000_000_000L);
 
     @BeforeEach
     void setUp() throws Exception {
-        filter = new RateLimitFilter();
+        filter = new RateLimitFilter(RateLimitFilter.DEFAULT_RULES, 1000, clock::get);
         request = new MockHttpServletRequest();
         response = new MockHttpServletResponse();
         filterChain = mock(FilterChain.class);
@@ -177,27 +182,149 @@ class RateLimitFilterTest {
     }
 
     @Test
-    void shouldNotCountExpiredTimestampsTowardsLimit() throws Exception {
+    void shouldAllowRequestsAgainOnceTheWindowHasPassed() throws Exception {
         request.setMethod("POST");
         request.setRequestURI("/api/public/reservations");
         request.setRemoteAddr("1.2.3.4");
 
-        // Inject 10 timestamps that are older than the 60s window
-        long expired = System.currentTimeMillis() - 61_000;
-        List<Long> oldTimestamps = Collections.synchronizedList(new ArrayList<>());
+        // Exhaust the limit
         for (int i = 0; i < 10; i++) {
-            oldTimestamps.add(expired);
+            filter.doFilter(request, new MockHttpServletResponse(), filterChain);
         }
 
-        @SuppressWarnings("unchecked")
-        ConcurrentHashMap<String, List<Long>> timestamps =
-            (ConcurrentHashMap<String, List<Long>>) ReflectionTestUtils.getField(filter, "requestTimestamps");
-        timestamps.put("1.2.3.4", oldTimestamps);
-
-        // New request should be allowed because old timestamps are expired
+        // 61 seconds later the bucket has refilled
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
         filter.doFilter(request, response, filterChain);
 
         assertEquals(200, response.getStatus());
-        verify(filterChain).doFilter(request, response);
+        verify(filterChain, times(11)).doFilter(any(), any());
+    }
+
+    @Test
+    void shouldRefillGraduallyAndTellClientWhenToRetry() throws Exception {
+        request.setMethod("POST");
+        request.setRequestURI("/api/public/reservations");
+        request.setRemoteAddr("1.2.3.4");
+        for (int i = 0; i < 10; i++) {
+            filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+        }
+
+        // 10 per minute refills one request every 6 seconds
+        filter.doFilter(request, response, filterChain);
+        assertEquals(429, response.getStatus());
+        assertEquals("6", response.getHeader("Retry-After"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        MockHttpServletResponse refilled = new MockHttpServletResponse();
+        filter.doFilter(request, refilled, filterChain);
+        assertEquals(200, refilled.getStatus());
+
+        MockHttpServletResponse again = new MockHttpServletResponse();
+        filter.doFilter(request, again, filterChain);
+        assertEquals(429, again.getStatus());
+    }
+
+    @Test
+    void shouldApplyConfiguredPerPathLimits() throws Exception {
+        filter = new RateLimitFilter("POST /api/public/reservations=2/60, * /api/public/availability/**=3/10",
+                1000, clock::get);
+
+        MockHttpServletRequest submit = post("/api/public/reservations", "1.2.3.4");
+        assertEquals(List.of(200, 200, 429), statuses(submit, 3));
+
+        // A separate allowance for the same client on the other path, any method, any sub-path
+        MockHttpServletRequest availability = post("/api/public/availability/2026-03", "1.2.3.4");
+        availability.setMethod("GET");
+        assertEquals(List.of(200, 200, 200, 429), statuses(availability, 4));
+
+        // Unlisted paths are not limited
+        assertEquals(List.of(200, 200, 200), statuses(post("/api/public/other", "1.2.3.4"), 3));
+    }
+
+    @Test
+    void shouldRejectInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseRules("POST /x"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseRules("/x=10/60"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseRules("POST /x=0/60"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseRules("POST /x=ten/60"));
+        assertEquals(2, RateLimitFilter.parseRules("POST /x=1/1, GET /y/**=5/30,").size());
+    }
+
+    @Test
+    void shouldCapTrackedClientsAndKeepRecentlyActiveOnes() throws Exception {
+        filter = new RateLimitFilter("POST /api/public/reservations=1/60", 100, clock::get);
+        MockHttpServletRequest regular = post("/api/public/reservations", "9.9.9.9");
+        assertEquals(List.of(200, 429), statuses(regular, 2));
+
+        // A flood of one-off clients, while the regular client keeps trying
+        for (int i = 0; i < 1000; i++) {
+            filter.doFilter(post("/api/public/reservations", "10.0." + (i / 256) + "." + (i % 256)),
+                    new MockHttpServletResponse(), filterChain);
+            assertTrue(filter.trackedKeys() <= 100, "Tracked keys must stay within the cap");
+            if (i % 20 == 0) {
+                assertEquals(List.of(429), statuses(regular, 1), "Active client must not be evicted");
+            }
+        }
+    }
+
+    @Test
+    void expireIdleShouldDropOnlyRefilledBuckets() throws Exception {
+        statuses(post("/api/public/reservations", "1.1.1.1"), 1);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        statuses(post("/api/public/reservations", "2.2.2.2"), 1);
+        assertEquals(2, filter.trackedKeys());
+
+        // 1.1.1.1 refilled 6 seconds after its request, 2.2.2.2 has not yet
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        filter.expireIdle();
+
+        assertEquals(1, filter.trackedKeys());
+    }
+
+    @Test
+    void shouldAllowExactlyTheLimitUnderContention() throws Exception {
+        filter = new RateLimitFilter("POST /api/public/reservations=50/60", 1000, clock::get);
+        int threads = 8;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        MockHttpServletResponse resp = new MockHttpServletResponse();
+                        filter.doFilter(post("/api/public/reservations", "1.2.3.4"), resp, filterChain);
+                        if (resp.getStatus() == 200) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(50, allowed.get());
+    }
+
+    private MockHttpServletRequest post(String uri, String ip) {
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.setMethod("POST");
+        req.setRequestURI(uri);
+        req.setRemoteAddr(ip);
+        return req;
+    }
+
+    private List<Integer> statuses(MockHttpServletRequest req, int count) throws Exception {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MockHttpServletResponse resp = new MockHttpServletResponse();
+            filter.doFilter(req, resp, filterChain);
+            result.add(resp.getStatus());
+        }
+        return result;
     }
 }
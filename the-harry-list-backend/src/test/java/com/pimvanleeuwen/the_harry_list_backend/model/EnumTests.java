@@ -2,6 +2,9 @@ package com.pimvanleeuwen.the_harry_list_backend.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -24,6 +27,32 @@ class EnumTests {
         assertEquals(5, values.length);
     }
 
+    @Test
+    void specialActivity_bitsShouldNeverMove() {
+        // Stored masks depend on these; new activities go at the end
+        assertEquals(1L, SpecialActivity.GRADUATION.bit());
+        assertEquals(2L, SpecialActivity.EAT_A_LA_CARTE.bit());
+        assertEquals(4L, SpecialActivity.EAT_CATERING.bit());
+        assertEquals(8L, SpecialActivity.CATERING_CORONA_ROOM.bit());
+        assertEquals(16L, SpecialActivity.PRIVATE_EVENT.bit());
+    }
+
+    @Test
+    void specialActivitiesConverter_shouldRoundTripMasks() {
+        SpecialActivitiesConverter converter = new SpecialActivitiesConverter();
+
+        assertEquals(0L, converter.convertToDatabaseColumn(null));
+        assertEquals(0L, converter.convertToDatabaseColumn(Set.of()));
+        assertEquals(17L, converter.convertToDatabaseColumn(Set.of(SpecialActivity.GRADUATION, SpecialActivity.PRIVATE_EVENT)));
+        assertEquals(EnumSet.of(SpecialActivity.GRADUATION, SpecialActivity.PRIVATE_EVENT), converter.convertToEntityAttribute(17L));
+        assertEquals(EnumSet.noneOf(SpecialActivity.class), converter.convertToEntityAttribute(null));
+        // Bits without an activity are ignored
+        assertEquals(EnumSet.of(SpecialActivity.EAT_CATERING), converter.convertToEntityAttribute(4L | 1L << 40));
+        for (SpecialActivity activity : SpecialActivity.values()) {
+            assertEquals(EnumSet.of(activity), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(Set.of(activity))));
+        }
+    }
+
     @Test
     void invoiceType_shouldHaveCorrectDisplayNames() {
         assertEquals("TU/e", InvoiceType.TUE.getDisplayName());
@@ -0,0 +1,106 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.model.RecurrenceType;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.repository.CalendarAppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentOccurrenceIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private CalendarAppointmentRepository calendarAppointmentRepository;
+
+    private AppointmentOccurrenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AppointmentOccurrenceIndex(calendarAppointmentRepository, new AppointmentRecurrenceService());
+    }
+
+    @Test
+    void onDate_shouldReturnDayOrderedOccurrencesForLocation() {
+        CalendarAppointment evening = appointment("Quiz", TODAY, RecurrenceType.DAILY, BarLocation.HUBBLE, LocalTime.of(20, 0));
+        CalendarAppointment allDay = appointment("Closed kitchen", TODAY, RecurrenceType.WEEKLY, BarLocation.HUBBLE, null);
+        allDay.setAllDay(true);
+        CalendarAppointment meteor = appointment("Meteor", TODAY, RecurrenceType.DAILY, BarLocation.METEOR, LocalTime.of(9, 0));
+        when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(evening, allDay, meteor));
+
+        assertEquals(List.of(allDay, evening), index.onDate(TODAY.plusWeeks(2), BarLocation.HUBBLE));
+        assertEquals(List.of(evening), index.onDate(TODAY.plusDays(1), BarLocation.HUBBLE));
+        assertEquals(3, index.onDate(TODAY, null).size());
+        assertTrue(index.onDate(TODAY.minusDays(1), BarLocation.HUBBLE).isEmpty());
+        verify(calendarAppointmentRepository, times(1)).findByEnabledTrue();
+    }
+
+    @Test
+    void onDate_shouldExpandDatesOutsideHorizonFromMemory() {
+        LocalDate longAgo = TODAY.minusYears(3);
+        CalendarAppointment yearly = appointment("Anniversary", longAgo, RecurrenceType.YEARLY, BarLocation.HUBBLE, null);
+        when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(yearly));
+
+        assertEquals(List.of(yearly), index.onDate(longAgo.plusYears(1), BarLocation.HUBBLE));
+        assertEquals(List.of(yearly), index.onDate(longAgo.plusYears(10), null));
+        assertTrue(index.onDate(longAgo.plusYears(10).plusDays(1), null).isEmpty());
+        verify(calendarAppointmentRepository, times(1)).findByEnabledTrue();
+    }
+
+    @Test
+    void between_shouldListOccurrencesByDateInsideAndOutsideHorizon() {
+        CalendarAppointment weekly = appointment("Board games", TODAY, RecurrenceType.WEEKLY, BarLocation.METEOR, LocalTime.of(19, 0));
+        when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(weekly));
+
+        List<AppointmentOccurrenceIndex.Occurrence> inside = index.between(TODAY, TODAY.plusDays(20), BarLocation.METEOR);
+        assertEquals(List.of(TODAY, TODAY.plusWeeks(1), TODAY.plusWeeks(2)),
+                inside.stream().map(AppointmentOccurrenceIndex.Occurrence::date).toList());
+        assertTrue(index.between(TODAY, TODAY.plusDays(20), BarLocation.HUBBLE).isEmpty());
+
+        List<AppointmentOccurrenceIndex.Occurrence> beyond = index.between(
+                TODAY.plusYears(2), TODAY.plusYears(2).plusDays(13), null);
+        assertEquals(2, beyond.size());
+    }
+
+    @Test
+    void onEntityChanged_shouldRebuildOnlyForAppointmentChanges() {
+        CalendarAppointment first = appointment("First", TODAY, RecurrenceType.NONE, BarLocation.HUBBLE, null);
+        CalendarAppointment second = appointment("Second", TODAY, RecurrenceType.NONE, BarLocation.HUBBLE, null);
+        when(calendarAppointmentRepository.findByEnabledTrue())
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(first, second));
+        assertEquals(1, index.onDate(TODAY, null).size());
+
+        index.onEntityChanged(new EntityChangedEvent(Reservation.class));
+        assertEquals(1, index.onDate(TODAY, null).size());
+
+        index.onEntityChanged(new EntityChangedEvent(CalendarAppointment.class));
+        assertEquals(2, index.onDate(TODAY, null).size());
+    }
+
+    private static CalendarAppointment appointment(String title, LocalDate date, RecurrenceType type,
+                                                   BarLocation location, LocalTime startTime) {
+        return CalendarAppointment.builder()
+                .title(title)
+                .date(date)
+                .recurrenceType(type)
+                .location(location)
+                .startTime(startTime)
+                .enabled(true)
+                .build();
+    }
+}
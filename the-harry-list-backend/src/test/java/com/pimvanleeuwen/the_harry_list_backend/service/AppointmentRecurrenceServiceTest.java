@@ -7,13 +7,17 @@ import org.junit.jupiter.api.Test;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Unit tests for {@link AppointmentRecurrenceService#occursOn}, mirroring the semantics
- * covered by the admin frontend's recurrence expander (recurrence.ts).
+ * covered by the admin frontend's recurrence expander (recurrence.ts), and for the range
+ * expansion in {@link AppointmentRecurrenceService#occurrences}, which must agree with it.
  */
 class AppointmentRecurrenceServiceTest {
 
@@ -164,4 +168,49 @@ class AppointmentRecurrenceServiceTest {
         assertFalse(service.occursOn(null, LocalDate.of(2030, 6, 8)));
         assertFalse(service.occursOn(a, null));
     }
+
+    // ── Range expansion ───────────────────────────────────────────────────────
+
+    @Test
+    void occurrences_listsEveryMatchingDateInRange() {
+        CalendarAppointment a = base(LocalDate.of(2030, 1, 31), RecurrenceType.MONTHLY).build();
+
+        // Months without a 31st are skipped, exactly as occursOn does
+        assertEquals(List.of(LocalDate.of(2030, 1, 31), LocalDate.of(2030, 3, 31), LocalDate.of(2030, 5, 31)),
+                service.occurrences(a, LocalDate.of(2029, 12, 1), LocalDate.of(2030, 6, 30)));
+    }
+
+    @Test
+    void occurrences_matchesOccursOnForEveryPattern() {
+        Random random = new Random(7);
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        LocalDate to = LocalDate.of(2033, 12, 31);
+        Integer[] weeks = {1, 2, 3, 4, 5, -1, 0, null};
+
+        for (int i = 0; i < 400; i++) {
+            RecurrenceType type = RecurrenceType.values()[i % RecurrenceType.values().length];
+            LocalDate start = LocalDate.of(2029, 1, 1).plusDays(random.nextInt(5 * 365));
+            CalendarAppointment a = base(start, type)
+                    .recurrenceInterval(random.nextInt(4) == 0 ? null : random.nextInt(4))
+                    .recurrenceWeekOfMonth(weeks[random.nextInt(weeks.length)])
+                    .recurrenceDayOfWeek(DayOfWeek.of(1 + random.nextInt(7)))
+                    .recurrenceEndDate(random.nextBoolean() ? null : start.plusDays(random.nextInt(3 * 365)))
+                    .build();
+
+            List<LocalDate> expected = from.datesUntil(to.plusDays(1))
+                    .filter(date -> service.occursOn(a, date))
+                    .toList();
+            assertEquals(expected, service.occurrences(a, from, to), a.toString());
+        }
+    }
+
+    @Test
+    void occurrences_emptyWhenRangeEndsBeforeStartOrAfterEndDate() {
+        CalendarAppointment a = base(LocalDate.of(2030, 6, 8), RecurrenceType.DAILY)
+                .recurrenceEndDate(LocalDate.of(2030, 6, 10))
+                .build();
+        assertTrue(service.occurrences(a, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 6, 7)).isEmpty());
+        assertTrue(service.occurrences(a, LocalDate.of(2030, 6, 11), LocalDate.of(2030, 12, 31)).isEmpty());
+        assertTrue(service.occurrences(null, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 12, 31)).isEmpty());
+    }
 }
@@ -0,0 +1,154 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.dto.FieldChange;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.InvoiceType;
+import com.pimvanleeuwen.the_harry_list_backend.model.PaymentOption;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuditDiff#compare} on an edited {@link Reservation}, as {@link UpdateReservationService}
+ * calls it, against the uncached reflection it replaced. Run with
+ * {@code ./mvnw -Pbenchmark test-compile -Djmh.args=AuditDiffBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditDiffBenchmark {
+
+    private Reservation before;
+    private Reservation after;
+
+    @Setup
+    public void setUp() {
+        before = reservation();
+        after = reservation();
+        // A typical staff edit: two fields changed, the rest as loaded
+        after.setExpectedGuests(45);
+        after.setComments("Moved to the back room, bring the projector");
+    }
+
+    @Benchmark
+    public List<FieldChange> cachedAccessors() {
+        return AuditDiff.compare(before, after);
+    }
+
+    @Benchmark
+    public List<FieldChange> uncachedReflection() {
+        return UncachedAuditDiff.compare(before, after, AuditDiff.DEFAULT_IGNORE, Collections.emptyMap());
+    }
+
+    private static Reservation reservation() {
+        Reservation reservation = new Reservation();
+        reservation.setId(42L);
+        reservation.setConfirmationNumber("A3X7K9");
+        reservation.setContactName("Jane Doe");
+        reservation.setEmail("jane@example.com");
+        reservation.setPhoneNumber("+31612345678");
+        reservation.setOrganizationName("Study association");
+        reservation.setEventTitle("Annual members' drinks");
+        reservation.setDescription("Drinks and snacks for the members after the general assembly. ".repeat(20));
+        reservation.setSpecialActivities(EnumSet.of(SpecialActivity.EAT_CATERING, SpecialActivity.CATERING_CORONA_ROOM));
+        reservation.setExpectedGuests(40);
+        reservation.setEventDate(LocalDate.of(2026, 11, 20));
+        reservation.setStartTime(LocalTime.of(17, 0));
+        reservation.setEndTime(LocalTime.of(21, 0));
+        reservation.setLongReservationReason("The assembly runs late");
+        reservation.setLocation(BarLocation.HUBBLE);
+        reservation.setSeatingArea(SeatingArea.INSIDE);
+        reservation.setPaymentOption(PaymentOption.INVOICE);
+        reservation.setInvoiceType(InvoiceType.TUE);
+        reservation.setCostCenter("12345");
+        reservation.setCateringDietaryNotes("Two vegetarian, one gluten free");
+        reservation.setComments("Near the windows if possible");
+        reservation.setTermsAccepted(true);
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        reservation.setInternalNotes("Invoice sent to the treasurer");
+        reservation.setCreatedAt(LocalDateTime.of(2026, 10, 1, 9, 30));
+        reservation.setUpdatedAt(LocalDateTime.of(2026, 10, 2, 14, 0));
+        reservation.setConfirmedBy("staff@example.com");
+        return reservation;
+    }
+
+    /** {@link AuditDiff#compare} before its accessors were cached, for comparison. */
+    static final class UncachedAuditDiff {
+
+        private UncachedAuditDiff() {
+        }
+
+        static List<FieldChange> compare(Object before, Object after, Set<String> ignore,
+                                         Map<String, String> displayNames) {
+            List<FieldChange> changes = new ArrayList<>();
+            if (before == null || after == null) {
+                return changes;
+            }
+
+            Set<String> ignored = ignore != null ? ignore : Collections.emptySet();
+            Map<String, String> labels = displayNames != null ? displayNames : Collections.emptyMap();
+
+            for (Field field : collectFields(after.getClass())) {
+                if (Modifier.isStatic(field.getModifiers()) || ignored.contains(field.getName())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    String oldValue = normalize(field.get(before));
+                    String newValue = normalize(field.get(after));
+                    if (!Objects.equals(oldValue, newValue)) {
+                        String label = labels.getOrDefault(field.getName(), field.getName());
+                        changes.add(new FieldChange(label, oldValue, newValue));
+                    }
+                } catch (Exception e) {
+                    // Unreadable field: skipped
+                }
+            }
+            return changes;
+        }
+
+        private static List<Field> collectFields(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                Collections.addAll(fields, c.getDeclaredFields());
+            }
+            return fields;
+        }
+
+        private static String normalize(Object value) {
+            if (value == null) {
+                return null;
+            }
+            String s = String.valueOf(value);
+            return s.isBlank() ? null : s;
+        }
+    }
+}
@@ -4,9 +4,12 @@ import com.pimvanleeuwen.the_harry_list_backend.dto.FieldChange;
 import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -114,6 +117,37 @@ class AuditDiffTest {
         assertEquals("Contact name", changes.get(0).field());
     }
 
+    @Test
+    void compare_shouldTreatEqualSetsOfDifferentImplementationsAsUnchanged() {
+        Reservation before = base();
+        before.setSpecialActivities(new HashSet<>(List.of(SpecialActivity.GRADUATION, SpecialActivity.PRIVATE_EVENT)));
+        Reservation after = base();
+        after.setSpecialActivities(EnumSet.of(SpecialActivity.PRIVATE_EVENT, SpecialActivity.GRADUATION));
+
+        assertTrue(AuditDiff.compare(before, after).isEmpty());
+    }
+
+    @Test
+    void compare_shouldReportChangedCollectionAsStrings() {
+        Reservation before = base();
+        before.setSpecialActivities(EnumSet.of(SpecialActivity.GRADUATION));
+        Reservation after = base();
+        after.setSpecialActivities(EnumSet.of(SpecialActivity.GRADUATION, SpecialActivity.PRIVATE_EVENT));
+
+        List<FieldChange> changes = AuditDiff.compare(before, after);
+
+        assertEquals(1, changes.size());
+        assertEquals("specialActivities", changes.get(0).field());
+        assertEquals("[GRADUATION]", changes.get(0).oldValue());
+        assertEquals(after.getSpecialActivities().toString(), changes.get(0).newValue());
+    }
+
+    @Test
+    void compare_shouldSkipFieldsThatCannotBeReadFromBefore() {
+        // `before` of an unrelated type: every read fails, nothing is reported, nothing throws
+        assertTrue(AuditDiff.compare("not a reservation", base()).isEmpty());
+    }
+
     private Reservation base() {
         Reservation r = new Reservation();
         r.setId(1L);
@@ -0,0 +1,150 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditAction;
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditLog;
+import com.pimvanleeuwen.the_harry_list_backend.repository.AuditLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AuditLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void submit_shouldWriteDirectlyWhenNotStarted() {
+        writer = new AuditLogWriter(auditLogRepository, meterRegistry, 10, 5, 50);
+        AuditLog entry = entry(1L);
+
+        writer.submit(entry);
+
+        verify(auditLogRepository).saveAll(List.of(entry));
+        assertEquals(1.0, meterRegistry.get("audit.writer.written").counter().count());
+    }
+
+    @Test
+    void flusher_shouldInsertQueuedEntriesInBatches() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch allWritten = new CountDownLatch(7);
+        when(auditLogRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<AuditLog> batch = inv.getArgument(0);
+            batchSizes.add(batch.size());
+            batch.forEach(e -> allWritten.countDown());
+            return batch;
+        });
+        writer = new AuditLogWriter(auditLogRepository, meterRegistry, 100, 3, 50);
+        writer.start();
+
+        for (long id = 1; id <= 7; id++) {
+            writer.submit(entry(id));
+        }
+
+        assertTrue(allWritten.await(5, TimeUnit.SECONDS));
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 3), "batches: " + batchSizes);
+        assertEquals(7, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        verify(auditLogRepository, never()).save(any());
+    }
+
+    @Test
+    void stop_shouldDrainQueueBeforeReturning() {
+        List<AuditLog> saved = Collections.synchronizedList(new ArrayList<>());
+        when(auditLogRepository.saveAll(anyList())).thenAnswer(inv -> {
+            saved.addAll(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        // A long interval so nothing would be flushed by the timer before stop()
+        writer = new AuditLogWriter(auditLogRepository, meterRegistry, 100, 50, 60_000);
+        writer.start();
+
+        writer.submit(entry(1L));
+        writer.submit(entry(2L));
+        writer.stop();
+
+        assertFalse(writer.isRunning());
+        assertEquals(2, saved.size());
+    }
+
+    @Test
+    void submit_shouldDropAndCountWhenQueueIsFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(auditLogRepository.saveAll(anyList())).thenAnswer(inv -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return inv.getArgument(0);
+        });
+        writer = new AuditLogWriter(auditLogRepository, meterRegistry, 1, 1, 10);
+        writer.start();
+
+        writer.submit(entry(1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        // The flusher is stuck on entry 1: entry 2 fills the queue, entry 3 is dropped
+        writer.submit(entry(2L));
+        writer.submit(entry(3L));
+
+        assertEquals(1.0, meterRegistry.get("audit.writer.dropped").counter().count());
+        assertEquals(1.0, meterRegistry.get("audit.writer.queue.depth").gauge().value());
+        release.countDown();
+    }
+
+    @Test
+    void write_shouldRetryEntriesOneByOneWhenBatchFails() {
+        AuditLog good = entry(1L);
+        AuditLog bad = entry(2L);
+        when(auditLogRepository.saveAll(anyList())).thenThrow(new RuntimeException("value too long"));
+        when(auditLogRepository.save(any())).thenAnswer(inv -> {
+            if (inv.getArgument(0) == bad) {
+                throw new RuntimeException("value too long");
+            }
+            return inv.getArgument(0);
+        });
+        // A long interval so both entries end up in the single batch written by stop()
+        writer = new AuditLogWriter(auditLogRepository, meterRegistry, 10, 5, 60_000);
+        good.setId(99L);
+        writer.start();
+        writer.submit(good);
+        writer.submit(bad);
+        writer.stop();
+
+        verify(auditLogRepository).save(good);
+        assertNull(good.getId());
+        assertEquals(1.0, meterRegistry.get("audit.writer.written").counter().count());
+        assertEquals(1.0, meterRegistry.get("audit.writer.failed").counter().count());
+    }
+
+    private static AuditLog entry(Long entityId) {
+        AuditLog entry = new AuditLog();
+        entry.setEntityType(AuditEntityType.RESERVATION);
+        entry.setEntityId(entityId);
+        entry.setAction(AuditAction.UPDATE);
+        return entry;
+    }
+}
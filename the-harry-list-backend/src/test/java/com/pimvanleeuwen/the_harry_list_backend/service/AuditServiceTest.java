@@ -4,7 +4,6 @@ import com.pimvanleeuwen.the_harry_list_backend.dto.FieldChange;
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditAction;
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
 import com.pimvanleeuwen.the_harry_list_backend.model.AuditLog;
-import com.pimvanleeuwen.the_harry_list_backend.repository.AuditLogRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +16,8 @@ import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -28,18 +29,21 @@ import static org.mockito.Mockito.*;
 class AuditServiceTest {
 
     @Mock
-    private AuditLogRepository auditLogRepository;
+    private AuditLogWriter auditLogWriter;
 
     private AuditService auditService;
 
     @BeforeEach
     void setUp() {
-        auditService = new AuditService(auditLogRepository);
+        auditService = new AuditService(auditLogWriter);
     }
 
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -50,7 +54,7 @@ class AuditServiceTest {
                 List.of(new FieldChange("contactName", "Old", "New")), "updated contact");
 
         ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
-        verify(auditLogRepository).save(captor.capture());
+        verify(auditLogWriter).submit(captor.capture());
         AuditLog saved = captor.getValue();
 
         assertEquals(AuditEntityType.RESERVATION, saved.getEntityType());
@@ -61,6 +65,7 @@ class AuditServiceTest {
         assertEquals("staff@example.com", saved.getActorEmail());
         assertEquals("Staff Member", saved.getActorName());
         assertEquals("updated contact", saved.getSummary());
+        assertNotNull(saved.getCreatedAt());
         assertNotNull(saved.getChanges());
         assertTrue(saved.getChanges().contains("contactName"));
     }
@@ -71,7 +76,7 @@ class AuditServiceTest {
 
         auditService.recordUpdate(AuditEntityType.RESERVATION, 7L, "label", List.of(), "noop");
 
-        verify(auditLogRepository, never()).save(any());
+        verify(auditLogWriter, never()).submit(any());
     }
 
     @Test
@@ -81,7 +86,7 @@ class AuditServiceTest {
         auditService.recordDelete(AuditEntityType.RESERVATION, 7L, "ABC123", "deleted");
 
         ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
-        verify(auditLogRepository).save(captor.capture());
+        verify(auditLogWriter).submit(captor.capture());
         assertEquals(AuditAction.DELETE, captor.getValue().getAction());
         assertNull(captor.getValue().getChanges());
     }
@@ -95,7 +100,7 @@ class AuditServiceTest {
         auditService.recordCreate(AuditEntityType.RESERVATION, 1L, "label", List.of(), "created");
 
         ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
-        verify(auditLogRepository).save(captor.capture());
+        verify(auditLogWriter).submit(captor.capture());
         assertEquals("mockuser", captor.getValue().getActorName());
         assertNull(captor.getValue().getActorOid());
     }
@@ -105,20 +110,42 @@ class AuditServiceTest {
         auditService.recordDelete(AuditEntityType.RESERVATION, 1L, "label", "deleted");
 
         ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
-        verify(auditLogRepository).save(captor.capture());
+        verify(auditLogWriter).submit(captor.capture());
         assertEquals("system", captor.getValue().getActorName());
     }
 
     @Test
-    void record_shouldSwallowRepositoryExceptions() {
+    void record_shouldSwallowWriterExceptions() {
         setJwtAuthentication("oid-123", "staff@example.com", "Staff");
-        when(auditLogRepository.save(any())).thenThrow(new RuntimeException("db down"));
+        doThrow(new RuntimeException("db down")).when(auditLogWriter).submit(any());
 
         // Must not propagate — auditing can never break the underlying operation.
         assertDoesNotThrow(() -> auditService.recordDelete(
                 AuditEntityType.RESERVATION, 1L, "label", "deleted"));
     }
 
+    @Test
+    void record_shouldWaitForTransactionCommitBeforeSubmitting() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        auditService.recordDelete(AuditEntityType.RESERVATION, 1L, "label", "deleted");
+        verify(auditLogWriter, never()).submit(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(auditLogWriter).submit(any());
+    }
+
+    @Test
+    void record_shouldDropEntryWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        auditService.recordDelete(AuditEntityType.RESERVATION, 1L, "label", "deleted");
+        TransactionSynchronizationManager.getSynchronizations().forEach(
+                sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(auditLogWriter, never()).submit(any());
+    }
+
     private void setJwtAuthentication(String oid, String email, String name) {
         Jwt jwt = Jwt.withTokenValue("token")
                 .header("alg", "none")
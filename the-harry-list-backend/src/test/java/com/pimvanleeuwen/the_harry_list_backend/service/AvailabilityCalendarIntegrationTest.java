@@ -0,0 +1,88 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability;
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability.Level;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod;
+import com.pimvanleeuwen.the_harry_list_backend.model.PaymentOption;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.BlockedPeriodRepository;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The published months follow committed changes: the calendar's listener runs after the
+ * indexes it reads from have applied them.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:availability-calendar;DB_CLOSE_DELAY=-1",
+        "app.capacity.limits=HUBBLE.INSIDE=20,HUBBLE.OUTSIDE=0"
+})
+class AvailabilityCalendarIntegrationTest {
+
+    private static final YearMonth NEXT = YearMonth.now().plusMonths(1);
+
+    @Autowired
+    private AvailabilityCalendar calendar;
+
+    @Autowired
+    private BlockedPeriodRepository blockedPeriodRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @AfterEach
+    void tearDown() {
+        blockedPeriodRepository.deleteAll();
+        reservationRepository.deleteAll();
+    }
+
+    @Test
+    void month_shouldShowCommittedBlocksAndReservations() {
+        assertEquals(Level.FREE, level(5));
+        assertEquals(Level.FREE, level(10));
+
+        blockedPeriodRepository.save(BlockedPeriod.builder()
+                .location(BarLocation.HUBBLE)
+                .startDate(NEXT.atDay(5))
+                .endDate(NEXT.atDay(5))
+                .reason("Maintenance")
+                .build());
+        reservationRepository.save(reservation(20));
+
+        assertEquals(Level.BLOCKED, level(5));
+        assertEquals(Level.FULL, level(10));
+    }
+
+    private Level level(int day) {
+        MonthAvailability month = calendar.month(NEXT).availability();
+        return month.days().get(day - 1).locations().get(BarLocation.HUBBLE);
+    }
+
+    private static Reservation reservation(int guests) {
+        Reservation reservation = new Reservation();
+        reservation.setContactName("Jane Doe");
+        reservation.setEmail("jane@example.com");
+        reservation.setEventTitle("Borrel");
+        reservation.setDescription("Drinks");
+        reservation.setEventDate(NEXT.atDay(10));
+        reservation.setStartTime(LocalTime.of(18, 0));
+        reservation.setEndTime(LocalTime.of(20, 0));
+        reservation.setExpectedGuests(guests);
+        reservation.setLocation(BarLocation.HUBBLE);
+        reservation.setSeatingArea(SeatingArea.INSIDE);
+        reservation.setPaymentOption(PaymentOption.INDIVIDUAL);
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        return reservation;
+    }
+}
@@ -0,0 +1,206 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability;
+import com.pimvanleeuwen.the_harry_list_backend.dto.MonthAvailability.Level;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod;
+import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository.CapacityRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityCalendarTest {
+
+    private static final YearMonth NEXT = YearMonth.now().plusMonths(1);
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private BlockedPeriodIndex blockedPeriodIndex;
+
+    @Mock
+    private AppointmentOccurrenceIndex appointmentOccurrenceIndex;
+
+    private AvailabilityCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        CapacityIndex capacityIndex = new CapacityIndex(reservationRepository, "HUBBLE.INSIDE=50,HUBBLE.OUTSIDE=30");
+        calendar = new AvailabilityCalendar(reservationRepository, blockedPeriodIndex, appointmentOccurrenceIndex,
+                capacityIndex);
+    }
+
+    @Test
+    void month_shouldCombineReservationsBlocksAndAppointments() {
+        List<CapacityRow> rows = List.of(
+                row(1L, ReservationStatus.CONFIRMED, BarLocation.HUBBLE, NEXT.atDay(2), "18:00", "20:00", 10),
+                row(2L, ReservationStatus.CONFIRMED, BarLocation.HUBBLE, NEXT.atDay(3), "18:00", "20:00", 50),
+                outside(3L, ReservationStatus.CONFIRMED, NEXT.atDay(3), "12:00", "14:00", 30),
+                row(4L, ReservationStatus.PENDING, BarLocation.METEOR, NEXT.atDay(3), "19:00", "21:00", 500),
+                row(5L, ReservationStatus.CONFIRMED, BarLocation.HUBBLE, NEXT.atDay(4), "18:00", "20:00", 50),
+                outside(6L, ReservationStatus.PENDING, NEXT.atDay(4), "18:00", "20:00", 30),
+                row(7L, ReservationStatus.CONFIRMED, BarLocation.HUBBLE, NEXT.atDay(9), "18:00", "20:00", 50));
+        when(reservationRepository.findCapacityRowsBetween(any(), any(), any())).thenReturn(rows);
+        when(reservationRepository.findCapacityRows(eq(ReservationStatus.CONFIRMED), any())).thenReturn(rows);
+        BlockedPeriod wholeDay = block(NEXT.atDay(5), false, null, null);
+        BlockedPeriod evening = block(NEXT.atDay(6), false, LocalTime.of(18, 0), LocalTime.of(22, 0));
+        BlockedPeriod soft = block(NEXT.atDay(7), true, null, null);
+        when(blockedPeriodIndex.findBlocking(any(), any())).thenAnswer(inv -> {
+            LocalDate date = inv.getArgument(0);
+            return List.of(wholeDay, evening, soft).stream()
+                    .filter(bp -> bp.getStartDate().equals(date))
+                    .toList();
+        });
+        CalendarAppointment borrel = CalendarAppointment.builder().title("Borrel").location(BarLocation.METEOR)
+                .date(NEXT.atDay(8)).build();
+        when(appointmentOccurrenceIndex.between(any(), any(), isNull())).thenAnswer(inv ->
+                inv.getArgument(0, LocalDate.class).equals(NEXT.atDay(1))
+                        ? List.of(new AppointmentOccurrenceIndex.Occurrence(NEXT.atDay(8), borrel))
+                        : List.of());
+
+        MonthAvailability month = calendar.month(NEXT).availability();
+
+        assertEquals(NEXT, month.month());
+        assertEquals(NEXT.lengthOfMonth(), month.days().size());
+        assertEquals(Level.FREE, level(month, 1, BarLocation.HUBBLE));
+        assertEquals(Level.BUSY, level(month, 2, BarLocation.HUBBLE));
+        assertEquals(Level.FREE, level(month, 2, BarLocation.METEOR));
+        // Confirmed guests fill both areas, as CapacityIndex sees them; no capacity configured at Meteor
+        assertEquals(Level.FULL, level(month, 3, BarLocation.HUBBLE));
+        assertEquals(Level.BUSY, level(month, 3, BarLocation.METEOR));
+        // Pending guests do not take up seats yet
+        assertEquals(Level.BUSY, level(month, 4, BarLocation.HUBBLE));
+        // Room left outside
+        assertEquals(Level.BUSY, level(month, 9, BarLocation.HUBBLE));
+        assertEquals(Level.BLOCKED, level(month, 5, BarLocation.HUBBLE));
+        assertEquals(Level.BUSY, level(month, 6, BarLocation.HUBBLE));
+        assertEquals(Level.SOFT_BLOCKED, level(month, 7, BarLocation.HUBBLE));
+        assertEquals(Level.BUSY, level(month, 8, BarLocation.METEOR));
+        assertEquals(Level.FREE, level(month, 8, BarLocation.HUBBLE));
+    }
+
+    @Test
+    void month_shouldRejectMonthsOutsideTheHorizon() {
+        when(reservationRepository.findCapacityRowsBetween(any(), any(), any())).thenReturn(List.of());
+
+        assertNotNull(calendar.month(YearMonth.now()));
+        assertNotNull(calendar.month(YearMonth.now().plusMonths(AvailabilityCalendar.HORIZON_MONTHS)));
+        assertThrows(IllegalArgumentException.class, () -> calendar.month(YearMonth.now().minusMonths(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> calendar.month(YearMonth.now().plusMonths(AvailabilityCalendar.HORIZON_MONTHS + 1)));
+        verify(reservationRepository, times(1)).findCapacityRowsBetween(any(), any(), any());
+    }
+
+    @Test
+    void onEntityChanged_shouldRecomputeOnlyTheMonthsOfChangedReservations() {
+        LocalDate lastDay = NEXT.atEndOfMonth();
+        when(reservationRepository.findCapacityRowsBetween(any(), any(), any())).thenReturn(List.of(
+                row(1L, ReservationStatus.CONFIRMED, BarLocation.HUBBLE, NEXT.atDay(2), "18:00", "20:00", 10)));
+        AvailabilityCalendar.PublishedMonth before = calendar.month(NEXT);
+        AvailabilityCalendar.PublishedMonth after = calendar.month(NEXT.plusMonths(1));
+        AvailabilityCalendar.PublishedMonth later = calendar.month(NEXT.plusMonths(2));
+
+        // 1 cancelled; 2 new, overnight into the next month
+        when(reservationRepository.findCapacityRowsByIdIn(any())).thenReturn(List.of(
+                row(1L, ReservationStatus.CANCELLED, BarLocation.HUBBLE, NEXT.atDay(2), "18:00", "20:00", 10),
+                row(2L, ReservationStatus.PENDING, BarLocation.METEOR, lastDay, "22:00", "02:00", 10)));
+        calendar.onEntityChanged(new EntityChangedEvent(Reservation.class, Set.of(1L, 2L)));
+
+        AvailabilityCalendar.PublishedMonth next = calendar.month(NEXT);
+        assertEquals(Level.FREE, level(next.availability(), 2, BarLocation.HUBBLE));
+        assertEquals(Level.BUSY, level(next.availability(), lastDay.getDayOfMonth(), BarLocation.METEOR));
+        assertNotEquals(before.etag(), next.etag());
+        assertEquals(Level.BUSY, level(calendar.month(NEXT.plusMonths(1)).availability(), 1, BarLocation.METEOR));
+        assertNotEquals(after.etag(), calendar.month(NEXT.plusMonths(1)).etag());
+        assertSame(later, calendar.month(NEXT.plusMonths(2)));
+        verify(reservationRepository, times(1)).findCapacityRowsBetween(any(), any(), any());
+
+        // Back to the original state: back to the original tag
+        when(reservationRepository.findCapacityRowsByIdIn(any())).thenReturn(List.of(
+                row(1L, ReservationStatus.CONFIRMED, BarLocation.HUBBLE, NEXT.atDay(2), "18:00", "20:00", 10)));
+        calendar.onEntityChanged(new EntityChangedEvent(Reservation.class, Set.of(1L, 2L)));
+        assertEquals(before.etag(), calendar.month(NEXT).etag());
+        assertEquals(after.etag(), calendar.month(NEXT.plusMonths(1)).etag());
+    }
+
+    @Test
+    void onEntityChanged_shouldRecomputeFromMemoryWhenBlocksChange() {
+        when(reservationRepository.findCapacityRowsBetween(any(), any(), any())).thenReturn(List.of());
+        assertEquals(Level.FREE, level(calendar.month(NEXT).availability(), 4, BarLocation.HUBBLE));
+
+        BlockedPeriod wholeDay = block(NEXT.atDay(4), false, null, null);
+        when(blockedPeriodIndex.findBlocking(any(), any())).thenAnswer(inv ->
+                inv.getArgument(0).equals(NEXT.atDay(4)) ? List.of(wholeDay) : List.of());
+        calendar.onEntityChanged(new EntityChangedEvent(BlockedPeriod.class));
+
+        assertEquals(Level.BLOCKED, level(calendar.month(NEXT).availability(), 4, BarLocation.HUBBLE));
+        verify(reservationRepository, times(1)).findCapacityRowsBetween(any(), any(), any());
+        verify(reservationRepository, never()).findCapacityRowsByIdIn(any());
+    }
+
+    @Test
+    void onEntityChanged_shouldReloadWhenTheChangedReservationsAreUnknown() {
+        when(reservationRepository.findCapacityRowsBetween(any(), any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(row(1L, ReservationStatus.CONFIRMED, BarLocation.HUBBLE, NEXT.atDay(2),
+                        "18:00", "20:00", 10)));
+        calendar.month(NEXT);
+
+        calendar.onEntityChanged(new EntityChangedEvent(Reservation.class));
+
+        assertEquals(Level.BUSY, level(calendar.month(NEXT).availability(), 2, BarLocation.HUBBLE));
+        verify(reservationRepository, times(2)).findCapacityRowsBetween(any(), any(), any());
+    }
+
+    @Test
+    void onEntityChanged_shouldIgnoreChangesBeforeFirstUse() {
+        calendar.onEntityChanged(new EntityChangedEvent(Reservation.class, Set.of(1L)));
+        calendar.onEntityChanged(new EntityChangedEvent(BlockedPeriod.class));
+
+        verifyNoInteractions(reservationRepository, blockedPeriodIndex, appointmentOccurrenceIndex);
+    }
+
+    private static Level level(MonthAvailability month, int day, BarLocation location) {
+        return month.days().get(day - 1).locations().get(location);
+    }
+
+    private static BlockedPeriod block(LocalDate date, boolean soft, LocalTime start, LocalTime end) {
+        BlockedPeriod bp = new BlockedPeriod();
+        bp.setStartDate(date);
+        bp.setEndDate(date);
+        bp.setSoftBlock(soft);
+        bp.setStartTime(start);
+        bp.setEndTime(end);
+        return bp;
+    }
+
+    private static CapacityRow row(Long id, ReservationStatus status, BarLocation location, LocalDate date,
+                                   String start, String end, int guests) {
+        return CapacityRows.row(id, status, location, SeatingArea.INSIDE, date, start, end, guests);
+    }
+
+    private static CapacityRow outside(Long id, ReservationStatus status, LocalDate date, String start, String end,
+                                       int guests) {
+        return CapacityRows.row(id, status, BarLocation.HUBBLE, SeatingArea.OUTSIDE, date, start, end, guests);
+    }
+}
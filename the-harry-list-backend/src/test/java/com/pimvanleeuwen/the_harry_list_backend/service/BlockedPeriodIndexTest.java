@@ -0,0 +1,153 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BlockedDates;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.repository.BlockedPeriodRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlockedPeriodIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private BlockedPeriodRepository blockedPeriodRepository;
+
+    private BlockedPeriodIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BlockedPeriodIndex(blockedPeriodRepository);
+    }
+
+    @Test
+    void findBlocking_shouldCombineGlobalAndOwnLocationPeriods() {
+        BlockedPeriod global = period(null, 0, 2);
+        BlockedPeriod hubble = period(BarLocation.HUBBLE, 1, 1);
+        BlockedPeriod meteor = period(BarLocation.METEOR, 1, 1);
+        when(blockedPeriodRepository.findByEnabledTrue()).thenReturn(List.of(meteor, hubble, global));
+
+        assertEquals(List.of(global, hubble), index.findBlocking(TODAY.plusDays(1), BarLocation.HUBBLE));
+        assertEquals(List.of(global), index.findBlocking(TODAY.plusDays(1), BarLocation.NO_PREFERENCE));
+        assertEquals(List.of(global), index.findBlocking(TODAY.plusDays(1), null));
+        assertTrue(index.findBlocking(TODAY.plusDays(3), BarLocation.HUBBLE).isEmpty());
+        verify(blockedPeriodRepository, times(1)).findByEnabledTrue();
+    }
+
+    @Test
+    void findBlocking_shouldMatchBruteForceOnOverlappingPeriods() {
+        Random random = new Random(42);
+        List<BlockedPeriod> periods = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int start = random.nextInt(365);
+            periods.add(period(null, start, start + random.nextInt(30)));
+        }
+        when(blockedPeriodRepository.findByEnabledTrue()).thenReturn(periods);
+
+        for (int day = -5; day < 400; day++) {
+            LocalDate date = TODAY.plusDays(day);
+            List<BlockedPeriod> expected = periods.stream()
+                    .filter(bp -> !bp.getStartDate().isAfter(date) && !bp.getEndDate().isBefore(date))
+                    .toList();
+            List<BlockedPeriod> actual = index.findBlocking(date, BarLocation.HUBBLE);
+            assertEquals(expected.size(), actual.size(), "day " + day);
+            assertTrue(actual.containsAll(expected), "day " + day);
+        }
+    }
+
+    @Test
+    void findBlocking_shouldFilterByTimeWindow() {
+        BlockedPeriod evening = period(null, 0, 0);
+        evening.setStartTime(LocalTime.of(18, 0));
+        evening.setEndTime(LocalTime.of(22, 0));
+        BlockedPeriod wholeDay = period(BarLocation.HUBBLE, 0, 0);
+        when(blockedPeriodRepository.findByEnabledTrue()).thenReturn(List.of(evening, wholeDay));
+
+        assertEquals(List.of(wholeDay),
+                index.findBlocking(TODAY, LocalTime.of(12, 0), LocalTime.of(18, 0), BarLocation.HUBBLE));
+        assertEquals(List.of(evening, wholeDay),
+                index.findBlocking(TODAY, LocalTime.of(17, 0), LocalTime.of(19, 0), BarLocation.HUBBLE));
+        // Overnight windows run to midnight on the given date
+        assertTrue(index.findBlocking(TODAY, LocalTime.of(23, 0), LocalTime.of(2, 0), null).isEmpty());
+        assertEquals(List.of(evening),
+                index.findBlocking(TODAY, LocalTime.of(21, 0), LocalTime.of(1, 0), null));
+    }
+
+    @Test
+    void blockedDates_shouldClassifyDatesPerLocationWithinHorizon() {
+        BlockedPeriod closed = period(null, 2, 3);
+        BlockedPeriod hubbleEvening = period(BarLocation.HUBBLE, 3, 5);
+        hubbleEvening.setStartTime(LocalTime.of(18, 0));
+        hubbleEvening.setEndTime(LocalTime.of(23, 0));
+        BlockedPeriod meteorSoft = period(BarLocation.METEOR, 10, 10);
+        meteorSoft.setSoftBlock(true);
+        BlockedPeriod farAway = period(null, 500, 510);
+        when(blockedPeriodRepository.findByEnabledTrue())
+                .thenReturn(List.of(closed, hubbleEvening, meteorSoft, farAway));
+
+        BlockedDates hubble = index.blockedDates(1, BarLocation.HUBBLE);
+        assertEquals(TODAY, hubble.from());
+        assertEquals(TODAY.plusMonths(1).minusDays(1), hubble.to());
+        assertEquals(List.of(TODAY.plusDays(2), TODAY.plusDays(3)), hubble.blocked());
+        assertEquals(List.of(TODAY.plusDays(4), TODAY.plusDays(5)), hubble.partiallyBlocked());
+        assertTrue(hubble.softBlocked().isEmpty());
+
+        BlockedDates meteor = index.blockedDates(1, BarLocation.METEOR);
+        assertEquals(List.of(TODAY.plusDays(2), TODAY.plusDays(3)), meteor.blocked());
+        assertTrue(meteor.partiallyBlocked().isEmpty());
+        assertEquals(List.of(TODAY.plusDays(10)), meteor.softBlocked());
+
+        BlockedDates anywhere = index.blockedDates(12, null);
+        assertEquals(List.of(TODAY.plusDays(2), TODAY.plusDays(3)), anywhere.blocked());
+        assertTrue(anywhere.softBlocked().isEmpty());
+    }
+
+    @Test
+    void blockedDates_shouldRejectOutOfRangeMonths() {
+        assertThrows(IllegalArgumentException.class, () -> index.blockedDates(0, null));
+        assertThrows(IllegalArgumentException.class, () -> index.blockedDates(13, null));
+    }
+
+    @Test
+    void onEntityChanged_shouldReloadOnlyForBlockedPeriodChanges() {
+        BlockedPeriod first = period(null, 0, 0);
+        BlockedPeriod second = period(null, 1, 1);
+        when(blockedPeriodRepository.findByEnabledTrue())
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(first, second));
+        assertEquals(1, index.enabledPeriods().size());
+
+        index.onEntityChanged(new EntityChangedEvent(Reservation.class));
+        assertEquals(1, index.enabledPeriods().size());
+
+        index.onEntityChanged(new EntityChangedEvent(BlockedPeriod.class));
+        assertEquals(List.of(first, second), index.enabledPeriods());
+        assertEquals(List.of(second), index.findBlocking(TODAY.plusDays(1), BarLocation.METEOR));
+    }
+
+    private static BlockedPeriod period(BarLocation location, int fromDays, int toDays) {
+        return BlockedPeriod.builder()
+                .location(location)
+                .startDate(TODAY.plusDays(fromDays))
+                .endDate(TODAY.plusDays(toDays))
+                .reason("test")
+                .enabled(true)
+                .build();
+    }
+}
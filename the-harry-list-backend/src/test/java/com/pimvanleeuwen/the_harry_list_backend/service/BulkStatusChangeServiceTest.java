@@ -0,0 +1,171 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangePublisher;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeRequest;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResponse;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResult;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BulkStatusChangeResult.Outcome;
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditAction;
+import com.pimvanleeuwen.the_harry_list_backend.model.AuditEntityType;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkStatusChangeServiceTest {
+
+    private static final LocalDateTime PREVIOUS_UPDATE = LocalDateTime.of(2026, 1, 5, 9, 30);
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private EntityChangePublisher entityChangePublisher;
+
+    private BulkStatusChangeService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkStatusChangeService(reservationRepository, auditService, emailOutboxService,
+                entityChangePublisher);
+    }
+
+    @Test
+    void execute_shouldUpdateEachTargetStatusWithOneStatementAndReportPerItem() {
+        Reservation toConfirm = reservation(1L, ReservationStatus.PENDING, BarLocation.HUBBLE);
+        Reservation noLocation = reservation(2L, ReservationStatus.PENDING, BarLocation.NO_PREFERENCE);
+        Reservation alreadyConfirmed = reservation(3L, ReservationStatus.CONFIRMED, BarLocation.METEOR);
+        Reservation toReject = reservation(5L, ReservationStatus.PENDING, null);
+        Reservation alsoToConfirm = reservation(6L, ReservationStatus.PENDING, BarLocation.METEOR);
+        when(reservationRepository.findAllById(any()))
+                .thenReturn(List.of(toConfirm, noLocation, alreadyConfirmed, toReject, alsoToConfirm));
+        when(reservationRepository.updateStatusByIdIn(any(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Collection<Long>>getArgument(0).size());
+
+        BulkStatusChangeResponse response = service.execute(request(true,
+                item(1L, ReservationStatus.CONFIRMED),
+                item(2L, ReservationStatus.CONFIRMED),
+                item(3L, ReservationStatus.CONFIRMED),
+                item(4L, ReservationStatus.CONFIRMED),
+                item(1L, ReservationStatus.REJECTED),
+                item(5L, ReservationStatus.REJECTED),
+                item(6L, ReservationStatus.CONFIRMED),
+                item(null, ReservationStatus.CONFIRMED)), "editor");
+
+        assertEquals(3, response.updated());
+        assertEquals(List.of(Outcome.UPDATED, Outcome.INVALID, Outcome.UNCHANGED, Outcome.NOT_FOUND,
+                        Outcome.INVALID, Outcome.UPDATED, Outcome.UPDATED, Outcome.INVALID),
+                response.results().stream().map(BulkStatusChangeResult::outcome).toList());
+        assertEquals("Location must be set before confirming", response.results().get(1).message());
+        assertEquals("Duplicate reservation id", response.results().get(4).message());
+        BulkStatusChangeResult first = response.results().getFirst();
+        assertEquals(ReservationStatus.PENDING, first.previousStatus());
+        assertEquals(ReservationStatus.CONFIRMED, first.status());
+
+        verify(reservationRepository).updateStatusByIdIn(eq(List.of(1L, 6L)), eq(ReservationStatus.CONFIRMED),
+                eq("Admin User"), any());
+        verify(reservationRepository).updateStatusByIdIn(eq(List.of(5L)), eq(ReservationStatus.REJECTED),
+                isNull(), any());
+        verify(reservationRepository, never()).save(any());
+        verify(entityChangePublisher).changed(eq(Reservation.class),
+                argThat(ids -> Set.copyOf(ids).equals(Set.of(1L, 5L, 6L))));
+
+        assertEquals(ReservationStatus.CONFIRMED, toConfirm.getStatus());
+        assertEquals("Admin User", toConfirm.getConfirmedBy());
+        assertEquals(ReservationStatus.REJECTED, toReject.getStatus());
+        verify(emailOutboxService).enqueueStatusChange(toConfirm, PREVIOUS_UPDATE, "See you soon");
+        verify(emailOutboxService).enqueueStatusChange(toReject, PREVIOUS_UPDATE, "See you soon");
+        verify(emailOutboxService).enqueueStatusChange(alsoToConfirm, PREVIOUS_UPDATE, "See you soon");
+        verifyNoMoreInteractions(emailOutboxService);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AuditService.Entry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(auditService).recordActions(eq(AuditEntityType.RESERVATION), eq(AuditAction.STATUS_CHANGE),
+                entries.capture());
+        assertEquals(List.of(1L, 6L, 5L), entries.getValue().stream().map(AuditService.Entry::entityId).toList());
+        assertEquals("PENDING", entries.getValue().getFirst().changes().getFirst().oldValue());
+        assertEquals("CONFIRMED", entries.getValue().getFirst().changes().getFirst().newValue());
+    }
+
+    @Test
+    void execute_shouldNotQueueEmailsWhenDisabled() {
+        when(reservationRepository.findAllById(any()))
+                .thenReturn(List.of(reservation(1L, ReservationStatus.PENDING, BarLocation.HUBBLE)));
+        when(reservationRepository.updateStatusByIdIn(any(), any(), any(), any())).thenReturn(1);
+
+        BulkStatusChangeResponse response = service.execute(request(false, item(1L, ReservationStatus.CONFIRMED)), null);
+
+        assertEquals(1, response.updated());
+        verifyNoInteractions(emailOutboxService);
+    }
+
+    @Test
+    void execute_shouldChangeNothingWhenNoItemNeedsUpdating() {
+        when(reservationRepository.findAllById(any()))
+                .thenReturn(List.of(reservation(3L, ReservationStatus.CONFIRMED, BarLocation.HUBBLE)));
+
+        BulkStatusChangeResponse response = service.execute(request(true, item(3L, ReservationStatus.CONFIRMED)), null);
+
+        assertEquals(0, response.updated());
+        verify(reservationRepository, never()).updateStatusByIdIn(any(), any(), any(), any());
+        verifyNoInteractions(entityChangePublisher, auditService, emailOutboxService);
+    }
+
+    @Test
+    void execute_shouldRejectEmptyAndOversizedRequests() {
+        assertThrows(IllegalArgumentException.class, () -> service.execute(request(true), null));
+        BulkStatusChangeRequest.Item[] tooMany = new BulkStatusChangeRequest.Item[BulkStatusChangeService.MAX_ITEMS + 1];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = item((long) i, ReservationStatus.CONFIRMED);
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.execute(request(true, tooMany), null));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    private static BulkStatusChangeRequest request(boolean sendEmail, BulkStatusChangeRequest.Item... items) {
+        BulkStatusChangeRequest request = new BulkStatusChangeRequest();
+        request.setItems(new ArrayList<>(List.of(items)));
+        request.setConfirmedBy("Admin User");
+        request.setSendEmail(sendEmail);
+        request.setCustomMessage("See you soon");
+        return request;
+    }
+
+    private static BulkStatusChangeRequest.Item item(Long id, ReservationStatus status) {
+        return new BulkStatusChangeRequest.Item(id, status);
+    }
+
+    private static Reservation reservation(Long id, ReservationStatus status, BarLocation location) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setStatus(status);
+        reservation.setLocation(location);
+        reservation.setConfirmationNumber("HL-" + id);
+        reservation.setEventTitle("Event " + id);
+        reservation.setUpdatedAt(PREVIOUS_UPDATE);
+        return reservation;
+    }
+}
@@ -0,0 +1,83 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.PaymentOption;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The feed validators follow committed changes to the reservations in that feed, and only
+ * those, with the version read from the database rather than from a rendered copy.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:calendar-feed-cache;DB_CLOSE_DELAY=-1")
+class CalendarFeedCacheIntegrationTest {
+
+    @Autowired
+    private CalendarFeedCache cache;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+    }
+
+    @Test
+    void getFeed_shouldChangeEtagOnlyWhenTheFeedsReservationsChange() throws Exception {
+        Reservation hubble = reservationRepository.save(reservation("Hubble Borrel", BarLocation.HUBBLE));
+        String initial = hubbleEtag();
+        assertEquals(initial, hubbleEtag());
+
+        reservationRepository.save(reservation("Meteor Borrel", BarLocation.METEOR));
+        assertEquals(initial, hubbleEtag(), "A Meteor reservation is not in the Hubble feed");
+
+        hubble.setEventTitle("Hubble Dinner");
+        reservationRepository.save(hubble);
+        String edited = hubbleEtag();
+        assertNotEquals(initial, edited);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.getFeed(null, "HUBBLE", null, false, false).writeTo(out);
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.contains("Hubble Dinner"), body);
+        assertFalse(body.contains("Meteor Borrel"), body);
+
+        reservationRepository.delete(hubble);
+        assertNotEquals(edited, hubbleEtag());
+    }
+
+    private String hubbleEtag() {
+        return cache.getFeed(null, "HUBBLE", null, false, false).etag();
+    }
+
+    private static Reservation reservation(String title, BarLocation location) {
+        Reservation reservation = new Reservation();
+        reservation.setContactName("Jane Doe");
+        reservation.setEmail("jane@example.com");
+        reservation.setEventTitle(title);
+        reservation.setDescription("Drinks");
+        reservation.setEventDate(LocalDate.now().plusDays(3));
+        reservation.setStartTime(LocalTime.of(18, 0));
+        reservation.setEndTime(LocalTime.of(20, 0));
+        reservation.setExpectedGuests(10);
+        reservation.setLocation(location);
+        reservation.setSeatingArea(SeatingArea.INSIDE);
+        reservation.setPaymentOption(PaymentOption.INDIVIDUAL);
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        return reservation;
+    }
+}
@@ -0,0 +1,201 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod;
+import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.service.ICalendarService.FeedVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CalendarFeedCache.
+ */
+@ExtendWith(MockitoExtension.class)
+class CalendarFeedCacheTest {
+
+    private static final LocalDateTime CHANGED = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Mock
+    private ICalendarService iCalendarService;
+
+    @InjectMocks
+    private CalendarFeedCache cache;
+
+    private void stubVersion(FeedVersion version) {
+        when(iCalendarService.feedVersion(any(), any(), any(), any())).thenReturn(version);
+    }
+
+    @Test
+    void getFeed_shouldReadVersionOnceAndServeRepeatPollsFromCache() {
+        stubVersion(new FeedVersion(3, CHANGED, 0, null));
+
+        CalendarFeedCache.Feed first = cache.getFeed(null, "HUBBLE", null, false, true);
+        CalendarFeedCache.Feed second = cache.getFeed(null, "hubble", null, false, true);
+
+        assertEquals(first.etag(), second.etag());
+        assertEquals(first.lastModified(), second.lastModified());
+        verify(iCalendarService, times(1)).feedVersion(any(), any(), any(), any());
+        verifyNoMoreInteractions(iCalendarService);
+    }
+
+    @Test
+    void getFeed_shouldKeepSeparateEntriesPerFilter() {
+        stubVersion(new FeedVersion(0, null, 0, null));
+
+        cache.getFeed(null, null, null, false, false);
+        cache.getFeed(null, null, null, false, true);
+        cache.getFeed(List.of(ReservationStatus.CONFIRMED), null, null, false, false);
+        cache.getFeed(null, null, true, false, false);
+        cache.getFeed(null, null, null, true, false);
+
+        verify(iCalendarService, times(5)).feedVersion(any(), any(), any(), any());
+    }
+
+    @Test
+    void getFeed_shouldPassTodayForUpcomingOnly() {
+        stubVersion(new FeedVersion(0, null, 0, null));
+
+        cache.getFeed(null, null, null, true, false);
+
+        verify(iCalendarService).feedVersion(eq(EnumSet.allOf(ReservationStatus.class)), isNull(), isNull(),
+                eq(LocalDate.now()));
+    }
+
+    @Test
+    void getFeed_shouldNotCacheOrQueryUnknownLocations() {
+        CalendarFeedCache.Feed first = cache.getFeed(null, "NOWHERE", null, false, false);
+        CalendarFeedCache.Feed second = cache.getFeed(null, "NOWHERE", null, false, false);
+
+        assertEquals(first.etag(), second.etag());
+        verifyNoInteractions(iCalendarService);
+    }
+
+    @Test
+    void getFeed_shouldGiveEachVariantItsOwnStrongEtag() {
+        stubVersion(new FeedVersion(1, CHANGED, 0, null));
+
+        CalendarFeedCache.Feed a = cache.getFeed(null, null, null, false, false);
+        CalendarFeedCache.Feed b = cache.getFeed(null, null, null, false, true);
+
+        assertTrue(a.etag().startsWith("\"") && a.etag().endsWith("\""));
+        assertFalse(a.etag().startsWith("W/"));
+        assertNotEquals(a.etag(), b.etag());
+    }
+
+    @Test
+    void getFeed_shouldUseNewestChangeAsLastModified() {
+        LocalDateTime future = LocalDateTime.now().plusDays(1).withNano(0);
+        stubVersion(new FeedVersion(2, CHANGED, 1, future));
+
+        CalendarFeedCache.Feed feed = cache.getFeed(null, null, null, false, false);
+
+        assertEquals(future.atZone(ZoneId.systemDefault()).toInstant(), feed.lastModified());
+    }
+
+    @Test
+    void getFeed_shouldNeverReportLastModifiedBeforeLastInvalidation() {
+        stubVersion(new FeedVersion(1, LocalDateTime.of(2020, 1, 1, 0, 0), 0, null));
+        Instant before = Instant.now().minusSeconds(1);
+
+        cache.invalidate();
+        CalendarFeedCache.Feed feed = cache.getFeed(null, null, null, false, false);
+
+        assertTrue(feed.lastModified().isAfter(before));
+    }
+
+    @Test
+    void getFeed_shouldStreamTheFeedFromTheDatabaseOnEveryWrite() throws Exception {
+        stubVersion(new FeedVersion(1, CHANGED, 0, null));
+        when(iCalendarService.writeFeed(any(), any(), any(), any(), anyBoolean(), any()))
+                .thenAnswer(inv -> {
+                    inv.getArgument(5, Writer.class).write("BEGIN:VCALENDAR\r\nSUMMARY:Café\r\nEND:VCALENDAR\r\n");
+                    return CHANGED;
+                });
+
+        CalendarFeedCache.Feed feed = cache.getFeed(null, null, null, false, false);
+        verify(iCalendarService, never()).writeFeed(any(), any(), any(), any(), anyBoolean(), any());
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        feed.writeTo(first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        cache.getFeed(null, null, null, false, false).writeTo(second);
+
+        assertEquals("BEGIN:VCALENDAR\r\nSUMMARY:Café\r\nEND:VCALENDAR\r\n", first.toString(StandardCharsets.UTF_8));
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+        verify(iCalendarService, times(2)).writeFeed(isNull(), isNull(), isNull(), isNull(), eq(false), any());
+    }
+
+    @Test
+    void invalidate_shouldKeepValidatorsOfAVariantWhoseVersionDidNotChange() {
+        stubVersion(new FeedVersion(2, CHANGED, 0, null));
+
+        CalendarFeedCache.Feed before = cache.getFeed(null, null, null, false, false);
+        cache.invalidate();
+        CalendarFeedCache.Feed after = cache.getFeed(null, null, null, false, false);
+
+        assertEquals(before.etag(), after.etag());
+        assertEquals(before.lastModified(), after.lastModified());
+        verify(iCalendarService, times(2)).feedVersion(any(), any(), any(), any());
+    }
+
+    @Test
+    void invalidate_shouldChangeValidatorsWhenAnEventIsRemoved() {
+        when(iCalendarService.feedVersion(any(), any(), any(), any()))
+                .thenReturn(new FeedVersion(2, CHANGED, 0, null))
+                .thenReturn(new FeedVersion(1, CHANGED, 0, null));
+
+        CalendarFeedCache.Feed before = cache.getFeed(null, null, null, false, false);
+        Instant invalidated = Instant.now().minusSeconds(1);
+        cache.invalidate();
+        CalendarFeedCache.Feed after = cache.getFeed(null, null, null, false, false);
+
+        assertNotEquals(before.etag(), after.etag());
+        assertTrue(after.lastModified().isAfter(invalidated), "The removal is newer than any remaining event");
+    }
+
+    @Test
+    void onEntityChanged_shouldInvalidateForReservationsAndAppointments() {
+        stubVersion(new FeedVersion(0, null, 0, null));
+
+        cache.getFeed(null, null, null, false, false);
+        cache.onEntityChanged(new EntityChangedEvent(Reservation.class));
+        cache.getFeed(null, null, null, false, false);
+        cache.onEntityChanged(new EntityChangedEvent(CalendarAppointment.class));
+        cache.getFeed(null, null, null, false, false);
+
+        verify(iCalendarService, times(3)).feedVersion(any(), any(), any(), any());
+    }
+
+    @Test
+    void onEntityChanged_shouldIgnoreUnrelatedEntities() {
+        stubVersion(new FeedVersion(0, null, 0, null));
+
+        cache.getFeed(null, null, null, false, false);
+        cache.onEntityChanged(new EntityChangedEvent(BlockedPeriod.class));
+        cache.getFeed(null, null, null, false, false);
+
+        verify(iCalendarService, times(1)).feedVersion(any(), any(), any(), any());
+    }
+}
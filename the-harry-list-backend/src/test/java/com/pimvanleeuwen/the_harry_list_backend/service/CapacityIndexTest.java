@@ -0,0 +1,244 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository.CapacityRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CapacityIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private CapacityIndex index(String limits) {
+        return new CapacityIndex(reservationRepository, limits);
+    }
+
+    @Test
+    void peakGuests_shouldAddOverlappingReservationsPerArea() {
+        when(reservationRepository.findCapacityRows(eq(ReservationStatus.CONFIRMED), any())).thenReturn(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "17:00", "19:00", 20),
+                row(2L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 30),
+                row(3L, BarLocation.HUBBLE, SeatingArea.OUTSIDE, TODAY, "18:00", "20:00", 15),
+                row(4L, BarLocation.METEOR, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 40)));
+        CapacityIndex index = index("");
+
+        assertEquals(50, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "17:00", "23:00"));
+        assertEquals(20, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "17:00", "18:00"));
+        assertEquals(30, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "19:00", "20:00"));
+        assertEquals(0, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "20:00", "23:00"));
+        assertEquals(15, peakGuests(index, BarLocation.HUBBLE, SeatingArea.OUTSIDE, "12:00", "23:00"));
+        assertEquals(40, peakGuests(index, BarLocation.METEOR, SeatingArea.INSIDE, "19:45", "19:50"));
+        verify(reservationRepository, times(1)).findCapacityRows(any(), any());
+    }
+
+    @Test
+    void peakGuests_shouldRoundToWholeQuarterHoursOutward() {
+        when(reservationRepository.findCapacityRows(any(), any())).thenReturn(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "17:10", "18:05", 10)));
+        CapacityIndex index = index("");
+
+        int[] slots = index.guestsPerSlot(BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY);
+        assertEquals(CapacityIndex.SLOTS_PER_DAY, slots.length);
+        assertEquals(0, slots[slot("16:45")]);
+        assertEquals(10, slots[slot("17:00")]);
+        assertEquals(10, slots[slot("18:00")]);
+        assertEquals(0, slots[slot("18:15")]);
+    }
+
+    @Test
+    void peakGuests_shouldSpreadOvernightReservationsOverTwoDays() {
+        when(reservationRepository.findCapacityRows(any(), any())).thenReturn(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "22:00", "02:00", 25),
+                row(2L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY.plusDays(1), "01:00", "03:00", 10)));
+        CapacityIndex index = index("");
+
+        assertEquals(25, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "23:45", "00:00"));
+        assertEquals(35, index.peakGuests(BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY.plusDays(1),
+                LocalTime.of(0, 0), LocalTime.of(4, 0)));
+        assertEquals(35, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "23:00", "01:30"));
+        assertEquals(25, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "23:00", "00:30"));
+        assertEquals(10, index.peakGuests(BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY.plusDays(1),
+                LocalTime.of(2, 0), LocalTime.of(5, 0)));
+    }
+
+    @Test
+    void peakGuests_shouldMatchBruteForce() {
+        Random random = new Random(42);
+        List<CapacityRow> rows = new ArrayList<>();
+        int[] expected = new int[CapacityIndex.SLOTS_PER_DAY];
+        for (long id = 1; id <= 300; id++) {
+            int from = random.nextInt(CapacityIndex.SLOTS_PER_DAY - 1);
+            int to = from + 1 + random.nextInt(CapacityIndex.SLOTS_PER_DAY - from - 1);
+            int guests = 1 + random.nextInt(20);
+            rows.add(row(id, BarLocation.METEOR, SeatingArea.OUTSIDE, TODAY, time(from), time(to), guests));
+            for (int slot = from; slot < to; slot++) {
+                expected[slot] += guests;
+            }
+        }
+        when(reservationRepository.findCapacityRows(any(), any())).thenReturn(rows);
+        CapacityIndex index = index("");
+
+        for (int from = 0; from < CapacityIndex.SLOTS_PER_DAY; from++) {
+            int peak = 0;
+            for (int to = from + 1; to < CapacityIndex.SLOTS_PER_DAY; to++) {
+                peak = Math.max(peak, expected[to - 1]);
+                assertEquals(peak, peakGuests(index, BarLocation.METEOR, SeatingArea.OUTSIDE, time(from), time(to)),
+                        from + "-" + to);
+            }
+        }
+    }
+
+    @Test
+    void canFit_shouldCompareAgainstConfiguredCapacity() {
+        when(reservationRepository.findCapacityRows(any(), any())).thenReturn(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 70)));
+        CapacityIndex index = index("HUBBLE.INSIDE=80, hubble.outside=40");
+
+        assertEquals(OptionalInt.of(80), index.capacity(BarLocation.HUBBLE, SeatingArea.INSIDE));
+        assertEquals(OptionalInt.of(40), index.capacity(BarLocation.HUBBLE, SeatingArea.OUTSIDE));
+        assertTrue(index.capacity(BarLocation.METEOR, SeatingArea.INSIDE).isEmpty());
+
+        LocalTime from = LocalTime.of(19, 0);
+        LocalTime to = LocalTime.of(21, 0);
+        assertTrue(index.canFit(BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, from, to, 10));
+        assertFalse(index.canFit(BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, from, to, 11));
+        assertTrue(index.canFit(BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, LocalTime.of(20, 0), to, 80));
+        assertFalse(index.canFit(BarLocation.HUBBLE, SeatingArea.OUTSIDE, TODAY, from, to, 41));
+        // Unlimited
+        assertTrue(index.canFit(BarLocation.METEOR, SeatingArea.INSIDE, TODAY, from, to, 10_000));
+    }
+
+    @Test
+    void rebuild_shouldSkipRowsThatTakeNoSeats() {
+        when(reservationRepository.findCapacityRows(any(), any())).thenReturn(List.of(
+                row(1L, BarLocation.NO_PREFERENCE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 10),
+                row(2L, BarLocation.HUBBLE, null, TODAY, "18:00", "20:00", 10),
+                row(3L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "18:00", 10),
+                row(4L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 0),
+                CapacityRows.row(5L, ReservationStatus.PENDING, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY,
+                        "18:00", "20:00", 10)));
+        CapacityIndex index = index("");
+
+        assertEquals(0, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "00:00", "23:45"));
+    }
+
+    @Test
+    void onEntityChanged_shouldReplaceOnlyTheChangedReservations() {
+        when(reservationRepository.findCapacityRows(any(), any())).thenReturn(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 20),
+                row(2L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 30),
+                row(3L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 5)));
+        CapacityIndex index = index("");
+        index.rebuild();
+
+        // 1 moved to the terrace, 2 cancelled, 3 deleted, 4 newly confirmed
+        when(reservationRepository.findCapacityRowsByIdIn(any())).thenReturn(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.OUTSIDE, TODAY, "18:00", "20:00", 20),
+                CapacityRows.row(2L, ReservationStatus.CANCELLED, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY,
+                        "18:00", "20:00", 30),
+                row(4L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "19:00", "21:00", 12)));
+        index.onEntityChanged(new EntityChangedEvent(Reservation.class, Set.of(1L, 2L, 3L, 4L)));
+
+        assertEquals(0, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "18:00", "19:00"));
+        assertEquals(12, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "18:00", "23:00"));
+        assertEquals(20, peakGuests(index, BarLocation.HUBBLE, SeatingArea.OUTSIDE, "18:00", "23:00"));
+        verify(reservationRepository, times(1)).findCapacityRows(any(), any());
+
+        // Changed again to the same state: counted once
+        when(reservationRepository.findCapacityRowsByIdIn(any())).thenReturn(List.of(
+                row(4L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "19:00", "21:00", 12)));
+        index.onEntityChanged(new EntityChangedEvent(Reservation.class, Set.of(4L)));
+        assertEquals(12, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "18:00", "23:00"));
+    }
+
+    @Test
+    void onEntityChanged_shouldRebuildWhenTheChangedReservationsAreUnknown() {
+        when(reservationRepository.findCapacityRows(any(), any()))
+                .thenReturn(List.of(row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 20)))
+                .thenReturn(List.of());
+        CapacityIndex index = index("");
+        index.rebuild();
+
+        index.onEntityChanged(new EntityChangedEvent(Reservation.class));
+
+        assertEquals(0, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "18:00", "20:00"));
+        verify(reservationRepository, times(2)).findCapacityRows(any(), any());
+        verify(reservationRepository, never()).findCapacityRowsByIdIn(any());
+    }
+
+    @Test
+    void onEntityChanged_shouldIgnoreOtherEntitiesAndUnloadedIndex() {
+        CapacityIndex index = index("");
+
+        index.onEntityChanged(new EntityChangedEvent(Reservation.class, Set.of(1L)));
+        index.onEntityChanged(new EntityChangedEvent(BlockedPeriod.class));
+
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void onEntityChanged_shouldReloadOnNextUseAfterAFailedUpdate() {
+        when(reservationRepository.findCapacityRows(any(), any())).thenReturn(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, TODAY, "18:00", "20:00", 20)));
+        CapacityIndex index = index("");
+        index.rebuild();
+        when(reservationRepository.findCapacityRowsByIdIn(any())).thenThrow(new IllegalStateException("db down"));
+
+        // Logged, not thrown: the listeners after this one still get the event
+        assertDoesNotThrow(() -> index.onEntityChanged(new EntityChangedEvent(Reservation.class, Set.of(1L))));
+
+        assertEquals(20, peakGuests(index, BarLocation.HUBBLE, SeatingArea.INSIDE, "18:00", "20:00"));
+        verify(reservationRepository, times(2)).findCapacityRows(any(), any());
+    }
+
+    @Test
+    void parseLimits_shouldRejectMalformedLimits() {
+        assertTrue(CapacityIndex.parseLimits(" , ").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> CapacityIndex.parseLimits("HUBBLE=80"));
+        assertThrows(IllegalArgumentException.class, () -> CapacityIndex.parseLimits("HUBBLE.INSIDE"));
+        assertThrows(IllegalArgumentException.class, () -> CapacityIndex.parseLimits("HUBBLE.ROOF=80"));
+        assertThrows(IllegalArgumentException.class, () -> CapacityIndex.parseLimits("HUBBLE.INSIDE=-1"));
+    }
+
+    private static int peakGuests(CapacityIndex index, BarLocation location, SeatingArea area, String from, String to) {
+        return index.peakGuests(location, area, TODAY, LocalTime.parse(from), LocalTime.parse(to));
+    }
+
+    private static int slot(String time) {
+        LocalTime t = LocalTime.parse(time);
+        return (t.getHour() * 60 + t.getMinute()) / CapacityIndex.SLOT_MINUTES;
+    }
+
+    private static String time(int slot) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) slot * CapacityIndex.SLOT_MINUTES).toString();
+    }
+
+    private static CapacityRow row(Long id, BarLocation location, SeatingArea area, LocalDate date,
+                                   String start, String end, int guests) {
+        return CapacityRows.row(id, ReservationStatus.CONFIRMED, location, area, date, start, end, guests);
+    }
+}
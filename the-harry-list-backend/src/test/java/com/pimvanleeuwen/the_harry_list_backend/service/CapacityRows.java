@@ -0,0 +1,37 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository.CapacityRow;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/** {@link CapacityRow}s for tests of the services that read them. */
+final class CapacityRows {
+
+    private CapacityRows() {
+    }
+
+    /** A reservation row; times are {@code HH:mm}, or null when missing. */
+    static CapacityRow row(Long id, ReservationStatus status, BarLocation location, SeatingArea area,
+                           LocalDate date, String start, String end, Integer guests) {
+        return new Row(id, status, location, area, date, start != null ? LocalTime.parse(start) : null,
+                end != null ? LocalTime.parse(end) : null, guests);
+    }
+
+    private record Row(Long id, ReservationStatus status, BarLocation location, SeatingArea seatingArea,
+                       LocalDate eventDate, LocalTime startTime, LocalTime endTime, Integer expectedGuests)
+            implements CapacityRow {
+
+        @Override public Long getId() { return id; }
+        @Override public ReservationStatus getStatus() { return status; }
+        @Override public BarLocation getLocation() { return location; }
+        @Override public SeatingArea getSeatingArea() { return seatingArea; }
+        @Override public LocalDate getEventDate() { return eventDate; }
+        @Override public LocalTime getStartTime() { return startTime; }
+        @Override public LocalTime getEndTime() { return endTime; }
+        @Override public Integer getExpectedGuests() { return expectedGuests; }
+    }
+}
@@ -1,7 +1,7 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
 import com.pimvanleeuwen.the_harry_list_backend.model.*;
-import com.pimvanleeuwen.the_harry_list_backend.repository.BlockedPeriodRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.FormConstraintRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +15,8 @@ import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,13 +26,13 @@ class ConstraintValidationServiceTest {
     private FormConstraintRepository constraintRepository;
 
     @Mock
-    private BlockedPeriodRepository blockedPeriodRepository;
+    private BlockedPeriodIndex blockedPeriodIndex;
 
     private ConstraintValidationService service;
 
     @BeforeEach
     void setUp() {
-        service = new ConstraintValidationService(constraintRepository, blockedPeriodRepository);
+        service = new ConstraintValidationService(constraintRepository, blockedPeriodIndex);
     }
 
     @Test
@@ -271,7 +273,7 @@ class ConstraintValidationServiceTest {
                 .build();
 
         when(constraintRepository.findByEnabledTrue()).thenReturn(List.of());
-        when(blockedPeriodRepository.findBlockingPeriods(eventDate, BarLocation.HUBBLE))
+        when(blockedPeriodIndex.findBlocking(eventDate, BarLocation.HUBBLE))
                 .thenReturn(List.of(blocked));
 
         List<String> violations = service.validate(
@@ -300,7 +302,7 @@ class ConstraintValidationServiceTest {
                 .build();
 
         when(constraintRepository.findByEnabledTrue()).thenReturn(List.of());
-        when(blockedPeriodRepository.findBlockingPeriods(eventDate, BarLocation.HUBBLE))
+        when(blockedPeriodIndex.findBlocking(eventDate, BarLocation.HUBBLE))
                 .thenReturn(List.of(softBlocked));
 
         List<String> violations = service.validate(
@@ -330,7 +332,7 @@ class ConstraintValidationServiceTest {
                 .build();
 
         when(constraintRepository.findByEnabledTrue()).thenReturn(List.of());
-        when(blockedPeriodRepository.findBlockingPeriods(eventDate, BarLocation.HUBBLE))
+        when(blockedPeriodIndex.findBlocking(eventDate, BarLocation.HUBBLE))
                 .thenReturn(List.of(softBlocked, hardBlocked));
 
         List<String> violations = service.validate(
@@ -442,4 +444,111 @@ class ConstraintValidationServiceTest {
 
         assertTrue(violations.isEmpty());
     }
+
+    @Test
+    void validate_shouldLoadConstraintsOnceAndReuseSnapshot() {
+        when(constraintRepository.findByEnabledTrue()).thenReturn(List.of(guestLimit(15)));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, validateAlaCarte(20).size());
+        }
+
+        verify(constraintRepository, times(1)).findByEnabledTrue();
+    }
+
+    @Test
+    void onEntityChanged_shouldRebuildSnapshotForConstraintChanges() {
+        when(constraintRepository.findByEnabledTrue())
+                .thenReturn(List.of(guestLimit(15)))
+                .thenReturn(List.of(guestLimit(30)));
+        assertEquals(1, validateAlaCarte(20).size());
+
+        service.onEntityChanged(new EntityChangedEvent(Reservation.class));
+        assertEquals(1, validateAlaCarte(20).size(), "unrelated changes keep the snapshot");
+
+        service.onEntityChanged(new EntityChangedEvent(FormConstraint.class));
+        assertTrue(validateAlaCarte(20).isEmpty());
+        verify(constraintRepository, times(2)).findByEnabledTrue();
+    }
+
+    @Test
+    void validate_shouldReportViolationsInConstraintOrderAndIgnoreUnknownTriggers() {
+        FormConstraint unknown = FormConstraint.builder()
+                .constraintType(FormConstraintType.GUEST_LIMIT)
+                .triggerActivity("NO_SUCH_ACTIVITY")
+                .numericValue(1)
+                .message("never")
+                .build();
+        FormConstraint minimum = FormConstraint.builder()
+                .constraintType(FormConstraintType.GUEST_MINIMUM)
+                .targetValue("HUBBLE")
+                .numericValue(100)
+                .message("minimum")
+                .build();
+        when(constraintRepository.findByEnabledTrue()).thenReturn(List.of(guestLimit(15), unknown, minimum));
+
+        assertEquals(List.of("Too many guests", "minimum"), validateAlaCarte(20));
+    }
+
+    private List<String> validateAlaCarte(int guests) {
+        return service.validate(
+                Set.of(SpecialActivity.EAT_A_LA_CARTE),
+                BarLocation.HUBBLE,
+                SeatingArea.INSIDE,
+                LocalDate.now().plusDays(30),
+                LocalTime.of(18, 0),
+                guests);
+    }
+
+    private static FormConstraint guestLimit(int max) {
+        return FormConstraint.builder()
+                .constraintType(FormConstraintType.GUEST_LIMIT)
+                .triggerActivity("EAT_A_LA_CARTE")
+                .numericValue(max)
+                .message("Too many guests")
+                .enabled(true)
+                .build();
+    }
+
+    @Test
+    void bookingWindow_shouldNarrowToAdvanceBookingAndLocks() {
+        FormConstraint advance = FormConstraint.builder()
+                .constraintType(FormConstraintType.ADVANCE_BOOKING)
+                .triggerActivity("EAT_CATERING")
+                .numericValue(14)
+                .message("Catering needs two weeks")
+                .enabled(true)
+                .build();
+        FormConstraint shorterAdvance = FormConstraint.builder()
+                .constraintType(FormConstraintType.ADVANCE_BOOKING)
+                .triggerActivity("GRADUATION")
+                .numericValue(7)
+                .message("Graduations need a week")
+                .enabled(true)
+                .build();
+        FormConstraint lock = FormConstraint.builder()
+                .constraintType(FormConstraintType.LOCATION_LOCK)
+                .triggerActivity("EAT_CATERING")
+                .targetValue("METEOR")
+                .message("Catering only at Meteor")
+                .enabled(true)
+                .build();
+        when(constraintRepository.findByEnabledTrue()).thenReturn(List.of(advance, shorterAdvance, lock));
+
+        ConstraintValidationService.BookingWindow window =
+                service.bookingWindow(Set.of(SpecialActivity.EAT_CATERING, SpecialActivity.GRADUATION));
+
+        assertEquals(LocalDate.now().plusDays(14), window.earliestDate());
+        assertEquals(Set.of(BarLocation.METEOR), window.locations());
+        assertEquals(Set.of(SeatingArea.values()), window.seatingAreas());
+    }
+
+    @Test
+    void bookingWindow_shouldLeaveEverythingOpenWithoutActivities() {
+        ConstraintValidationService.BookingWindow window = service.bookingWindow(Set.of());
+
+        assertEquals(LocalDate.now(), window.earliestDate());
+        assertEquals(Set.of(BarLocation.HUBBLE, BarLocation.METEOR), window.locations());
+        assertEquals(Set.of(SeatingArea.values()), window.seatingAreas());
+    }
 }
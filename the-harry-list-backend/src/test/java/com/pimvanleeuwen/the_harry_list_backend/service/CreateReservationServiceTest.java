@@ -4,6 +4,7 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import com.pimvanleeuwen.the_harry_list_backend.dto.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.dto.SlotSuggestion;
 import com.pimvanleeuwen.the_harry_list_backend.model.*;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -45,6 +46,15 @@ class CreateReservationServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private CapacityIndex capacityIndex;
+
+    @Mock
+    private SlotSuggestionService slotSuggestionService;
+
     @InjectMocks
     private CreateReservationService createReservationService;
 
@@ -60,6 +70,7 @@ class CreateReservationServiceTest {
     void setUp() {
         sampleDto = createSampleDto();
         sampleEntity = createSampleEntity();
+        lenient().when(capacityIndex.canFit(any(), any(), any(), any(), any(), anyInt())).thenReturn(true);
 
         analyticsLogger = (Logger) LoggerFactory.getLogger("analytics");
         serviceLogger = (Logger) LoggerFactory.getLogger(CreateReservationService.class);
@@ -99,6 +110,32 @@ class CreateReservationServiceTest {
         verify(auditService).recordCreate(eq(AuditEntityType.RESERVATION), eq(1L), any(), any(), any());
     }
 
+    @Test
+    void execute_shouldQueueSubmittedEmails() {
+        when(constraintValidationService.validate(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+        when(reservationMapper.toEntity(any(Reservation.class))).thenReturn(sampleEntity);
+        when(reservationRepository.save(any())).thenReturn(sampleEntity);
+        when(reservationMapper.toDto(any())).thenReturn(sampleDto);
+
+        createReservationService.execute(sampleDto);
+
+        verify(emailOutboxService).enqueueReservationSubmitted(sampleEntity);
+    }
+
+    @Test
+    void executeWithEmail_shouldNotQueueEmailsWhenDisabled() {
+        when(constraintValidationService.validate(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+        when(reservationMapper.toEntity(any(Reservation.class))).thenReturn(sampleEntity);
+        when(reservationRepository.save(any())).thenReturn(sampleEntity);
+        when(reservationMapper.toDto(any())).thenReturn(sampleDto);
+
+        createReservationService.executeWithEmail(sampleDto, false);
+
+        verifyNoInteractions(emailOutboxService);
+    }
+
     @Test
     void execute_shouldEmitExactlyOnePrivacySafeAnalyticsLine() {
         // Given
@@ -212,6 +249,39 @@ class CreateReservationServiceTest {
         verify(reservationRepository, never()).save(any());
     }
 
+    @Test
+    void execute_shouldOfferSuggestionsWhenConstraintViolation() {
+        SlotSuggestion later = new SlotSuggestion(LocalDate.of(2026, 3, 16), LocalTime.of(16, 0),
+                LocalTime.of(22, 0), BarLocation.HUBBLE, SeatingArea.INSIDE);
+        when(constraintValidationService.validate(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of("This date is not available for reservations"));
+        when(slotSuggestionService.suggest(Set.of(SpecialActivity.GRADUATION), BarLocation.HUBBLE,
+                SeatingArea.INSIDE, LocalDate.of(2026, 3, 15), LocalTime.of(16, 0), LocalTime.of(22, 0), 50, 3))
+                .thenReturn(List.of(later));
+
+        ReservationRejectedException e = assertThrows(ReservationRejectedException.class,
+                () -> createReservationService.execute(sampleDto));
+
+        assertEquals("This date is not available for reservations", e.getMessage());
+        assertEquals(List.of(later), e.getSuggestions());
+    }
+
+    @Test
+    void execute_shouldRejectWhenThereIsNoRoom() {
+        when(constraintValidationService.validate(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+        when(capacityIndex.canFit(BarLocation.HUBBLE, SeatingArea.INSIDE, LocalDate.of(2026, 3, 15),
+                LocalTime.of(16, 0), LocalTime.of(22, 0), 50)).thenReturn(false);
+
+        ReservationRejectedException e = assertThrows(ReservationRejectedException.class,
+                () -> createReservationService.execute(sampleDto));
+
+        assertTrue(e.getMessage().contains("not enough room"));
+        verify(slotSuggestionService).suggest(any(), eq(BarLocation.HUBBLE), eq(SeatingArea.INSIDE), any(), any(),
+                any(), eq(50), eq(3));
+        verify(reservationRepository, never()).save(any());
+    }
+
     private Reservation createSampleDto() {
         return Reservation.builder()
                 .contactName("John Doe")
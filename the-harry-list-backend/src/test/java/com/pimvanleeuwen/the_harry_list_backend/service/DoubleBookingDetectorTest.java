@@ -0,0 +1,213 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
+import com.pimvanleeuwen.the_harry_list_backend.dto.BookingConflict;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository.CapacityRow;
+import com.pimvanleeuwen.the_harry_list_backend.service.AppointmentOccurrenceIndex.Occurrence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoubleBookingDetectorTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private AppointmentOccurrenceIndex appointmentOccurrenceIndex;
+
+    @InjectMocks
+    private DoubleBookingDetector detector;
+
+    private void stub(List<CapacityRow> rows, List<Occurrence> occurrences) {
+        when(reservationRepository.findCapacityRowsBetween(eq(DoubleBookingDetector.ACTIVE_STATUSES), any(), any()))
+                .thenReturn(rows);
+        when(appointmentOccurrenceIndex.between(any(), any(), eq(null))).thenReturn(occurrences);
+    }
+
+    @Test
+    void findConflicts_shouldReportOverlapsInTheSamePlace() {
+        stub(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "18:00", "21:00"),
+                row(2L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "20:00", "23:00"),
+                // Touching, another seating area and another location do not conflict
+                row(3L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "23:00", "23:30"),
+                row(4L, BarLocation.HUBBLE, SeatingArea.OUTSIDE, DAY, "18:00", "23:00"),
+                row(5L, BarLocation.METEOR, SeatingArea.INSIDE, DAY, "18:00", "23:00"),
+                row(6L, BarLocation.NO_PREFERENCE, SeatingArea.INSIDE, DAY, "18:00", "23:00")), List.of());
+
+        List<BookingConflict> conflicts = detector.findConflicts(DAY, DAY);
+
+        assertEquals(List.of(new BookingConflict(1L, 2L, null, BarLocation.HUBBLE, SeatingArea.INSIDE,
+                DAY.atTime(20, 0), DAY.atTime(21, 0))), conflicts);
+        verify(reservationRepository).findCapacityRowsBetween(DoubleBookingDetector.ACTIVE_STATUSES, DAY.minusDays(1), DAY);
+    }
+
+    @Test
+    void findConflicts_shouldFollowOvernightReservationsIntoTheRange() {
+        stub(List.of(
+                row(1L, BarLocation.METEOR, SeatingArea.OUTSIDE, DAY.minusDays(1), "22:00", "02:00"),
+                row(2L, BarLocation.METEOR, SeatingArea.OUTSIDE, DAY, "01:00", "03:00")), List.of());
+
+        List<BookingConflict> conflicts = detector.findConflicts(DAY, DAY.plusDays(1));
+
+        assertEquals(List.of(new BookingConflict(1L, 2L, null, BarLocation.METEOR, SeatingArea.OUTSIDE,
+                DAY.atTime(1, 0), DAY.atTime(2, 0))), conflicts);
+    }
+
+    @Test
+    void findConflicts_shouldLeaveOutOverlapsBeforeTheRange() {
+        stub(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY.minusDays(1), "18:00", "21:00"),
+                row(2L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY.minusDays(1), "19:00", "20:00")), List.of());
+
+        assertEquals(List.of(), detector.findConflicts(DAY, DAY));
+    }
+
+    @Test
+    void findConflicts_shouldCheckAppointmentOccurrencesAgainstTheWholeLocation() {
+        CalendarAppointment quiz = appointment(10L, BarLocation.HUBBLE, false, "19:00", "22:00");
+        CalendarAppointment closed = appointment(11L, BarLocation.METEOR, true, null, null);
+        CalendarAppointment reminder = appointment(12L, BarLocation.HUBBLE, false, "18:00", null);
+        stub(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "18:00", "20:00"),
+                row(2L, BarLocation.HUBBLE, SeatingArea.OUTSIDE, DAY.plusDays(7), "21:00", "23:00"),
+                row(3L, BarLocation.METEOR, SeatingArea.OUTSIDE, DAY, "12:00", "13:00")),
+                List.of(new Occurrence(DAY, quiz), new Occurrence(DAY, closed), new Occurrence(DAY, reminder),
+                        new Occurrence(DAY.plusDays(7), quiz)));
+
+        List<BookingConflict> conflicts = detector.findConflicts(DAY, DAY.plusDays(7));
+
+        assertEquals(List.of(
+                new BookingConflict(3L, null, 11L, BarLocation.METEOR, SeatingArea.OUTSIDE,
+                        DAY.atTime(12, 0), DAY.atTime(13, 0)),
+                new BookingConflict(1L, null, 10L, BarLocation.HUBBLE, SeatingArea.INSIDE,
+                        DAY.atTime(19, 0), DAY.atTime(20, 0)),
+                new BookingConflict(2L, null, 10L, BarLocation.HUBBLE, SeatingArea.OUTSIDE,
+                        DAY.plusDays(7).atTime(21, 0), DAY.plusDays(7).atTime(22, 0))), conflicts);
+    }
+
+    @Test
+    void findConflicts_shouldRejectReversedOrTooLongRange() {
+        assertThrows(IllegalArgumentException.class, () -> detector.findConflicts(DAY, DAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> detector.findConflicts(DAY, DAY.plusDays(DoubleBookingDetector.MAX_RANGE_DAYS + 1)));
+        verifyNoInteractions(reservationRepository, appointmentOccurrenceIndex);
+    }
+
+    @Test
+    void sweep_shouldMatchPairwiseComparison() {
+        Random random = new Random(11);
+        List<DoubleBookingDetector.Booking> bookings = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            BarLocation location = random.nextBoolean() ? BarLocation.HUBBLE : BarLocation.METEOR;
+            boolean appointment = random.nextInt(5) == 0;
+            LocalDateTime start = DAY.atStartOfDay().plusMinutes(15L * random.nextInt(30 * 96));
+            LocalDateTime end = start.plusMinutes(15L * (1 + random.nextInt(24)));
+            bookings.add(new DoubleBookingDetector.Booking(id, appointment, location,
+                    appointment ? null : SeatingArea.values()[random.nextInt(SeatingArea.values().length)], start, end));
+        }
+        LocalDateTime from = DAY.plusDays(5).atStartOfDay();
+        LocalDateTime to = DAY.plusDays(25).atStartOfDay();
+
+        int expected = 0;
+        for (int i = 0; i < bookings.size(); i++) {
+            for (int j = i + 1; j < bookings.size(); j++) {
+                DoubleBookingDetector.Booking a = bookings.get(i);
+                DoubleBookingDetector.Booking b = bookings.get(j);
+                boolean samePlace = a.location() == b.location() && (a.appointment() != b.appointment()
+                        || !a.appointment() && a.seatingArea() == b.seatingArea());
+                LocalDateTime start = a.start().isAfter(b.start()) ? a.start() : b.start();
+                LocalDateTime end = a.end().isBefore(b.end()) ? a.end() : b.end();
+                if (samePlace && start.isBefore(end) && end.isAfter(from) && start.isBefore(to)) {
+                    expected++;
+                }
+            }
+        }
+
+        List<BookingConflict> conflicts = DoubleBookingDetector.sweep(bookings, from, to);
+
+        assertTrue(expected > 0);
+        assertEquals(expected, conflicts.size());
+        assertTrue(conflicts.stream().allMatch(c -> c.overlapStart().isBefore(c.overlapEnd())));
+    }
+
+    @Test
+    void conflictingReservations_shouldFlagBothSidesAndRescanAfterChanges() {
+        stub(List.of(
+                row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "18:00", "21:00"),
+                row(2L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "20:00", "23:00"),
+                row(3L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "20:30", "21:30")), List.of());
+
+        assertEquals(Set.of(2L, 3L), detector.conflictingReservations(1L));
+        assertEquals(Set.of(1L, 2L), detector.conflictingReservations(3L));
+        assertEquals(Set.of(), detector.conflictingAppointments(1L));
+        assertEquals(Set.of(), detector.conflictingReservations(99L));
+        verify(reservationRepository, times(1)).findCapacityRowsBetween(any(), any(), any());
+
+        detector.onEntityChanged(new EntityChangedEvent(Reservation.class));
+        detector.conflictingReservations(1L);
+        verify(reservationRepository, times(2)).findCapacityRowsBetween(any(), any(), any());
+
+        detector.onEntityChanged(new EntityChangedEvent(com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod.class));
+        detector.conflictingReservations(1L);
+        verify(reservationRepository, times(2)).findCapacityRowsBetween(any(), any(), any());
+    }
+
+    @Test
+    void rescan_shouldReplaceTheFlags() {
+        when(appointmentOccurrenceIndex.between(any(), any(), eq(null))).thenReturn(List.of());
+        when(reservationRepository.findCapacityRowsBetween(any(), any(), any())).thenReturn(
+                List.of(row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "18:00", "21:00"),
+                        row(2L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "20:00", "23:00")),
+                List.of(row(1L, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, "18:00", "21:00")));
+
+        detector.rescan();
+        assertEquals(Set.of(2L), detector.conflictingReservations(1L));
+
+        detector.rescan();
+        assertEquals(Set.of(), detector.conflictingReservations(1L));
+    }
+
+    private static CalendarAppointment appointment(Long id, BarLocation location, boolean allDay, String start,
+                                                   String end) {
+        return CalendarAppointment.builder()
+                .id(id)
+                .title("Appointment " + id)
+                .date(DAY)
+                .location(location)
+                .allDay(allDay)
+                .startTime(start != null ? LocalTime.parse(start) : null)
+                .endTime(end != null ? LocalTime.parse(end) : null)
+                .build();
+    }
+
+    private static CapacityRow row(Long id, BarLocation location, SeatingArea area, LocalDate date, String start,
+                                   String end) {
+        return CapacityRows.row(id, ReservationStatus.CONFIRMED, location, area, date, start, end, 10);
+    }
+}
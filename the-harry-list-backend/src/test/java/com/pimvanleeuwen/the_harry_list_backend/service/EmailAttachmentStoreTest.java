@@ -0,0 +1,200 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailAttachment;
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailAttachmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailAttachmentStoreTest {
+
+    private static final byte[] PDF = {1, 2, 3};
+    private static final String PDF_SHA256 = "039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81";
+
+    @Mock
+    private EmailAttachmentRepository attachmentRepository;
+
+    @Mock
+    private AttachmentContentStorage storage;
+
+    @Mock
+    private AttachmentContentStorage.Staged staged;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailAttachmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new EmailAttachmentStore(attachmentRepository, storage, transactionManager, 1024);
+    }
+
+    @Test
+    void store_shouldStreamContentToStorageAndRecordItsHash() throws Exception {
+        InputStream content = stagePdf();
+        when(attachmentRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        EmailAttachment saved = store.store("Menu", "menu.pdf", "application/pdf", content);
+
+        assertEquals(PDF_SHA256, saved.getSha256());
+        assertEquals(3L, saved.getSizeBytes());
+        assertEquals("menu.pdf", saved.getFilename());
+        assertTrue(saved.isActive());
+        verify(storage).commit(staged);
+        verify(staged).close();
+    }
+
+    @Test
+    void store_shouldRemoveContentAgainWhenTheTransactionRollsBack() throws Exception {
+        InputStream content = stagePdf();
+        when(attachmentRepository.existsBySha256(PDF_SHA256)).thenReturn(false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.store("Menu", "menu.pdf", "application/pdf", content);
+            verify(storage, never()).delete(any());
+
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(storage).delete(PDF_SHA256);
+    }
+
+    @Test
+    void delete_shouldWaitForAnUploadOfTheSameContentToFinish() throws Exception {
+        InputStream content = stagePdf();
+        AtomicBoolean uploadCommitted = new AtomicBoolean();
+        when(attachmentRepository.existsBySha256(PDF_SHA256)).thenAnswer(inv -> uploadCommitted.get());
+
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Void> deletion;
+        try {
+            // The upload found the content already stored, and its transaction is still open
+            store.store("Menu", "menu.pdf", "application/pdf", content);
+
+            // Meanwhile the last other attachment with that content is deleted
+            deletion = CompletableFuture.runAsync(() -> store.delete(attachment(1L)));
+            assertThrows(TimeoutException.class, () -> deletion.get(200, TimeUnit.MILLISECONDS));
+            verify(attachmentRepository, never()).existsBySha256(any());
+
+            uploadCommitted.set(true);
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        deletion.get(5, TimeUnit.SECONDS);
+        verify(storage, never()).delete(any());
+    }
+
+    @Test
+    void delete_shouldKeepContentStillUsedByAnotherAttachment() {
+        EmailAttachment attachment = attachment(1L);
+        when(attachmentRepository.existsBySha256(PDF_SHA256)).thenReturn(true);
+
+        store.delete(attachment);
+
+        verify(attachmentRepository).delete(attachment);
+        verify(storage, never()).delete(any());
+    }
+
+    @Test
+    void delete_shouldRemoveContentOfLastUser() {
+        EmailAttachment attachment = attachment(1L);
+        when(attachmentRepository.existsBySha256(PDF_SHA256)).thenReturn(false);
+
+        store.delete(attachment);
+
+        verify(storage).delete(PDF_SHA256);
+    }
+
+    @Test
+    void loadEncoded_shouldReadAndEncodeEachContentOnce() {
+        when(attachmentRepository.findAllById(any())).thenReturn(List.of(attachment(1L), attachment(2L)));
+        when(storage.get(PDF_SHA256)).thenReturn(Optional.of(new ByteArrayResource(PDF)));
+
+        List<EncodedAttachment> first = store.loadEncoded(List.of(1L, 2L));
+        List<EncodedAttachment> second = store.loadEncoded(List.of(1L, 2L));
+
+        assertEquals(List.of(new EncodedAttachment("menu.pdf", "application/pdf", PDF_SHA256, "AQID"),
+                new EncodedAttachment("menu.pdf", "application/pdf", PDF_SHA256, "AQID")), first);
+        assertEquals(first, second);
+        verify(storage, times(1)).get(PDF_SHA256);
+    }
+
+    @Test
+    void loadEncoded_shouldFailWhenContentIsMissing() {
+        when(attachmentRepository.findAllById(any())).thenReturn(List.of(attachment(1L)));
+        when(storage.get(PDF_SHA256)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> store.loadEncoded(List.of(1L)));
+    }
+
+    @Test
+    void encodedCache_shouldEvictLeastRecentlyUsedBeyondMaxBytes() {
+        EmailAttachmentStore.EncodedCache cache = new EmailAttachmentStore.EncodedCache(10);
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        assertEquals("aaaa", cache.get("a"));
+        cache.put("c", "cccc");
+
+        assertNull(cache.get("b"));
+        assertEquals("aaaa", cache.get("a"));
+        assertEquals("cccc", cache.get("c"));
+        assertEquals(8, cache.bytes());
+
+        cache.put("huge", "x".repeat(11));
+        assertNull(cache.get("huge"));
+        cache.remove("a");
+        assertEquals(4, cache.bytes());
+    }
+
+    private InputStream stagePdf() throws Exception {
+        InputStream content = new ByteArrayInputStream(PDF);
+        when(storage.stage(content)).thenReturn(staged);
+        when(staged.sha256()).thenReturn(PDF_SHA256);
+        lenient().when(staged.sizeBytes()).thenReturn(3L);
+        return content;
+    }
+
+    /** Ends the transaction bound to this thread, as the transaction manager would. */
+    private static void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static EmailAttachment attachment(Long id) {
+        return EmailAttachment.builder()
+                .id(id)
+                .name("Menu")
+                .filename("menu.pdf")
+                .contentType("application/pdf")
+                .sha256(PDF_SHA256)
+                .sizeBytes(3L)
+                .build();
+    }
+}
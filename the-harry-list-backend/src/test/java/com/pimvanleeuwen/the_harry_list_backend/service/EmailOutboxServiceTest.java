@@ -0,0 +1,153 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailOutbox;
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailOutboxStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxServiceTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private EmailNotificationService emailService;
+
+    @Mock
+    private EmailOutboxWorker emailOutboxWorker;
+
+    private EmailOutboxService service;
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        service = new EmailOutboxService(emailOutboxRepository, Optional.of(emailService), emailOutboxWorker);
+        reservation = new Reservation();
+        reservation.setId(42L);
+        reservation.setEmail("guest@example.com");
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void enqueueReservationSubmitted_shouldQueueGuestAndStaffEmails() {
+        when(emailService.renderReservationSubmittedEmail(reservation))
+                .thenReturn(new OutgoingEmail("guest@example.com", "Received", "<p>guest</p>"));
+        when(emailService.renderStaffNotificationEmail(reservation))
+                .thenReturn(new OutgoingEmail("staff@example.com", "New", "<p>staff</p>"));
+
+        service.enqueueReservationSubmitted(reservation);
+
+        ArgumentCaptor<EmailOutbox> rows = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(emailOutboxRepository, times(2)).save(rows.capture());
+        EmailOutbox guest = rows.getAllValues().get(0);
+        assertEquals("reservation/42/submitted", guest.getIdempotencyKey());
+        assertEquals("guest@example.com", guest.getRecipient());
+        assertEquals("Received", guest.getSubject());
+        assertEquals("<p>guest</p>", guest.getHtmlBody());
+        assertEquals(EmailOutboxStatus.PENDING, guest.getStatus());
+        assertEquals("reservation/42/staff-notification", rows.getAllValues().get(1).getIdempotencyKey());
+        assertEquals("staff@example.com", rows.getAllValues().get(1).getRecipient());
+        verifyNoMoreInteractions(emailService);
+    }
+
+    @Test
+    void enqueueReservationSubmitted_shouldNotQueueTheSameEmailTwice() {
+        when(emailService.renderReservationSubmittedEmail(reservation))
+                .thenReturn(new OutgoingEmail("guest@example.com", "Received", "<p>guest</p>"));
+        when(emailService.renderStaffNotificationEmail(reservation))
+                .thenReturn(new OutgoingEmail("staff@example.com", "New", "<p>staff</p>"));
+        when(emailOutboxRepository.existsByIdempotencyKey(any())).thenReturn(true);
+
+        service.enqueueReservationSubmitted(reservation);
+
+        verify(emailOutboxRepository, never()).save(any());
+        verifyNoInteractions(emailOutboxWorker);
+    }
+
+    @Test
+    void enqueueStatusChange_shouldKeyTheChangeOnTheVersionItWasMadeTo() {
+        when(emailService.renderStatusChangeEmail(reservation, "See you!"))
+                .thenReturn(new OutgoingEmail("guest@example.com", "Confirmed", "<p>ok</p>"));
+
+        service.enqueueStatusChange(reservation, LocalDateTime.of(2026, 3, 1, 10, 15), "See you!");
+        service.enqueueStatusChange(reservation, null, "See you!");
+
+        ArgumentCaptor<EmailOutbox> rows = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(emailOutboxRepository, times(2)).save(rows.capture());
+        assertEquals("reservation/42/status/CONFIRMED/2026-03-01T10:15", rows.getAllValues().get(0).getIdempotencyKey());
+        assertEquals("reservation/42/status/CONFIRMED/new", rows.getAllValues().get(1).getIdempotencyKey());
+    }
+
+    @Test
+    void enqueueStatusChange_shouldQueueARepeatedChangeOnce() {
+        LocalDateTime previousUpdate = LocalDateTime.of(2026, 3, 1, 10, 15);
+        when(emailService.renderStatusChangeEmail(reservation, null))
+                .thenReturn(new OutgoingEmail("guest@example.com", "Confirmed", "<p>ok</p>"));
+        when(emailOutboxRepository.existsByIdempotencyKey("reservation/42/status/CONFIRMED/2026-03-01T10:15"))
+                .thenReturn(false, true);
+
+        service.enqueueStatusChange(reservation, previousUpdate, null);
+        service.enqueueStatusChange(reservation, previousUpdate, null);
+
+        verify(emailOutboxRepository, times(1)).save(any());
+    }
+
+    @Test
+    void enqueue_shouldSkipEmailsThatFailToRender() {
+        when(emailService.renderStatusChangeEmail(reservation, null)).thenThrow(new IllegalStateException("bad template"));
+
+        assertDoesNotThrow(() -> service.enqueueStatusChange(reservation, null, null));
+
+        verify(emailOutboxRepository, never()).save(any());
+    }
+
+    @Test
+    void enqueue_shouldWakeTheWorkerOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.enqueue("test/1", new OutgoingEmail("guest@example.com", "S", "B"));
+
+        verify(emailOutboxRepository).save(any());
+        verifyNoInteractions(emailOutboxWorker);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.getFirst().afterCommit();
+        verify(emailOutboxWorker).wakeUp();
+    }
+
+    @Test
+    void enqueue_shouldQueueNothingWithoutMailService() {
+        service = new EmailOutboxService(emailOutboxRepository, Optional.empty(), emailOutboxWorker);
+
+        service.enqueueReservationSubmitted(reservation);
+        service.enqueueStatusChange(reservation, null, null);
+
+        verifyNoInteractions(emailOutboxRepository, emailOutboxWorker);
+    }
+}
@@ -0,0 +1,230 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailOutbox;
+import com.pimvanleeuwen.the_harry_list_backend.model.EmailOutboxStatus;
+import com.pimvanleeuwen.the_harry_list_backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxWorkerTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private EmailNotificationService emailService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmailOutboxWorker worker;
+
+    @AfterEach
+    void tearDown() {
+        if (worker != null) {
+            worker.stop();
+        }
+    }
+
+    @Test
+    void deliverDue_shouldSendAndMarkSent() {
+        worker = worker(Optional.of(emailService));
+        EmailOutbox email = email(1L, "guest@example.com");
+        when(emailOutboxRepository.findDue(any(), any())).thenReturn(List.of(email));
+        when(emailOutboxRepository.claim(eq(1L), any(), any())).thenReturn(1);
+        when(emailService.sendRawEmails(any())).thenAnswer(inv -> allSent(inv.getArgument(0)));
+
+        assertEquals(1, worker.deliverDue());
+
+        verify(emailService).sendRawEmails(List.of(new OutgoingEmail("guest@example.com", "Subject 1", "<p>1</p>")));
+        verify(emailOutboxRepository).save(email);
+        assertEquals(EmailOutboxStatus.SENT, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getSentAt());
+        assertEquals(1.0, meterRegistry.get("email.outbox.sent").counter().count());
+    }
+
+    @Test
+    void deliverDue_shouldScheduleRetryWithBackoffWhenSendFails() {
+        worker = worker(Optional.of(emailService));
+        EmailOutbox email = email(1L, "guest@example.com");
+        when(emailOutboxRepository.findDue(any(), any())).thenReturn(List.of(email));
+        when(emailOutboxRepository.claim(eq(1L), any(), any())).thenReturn(1);
+        when(emailService.sendRawEmails(any())).thenAnswer(inv -> List.of(
+                EmailSendResult.failed(inv.<List<OutgoingEmail>>getArgument(0).getFirst(), 500, "HTTP 500: boom", null)));
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.deliverDue();
+
+        verify(emailOutboxRepository).save(email);
+        assertEquals(EmailOutboxStatus.PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertEquals("HTTP 500: boom", email.getLastError());
+        assertFalse(email.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+        assertTrue(email.getNextAttemptAt().isBefore(before.plusSeconds(40)));
+        assertEquals(1.0, meterRegistry.get("email.outbox.retried").counter().count());
+    }
+
+    @Test
+    void deliverDue_shouldWaitAtLeastAsLongAsAThrottledSendAsks() {
+        worker = worker(Optional.of(emailService));
+        EmailOutbox email = email(1L, "guest@example.com");
+        when(emailOutboxRepository.findDue(any(), any())).thenReturn(List.of(email));
+        when(emailOutboxRepository.claim(eq(1L), any(), any())).thenReturn(1);
+        when(emailService.sendRawEmails(any())).thenAnswer(inv -> List.of(EmailSendResult.failed(
+                inv.<List<OutgoingEmail>>getArgument(0).getFirst(), 429, "Throttled", Duration.ofMinutes(10))));
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.deliverDue();
+
+        assertFalse(email.getNextAttemptAt().isBefore(before.plusMinutes(10)));
+    }
+
+    @Test
+    void deliverDue_shouldGiveUpAfterMaxAttempts() {
+        worker = worker(Optional.of(emailService));
+        EmailOutbox email = email(1L, "guest@example.com");
+        email.setAttempts(MAX_ATTEMPTS - 1);
+        when(emailOutboxRepository.findDue(any(), any())).thenReturn(List.of(email));
+        when(emailOutboxRepository.claim(eq(1L), any(), any())).thenReturn(1);
+        when(emailService.sendRawEmails(any())).thenAnswer(inv -> List.of(
+                EmailSendResult.failed(inv.<List<OutgoingEmail>>getArgument(0).getFirst(), -1, "down", null)));
+
+        worker.deliverDue();
+
+        assertEquals(EmailOutboxStatus.FAILED, email.getStatus());
+        assertEquals(MAX_ATTEMPTS, email.getAttempts());
+        assertEquals(1.0, meterRegistry.get("email.outbox.failed").counter().count());
+    }
+
+    @Test
+    void deliverDue_shouldSendOnlyTheOldestEmailOfEachRecipientPerRound() {
+        worker = worker(Optional.of(emailService));
+        EmailOutbox first = email(1L, "guest@example.com");
+        EmailOutbox second = email(2L, "guest@example.com");
+        EmailOutbox other = email(3L, "staff@example.com");
+        when(emailOutboxRepository.findDue(any(), any()))
+                .thenReturn(List.of(first, other, second))
+                .thenReturn(List.of(second));
+        when(emailOutboxRepository.claim(anyLong(), any(), any())).thenReturn(1);
+        List<List<String>> rounds = new ArrayList<>();
+        when(emailService.sendRawEmails(any())).thenAnswer(inv -> {
+            List<OutgoingEmail> emails = inv.getArgument(0);
+            rounds.add(emails.stream().map(OutgoingEmail::subject).toList());
+            return allSent(emails);
+        });
+
+        worker.deliverDue();
+        verify(emailOutboxRepository, never()).claim(eq(2L), any(), any());
+        worker.deliverDue();
+
+        assertEquals(List.of(List.of("Subject 1", "Subject 3"), List.of("Subject 2")), rounds);
+        assertEquals(EmailOutboxStatus.SENT, second.getStatus());
+    }
+
+    @Test
+    void deliverDue_shouldHandEmailsToTheMailServiceInChunksOfTwenty() {
+        worker = new EmailOutboxWorker(emailOutboxRepository, Optional.of(emailService), meterRegistry,
+                50, 60_000, 2, MAX_ATTEMPTS, 30_000);
+        List<EmailOutbox> due = new ArrayList<>();
+        for (long id = 1; id <= 45; id++) {
+            due.add(email(id, "guest" + id + "@example.com"));
+        }
+        when(emailOutboxRepository.findDue(any(), any())).thenReturn(due);
+        when(emailOutboxRepository.claim(anyLong(), any(), any())).thenReturn(1);
+        List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+        when(emailService.sendRawEmails(any())).thenAnswer(inv -> {
+            List<OutgoingEmail> emails = inv.getArgument(0);
+            chunkSizes.add(emails.size());
+            return allSent(emails);
+        });
+
+        worker.deliverDue();
+
+        assertEquals(List.of(5, 20, 20), chunkSizes.stream().sorted().toList());
+        assertTrue(due.stream().allMatch(e -> e.getStatus() == EmailOutboxStatus.SENT));
+    }
+
+    @Test
+    void deliverDue_shouldNotSendEmailsClaimedElsewhere() {
+        worker = worker(Optional.of(emailService));
+        EmailOutbox email = email(1L, "guest@example.com");
+        when(emailOutboxRepository.findDue(any(), any())).thenReturn(List.of(email));
+        when(emailOutboxRepository.claim(eq(1L), any(), any())).thenReturn(0);
+
+        worker.deliverDue();
+
+        verifyNoInteractions(emailService);
+        verify(emailOutboxRepository, never()).save(any());
+    }
+
+    @Test
+    void deliverDue_shouldDoNothingWithoutMailService() {
+        worker = worker(Optional.empty());
+
+        assertEquals(0, worker.deliverDue());
+
+        verifyNoInteractions(emailOutboxRepository);
+    }
+
+    @Test
+    void backoff_shouldDoubleUpToAnHour() {
+        worker = worker(Optional.of(emailService));
+
+        assertEquals(Duration.ofSeconds(30), worker.backoff(1));
+        assertEquals(Duration.ofSeconds(60), worker.backoff(2));
+        assertEquals(Duration.ofSeconds(240), worker.backoff(4));
+        assertEquals(Duration.ofHours(1), worker.backoff(9));
+        assertEquals(Duration.ofHours(1), worker.backoff(50));
+    }
+
+    @Test
+    void wakeUp_shouldStartARoundBeforeThePollInterval() {
+        worker = worker(Optional.of(emailService));
+        when(emailOutboxRepository.findDue(any(), any())).thenReturn(List.of());
+
+        worker.start();
+        verify(emailOutboxRepository, timeout(2000).times(1)).findDue(any(), any());
+        worker.wakeUp();
+
+        verify(emailOutboxRepository, timeout(2000).times(2)).findDue(any(), any());
+    }
+
+    private EmailOutboxWorker worker(Optional<EmailNotificationService> sender) {
+        // A long poll interval, so only wakeUp() can trigger a second round
+        return new EmailOutboxWorker(emailOutboxRepository, sender, meterRegistry,
+                10, 60_000, 2, MAX_ATTEMPTS, 30_000);
+    }
+
+    private static List<EmailSendResult> allSent(List<OutgoingEmail> emails) {
+        return emails.stream().map(e -> EmailSendResult.sent(e, 202)).toList();
+    }
+
+    private static EmailOutbox email(Long id, String recipient) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(id);
+        email.setIdempotencyKey("test/" + id);
+        email.setRecipient(recipient);
+        email.setSubject("Subject " + id);
+        email.setHtmlBody("<p>" + id + "</p>");
+        email.setNextAttemptAt(LocalDateTime.now());
+        return email;
+    }
+}
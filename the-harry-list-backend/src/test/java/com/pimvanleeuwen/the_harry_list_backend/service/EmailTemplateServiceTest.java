@@ -1,8 +1,10 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
+import com.pimvanleeuwen.the_harry_list_backend.config.EntityChangedEvent;
 import com.pimvanleeuwen.the_harry_list_backend.dto.EmailTemplateDto;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailTemplate;
 import com.pimvanleeuwen.the_harry_list_backend.model.EmailTemplateType;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.repository.EmailTemplateRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -139,6 +141,67 @@ class EmailTemplateServiceTest {
         assertEquals("Phone: ", body);
     }
 
+    @Test
+    void render_shouldEscapeEveryHtmlSpecialCharacterInOnePass() {
+        String rendered = service.renderForTest("[{{v}}]", Map.of("v", "a&b<c>d\"e'f&amp;"));
+
+        assertEquals("[a&amp;b&lt;c&gt;d&quot;e&#x27;f&amp;amp;]", rendered);
+    }
+
+    @Test
+    void render_shouldNotSubstituteInsideSubstitutedValues() {
+        String rendered = service.renderForTest("{{a}} {{b}}", Map.of("a", "{{b}}", "b", "B"),
+                Map.of("a", "<raw>"));
+
+        // Escaped variables win over raw ones; a value is never scanned for placeholders
+        assertEquals("{{b}} B", rendered);
+    }
+
+    @Test
+    void render_shouldHandleBracesAroundAndWithoutPlaceholders() {
+        assertEquals("{X}", service.renderForTest("{{{name}}}", Map.of("name", "X")));
+        assertEquals("{{}} {{ name }} {{name", service.renderForTest("{{}} {{ name }} {{name", Map.of("name", "X")));
+        assertEquals("", service.renderForTest(null, Map.of()));
+        assertEquals("plain", service.renderForTest("plain", Map.of("name", "X")));
+    }
+
+    @Test
+    void getRenderedBody_shouldCompileTemplateOnceUntilUpdated() {
+        EmailTemplate stored = EmailTemplate.builder()
+                .templateType(EmailTemplateType.CANCELLED)
+                .subject("Cancelled: {{eventTitle}}")
+                .bodyTemplate("Bye {{contactName}}")
+                .build();
+        when(repository.findByTemplateType(EmailTemplateType.CANCELLED)).thenReturn(Optional.of(stored));
+        when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        assertEquals("Bye Ann", service.getRenderedBody(EmailTemplateType.CANCELLED, Map.of("contactName", "Ann")));
+        assertEquals("Bye Bo", service.getRenderedBody(EmailTemplateType.CANCELLED, Map.of("contactName", "Bo")));
+        assertEquals("Cancelled: X", service.getRenderedSubject(EmailTemplateType.CANCELLED, Map.of("eventTitle", "X")));
+        verify(repository, times(1)).findByTemplateType(EmailTemplateType.CANCELLED);
+
+        service.update(EmailTemplateType.CANCELLED, "subject", "See you {{contactName}}");
+        assertEquals("See you Ann", service.getRenderedBody(EmailTemplateType.CANCELLED, Map.of("contactName", "Ann")));
+
+        service.reset(EmailTemplateType.CANCELLED);
+        when(repository.findByTemplateType(EmailTemplateType.CANCELLED)).thenReturn(Optional.empty());
+        assertTrue(service.getRenderedBody(EmailTemplateType.CANCELLED, Map.of("contactName", "Ann"))
+                .contains("Your reservation"));
+    }
+
+    @Test
+    void onEntityChanged_shouldDropCompiledTemplatesOnlyForTemplateChanges() {
+        service.getRenderedSubject(EmailTemplateType.SUBMITTED, Map.of());
+
+        service.onEntityChanged(new EntityChangedEvent(Reservation.class));
+        service.getRenderedSubject(EmailTemplateType.SUBMITTED, Map.of());
+        verify(repository, times(1)).findByTemplateType(EmailTemplateType.SUBMITTED);
+
+        service.onEntityChanged(new EntityChangedEvent(EmailTemplate.class));
+        service.getRenderedSubject(EmailTemplateType.SUBMITTED, Map.of());
+        verify(repository, times(2)).findByTemplateType(EmailTemplateType.SUBMITTED);
+    }
+
     @Test
     void statusChangedTemplate_shouldContainStatusColorVariable() {
         Map<String, String> vars = new java.util.HashMap<>();
@@ -0,0 +1,127 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.service.AttachmentContentStorage.StoredContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilesystemAttachmentContentStorageTest {
+
+    @TempDir
+    Path root;
+
+    private FilesystemAttachmentContentStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new FilesystemAttachmentContentStorage(root);
+    }
+
+    @Test
+    void put_shouldStoreContentAtItsHashAndLeaveNoTemporaryFiles() throws Exception {
+        byte[] pdf = new byte[200_000];
+        new Random(1).nextBytes(pdf);
+
+        StoredContent stored = storage.put(new ByteArrayInputStream(pdf));
+
+        assertEquals(EmailAttachmentStore.sha256Hex(pdf), stored.sha256());
+        assertEquals(pdf.length, stored.sizeBytes());
+        Path file = root.resolve(stored.sha256().substring(0, 2)).resolve(stored.sha256());
+        assertArrayEquals(pdf, Files.readAllBytes(file));
+        assertTrue(storage.exists(stored.sha256()));
+        Resource resource = storage.get(stored.sha256()).orElseThrow();
+        try (InputStream in = resource.getInputStream()) {
+            assertArrayEquals(pdf, in.readAllBytes());
+        }
+        assertEquals(0, countFiles(root.resolve(".tmp")));
+    }
+
+    @Test
+    void put_shouldKeepOneCopyOfIdenticalContent() throws Exception {
+        StoredContent first = storage.put(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        StoredContent second = storage.put(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        assertEquals(first, second);
+        assertEquals(1, countFiles(root.resolve(first.sha256().substring(0, 2))));
+        assertEquals(0, countFiles(root.resolve(".tmp")));
+    }
+
+    @Test
+    void put_shouldDiscardPartialUploadWhenStreamFails() throws Exception {
+        InputStream failing = new InputStream() {
+            private int left = 1000;
+
+            @Override
+            public int read() throws IOException {
+                if (left <= 0) {
+                    throw new IOException("connection reset");
+                }
+                left--;
+                return 7;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                // Fail on the second chunk, after part of the upload was written
+                if (left <= 0) {
+                    throw new IOException("connection reset");
+                }
+                int n = Math.min(len, left);
+                java.util.Arrays.fill(b, off, off + n, (byte) 7);
+                left -= n;
+                return n;
+            }
+        };
+
+        assertThrows(IOException.class, () -> storage.put(failing));
+        assertEquals(0, countFiles(root.resolve(".tmp")));
+    }
+
+    @Test
+    void commit_shouldPutBackContentRemovedAfterItWasStaged() throws Exception {
+        StoredContent stored = storage.put(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        try (AttachmentContentStorage.Staged staged = storage.stage(new ByteArrayInputStream(new byte[]{1, 2, 3}))) {
+            storage.delete(stored.sha256());
+            storage.commit(staged);
+        }
+
+        assertTrue(storage.exists(stored.sha256()));
+        assertEquals(0, countFiles(root.resolve(".tmp")));
+    }
+
+    @Test
+    void delete_shouldRemoveContent() throws Exception {
+        StoredContent stored = storage.put(new ByteArrayInputStream(new byte[]{1}));
+
+        storage.delete(stored.sha256());
+        storage.delete(stored.sha256());
+
+        assertFalse(storage.exists(stored.sha256()));
+        assertTrue(storage.get(stored.sha256()).isEmpty());
+    }
+
+    @Test
+    void path_shouldRejectAnythingButAHash() {
+        assertThrows(IllegalArgumentException.class, () -> storage.get("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> storage.exists("ABC"));
+        assertThrows(IllegalArgumentException.class, () -> storage.delete(null));
+    }
+
+    private static long countFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
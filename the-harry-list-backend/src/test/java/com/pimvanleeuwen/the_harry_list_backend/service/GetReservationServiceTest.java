@@ -1,23 +1,34 @@
 package com.pimvanleeuwen.the_harry_list_backend.service;
 
 import com.pimvanleeuwen.the_harry_list_backend.dto.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.dto.ReservationSearchCriteria;
+import com.pimvanleeuwen.the_harry_list_backend.dto.ReservationSummary;
 import com.pimvanleeuwen.the_harry_list_backend.model.*;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor.SpecificationFluentQuery;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +46,9 @@ class GetReservationServiceTest {
     @Mock
     private ReservationMapper reservationMapper;
 
+    @Mock
+    private DoubleBookingDetector doubleBookingDetector;
+
     @InjectMocks
     private GetReservationService getReservationService;
 
@@ -95,6 +109,19 @@ class GetReservationServiceTest {
         assertEquals(sampleDto.getContactName(), response.getBody().getContactName());
     }
 
+    @Test
+    void getById_shouldFlagDoubleBookings() {
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(sampleEntity));
+        when(reservationMapper.toDto(sampleEntity)).thenReturn(sampleDto);
+        when(doubleBookingDetector.conflictingReservations(1L)).thenReturn(Set.of(7L));
+        when(doubleBookingDetector.conflictingAppointments(1L)).thenReturn(Set.of(3L));
+
+        Reservation body = getReservationService.getById(1L).getBody();
+
+        assertEquals(Set.of(7L), body.getConflictingReservationIds());
+        assertEquals(Set.of(3L), body.getConflictingAppointmentIds());
+    }
+
     @Test
     void getById_shouldReturnNotFoundWhenReservationDoesNotExist() {
         // Given
@@ -108,6 +135,94 @@ class GetReservationServiceTest {
         assertNull(response.getBody());
     }
 
+    @Test
+    void search_shouldRejectUnknownSortField() {
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria(null, null, null, null, null, null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> getReservationService.search(criteria, 0, 50, "internalNotes", Sort.Direction.ASC));
+        verify(reservationRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void search_shouldClampPageSizeAndBreakTiesById() {
+        SpecificationFluentQuery<Object> query = stubFluentQuery(List.of());
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria(null, null, null, null, null, null);
+
+        getReservationService.search(criteria, -3, 10_000, "eventDate", Sort.Direction.DESC);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(query).page(pageable.capture());
+        assertEquals(0, pageable.getValue().getPageNumber());
+        assertEquals(GetReservationService.MAX_PAGE_SIZE, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "eventDate", "startTime", "id"), pageable.getValue().getSort());
+        verify(query).as(ReservationSummary.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_shouldReturnSpecialActivitiesFromTheRowQuery() {
+        stubFluentQuery(List.of(summary(1L, Set.of(SpecialActivity.GRADUATION, SpecialActivity.EAT_CATERING)),
+                summary(2L)));
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria(null, null, null, null, null, null);
+
+        Map<String, Object> body = getReservationService.search(criteria, 0, 50, "createdAt", Sort.Direction.ASC).getBody();
+
+        List<ReservationSummary> content = (List<ReservationSummary>) body.get("content");
+        assertEquals(Set.of(SpecialActivity.GRADUATION, SpecialActivity.EAT_CATERING), content.get(0).specialActivities());
+        assertEquals(Set.of(), content.get(1).specialActivities());
+        assertEquals(2L, body.get("totalElements"));
+        assertEquals(1, body.get("totalPages"));
+        verify(reservationRepository, times(1)).findBy(any(Specification.class), any());
+        verifyNoMoreInteractions(reservationRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_shouldFlagDoubleBookings() {
+        stubFluentQuery(List.of(summary(1L), summary(2L)));
+        when(doubleBookingDetector.conflictingReservations(1L)).thenReturn(Set.of(2L));
+        when(doubleBookingDetector.conflictingReservations(2L)).thenReturn(Set.of(1L));
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria(null, null, null, null, null, null);
+
+        Map<String, Object> body = getReservationService.search(criteria, 0, 50, "createdAt", Sort.Direction.ASC).getBody();
+
+        List<ReservationSummary> content = (List<ReservationSummary>) body.get("content");
+        assertEquals(Set.of(2L), content.get(0).conflictingReservationIds());
+        assertEquals(Set.of(1L), content.get(1).conflictingReservationIds());
+        assertEquals(Set.of(), content.get(0).conflictingAppointmentIds());
+    }
+
+    @Test
+    void containsPattern_shouldTakeWildcardsInTheTextLiterally() {
+        assertEquals("%borrel%", GetReservationService.containsPattern("  Borrel "));
+        assertEquals("%100!% fun!_night%", GetReservationService.containsPattern("100% fun_night"));
+        assertEquals("%wow!!%", GetReservationService.containsPattern("Wow!"));
+    }
+
+    /** Stubs {@code findBy(spec, fn)} so {@code fn} runs against a fluent query returning {@code rows}. */
+    @SuppressWarnings("unchecked")
+    private SpecificationFluentQuery<Object> stubFluentQuery(List<ReservationSummary> rows) {
+        SpecificationFluentQuery<Object> query = mock(SpecificationFluentQuery.class);
+        when(query.as(any(Class.class))).thenReturn(query);
+        when(query.page(any(Pageable.class))).thenAnswer(inv ->
+                new PageImpl<>(new ArrayList<Object>(rows), inv.getArgument(0), rows.size()));
+        when(reservationRepository.findBy(any(Specification.class), any())).thenAnswer(inv ->
+                ((Function<SpecificationFluentQuery<Object>, Object>) inv.getArgument(1)).apply(query));
+        return query;
+    }
+
+    private ReservationSummary summary(Long id) {
+        return summary(id, Set.of());
+    }
+
+    private ReservationSummary summary(Long id, Set<SpecialActivity> activities) {
+        return new ReservationSummary(id, "ABC12" + id, "John Doe", "john@example.com", null, null, "Event " + id,
+                20, LocalDate.now(), LocalTime.of(14, 0), LocalTime.of(17, 0), BarLocation.HUBBLE,
+                SeatingArea.INSIDE, PaymentOption.INDIVIDUAL, ReservationStatus.CONFIRMED, false, null, null, null,
+                activities);
+    }
+
     private Reservation createSampleDto() {
         return Reservation.builder()
                 .id(1L)
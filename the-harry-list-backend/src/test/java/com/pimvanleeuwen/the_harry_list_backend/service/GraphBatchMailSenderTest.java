@@ -0,0 +1,155 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphBatchMailSenderTest {
+
+    private StubGraphServer graph;
+    private GraphBatchMailSender sender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        graph = new StubGraphServer();
+        sender = new GraphBatchMailSender(HttpClient.newHttpClient(), graph.baseUrl(),
+                () -> "test-token", "noreply@hubble.cafe", "events@hubble.cafe");
+    }
+
+    @AfterEach
+    void tearDown() {
+        graph.close();
+    }
+
+    @Test
+    void send_shouldGroupEmailsIntoBatchesOfTwenty() {
+        List<OutgoingEmail> emails = emails(45);
+
+        List<EmailSendResult> results = sender.send(emails);
+
+        assertEquals(List.of(20, 20, 5), graph.batches().stream().map(b -> b.requests().size()).toList());
+        assertEquals(45, results.size());
+        for (int i = 0; i < emails.size(); i++) {
+            assertSame(emails.get(i), results.get(i).email());
+            assertTrue(results.get(i).isSent());
+            assertEquals(202, results.get(i).status());
+        }
+    }
+
+    @Test
+    void send_shouldBuildSendMailRequestsWithBearerToken() {
+        sender.send(List.of(new OutgoingEmail("guest@example.com", "Confirmed", "<p>Hi</p>")));
+
+        StubGraphServer.Batch batch = graph.batches().getFirst();
+        assertEquals("Bearer test-token", batch.authorization());
+        JsonNode request = batch.requests().getFirst();
+        assertEquals("POST", request.path("method").asText());
+        assertEquals("/users/noreply@hubble.cafe/sendMail", request.path("url").asText());
+        JsonNode message = request.at("/body/message");
+        assertEquals("Confirmed", message.path("subject").asText());
+        assertEquals("HTML", message.at("/body/contentType").asText());
+        assertEquals("<p>Hi</p>", message.at("/body/content").asText());
+        assertEquals("guest@example.com", message.at("/toRecipients/0/emailAddress/address").asText());
+        assertEquals("events@hubble.cafe", message.at("/replyTo/0/emailAddress/address").asText());
+        assertTrue(request.at("/body/saveToSentItems").asBoolean());
+    }
+
+    @Test
+    void send_shouldRetryOnlyThrottledItems() {
+        // Every other recipient is throttled the first time it is seen
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        graph.respondWith(request -> {
+            String to = request.at("/body/message/toRecipients/0/emailAddress/address").asText();
+            boolean odd = to.startsWith("guest") && Integer.parseInt(to.substring(5, to.indexOf('@'))) % 2 == 1;
+            return odd && seen.add(to) ? StubGraphServer.ItemResponse.throttled("0")
+                    : StubGraphServer.ItemResponse.accepted();
+        });
+
+        List<EmailSendResult> results = sender.send(emails(6));
+
+        assertEquals(2, graph.batches().size());
+        assertEquals(List.of("guest1@example.com", "guest3@example.com", "guest5@example.com"),
+                graph.batches().get(1).recipients());
+        assertTrue(results.stream().allMatch(EmailSendResult::isSent));
+    }
+
+    @Test
+    void send_shouldReportThrottledItemsWithTheRequestedWaitWhenTooLongToWaitFor() {
+        graph.respondWith(request -> StubGraphServer.ItemResponse.throttled("120"));
+
+        List<EmailSendResult> results = sender.send(emails(2));
+
+        assertEquals(1, graph.batches().size());
+        for (EmailSendResult result : results) {
+            assertFalse(result.isSent());
+            assertEquals(429, result.status());
+            assertEquals(Duration.ofSeconds(120), result.retryAfter());
+        }
+    }
+
+    @Test
+    void send_shouldStopRetryingAfterMaxRounds() {
+        graph.respondWith(request -> StubGraphServer.ItemResponse.throttled("0"));
+
+        List<EmailSendResult> results = sender.send(emails(1));
+
+        assertEquals(GraphBatchMailSender.MAX_ROUNDS, graph.batches().size());
+        assertFalse(results.getFirst().isSent());
+        assertEquals(Duration.ZERO, results.getFirst().retryAfter());
+    }
+
+    @Test
+    void send_shouldNotRetryItemsThatFailedOtherwise() {
+        graph.respondWith(request -> request.path("id").asText().equals("1")
+                ? new StubGraphServer.ItemResponse(400, null, "ErrorInvalidRecipients")
+                : StubGraphServer.ItemResponse.accepted());
+
+        List<EmailSendResult> results = sender.send(emails(2));
+
+        assertEquals(1, graph.batches().size());
+        assertTrue(results.get(0).isSent());
+        assertFalse(results.get(1).isSent());
+        assertEquals(400, results.get(1).status());
+        assertTrue(results.get(1).error().contains("ErrorInvalidRecipients"), results.get(1).error());
+        assertNull(results.get(1).retryAfter());
+    }
+
+    @Test
+    void send_shouldRetryAWholeBatchRefusedWithThrottling() {
+        graph.respondToBatchWith(503, "0");
+
+        List<EmailSendResult> results = sender.send(emails(3));
+
+        // Refused every round: all rounds are made, then the items are reported throttled
+        assertEquals(GraphBatchMailSender.MAX_ROUNDS, graph.batches().size());
+        assertTrue(results.stream().allMatch(r -> r.status() == 503 && !r.isSent()));
+    }
+
+    @Test
+    void send_shouldFailAllItemsWhenGraphCannotBeReached() {
+        graph.close();
+
+        List<EmailSendResult> results = sender.send(emails(2));
+
+        assertTrue(results.stream().noneMatch(EmailSendResult::isSent));
+        assertTrue(results.stream().allMatch(r -> r.status() == -1 && r.retryAfter() == null));
+    }
+
+    private static List<OutgoingEmail> emails(int count) {
+        List<OutgoingEmail> emails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            emails.add(new OutgoingEmail("guest" + i + "@example.com", "Subject " + i, "<p>" + i + "</p>"));
+        }
+        return emails;
+    }
+}
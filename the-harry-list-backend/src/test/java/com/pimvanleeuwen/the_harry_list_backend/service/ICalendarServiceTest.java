@@ -3,6 +3,7 @@ package com.pimvanleeuwen.the_harry_list_backend.service;
 import com.pimvanleeuwen.the_harry_list_backend.model.*;
 import com.pimvanleeuwen.the_harry_list_backend.repository.CalendarAppointmentRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,12 +12,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -31,6 +38,9 @@ class ICalendarServiceTest {
     @Mock
     private CalendarAppointmentRepository calendarAppointmentRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private ICalendarService iCalendarService;
 
@@ -47,7 +57,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldReturnValidIcsFormat() {
         // Given
-        when(reservationRepository.findAll()).thenReturn(List.of(sampleReservation));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(sampleReservation));
 
         // When
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -64,7 +74,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldIncludeEventDetails() {
         // Given
-        when(reservationRepository.findAll()).thenReturn(List.of(sampleReservation));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(sampleReservation));
 
         // When
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -84,7 +94,9 @@ class ICalendarServiceTest {
         pendingReservation.setStatus(ReservationStatus.PENDING);
         pendingReservation.setEventTitle("Pending Event");
 
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(confirmedReservation, pendingReservation));
+        // The status filter is pushed down to the query; only the matching row comes back
+        when(reservationRepository.streamForFeed(eq(EnumSet.of(ReservationStatus.CONFIRMED)), isNull(), isNull(), isNull()))
+                .thenAnswer(inv -> Stream.of(confirmedReservation));
 
         // When
         String ics = iCalendarService.generateCalendarFeed(
@@ -94,6 +106,7 @@ class ICalendarServiceTest {
         // Then
         assertTrue(ics.contains("Test Event"));
         assertFalse(ics.contains("Pending Event"));
+        verify(reservationRepository, never()).findAll();
     }
 
     @Test
@@ -106,10 +119,11 @@ class ICalendarServiceTest {
         meteorReservation.setLocation(BarLocation.METEOR);
         meteorReservation.setEventTitle("Meteor Event");
 
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(hubbleReservation, meteorReservation));
+        when(reservationRepository.streamForFeed(eq(EnumSet.allOf(ReservationStatus.class)), eq(BarLocation.HUBBLE), isNull(), isNull()))
+                .thenAnswer(inv -> Stream.of(hubbleReservation));
 
-        // When
-        String ics = iCalendarService.generateCalendarFeed(null, "HUBBLE", false);
+        // When (location is matched case-insensitively, as before)
+        String ics = iCalendarService.generateCalendarFeed(null, "hubble", false);
 
         // Then
         assertTrue(ics.contains("Test Event"));
@@ -121,11 +135,11 @@ class ICalendarServiceTest {
         // Given
         sampleReservation.setEmail("test@example.com");
         sampleReservation.setPhoneNumber("+31612345678");
-        when(reservationRepository.findAll()).thenReturn(List.of(sampleReservation));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(sampleReservation));
 
         // When
-        String icsWithDetails = iCalendarService.generateCalendarFeed(null, null, true);
-        String icsWithoutDetails = iCalendarService.generateCalendarFeed(null, null, false);
+        String icsWithDetails = unfold(iCalendarService.generateCalendarFeed(null, null, true));
+        String icsWithoutDetails = unfold(iCalendarService.generateCalendarFeed(null, null, false));
 
         // Then
         assertTrue(icsWithDetails.contains("test@example.com"));
@@ -137,7 +151,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldReturnEmptyCalendarWhenNoReservations() {
         // Given
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
 
         // When
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -160,7 +174,8 @@ class ICalendarServiceTest {
         pastReservation.setEventDate(LocalDate.now().minusDays(7));
         pastReservation.setEventTitle("Past Event");
 
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(futureReservation, pastReservation));
+        when(reservationRepository.streamForFeed(any(), isNull(), eq(LocalDate.now()), isNull()))
+                .thenAnswer(inv -> Stream.of(futureReservation));
 
         // When
         String ics = iCalendarService.generateUpcomingCalendarFeed(null, null, false);
@@ -170,12 +185,21 @@ class ICalendarServiceTest {
         assertFalse(ics.contains("Past Event"));
     }
 
+    @Test
+    void generateCalendarFeed_shouldReturnEmptyCalendarForUnknownLocation() {
+        String ics = iCalendarService.generateCalendarFeed(null, "NOWHERE", false);
+
+        assertFalse(ics.contains("BEGIN:VEVENT"));
+        verifyNoInteractions(reservationRepository);
+    }
+
     // ===== Catering Filter Tests =====
 
     @Test
     void generateCalendarFeed_shouldDefaultToAllWhenCateringNull() {
         Reservation cateringReservation = createCateringReservation();
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(sampleReservation, cateringReservation));
+        when(reservationRepository.streamForFeed(any(), isNull(), isNull(), isNull()))
+                .thenAnswer(inv -> Stream.of(sampleReservation, cateringReservation));
 
         // catering = null => no catering filtering (backward compatible)
         String ics = iCalendarService.generateCalendarFeed(null, null, null, false);
@@ -187,7 +211,8 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldFilterCateringOnly() {
         Reservation cateringReservation = createCateringReservation();
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(sampleReservation, cateringReservation));
+        when(reservationRepository.streamForFeed(any(), isNull(), isNull(), eq(true)))
+                .thenAnswer(inv -> Stream.of(cateringReservation));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, true, false);
 
@@ -198,7 +223,8 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldFilterNonCateringOnly() {
         Reservation cateringReservation = createCateringReservation();
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(sampleReservation, cateringReservation));
+        when(reservationRepository.streamForFeed(any(), isNull(), isNull(), eq(false)))
+                .thenAnswer(inv -> Stream.of(sampleReservation));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false, false);
 
@@ -211,7 +237,7 @@ class ICalendarServiceTest {
         // Appointments have no catering attribute => treated as non-catering => dropped from a catering-only feed
         Reservation cateringReservation = createCateringReservation();
         CalendarAppointment appointment = createSampleAppointment();
-        when(reservationRepository.findAll()).thenReturn(List.of(cateringReservation));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(cateringReservation));
         // Lenient: catering-only short-circuits before the appointment repo is queried — that
         // early exit is precisely the behaviour under test (appointments never reach the feed).
         lenient().when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
@@ -227,7 +253,8 @@ class ICalendarServiceTest {
         // Appointments count as non-catering, so they stay in a non-catering feed
         Reservation cateringReservation = createCateringReservation();
         CalendarAppointment appointment = createSampleAppointment();
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(sampleReservation, cateringReservation));
+        when(reservationRepository.streamForFeed(any(), isNull(), isNull(), eq(false)))
+                .thenAnswer(inv -> Stream.of(sampleReservation));
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false, false);
@@ -251,7 +278,8 @@ class ICalendarServiceTest {
         hubbleNonCatering.setLocation(BarLocation.HUBBLE);
         hubbleNonCatering.setEventTitle("Hubble Plain Event");
 
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(hubbleCatering, meteorCatering, hubbleNonCatering));
+        when(reservationRepository.streamForFeed(any(), eq(BarLocation.HUBBLE), isNull(), eq(true)))
+                .thenAnswer(inv -> Stream.of(hubbleCatering));
 
         String ics = iCalendarService.generateCalendarFeed(null, "HUBBLE", true, false);
 
@@ -269,7 +297,8 @@ class ICalendarServiceTest {
         futurePlain.setEventDate(LocalDate.now().plusDays(5));
         futurePlain.setEventTitle("Future Plain Event");
 
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(futureCatering, futurePlain));
+        when(reservationRepository.streamForFeed(any(), isNull(), eq(LocalDate.now()), eq(true)))
+                .thenAnswer(inv -> Stream.of(futureCatering));
 
         String ics = iCalendarService.generateUpcomingCalendarFeed(null, null, true, false);
 
@@ -282,7 +311,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldIncludeAppointments() {
         CalendarAppointment appointment = createSampleAppointment();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -304,7 +333,7 @@ class ICalendarServiceTest {
                 .recurrenceType(RecurrenceType.NONE)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -317,7 +346,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldRenderTimeboxedAppointments() {
         CalendarAppointment appointment = createSampleAppointment();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -341,7 +370,7 @@ class ICalendarServiceTest {
                 .recurrenceType(RecurrenceType.NONE)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(hubbleAppt, meteorAppt));
 
         String ics = iCalendarService.generateCalendarFeed(null, "HUBBLE", false);
@@ -353,7 +382,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldIncludeRruleForRecurring() {
         CalendarAppointment appointment = createSampleAppointment(); // WEEKLY with end date
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -372,7 +401,7 @@ class ICalendarServiceTest {
                 .recurrenceType(RecurrenceType.YEARLY)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -395,7 +424,7 @@ class ICalendarServiceTest {
                 .recurrenceInterval(2)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -417,7 +446,7 @@ class ICalendarServiceTest {
                 .recurrenceInterval(3)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -441,7 +470,7 @@ class ICalendarServiceTest {
                 .recurrenceEndDate(LocalDate.of(2026, 12, 31))
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -462,7 +491,7 @@ class ICalendarServiceTest {
                 .recurrenceDayOfWeek(java.time.DayOfWeek.MONDAY)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -484,7 +513,7 @@ class ICalendarServiceTest {
                 .recurrenceDayOfWeek(java.time.DayOfWeek.TUESDAY)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -505,7 +534,7 @@ class ICalendarServiceTest {
                 .recurrenceWeekOfMonth(2)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -518,7 +547,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldExcludeDisabledAppointments() {
         // findByEnabledTrue() already filters, so an empty result means disabled ones are excluded
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(Collections.emptyList());
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -546,7 +575,7 @@ class ICalendarServiceTest {
                 .recurrenceType(RecurrenceType.NONE)
                 .enabled(true)
                 .build();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(pastAppt, futureAppt));
 
         String ics = iCalendarService.generateUpcomingCalendarFeed(null, null, false);
@@ -558,7 +587,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldIncludeAppointmentDescription() {
         CalendarAppointment appointment = createSampleAppointment();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -569,7 +598,7 @@ class ICalendarServiceTest {
     @Test
     void generateCalendarFeed_shouldIncludeAppointmentCategories() {
         CalendarAppointment appointment = createSampleAppointment();
-        when(reservationRepository.findAll()).thenReturn(Collections.emptyList());
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
 
         String ics = iCalendarService.generateCalendarFeed(null, null, false);
@@ -578,6 +607,142 @@ class ICalendarServiceTest {
         assertTrue(ics.contains(",Appointment"));
     }
 
+    @Test
+    void generateCalendarFeed_shouldUseLastChangeAsDtstamp() {
+        sampleReservation.setUpdatedAt(LocalDateTime.of(2026, 3, 4, 5, 6, 7));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(sampleReservation));
+
+        String first = iCalendarService.generateCalendarFeed(null, null, false);
+        String second = iCalendarService.generateCalendarFeed(null, null, false);
+
+        assertTrue(first.contains("DTSTAMP:20260304T050607"));
+        assertEquals(first, second);
+    }
+
+    @Test
+    void generateCalendarFeed_shouldReuseRenderedEventUntilUpdatedAtChanges() {
+        sampleReservation.setUpdatedAt(LocalDateTime.of(2026, 3, 4, 5, 6, 7));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(sampleReservation));
+        iCalendarService.generateCalendarFeed(null, null, false);
+
+        // Same version: the cached block is served, so an unpersisted in-memory edit does not show
+        sampleReservation.setEventTitle("Renamed Event");
+        assertTrue(iCalendarService.generateCalendarFeed(null, null, false).contains("SUMMARY:Test Event!"));
+
+        // A real save bumps updatedAt, which renders a fresh block
+        sampleReservation.setUpdatedAt(LocalDateTime.of(2026, 3, 5, 0, 0));
+        String ics = iCalendarService.generateCalendarFeed(null, null, false);
+        assertTrue(ics.contains("SUMMARY:Renamed Event!"));
+        assertTrue(ics.contains("DTSTAMP:20260305T000000"));
+    }
+
+    @Test
+    void generateCalendarFeed_shouldCachePublicAndStaffEventsSeparately() {
+        sampleReservation.setUpdatedAt(LocalDateTime.of(2026, 3, 4, 5, 6, 7));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(sampleReservation));
+
+        String publicIcs = unfold(iCalendarService.generateCalendarFeed(null, null, false));
+        String staffIcs = unfold(iCalendarService.generateCalendarFeed(null, null, true));
+
+        assertFalse(publicIcs.contains("john@example.com"));
+        assertTrue(staffIcs.contains("john@example.com"));
+    }
+
+    @Test
+    void generateCalendarFeed_shouldUseLastChangeAsAppointmentDtstamp() {
+        CalendarAppointment appointment = createSampleAppointment();
+        appointment.setCreatedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.empty());
+        when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appointment));
+
+        String ics = iCalendarService.generateCalendarFeed(null, null, false);
+
+        assertTrue(ics.contains("DTSTAMP:20260102T030405"));
+    }
+
+    @Test
+    void generateCalendarFeed_shouldFoldLinesLongerThan75Octets() {
+        String description = "Borrel with a very long description. ".repeat(5) + "Café ☕ 🎉 done";
+        sampleReservation.setDescription(description);
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(sampleReservation));
+
+        String ics = iCalendarService.generateCalendarFeed(null, null, false);
+
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line.getBytes(java.nio.charset.StandardCharsets.UTF_8).length <= 75, line);
+        }
+        assertTrue(unfold(ics).contains("DESCRIPTION:" + description.replace(",", "\\,")));
+    }
+
+    @Test
+    void foldLines_shouldNotSplitMultiByteCharacters() {
+        String line = "SUMMARY:" + "é".repeat(40) + "\r\n";
+
+        String folded = ICalendarService.foldLines(line);
+
+        assertEquals(line, folded.replace("\r\n ", ""));
+        assertTrue(folded.startsWith("SUMMARY:" + "é".repeat(33) + "\r\n "));
+    }
+
+    @Test
+    void foldLines_shouldLeaveShortLinesUntouched() {
+        String block = "BEGIN:VEVENT\r\nSUMMARY:Short\r\nEND:VEVENT\r\n";
+
+        assertSame(block, ICalendarService.foldLines(block));
+    }
+
+    @Test
+    void writeFeed_shouldDetachEachStreamedReservation() throws Exception {
+        when(reservationRepository.streamForFeed(any(), any(), any(), any())).thenAnswer(inv -> Stream.of(sampleReservation));
+
+        java.io.StringWriter out = new java.io.StringWriter();
+        iCalendarService.writeFeed(null, null, null, null, false, out);
+
+        assertTrue(out.toString().contains("SUMMARY:Test Event!"));
+        verify(entityManager).detach(sampleReservation);
+    }
+
+    @Test
+    void renderFeed_shouldReportNewestChange() {
+        sampleReservation.setUpdatedAt(LocalDateTime.of(2026, 3, 4, 5, 6, 7));
+        Reservation older = createCateringReservation();
+        older.setUpdatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+        when(reservationRepository.streamForFeed(any(), any(), any(), any()))
+                .thenAnswer(inv -> Stream.of(older, sampleReservation));
+
+        ICalendarService.RenderedFeed feed = iCalendarService.renderFeed(null, null, null, null, false);
+
+        assertEquals(LocalDateTime.of(2026, 3, 4, 5, 6, 7), feed.lastModified());
+    }
+
+    @Test
+    void feedVersion_shouldCombineReservationStatsWithTheFeedsAppointments() {
+        ReservationRepository.FeedStats stats = mock(ReservationRepository.FeedStats.class);
+        when(stats.getCount()).thenReturn(4L);
+        when(stats.getLastChange()).thenReturn(LocalDateTime.of(2026, 1, 1, 0, 0));
+        when(reservationRepository.feedStats(EnumSet.of(ReservationStatus.CONFIRMED), BarLocation.HUBBLE, null, null))
+                .thenReturn(stats);
+        CalendarAppointment hubble = createSampleAppointment();
+        hubble.setUpdatedAt(LocalDateTime.of(2026, 2, 1, 0, 0));
+        CalendarAppointment meteor = createSampleAppointment();
+        meteor.setLocation(BarLocation.METEOR);
+        meteor.setUpdatedAt(LocalDateTime.of(2026, 9, 1, 0, 0));
+        when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(hubble, meteor));
+
+        ICalendarService.FeedVersion version = iCalendarService.feedVersion(
+                EnumSet.of(ReservationStatus.CONFIRMED), BarLocation.HUBBLE, null, null);
+
+        assertEquals(new ICalendarService.FeedVersion(4, LocalDateTime.of(2026, 1, 1, 0, 0),
+                1, LocalDateTime.of(2026, 2, 1, 0, 0)), version);
+        assertEquals(LocalDateTime.of(2026, 2, 1, 0, 0), version.lastModified());
+        verify(reservationRepository, never()).streamForFeed(any(), any(), any(), any());
+    }
+
+    /** Undoes RFC 5545 line folding, as a calendar client would before reading a property. */
+    private static String unfold(String ics) {
+        return ics.replace("\r\n ", "");
+    }
+
     private CalendarAppointment createSampleAppointment() {
         return CalendarAppointment.builder()
                 .id(1L)
@@ -0,0 +1,29 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.kiota.serialization.JsonSerializationWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicrosoftGraphEmailServiceTest {
+
+    @Test
+    void fileAttachment_shouldSerializePreEncodedContentAsIs() throws Exception {
+        JsonSerializationWriter writer = new JsonSerializationWriter();
+        writer.writeObjectValue(null, MicrosoftGraphEmailService.fileAttachment(
+                new EncodedAttachment("menu.pdf", "application/pdf", "abc", "AQID")));
+
+        JsonNode json;
+        try (InputStream content = writer.getSerializedContent()) {
+            json = new ObjectMapper().readTree(content);
+        }
+        assertEquals("#microsoft.graph.fileAttachment", json.get("@odata.type").asText());
+        assertEquals("menu.pdf", json.get("name").asText());
+        assertEquals("application/pdf", json.get("contentType").asText());
+        assertEquals("AQID", json.get("contentBytes").asText());
+    }
+}
@@ -0,0 +1,148 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.TheHarryListBackendApplication;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.InvoiceType;
+import com.pimvanleeuwen.the_harry_list_backend.model.PaymentOption;
+import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The busy-day PDF report against an H2 database holding a year of reservations: loading the
+ * day the old way ({@code findAll} and filtering in memory) and with
+ * {@link PdfExportService#loadDailyReport}'s targeted query, rendering the loaded day, and
+ * the whole request path. Run with
+ * {@code ./mvnw -Pbenchmark test-compile -Djmh.args=PdfExportBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfExportBenchmark {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 6, 12);
+    private static final int RESERVATIONS_ON_DAY = 40;
+
+    /** Reservations in the table besides the busy day's. */
+    @Param({"5000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private ReservationRepository reservationRepository;
+    private PdfExportService pdfExportService;
+    private PdfExportService.DailyReport loaded;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TheHarryListBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:pdf-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.root=WARN")
+                .run();
+        reservationRepository = context.getBean(ReservationRepository.class);
+        pdfExportService = context.getBean(PdfExportService.class);
+
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < tableSize; i++) {
+            LocalDate date = DAY.minusDays(180).plusDays(i % 365);
+            if (!date.equals(DAY)) {
+                reservations.add(reservation(i, date, i % 2 == 0 ? BarLocation.HUBBLE : BarLocation.METEOR));
+            }
+        }
+        for (int i = 0; i < RESERVATIONS_ON_DAY; i++) {
+            reservations.add(reservation(i, DAY, BarLocation.HUBBLE));
+        }
+        reservationRepository.saveAll(reservations);
+
+        loaded = pdfExportService.loadDailyReport(DAY, BarLocation.HUBBLE, false, false);
+        if (loaded.reservations().size() != RESERVATIONS_ON_DAY || loadFindAll().size() != RESERVATIONS_ON_DAY) {
+            throw new IllegalStateException("Both loads should find the busy day's reservations");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** How the day report loaded its reservations before the targeted query. */
+    @Benchmark
+    public List<Reservation> loadFindAll() {
+        return reservationRepository.findAll().stream()
+                .filter(r -> r.getEventDate() != null && r.getEventDate().equals(DAY))
+                .filter(r -> r.getLocation() != null && r.getLocation().equals(BarLocation.HUBBLE))
+                .sorted(Comparator.comparing(r -> r.getStartTime() != null ? r.getStartTime() : LocalTime.MAX))
+                .toList();
+    }
+
+    @Benchmark
+    public PdfExportService.DailyReport loadTargetedQuery() {
+        return pdfExportService.loadDailyReport(DAY, BarLocation.HUBBLE, false, false);
+    }
+
+    /** Rendering alone, with the shared fonts and the template header and footer. */
+    @Benchmark
+    public void render() throws Exception {
+        pdfExportService.writeDailyReport(loaded, OutputStream.nullOutputStream());
+    }
+
+    /** Load and render, as the export endpoint does. */
+    @Benchmark
+    public void loadAndRender() throws Exception {
+        pdfExportService.writeDailyReport(loadTargetedQuery(), OutputStream.nullOutputStream());
+    }
+
+    private static Reservation reservation(int i, LocalDate date, BarLocation location) {
+        Reservation reservation = new Reservation();
+        reservation.setContactName("Contact " + i);
+        reservation.setEmail("contact" + i + "@example.com");
+        reservation.setOrganizationName("Association " + (i % 50));
+        reservation.setEventTitle("Event " + i);
+        reservation.setDescription("Drinks after the lecture series, about " + (10 + i % 40) + " people.");
+        reservation.setSpecialActivities(i % 3 == 0 ? Set.of(SpecialActivity.EAT_CATERING) : Set.of());
+        reservation.setExpectedGuests(10 + i % 40);
+        reservation.setEventDate(date);
+        reservation.setStartTime(LocalTime.of(12, 0).plusMinutes(15L * (i % 32)));
+        reservation.setEndTime(LocalTime.of(12, 0).plusMinutes(15L * (i % 32) + 120));
+        reservation.setLocation(location);
+        reservation.setSeatingArea(SeatingArea.INSIDE);
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        if (i % 5 == 0) {
+            reservation.setPaymentOption(PaymentOption.INVOICE);
+            reservation.setInvoiceType(InvoiceType.TUE);
+            reservation.setCostCenter("CC-" + i);
+        } else {
+            reservation.setPaymentOption(PaymentOption.INDIVIDUAL);
+        }
+        return reservation;
+    }
+}
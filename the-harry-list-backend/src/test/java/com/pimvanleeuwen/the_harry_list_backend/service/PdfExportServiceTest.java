@@ -4,26 +4,35 @@ import org.openpdf.text.pdf.PdfReader;
 import org.openpdf.text.pdf.parser.PdfTextExtractor;
 import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
 import com.pimvanleeuwen.the_harry_list_backend.model.CalendarAppointment;
+import com.pimvanleeuwen.the_harry_list_backend.model.InvoiceType;
+import com.pimvanleeuwen.the_harry_list_backend.model.PaymentOption;
 import com.pimvanleeuwen.the_harry_list_backend.model.RecurrenceType;
 import com.pimvanleeuwen.the_harry_list_backend.model.Reservation;
 import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
 import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
 import com.pimvanleeuwen.the_harry_list_backend.repository.CalendarAppointmentRepository;
 import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -48,12 +57,17 @@ class PdfExportServiceTest {
         // Uses the real recurrence resolver — its behaviour is covered by its own unit test.
         pdfExportService = new PdfExportService(
                 reservationRepository,
-                calendarAppointmentRepository,
-                new AppointmentRecurrenceService());
+                new AppointmentOccurrenceIndex(calendarAppointmentRepository, new AppointmentRecurrenceService()),
+                2);
         // Most reservation-focused tests have no appointments; appointment tests override this.
         lenient().when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of());
     }
 
+    @AfterEach
+    void tearDown() {
+        pdfExportService.shutdown();
+    }
+
     @Test
     void generateDailyReport_cateringOnly_includesOnlyCateringReservations() throws Exception {
         // Given: one catering reservation and one non-catering reservation on the same day/location
@@ -61,7 +75,7 @@ class PdfExportServiceTest {
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.EAT_CATERING));
         Reservation nonCatering = reservation("Plain Drinks", LocalTime.of(20, 0),
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.PRIVATE_EVENT));
-        when(reservationRepository.findAll()).thenReturn(List.of(catering, nonCatering));
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(List.of(catering, nonCatering));
 
         // When
         byte[] pdf = pdfExportService.generateDailyReport(REPORT_DATE, BarLocation.HUBBLE, false, true);
@@ -79,7 +93,7 @@ class PdfExportServiceTest {
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.EAT_A_LA_CARTE));
         Reservation nonCatering = reservation("Plain Drinks", LocalTime.of(20, 0),
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.PRIVATE_EVENT));
-        when(reservationRepository.findAll()).thenReturn(List.of(catering, nonCatering));
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(List.of(catering, nonCatering));
 
         // When
         byte[] pdf = pdfExportService.generateDailyReport(REPORT_DATE, BarLocation.HUBBLE, false, false);
@@ -101,7 +115,7 @@ class PdfExportServiceTest {
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.CATERING_CORONA_ROOM));
         Reservation graduation = reservation("Graduation Only", LocalTime.of(19, 0),
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.GRADUATION));
-        when(reservationRepository.findAll())
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null))
                 .thenReturn(List.of(alaCarte, cateringEvent, coronaRoom, graduation));
 
         // When
@@ -122,7 +136,9 @@ class PdfExportServiceTest {
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.EAT_CATERING));
         Reservation pendingCatering = reservation("Pending Catering", LocalTime.of(20, 0),
                 ReservationStatus.PENDING, Set.of(SpecialActivity.EAT_CATERING));
-        when(reservationRepository.findAll()).thenReturn(List.of(confirmedCatering, pendingCatering));
+        // Only confirmed reservations are asked for when confirmedOnly is set
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, ReservationStatus.CONFIRMED))
+                .thenReturn(List.of(confirmedCatering));
 
         // When: both filters active
         byte[] pdf = pdfExportService.generateDailyReport(REPORT_DATE, BarLocation.HUBBLE, true, true);
@@ -138,7 +154,7 @@ class PdfExportServiceTest {
         // Given: only non-catering reservations
         Reservation nonCatering = reservation("Plain Drinks", LocalTime.of(20, 0),
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.PRIVATE_EVENT));
-        when(reservationRepository.findAll()).thenReturn(List.of(nonCatering));
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(List.of(nonCatering));
 
         // When
         byte[] pdf = pdfExportService.generateDailyReport(REPORT_DATE, BarLocation.HUBBLE, false, true);
@@ -158,7 +174,7 @@ class PdfExportServiceTest {
         // Given: a reservation and an appointment on the report date/location
         Reservation res = reservation("Evening Drinks", LocalTime.of(20, 0),
                 ReservationStatus.CONFIRMED, Set.of(SpecialActivity.PRIVATE_EVENT));
-        when(reservationRepository.findAll()).thenReturn(List.of(res));
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(List.of(res));
         CalendarAppointment appt = appointment("Staff Meeting", "Discuss the roster",
                 LocalTime.of(9, 0), LocalTime.of(10, 0), BarLocation.HUBBLE);
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appt));
@@ -177,7 +193,7 @@ class PdfExportServiceTest {
 
     @Test
     void generateDailyReport_excludesAppointmentsForOtherLocations() throws Exception {
-        when(reservationRepository.findAll()).thenReturn(List.of());
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(List.of());
         CalendarAppointment meteorAppt = appointment("Meteor Only", null,
                 LocalTime.of(9, 0), LocalTime.of(10, 0), BarLocation.METEOR);
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(meteorAppt));
@@ -193,7 +209,7 @@ class PdfExportServiceTest {
 
     @Test
     void generateDailyReport_excludesAppointmentsNotOccurringOnTheDate() throws Exception {
-        when(reservationRepository.findAll()).thenReturn(List.of());
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(List.of());
         // A one-off appointment on a different day
         CalendarAppointment otherDay = appointment("Other Day", null,
                 LocalTime.of(9, 0), LocalTime.of(10, 0), BarLocation.HUBBLE);
@@ -208,7 +224,7 @@ class PdfExportServiceTest {
 
     @Test
     void generateDailyReport_includesRecurringAppointmentOnAnOccurrence() throws Exception {
-        when(reservationRepository.findAll()).thenReturn(List.of());
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(List.of());
         // Weekly appointment starting two weeks before the report date — should recur onto it
         CalendarAppointment weekly = appointment("Weekly Standup", null,
                 LocalTime.of(9, 0), LocalTime.of(9, 30), BarLocation.HUBBLE);
@@ -226,7 +242,8 @@ class PdfExportServiceTest {
     void generateDailyReport_showsAppointmentsEvenWithConfirmedAndCateringOnlyFilters() throws Exception {
         // Given: no reservations match, but an appointment exists. The filters only apply to
         // reservations, so the appointment must still appear.
-        when(reservationRepository.findAll()).thenReturn(List.of());
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, ReservationStatus.CONFIRMED))
+                .thenReturn(List.of());
         CalendarAppointment appt = appointment("Always Visible", null,
                 LocalTime.of(8, 0), null, BarLocation.HUBBLE);
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(appt));
@@ -239,7 +256,7 @@ class PdfExportServiceTest {
 
     @Test
     void generateDailyReport_rendersAllDayAppointmentTime() throws Exception {
-        when(reservationRepository.findAll()).thenReturn(List.of());
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(List.of());
         CalendarAppointment allDay = appointment("Closed for Holiday", null, null, null, BarLocation.HUBBLE);
         allDay.setAllDay(true);
         when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(allDay));
@@ -251,6 +268,167 @@ class PdfExportServiceTest {
         assertTrue(text.contains("All day"));
     }
 
+    // --- rendering ---
+
+    @Test
+    void generateDailyReport_rendersBusyDayWithRunningHeaderAndFooter() throws Exception {
+        // A busy day: 40 reservations, every fifth paid by invoice (which adds a form page)
+        List<Reservation> day = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Reservation r = reservation("Event " + i, LocalTime.of(10, 0).plusMinutes(15L * i),
+                    ReservationStatus.CONFIRMED, Set.of(SpecialActivity.EAT_CATERING));
+            r.setDescription("Description of event " + i);
+            if (i % 5 == 0) {
+                r.setPaymentOption(PaymentOption.INVOICE);
+                r.setInvoiceType(InvoiceType.TUE);
+            }
+            day.add(r);
+        }
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.HUBBLE, null)).thenReturn(day);
+
+        // Throughput is measured by PdfExportBenchmark; this checks the layout only
+        byte[] pdf = pdfExportService.generateDailyReport(REPORT_DATE, BarLocation.HUBBLE, false, false);
+
+        PdfReader reader = new PdfReader(pdf);
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        assertEquals(48, reader.getNumberOfPages(), "One page per reservation plus 8 invoice forms");
+        assertTrue(extractor.getTextFromPage(1).contains("Generated on"), "Footer on the first page");
+        assertFalse(extractor.getTextFromPage(1).contains("Hubble Community Café - "), "No running header on the first page");
+        String last = extractor.getTextFromPage(48);
+        assertTrue(last.contains("Hubble Community Café - Sunday, 15 February 2026"), "Running header on later pages");
+        assertTrue(last.contains("Generated on"));
+        assertTrue(last.contains("Event 39"));
+        reader.close();
+    }
+
+    @Test
+    void writeDailyReport_leavesTheOutputStreamOpen() throws Exception {
+        when(reservationRepository.findForDayReport(REPORT_DATE, BarLocation.METEOR, null)).thenReturn(List.of());
+        PdfExportService.DailyReport report =
+                pdfExportService.loadDailyReport(REPORT_DATE, BarLocation.METEOR, false, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("The caller owns the stream");
+            }
+        };
+
+        pdfExportService.writeDailyReport(report, out);
+
+        assertTrue(extractText(out.toByteArray()).contains("Meteor Community Café"));
+    }
+
+    // --- range report ---
+
+    @Test
+    void rangeReport_mergesDaysWithContentInDateAndLocationOrder() throws Exception {
+        // Given: reservations on two days (both locations on the second), none in between
+        LocalDate day1 = REPORT_DATE;
+        LocalDate day3 = REPORT_DATE.plusDays(2);
+        Reservation first = reservation("First Day Hubble", LocalTime.of(18, 0),
+                ReservationStatus.CONFIRMED, Set.of());
+        Reservation meteor = reservation("Third Day Meteor", LocalTime.of(12, 0),
+                ReservationStatus.CONFIRMED, Set.of());
+        meteor.setEventDate(day3);
+        meteor.setLocation(BarLocation.METEOR);
+        Reservation late = reservation("Third Day Hubble Late", LocalTime.of(21, 0),
+                ReservationStatus.CONFIRMED, Set.of());
+        late.setEventDate(day3);
+        Reservation early = reservation("Third Day Hubble Early", LocalTime.of(9, 0),
+                ReservationStatus.CONFIRMED, Set.of());
+        early.setEventDate(day3);
+        when(reservationRepository.findForRangeReport(day1, REPORT_DATE.plusDays(6),
+                EnumSet.of(BarLocation.HUBBLE, BarLocation.METEOR), null))
+                .thenReturn(List.of(meteor, late, first, early));
+
+        // When
+        List<PdfExportService.DailyReport> days = pdfExportService.loadRangeReport(
+                day1, REPORT_DATE.plusDays(6), null, false, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfExportService.writeRangeReport(days, out);
+
+        // Then: one section per day and location with content, each sorted by start time
+        assertEquals(3, days.size());
+        assertEquals(List.of(day1, day3, day3), days.stream().map(PdfExportService.DailyReport::date).toList());
+        assertEquals(List.of(BarLocation.HUBBLE, BarLocation.HUBBLE, BarLocation.METEOR),
+                days.stream().map(PdfExportService.DailyReport::location).toList());
+        String text = extractText(out.toByteArray());
+        int firstAt = text.indexOf("First Day Hubble");
+        int earlyAt = text.indexOf("Third Day Hubble Early");
+        int lateAt = text.indexOf("Third Day Hubble Late");
+        int meteorAt = text.indexOf("Third Day Meteor");
+        assertTrue(firstAt >= 0 && firstAt < earlyAt && earlyAt < lateAt && lateAt < meteorAt, text);
+        assertFalse(text.contains("Monday, 16 February 2026"), "Empty days are left out");
+    }
+
+    @Test
+    void rangeReport_keepsDayOrderWithMoreDaysThanRenderThreads() throws Exception {
+        // Two render threads, so the days are submitted a couple at a time as earlier ones are copied
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            Reservation r = reservation("Day " + i + " Borrel", LocalTime.of(18, 0),
+                    ReservationStatus.CONFIRMED, Set.of());
+            r.setEventDate(REPORT_DATE.plusDays(i));
+            reservations.add(r);
+        }
+        when(reservationRepository.findForRangeReport(any(), any(), any(), any())).thenReturn(reservations);
+
+        List<PdfExportService.DailyReport> days = pdfExportService.loadRangeReport(
+                REPORT_DATE, REPORT_DATE.plusDays(8), BarLocation.HUBBLE, false, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfExportService.writeRangeReport(days, out);
+
+        String text = extractText(out.toByteArray());
+        int previous = -1;
+        for (int i = 0; i < 9; i++) {
+            int at = text.indexOf("Day " + i + " Borrel");
+            assertTrue(at > previous, "Day " + i + " in order");
+            previous = at;
+        }
+    }
+
+    @Test
+    void rangeReport_expandsRecurringAppointmentsOverTheRange() throws Exception {
+        when(reservationRepository.findForRangeReport(any(), any(), any(), any())).thenReturn(List.of());
+        CalendarAppointment weekly = appointment("Weekly Standup", null,
+                LocalTime.of(9, 0), LocalTime.of(9, 30), BarLocation.HUBBLE);
+        weekly.setRecurrenceType(RecurrenceType.WEEKLY);
+        CalendarAppointment meteorOnly = appointment("Meteor Only", null,
+                LocalTime.of(9, 0), LocalTime.of(9, 30), BarLocation.METEOR);
+        when(calendarAppointmentRepository.findByEnabledTrue()).thenReturn(List.of(weekly, meteorOnly));
+
+        List<PdfExportService.DailyReport> days = pdfExportService.loadRangeReport(
+                REPORT_DATE, REPORT_DATE.plusDays(20), BarLocation.HUBBLE, false, false);
+
+        assertEquals(List.of(REPORT_DATE, REPORT_DATE.plusWeeks(1), REPORT_DATE.plusWeeks(2)),
+                days.stream().map(PdfExportService.DailyReport::date).toList());
+        assertTrue(days.stream().allMatch(d -> d.appointments().equals(List.of(weekly))));
+        verify(calendarAppointmentRepository, times(1)).findByEnabledTrue();
+    }
+
+    @Test
+    void rangeReport_withNothingInRange_stillRendersTheFirstDay() throws Exception {
+        when(reservationRepository.findForRangeReport(any(), any(), any(), any())).thenReturn(List.of());
+
+        List<PdfExportService.DailyReport> days = pdfExportService.loadRangeReport(
+                REPORT_DATE, REPORT_DATE.plusDays(6), BarLocation.METEOR, true, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfExportService.writeRangeReport(days, out);
+
+        assertEquals(1, days.size());
+        String text = extractText(out.toByteArray());
+        assertTrue(text.contains("Meteor Community Café"));
+        assertTrue(text.contains("No reservations for this date."));
+    }
+
+    @Test
+    void rangeReport_rejectsReversedAndTooLongRanges() {
+        assertThrows(IllegalArgumentException.class, () -> pdfExportService.loadRangeReport(
+                REPORT_DATE, REPORT_DATE.minusDays(1), null, false, false));
+        assertThrows(IllegalArgumentException.class, () -> pdfExportService.loadRangeReport(
+                REPORT_DATE, REPORT_DATE.plusDays(PdfExportService.MAX_RANGE_DAYS), null, false, false));
+    }
+
     // --- helpers ---
 
     private CalendarAppointment appointment(String title, String description, LocalTime start,
@@ -0,0 +1,212 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.pimvanleeuwen.the_harry_list_backend.dto.SlotSuggestion;
+import com.pimvanleeuwen.the_harry_list_backend.model.BarLocation;
+import com.pimvanleeuwen.the_harry_list_backend.model.BlockedPeriod;
+import com.pimvanleeuwen.the_harry_list_backend.model.ReservationStatus;
+import com.pimvanleeuwen.the_harry_list_backend.model.SeatingArea;
+import com.pimvanleeuwen.the_harry_list_backend.model.SpecialActivity;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository;
+import com.pimvanleeuwen.the_harry_list_backend.repository.ReservationRepository.CapacityRow;
+import com.pimvanleeuwen.the_harry_list_backend.service.ConstraintValidationService.BookingWindow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotSuggestionServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(30);
+    private static final Set<SpecialActivity> ACTIVITIES = Set.of(SpecialActivity.GRADUATION);
+
+    @Mock
+    private ConstraintValidationService constraintValidationService;
+
+    @Mock
+    private BlockedPeriodIndex blockedPeriodIndex;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private SlotSuggestionService service(List<CapacityRow> confirmed, int searchDays) {
+        lenient().when(reservationRepository.findCapacityRows(any(), any())).thenReturn(confirmed);
+        CapacityIndex capacityIndex = new CapacityIndex(reservationRepository, "HUBBLE.INSIDE=50");
+        return new SlotSuggestionService(constraintValidationService, blockedPeriodIndex, capacityIndex, searchDays);
+    }
+
+    private void window(LocalDate earliest, Set<BarLocation> locations, Set<SeatingArea> areas) {
+        when(constraintValidationService.bookingWindow(ACTIVITIES)).thenReturn(new BookingWindow(earliest, locations, areas));
+    }
+
+    @Test
+    void suggest_shouldMoveAroundOccupiedQuarterHours() {
+        SlotSuggestionService service = service(List.of(row(DAY, "18:00", "20:00", 40)), 120);
+        window(LocalDate.now(), Set.of(BarLocation.HUBBLE), Set.of(SeatingArea.INSIDE));
+
+        List<SlotSuggestion> suggestions = suggest(service, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY,
+                "18:00", "20:00", 20, 3);
+
+        assertEquals(List.of(
+                suggestion(DAY, "20:00", "22:00", BarLocation.HUBBLE, SeatingArea.INSIDE),
+                suggestion(DAY.minusDays(1), "18:00", "20:00", BarLocation.HUBBLE, SeatingArea.INSIDE),
+                suggestion(DAY.plusDays(1), "18:00", "20:00", BarLocation.HUBBLE, SeatingArea.INSIDE)), suggestions);
+    }
+
+    @Test
+    void suggest_shouldPreferTheRequestedPlaceAtTheSameTime() {
+        SlotSuggestionService service = service(List.of(row(DAY, "18:00", "20:00", 40)), 120);
+        window(LocalDate.now(), Set.of(BarLocation.HUBBLE, BarLocation.METEOR), Set.of(SeatingArea.values()));
+
+        List<SlotSuggestion> suggestions = suggest(service, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY,
+                "18:00", "20:00", 20, 3);
+
+        // Only Hubble inside has a capacity; the rest fit at the requested time
+        assertEquals(List.of(
+                suggestion(DAY, "18:00", "20:00", BarLocation.HUBBLE, SeatingArea.OUTSIDE),
+                suggestion(DAY, "18:00", "20:00", BarLocation.METEOR, SeatingArea.INSIDE),
+                suggestion(DAY, "18:00", "20:00", BarLocation.METEOR, SeatingArea.OUTSIDE)), suggestions);
+    }
+
+    @Test
+    void suggest_shouldKeepOvernightSlotsClearOfTheNextDay() {
+        SlotSuggestionService service = service(List.of(row(DAY.plusDays(1), "00:00", "01:00", 50)), 120);
+        window(LocalDate.now(), Set.of(BarLocation.HUBBLE), Set.of(SeatingArea.INSIDE));
+
+        List<SlotSuggestion> suggestions = suggest(service, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY,
+                "22:00", "02:00", 10, 1);
+
+        assertEquals(List.of(suggestion(DAY, "20:00", "00:00", BarLocation.HUBBLE, SeatingArea.INSIDE)), suggestions);
+    }
+
+    @Test
+    void suggest_shouldHonourEarliestDateAndBlockedPeriods() {
+        SlotSuggestionService service = service(List.of(), 120);
+        window(DAY.plusDays(2), Set.of(BarLocation.HUBBLE), Set.of(SeatingArea.INSIDE));
+        BlockedPeriod closed = new BlockedPeriod();
+        when(blockedPeriodIndex.findBlocking(any(), any())).thenAnswer(inv ->
+                inv.getArgument(0).equals(DAY.plusDays(2)) ? List.of(closed) : List.of());
+
+        List<SlotSuggestion> suggestions = suggest(service, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY,
+                "18:15", "20:40", 10, 1);
+
+        assertEquals(List.of(suggestion(DAY.plusDays(3), "18:15", "20:40", BarLocation.HUBBLE, SeatingArea.INSIDE)),
+                suggestions);
+    }
+
+    @Test
+    void suggest_shouldSkipPlacesTheConstraintsReject() {
+        SlotSuggestionService service = service(List.of(), 120);
+        window(LocalDate.now(), Set.of(BarLocation.HUBBLE, BarLocation.METEOR), Set.of(SeatingArea.INSIDE));
+        when(constraintValidationService.validate(eq(ACTIVITIES), any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> inv.getArgument(1) == BarLocation.HUBBLE ? List.of("Too few guests") : List.of());
+
+        List<SlotSuggestion> suggestions = suggest(service, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY,
+                "18:00", "20:00", 10, 2);
+
+        assertEquals(List.of(
+                suggestion(DAY, "18:00", "20:00", BarLocation.METEOR, SeatingArea.INSIDE),
+                suggestion(DAY.minusDays(1), "18:00", "20:00", BarLocation.METEOR, SeatingArea.INSIDE)), suggestions);
+    }
+
+    @Test
+    void suggest_shouldReturnNothingWithoutTimes() {
+        SlotSuggestionService service = service(List.of(), 120);
+
+        assertTrue(service.suggest(ACTIVITIES, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, null,
+                LocalTime.of(20, 0), 10, 3).isEmpty());
+        assertTrue(service.suggest(ACTIVITIES, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY, LocalTime.of(20, 0),
+                LocalTime.of(20, 0), 10, 3).isEmpty());
+        verifyNoInteractions(constraintValidationService, blockedPeriodIndex);
+    }
+
+    @Test
+    void suggest_shouldMatchBruteForce() {
+        Random random = new Random(7);
+        List<CapacityRow> rows = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            LocalDate date = DAY.plusDays(random.nextInt(23) - 11);
+            int start = random.nextInt(CapacityIndex.SLOTS_PER_DAY);
+            int length = 1 + random.nextInt(16);
+            rows.add(row(date, time(start), time((start + length) % CapacityIndex.SLOTS_PER_DAY), 5 + random.nextInt(30)));
+        }
+        int searchDays = 10;
+        SlotSuggestionService service = service(rows, searchDays);
+        window(LocalDate.now(), Set.of(BarLocation.HUBBLE), Set.of(SeatingArea.INSIDE));
+        CapacityIndex oracle = new CapacityIndex(reservationRepository, "HUBBLE.INSIDE=50");
+
+        for (String[] request : new String[][]{{"18:00", "21:00"}, {"12:30", "13:10"}, {"22:00", "03:00"}}) {
+            LocalTime start = LocalTime.parse(request[0]);
+            LocalTime end = LocalTime.parse(request[1]);
+            int guests = 20;
+
+            // Best start per day by trying every quarter-hour shift
+            List<SlotSuggestion> expected = new ArrayList<>();
+            List<Long> distances = new ArrayList<>();
+            for (int d = -searchDays; d <= searchDays; d++) {
+                LocalDate date = DAY.plusDays(d);
+                long bestDistance = Long.MAX_VALUE;
+                SlotSuggestion best = null;
+                int fromSlot = (start.getHour() * 60 + start.getMinute()) / 15;
+                for (int slot = 0; slot < CapacityIndex.SLOTS_PER_DAY; slot++) {
+                    long shift = (long) (slot - fromSlot) * 15;
+                    LocalTime s = start.plusMinutes(shift);
+                    LocalTime e = end.plusMinutes(shift);
+                    long distance = Math.abs(d) * 1440L + Math.abs(shift);
+                    // Ties go to the later start
+                    if (oracle.canFit(BarLocation.HUBBLE, SeatingArea.INSIDE, date, s, e, guests)
+                            && (distance < bestDistance || distance == bestDistance && shift > 0)) {
+                        bestDistance = distance;
+                        best = suggestion(date, s.toString(), e.toString(), BarLocation.HUBBLE, SeatingArea.INSIDE);
+                    }
+                }
+                if (best != null) {
+                    int i = 0;
+                    while (i < distances.size() && (distances.get(i) < bestDistance
+                            || distances.get(i) == bestDistance && expected.get(i).date().isBefore(date))) {
+                        i++;
+                    }
+                    expected.add(i, best);
+                    distances.add(i, bestDistance);
+                }
+            }
+
+            List<SlotSuggestion> actual = service.suggest(ACTIVITIES, BarLocation.HUBBLE, SeatingArea.INSIDE, DAY,
+                    start, end, guests, 5);
+            assertEquals(expected.subList(0, 5), actual, request[0] + "-" + request[1]);
+        }
+    }
+
+    private static List<SlotSuggestion> suggest(SlotSuggestionService service, BarLocation location, SeatingArea area,
+                                                LocalDate date, String start, String end, int guests, int limit) {
+        return service.suggest(ACTIVITIES, location, area, date, LocalTime.parse(start), LocalTime.parse(end),
+                guests, limit);
+    }
+
+    private static SlotSuggestion suggestion(LocalDate date, String start, String end, BarLocation location,
+                                             SeatingArea area) {
+        return new SlotSuggestion(date, LocalTime.parse(start), LocalTime.parse(end), location, area);
+    }
+
+    private static String time(int slot) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) slot * 15).toString();
+    }
+
+    private static long ids;
+
+    private static CapacityRow row(LocalDate date, String start, String end, int guests) {
+        return CapacityRows.row(++ids, ReservationStatus.CONFIRMED, BarLocation.HUBBLE, SeatingArea.INSIDE, date,
+                start, end, guests);
+    }
+}
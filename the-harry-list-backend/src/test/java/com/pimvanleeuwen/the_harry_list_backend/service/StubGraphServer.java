@@ -0,0 +1,132 @@
+package com.pimvanleeuwen.the_harry_list_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Minimal local stand-in for the Microsoft Graph {@code $batch} endpoint. Records every
+ * batch it receives and answers each item with the status chosen by a per-test policy.
+ */
+class StubGraphServer implements AutoCloseable {
+
+    /** The answer for one batch item. */
+    record ItemResponse(int status, String retryAfter, String errorCode) {
+
+        static ItemResponse accepted() {
+            return new ItemResponse(202, null, null);
+        }
+
+        static ItemResponse throttled(String retryAfter) {
+            return new ItemResponse(429, retryAfter, "TooManyRequests");
+        }
+    }
+
+    /** One received batch request. */
+    record Batch(String authorization, JsonNode body) {
+
+        List<JsonNode> requests() {
+            List<JsonNode> requests = new ArrayList<>();
+            body.path("requests").forEach(requests::add);
+            return requests;
+        }
+
+        List<String> recipients() {
+            return requests().stream()
+                    .map(r -> r.at("/body/message/toRecipients/0/emailAddress/address").asText())
+                    .toList();
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final List<Batch> batches = Collections.synchronizedList(new ArrayList<>());
+    private volatile Function<JsonNode, ItemResponse> itemPolicy = item -> ItemResponse.accepted();
+    /** When set, the whole batch request is answered with this status instead. */
+    private volatile Integer batchStatus;
+    private volatile String batchRetryAfter;
+
+    StubGraphServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1.0/$batch", this::handleBatch);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1.0";
+    }
+
+    List<Batch> batches() {
+        return List.copyOf(batches);
+    }
+
+    /** Answer each item according to {@code policy}, given the item's request. */
+    void respondWith(Function<JsonNode, ItemResponse> policy) {
+        this.itemPolicy = policy;
+    }
+
+    /** Answer whole batch requests with {@code status} (null to answer items again). */
+    void respondToBatchWith(Integer status, String retryAfter) {
+        this.batchStatus = status;
+        this.batchRetryAfter = retryAfter;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        batches.add(new Batch(exchange.getRequestHeaders().getFirst("Authorization"), body));
+
+        Integer status = batchStatus;
+        if (status != null) {
+            if (batchRetryAfter != null) {
+                exchange.getResponseHeaders().add("Retry-After", batchRetryAfter);
+            }
+            write(exchange, status, "{\"error\":{\"code\":\"ServiceUnavailable\",\"message\":\"Try later\"}}");
+            return;
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode responses = response.putArray("responses");
+        for (JsonNode request : body.path("requests")) {
+            ItemResponse answer = itemPolicy.apply(request);
+            ObjectNode item = responses.addObject();
+            item.put("id", request.path("id").asText());
+            item.put("status", answer.status());
+            ObjectNode headers = item.putObject("headers");
+            if (answer.retryAfter() != null) {
+                headers.put("Retry-After", answer.retryAfter());
+            }
+            if (answer.errorCode() != null) {
+                item.putObject("body").putObject("error")
+                        .put("code", answer.errorCode())
+                        .put("message", "Stub error " + answer.status());
+            }
+        }
+        write(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    private static void write(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}